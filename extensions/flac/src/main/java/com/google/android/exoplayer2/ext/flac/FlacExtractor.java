@@ -21,6 +21,7 @@ import androidx.annotation.IntDef;
 import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.extractor.BinarySearchSeeker;
 import com.google.android.exoplayer2.extractor.BinarySearchSeeker.OutputFrameHolder;
 import com.google.android.exoplayer2.extractor.Extractor;
 import com.google.android.exoplayer2.extractor.ExtractorInput;
@@ -56,14 +57,14 @@ public final class FlacExtractor implements Extractor {
   public static final ExtractorsFactory FACTORY = () -> new Extractor[] {new FlacExtractor()};
 
   /**
-   * Flags controlling the behavior of the extractor. Possible flag value is {@link
-   * #FLAG_DISABLE_ID3_METADATA}.
+   * Flags controlling the behavior of the extractor. Possible flag values are {@link
+   * #FLAG_DISABLE_ID3_METADATA} and {@link #FLAG_ENABLE_PROBE_CACHING}.
    */
   @Documented
   @Retention(RetentionPolicy.SOURCE)
   @IntDef(
       flag = true,
-      value = {FLAG_DISABLE_ID3_METADATA})
+      value = {FLAG_DISABLE_ID3_METADATA, FLAG_ENABLE_PROBE_CACHING})
   public @interface Flags {}
 
   /**
@@ -71,6 +72,14 @@ public final class FlacExtractor implements Extractor {
    * required.
    */
   public static final int FLAG_DISABLE_ID3_METADATA = 1;
+  /**
+   * Flag to keep the timestamps found by the binary search used for seeking in streams without a
+   * seek table, and use them to narrow later searches so that they require fewer requests. See
+   * {@link BinarySearchSeeker#experimental_setProbeCachingEnabled(boolean)}. This flag is
+   * experimental, and will be renamed or removed in a future release.
+   */
+  // DefaultExtractorsFactory passes this value to the extractor it creates by reflection.
+  public static final int FLAG_ENABLE_PROBE_CACHING = 1 << 1;
 
   /** FLAC stream marker */
   private static final byte[] FLAC_STREAM_MARKER = {'f', 'L', 'a', 'C'};
@@ -78,6 +87,7 @@ public final class FlacExtractor implements Extractor {
   private final ParsableByteArray outputBuffer;
   private final Id3Peeker id3Peeker;
   private final boolean id3MetadataDisabled;
+  private final boolean probeCachingEnabled;
 
   @Nullable private FlacDecoderJni decoderJni;
   private @MonotonicNonNull ExtractorOutput extractorOutput;
@@ -104,6 +114,7 @@ public final class FlacExtractor implements Extractor {
     outputBuffer = new ParsableByteArray();
     id3Peeker = new Id3Peeker();
     id3MetadataDisabled = (flags & FLAG_DISABLE_ID3_METADATA) != 0;
+    probeCachingEnabled = (flags & FLAG_ENABLE_PROBE_CACHING) != 0;
   }
 
   @Override
@@ -224,7 +235,8 @@ public final class FlacExtractor implements Extractor {
     if (this.streamMetadata == null) {
       this.streamMetadata = streamMetadata;
       binarySearchSeeker =
-          outputSeekMap(decoderJni, streamMetadata, input.getLength(), extractorOutput);
+          outputSeekMap(
+              decoderJni, streamMetadata, input.getLength(), probeCachingEnabled, extractorOutput);
       Metadata metadata = id3MetadataDisabled ? null : id3Metadata;
       if (streamMetadata.metadata != null) {
         metadata = streamMetadata.metadata.copyWithAppendedEntriesFrom(metadata);
@@ -272,6 +284,7 @@ public final class FlacExtractor implements Extractor {
       FlacDecoderJni decoderJni,
       FlacStreamMetadata streamMetadata,
       long streamLength,
+      boolean probeCachingEnabled,
       ExtractorOutput output) {
     boolean haveSeekTable = decoderJni.getSeekPoints(/* timeUs= */ 0) != null;
     FlacBinarySearchSeeker binarySearchSeeker = null;
@@ -282,6 +295,7 @@ public final class FlacExtractor implements Extractor {
       long firstFramePosition = decoderJni.getDecodePosition();
       binarySearchSeeker =
           new FlacBinarySearchSeeker(streamMetadata, firstFramePosition, streamLength, decoderJni);
+      binarySearchSeeker.experimental_setProbeCachingEnabled(probeCachingEnabled);
       seekMap = binarySearchSeeker.getSeekMap();
     } else {
       seekMap = new SeekMap.Unseekable(streamMetadata.durationUs());
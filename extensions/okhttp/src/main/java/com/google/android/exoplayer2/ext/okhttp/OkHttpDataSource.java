@@ -36,6 +36,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 import okhttp3.CacheControl;
 import okhttp3.Call;
 import okhttp3.HttpUrl;
@@ -254,13 +255,25 @@ public class OkHttpDataSource extends BaseDataSource implements HttpDataSource {
     bytesToSkip = responseCode == 200 && dataSpec.position != 0 ? dataSpec.position : 0;
 
     // Determine the length of the data to be read, after skipping.
-    if (dataSpec.length != C.LENGTH_UNSET) {
+    boolean isCompressed = isCompressed(response);
+    if (dataSpec.length != C.LENGTH_UNSET || isCompressed) {
+      // If the server opts to use gzip then the content length in the response will be that of the
+      // compressed data, which isn't what we want. Always use the dataSpec length in this case.
       bytesToRead = dataSpec.length;
     } else {
       long contentLength = responseBody.contentLength();
       bytesToRead = contentLength != -1 ? (contentLength - bytesToSkip) : C.LENGTH_UNSET;
     }
 
+    if (isCompressed) {
+      try {
+        responseByteStream = new GZIPInputStream(responseBody.byteStream());
+      } catch (IOException e) {
+        closeConnectionQuietly();
+        throw new HttpDataSourceException(e, dataSpec, HttpDataSourceException.TYPE_OPEN);
+      }
+    }
+
     opened = true;
     transferStarted(dataSpec);
 
@@ -357,9 +370,11 @@ public class OkHttpDataSource extends BaseDataSource implements HttpDataSource {
     if (userAgent != null) {
       builder.addHeader("User-Agent", userAgent);
     }
-    if (!dataSpec.isFlagSet(DataSpec.FLAG_ALLOW_GZIP)) {
-      builder.addHeader("Accept-Encoding", "identity");
-    }
+    // Request gzip explicitly rather than relying on OkHttp's transparent decompression, which
+    // removes the Content-Encoding and Content-Length response headers. Keeping them allows the
+    // compressed size of the response to be determined from the response headers.
+    builder.addHeader(
+        "Accept-Encoding", dataSpec.isFlagSet(DataSpec.FLAG_ALLOW_GZIP) ? "gzip" : "identity");
 
     RequestBody requestBody = null;
     if (dataSpec.httpBody != null) {
@@ -450,4 +465,7 @@ public class OkHttpDataSource extends BaseDataSource implements HttpDataSource {
     responseByteStream = null;
   }
 
+  private static boolean isCompressed(Response response) {
+    return "gzip".equalsIgnoreCase(response.header("Content-Encoding"));
+  }
 }
@@ -19,11 +19,19 @@ package com.google.android.exoplayer2.ext.okhttp;
 import static com.google.common.truth.Truth.assertThat;
 
 import android.net.Uri;
+import androidx.annotation.Nullable;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.upstream.DataSpec;
 import com.google.android.exoplayer2.upstream.HttpDataSource;
+import com.google.android.exoplayer2.util.Util;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 import okhttp3.Call;
 import okhttp3.MediaType;
 import okhttp3.Protocol;
@@ -32,6 +40,7 @@ import okhttp3.Response;
 import okhttp3.ResponseBody;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 
@@ -125,4 +134,103 @@ public class OkHttpDataSourceTest {
         .newCall(ArgumentMatchers.any());
     okHttpDataSource.open(dataSpec);
   }
+
+  @Test
+  public void open_withoutAllowGzipFlag_requestsIdentityEncoding() throws Exception {
+    Call.Factory callFactory = createCallFactory(/* contentEncoding= */ null, new byte[0]);
+    OkHttpDataSource okHttpDataSource = new OkHttpDataSource(callFactory, "testAgent");
+
+    okHttpDataSource.open(new DataSpec(Uri.parse("http://www.google.com")));
+
+    assertThat(getRequest(callFactory).header("Accept-Encoding")).isEqualTo("identity");
+  }
+
+  @Test
+  public void open_withGzipResponse_decompressesDataAndKeepsResponseHeaders() throws Exception {
+    byte[] data = buildManifestData();
+    byte[] compressedData = gzip(data);
+    Call.Factory callFactory = createCallFactory("gzip", compressedData);
+    OkHttpDataSource okHttpDataSource = new OkHttpDataSource(callFactory, "testAgent");
+
+    long length =
+        okHttpDataSource.open(
+            new DataSpec(Uri.parse("http://www.google.com"), DataSpec.FLAG_ALLOW_GZIP));
+    byte[] readData = readToEnd(okHttpDataSource);
+
+    assertThat(getRequest(callFactory).header("Accept-Encoding")).isEqualTo("gzip");
+    assertThat(length).isEqualTo(C.LENGTH_UNSET);
+    assertThat(readData).isEqualTo(data);
+    Map<String, List<String>> responseHeaders = okHttpDataSource.getResponseHeaders();
+    assertThat(responseHeaders.get("content-encoding")).containsExactly("gzip");
+    List<String> contentLength = responseHeaders.get("content-length");
+    assertThat(contentLength).containsExactly(String.valueOf(compressedData.length));
+    // Fewer bytes are transferred than are read from the data source.
+    assertThat(Long.parseLong(contentLength.get(0))).isLessThan((long) readData.length);
+  }
+
+  private static Call.Factory createCallFactory(
+      @Nullable String contentEncoding, byte[] responseData) {
+    Call.Factory mockCallFactory = Mockito.mock(Call.Factory.class);
+    Mockito.doAnswer(
+            invocation -> {
+              Request request = invocation.getArgument(0);
+              Response.Builder responseBuilder =
+                  new Response.Builder()
+                      .request(request)
+                      .protocol(Protocol.HTTP_1_1)
+                      .code(200)
+                      .message("OK")
+                      .header("Content-Length", String.valueOf(responseData.length))
+                      .body(
+                          ResponseBody.create(
+                              MediaType.parse("application/vnd.apple.mpegurl"), responseData));
+              if (contentEncoding != null) {
+                responseBuilder.header("Content-Encoding", contentEncoding);
+              }
+              Call returnValue = Mockito.mock(Call.class);
+              Mockito.doReturn(responseBuilder.build()).when(returnValue).execute();
+              return returnValue;
+            })
+        .when(mockCallFactory)
+        .newCall(ArgumentMatchers.any());
+    return mockCallFactory;
+  }
+
+  private static Request getRequest(Call.Factory callFactory) {
+    ArgumentCaptor<Request> requestCaptor = ArgumentCaptor.forClass(Request.class);
+    Mockito.verify(callFactory).newCall(requestCaptor.capture());
+    return requestCaptor.getValue();
+  }
+
+  private static byte[] buildManifestData() {
+    StringBuilder playlist = new StringBuilder("#EXTM3U\n#EXT-X-TARGETDURATION:4\n");
+    for (int i = 0; i < 1000; i++) {
+      playlist.append("#EXTINF:4.000,\nhttps://example.com/segment").append(i).append(".ts\n");
+    }
+    return Util.getUtf8Bytes(playlist.toString());
+  }
+
+  private static byte[] gzip(byte[] data) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+      gzipOutputStream.write(data);
+    }
+    return outputStream.toByteArray();
+  }
+
+  private static byte[] readToEnd(OkHttpDataSource dataSource) throws IOException {
+    byte[] data = new byte[1024];
+    int position = 0;
+    int bytesRead = 0;
+    while (bytesRead != C.RESULT_END_OF_INPUT) {
+      if (position == data.length) {
+        data = Arrays.copyOf(data, data.length * 2);
+      }
+      bytesRead = dataSource.read(data, position, data.length - position);
+      if (bytesRead != C.RESULT_END_OF_INPUT) {
+        position += bytesRead;
+      }
+    }
+    return Arrays.copyOf(data, position);
+  }
 }
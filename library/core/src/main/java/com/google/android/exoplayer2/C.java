@@ -841,6 +841,22 @@ public final class C {
    */
   public static final int MSG_SET_VIDEO_DECODER_OUTPUT_BUFFER_RENDERER = 8;
 
+  /**
+   * A type of a message that can be passed to a {@link MediaCodec}-based video {@link Renderer} via
+   * {@link ExoPlayer#createMessage(Target)}. The message payload should be a {@link Boolean}
+   * indicating whether the renderer should only decode key frames, for example while the user is
+   * scrubbing through the media.
+   */
+  public static final int MSG_SET_KEY_FRAME_ONLY_DECODING = 9;
+
+  /**
+   * The type of a message that the player passes to each {@link Renderer} it enables. The message
+   * payload is a {@link Renderer.WakeupListener} that the renderer can use to ask the player to
+   * call {@link Renderer#render(long, long)} without waiting for the next scheduled call. This
+   * message is not intended to be sent by applications.
+   */
+  public static final int MSG_SET_WAKEUP_LISTENER = 10;
+
   /**
    * Applications or extensions may define custom {@code MSG_*} constants that can be passed to
    * {@link Renderer}s. These custom constants must be greater than or equal to this value.
@@ -1024,7 +1040,8 @@ public final class C {
    * #ROLE_FLAG_DUB}, {@link #ROLE_FLAG_EMERGENCY}, {@link #ROLE_FLAG_CAPTION}, {@link
    * #ROLE_FLAG_SUBTITLE}, {@link #ROLE_FLAG_SIGN}, {@link #ROLE_FLAG_DESCRIBES_VIDEO}, {@link
    * #ROLE_FLAG_DESCRIBES_MUSIC_AND_SOUND}, {@link #ROLE_FLAG_ENHANCED_DIALOG_INTELLIGIBILITY},
-   * {@link #ROLE_FLAG_TRANSCRIBES_DIALOG} and {@link #ROLE_FLAG_EASY_TO_READ}.
+   * {@link #ROLE_FLAG_TRANSCRIBES_DIALOG}, {@link #ROLE_FLAG_EASY_TO_READ} and {@link
+   * #ROLE_FLAG_TRICK_PLAY}.
    */
   @Documented
   @Retention(RetentionPolicy.SOURCE)
@@ -1044,7 +1061,8 @@ public final class C {
         ROLE_FLAG_DESCRIBES_MUSIC_AND_SOUND,
         ROLE_FLAG_ENHANCED_DIALOG_INTELLIGIBILITY,
         ROLE_FLAG_TRANSCRIBES_DIALOG,
-        ROLE_FLAG_EASY_TO_READ
+        ROLE_FLAG_EASY_TO_READ,
+        ROLE_FLAG_TRICK_PLAY
       })
   public @interface RoleFlags {}
   /** Indicates a main track. */
@@ -1090,6 +1108,11 @@ public final class C {
   public static final int ROLE_FLAG_TRANSCRIBES_DIALOG = 1 << 12;
   /** Indicates the track contains a text that has been edited for ease of reading. */
   public static final int ROLE_FLAG_EASY_TO_READ = 1 << 13;
+  /**
+   * Indicates the track is intended for trick play, for example a video track that only contains
+   * key frames. Such tracks are not selected by default.
+   */
+  public static final int ROLE_FLAG_TRICK_PLAY = 1 << 14;
 
   /**
    * Converts a time in microseconds to the corresponding time in milliseconds, preserving
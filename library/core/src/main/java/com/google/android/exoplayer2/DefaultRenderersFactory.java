@@ -26,8 +26,12 @@ import com.google.android.exoplayer2.audio.AudioProcessor;
 import com.google.android.exoplayer2.audio.AudioRendererEventListener;
 import com.google.android.exoplayer2.audio.DefaultAudioSink;
 import com.google.android.exoplayer2.audio.MediaCodecAudioRenderer;
+import com.google.android.exoplayer2.audio.SimpleDecoderAudioRenderer;
+import com.google.android.exoplayer2.decoder.SimpleDecoder;
 import com.google.android.exoplayer2.drm.DrmSessionManager;
 import com.google.android.exoplayer2.drm.FrameworkMediaCrypto;
+import com.google.android.exoplayer2.mediacodec.MediaCodecPool;
+import com.google.android.exoplayer2.mediacodec.MediaCodecRenderer;
 import com.google.android.exoplayer2.mediacodec.MediaCodecSelector;
 import com.google.android.exoplayer2.metadata.MetadataOutput;
 import com.google.android.exoplayer2.metadata.MetadataRenderer;
@@ -43,6 +47,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * Default {@link RenderersFactory} implementation.
@@ -92,6 +97,11 @@ public class DefaultRenderersFactory implements RenderersFactory {
   private long allowedVideoJoiningTimeMs;
   private boolean playClearSamplesWithoutKeys;
   private boolean enableDecoderFallback;
+  private boolean enableDynamicScheduling;
+  private boolean enableAsynchronousCodecCallbacks;
+  @Nullable private MediaCodecPool mediaCodecPool;
+  private float keyFrameOnlyDecodingSpeedThreshold;
+  @Nullable private Executor decodeExecutor;
   private MediaCodecSelector mediaCodecSelector;
 
   /** @param context A {@link Context}. */
@@ -99,6 +109,7 @@ public class DefaultRenderersFactory implements RenderersFactory {
     this.context = context;
     extensionRendererMode = EXTENSION_RENDERER_MODE_OFF;
     allowedVideoJoiningTimeMs = DEFAULT_ALLOWED_VIDEO_JOINING_TIME_MS;
+    keyFrameOnlyDecodingSpeedThreshold = Float.MAX_VALUE;
     mediaCodecSelector = MediaCodecSelector.DEFAULT;
   }
 
@@ -166,6 +177,7 @@ public class DefaultRenderersFactory implements RenderersFactory {
     this.extensionRendererMode = extensionRendererMode;
     this.allowedVideoJoiningTimeMs = allowedVideoJoiningTimeMs;
     this.drmSessionManager = drmSessionManager;
+    keyFrameOnlyDecodingSpeedThreshold = Float.MAX_VALUE;
     mediaCodecSelector = MediaCodecSelector.DEFAULT;
   }
 
@@ -217,6 +229,87 @@ public class DefaultRenderersFactory implements RenderersFactory {
     return this;
   }
 
+  /**
+   * Sets whether the {@link MediaCodecAudioRenderer} should report how long it can be left alone
+   * while its audio sink is full, which allows the player to wake up less often during audio-only
+   * playback. See {@link MediaCodecAudioRenderer#experimental_setDynamicSchedulingEnabled(boolean)}.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release.
+   *
+   * @param enableDynamicScheduling Whether to enable dynamic scheduling.
+   * @return This factory, for convenience.
+   */
+  public DefaultRenderersFactory experimental_setEnableDynamicScheduling(
+      boolean enableDynamicScheduling) {
+    this.enableDynamicScheduling = enableDynamicScheduling;
+    return this;
+  }
+
+  /**
+   * Sets whether {@link MediaCodec} based renderers should operate their codecs in asynchronous
+   * mode. See {@link MediaCodecRenderer#experimental_setAsynchronousCallbackEnabled(boolean)}.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release.
+   *
+   * @param enableAsynchronousCodecCallbacks Whether to enable asynchronous codec callbacks.
+   * @return This factory, for convenience.
+   */
+  public DefaultRenderersFactory experimental_setEnableAsynchronousCodecCallbacks(
+      boolean enableAsynchronousCodecCallbacks) {
+    this.enableAsynchronousCodecCallbacks = enableAsynchronousCodecCallbacks;
+    return this;
+  }
+
+  /**
+   * Sets a {@link MediaCodecPool} that {@link MediaCodec} based renderers obtain codecs from and
+   * return codecs to. Pass the same pool to the factories of players that are created one after
+   * the other to reduce their codec initialization latency. See {@link
+   * MediaCodecRenderer#experimental_setMediaCodecPool(MediaCodecPool)}.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release.
+   *
+   * @param mediaCodecPool The {@link MediaCodecPool}, or {@code null} to always release codecs.
+   * @return This factory, for convenience.
+   */
+  public DefaultRenderersFactory experimental_setMediaCodecPool(
+      @Nullable MediaCodecPool mediaCodecPool) {
+    this.mediaCodecPool = mediaCodecPool;
+    return this;
+  }
+
+  /**
+   * Sets the playback speed above which the {@link MediaCodecVideoRenderer} only decodes key
+   * frames. See {@link
+   * MediaCodecVideoRenderer#experimental_setKeyFrameOnlyDecodingSpeedThreshold(float)}.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release.
+   *
+   * @param speedThreshold The playback speed above which only key frames are decoded.
+   * @return This factory, for convenience.
+   */
+  public DefaultRenderersFactory experimental_setKeyFrameOnlyDecodingSpeedThreshold(
+      float speedThreshold) {
+    keyFrameOnlyDecodingSpeedThreshold = speedThreshold;
+    return this;
+  }
+
+  /**
+   * Sets an {@link Executor} on which the {@link SimpleDecoder SimpleDecoders} used by text
+   * renderers and extension audio renderers run their decode work, instead of each decoder using a
+   * thread of its own. A bounded thread pool shared by many players limits the number of decode
+   * threads they create.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release.
+   *
+   * @param decodeExecutor The {@link Executor} on which to run the decode work, or null to use a
+   *     thread per decoder.
+   * @return This factory, for convenience.
+   */
+  public DefaultRenderersFactory experimental_setDecodeExecutor(@Nullable Executor decodeExecutor) {
+    this.decodeExecutor = decodeExecutor;
+    return this;
+  }
+
   /**
    * Sets a {@link MediaCodecSelector} for use by {@link MediaCodec} based renderers.
    *
@@ -285,6 +378,9 @@ public class DefaultRenderersFactory implements RenderersFactory {
         extensionRendererMode, renderersList);
     buildCameraMotionRenderers(context, extensionRendererMode, renderersList);
     buildMiscellaneousRenderers(context, eventHandler, extensionRendererMode, renderersList);
+    for (Renderer renderer : renderersList) {
+      applyExperimentalOptions(renderer);
+    }
     return renderersList.toArray(new Renderer[0]);
   }
 
@@ -425,7 +521,7 @@ public class DefaultRenderersFactory implements RenderersFactory {
       Handler eventHandler,
       AudioRendererEventListener eventListener,
       ArrayList<Renderer> out) {
-    out.add(
+    MediaCodecAudioRenderer audioRenderer =
         new MediaCodecAudioRenderer(
             context,
             mediaCodecSelector,
@@ -434,7 +530,8 @@ public class DefaultRenderersFactory implements RenderersFactory {
             enableDecoderFallback,
             eventHandler,
             eventListener,
-            new DefaultAudioSink(AudioCapabilities.getCapabilities(context), audioProcessors)));
+            new DefaultAudioSink(AudioCapabilities.getCapabilities(context), audioProcessors));
+    out.add(audioRenderer);
 
     if (extensionRendererMode == EXTENSION_RENDERER_MODE_OFF) {
       return;
@@ -577,4 +674,30 @@ public class DefaultRenderersFactory implements RenderersFactory {
     return new AudioProcessor[0];
   }
 
+  /**
+   * Applies the options set with the {@code experimental_} methods of this factory to a renderer.
+   * Called for each renderer built by this factory, including those built by subclasses.
+   */
+  private void applyExperimentalOptions(Renderer renderer) {
+    if (renderer instanceof MediaCodecRenderer) {
+      MediaCodecRenderer mediaCodecRenderer = (MediaCodecRenderer) renderer;
+      if (enableAsynchronousCodecCallbacks) {
+        mediaCodecRenderer.experimental_setAsynchronousCallbackEnabled(true);
+      }
+      if (mediaCodecPool != null) {
+        mediaCodecRenderer.experimental_setMediaCodecPool(mediaCodecPool);
+      }
+    }
+    if (renderer instanceof MediaCodecVideoRenderer) {
+      ((MediaCodecVideoRenderer) renderer)
+          .experimental_setKeyFrameOnlyDecodingSpeedThreshold(keyFrameOnlyDecodingSpeedThreshold);
+    } else if (renderer instanceof MediaCodecAudioRenderer) {
+      ((MediaCodecAudioRenderer) renderer)
+          .experimental_setDynamicSchedulingEnabled(enableDynamicScheduling);
+    } else if (decodeExecutor != null && renderer instanceof TextRenderer) {
+      ((TextRenderer) renderer).experimental_setDecodeExecutor(decodeExecutor);
+    } else if (decodeExecutor != null && renderer instanceof SimpleDecoderAudioRenderer) {
+      ((SimpleDecoderAudioRenderer) renderer).experimental_setDecodeExecutor(decodeExecutor);
+    }
+  }
 }
@@ -139,6 +139,7 @@ public interface ExoPlayer extends Player {
     private LoadControl loadControl;
     private BandwidthMeter bandwidthMeter;
     private Looper looper;
+    @Nullable private Looper playbackLooper;
     private AnalyticsCollector analyticsCollector;
     private boolean useLazyPreparation;
     private boolean buildCalled;
@@ -264,6 +265,29 @@ public interface ExoPlayer extends Player {
       return this;
     }
 
+    /**
+     * Sets a {@link Looper} on which the player handles playback, instead of creating a playback
+     * thread of its own. Passing the same looper to several players lets them share one playback
+     * thread, which reduces the number of threads when many players play at the same time, for
+     * example for muted previews in a list. The work of each player is handled in the order in
+     * which it's due.
+     *
+     * <p>The looper must not be the application looper set with {@link #setLooper(Looper)}, because
+     * {@link Player#release()} blocks the application thread until the playback looper has handled
+     * the release, which would deadlock. The looper is not quit when the player is released.
+     *
+     * <p>This method is experimental, and will be renamed or removed in a future release.
+     *
+     * @param playbackLooper A {@link Looper} shared by the players.
+     * @return This builder.
+     * @throws IllegalStateException If {@link #build()} has already been called.
+     */
+    public Builder experimental_setPlaybackLooper(Looper playbackLooper) {
+      Assertions.checkState(!buildCalled);
+      this.playbackLooper = playbackLooper;
+      return this;
+    }
+
     /**
      * Sets the {@link AnalyticsCollector} that will collect and forward all player events.
      *
@@ -313,12 +337,15 @@ public interface ExoPlayer extends Player {
      * Builds an {@link ExoPlayer} instance.
      *
      * @throws IllegalStateException If {@link #build()} has already been called.
+     * @throws IllegalArgumentException If the playback looper set with {@link
+     *     #experimental_setPlaybackLooper(Looper)} is the application looper.
      */
     public ExoPlayer build() {
       Assertions.checkState(!buildCalled);
+      Assertions.checkArgument(playbackLooper != looper);
       buildCalled = true;
       return new ExoPlayerImpl(
-          renderers, trackSelector, loadControl, bandwidthMeter, clock, looper);
+          renderers, trackSelector, loadControl, bandwidthMeter, clock, looper, playbackLooper);
     }
   }
 
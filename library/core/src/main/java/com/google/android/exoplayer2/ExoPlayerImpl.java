@@ -36,6 +36,7 @@ import com.google.android.exoplayer2.util.Log;
 import com.google.android.exoplayer2.util.Util;
 import java.util.ArrayDeque;
 import java.util.concurrent.CopyOnWriteArrayList;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 
 /**
  * An {@link ExoPlayer} implementation. Instances can be obtained from {@link ExoPlayer.Builder}.
@@ -61,6 +62,10 @@ import java.util.concurrent.CopyOnWriteArrayList;
   private final CopyOnWriteArrayList<ListenerHolder> listeners;
   private final Timeline.Period period;
   private final ArrayDeque<Runnable> pendingListenerNotifications;
+  private final PlaybackInfoUpdate reusablePlaybackInfoUpdate;
+
+  private ListenerHolder[] listenerSnapshot;
+  private boolean isNotifyingListeners;
 
   private MediaSource mediaSource;
   private boolean playWhenReady;
@@ -93,6 +98,8 @@ import java.util.concurrent.CopyOnWriteArrayList;
    * @param clock The {@link Clock} that will be used by the instance.
    * @param looper The {@link Looper} which must be used for all calls to the player and which is
    *     used to call listeners on.
+   * @param playbackLooper A {@link Looper} that is shared with other players and on which playback
+   *     is handled, or {@code null} if the instance should create its own playback thread.
    */
   @SuppressLint("HandlerLeak")
   public ExoPlayerImpl(
@@ -101,7 +108,8 @@ import java.util.concurrent.CopyOnWriteArrayList;
       LoadControl loadControl,
       BandwidthMeter bandwidthMeter,
       Clock clock,
-      Looper looper) {
+      Looper looper,
+      @Nullable Looper playbackLooper) {
     Log.i(TAG, "Init " + Integer.toHexString(System.identityHashCode(this)) + " ["
         + ExoPlayerLibraryInfo.VERSION_SLASHY + "] [" + Util.DEVICE_DEBUG_INFO + "]");
     Assertions.checkState(renderers.length > 0);
@@ -111,6 +119,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
     this.repeatMode = Player.REPEAT_MODE_OFF;
     this.shuffleModeEnabled = false;
     this.listeners = new CopyOnWriteArrayList<>();
+    listenerSnapshot = new ListenerHolder[0];
     emptyTrackSelectorResult =
         new TrackSelectorResult(
             new RendererConfiguration[renderers.length],
@@ -129,6 +138,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
         };
     playbackInfo = PlaybackInfo.createDummy(/* startPositionUs= */ 0, emptyTrackSelectorResult);
     pendingListenerNotifications = new ArrayDeque<>();
+    reusablePlaybackInfoUpdate = new PlaybackInfoUpdate();
     internalPlayer =
         new ExoPlayerImplInternal(
             renderers,
@@ -140,7 +150,8 @@ import java.util.concurrent.CopyOnWriteArrayList;
             repeatMode,
             shuffleModeEnabled,
             eventHandler,
-            clock);
+            clock,
+            playbackLooper);
     internalPlayerHandler = new Handler(internalPlayer.getPlaybackLooper());
   }
 
@@ -180,7 +191,9 @@ import java.util.concurrent.CopyOnWriteArrayList;
 
   @Override
   public void addListener(Player.EventListener listener) {
-    listeners.addIfAbsent(new ListenerHolder(listener));
+    if (listeners.addIfAbsent(new ListenerHolder(listener))) {
+      updateListenerSnapshot();
+    }
   }
 
   @Override
@@ -189,6 +202,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
       if (listenerHolder.listener.equals(listener)) {
         listenerHolder.release();
         listeners.remove(listenerHolder);
+        updateListenerSnapshot();
       }
     }
   }
@@ -707,35 +721,54 @@ import java.util.concurrent.CopyOnWriteArrayList;
     PlaybackInfo previousPlaybackInfo = this.playbackInfo;
     this.playbackInfo = playbackInfo;
     boolean isPlaying = isPlaying();
-    notifyListeners(
-        new PlaybackInfoUpdate(
-            playbackInfo,
-            previousPlaybackInfo,
-            listeners,
-            trackSelector,
-            positionDiscontinuity,
-            positionDiscontinuityReason,
-            timelineChangeReason,
-            seekProcessed,
-            playWhenReady,
-            /* isPlayingChanged= */ previousIsPlaying != isPlaying));
+    // The reusable update can only be used if it's run immediately rather than queued behind a
+    // listener notification that is in progress.
+    PlaybackInfoUpdate playbackInfoUpdate =
+        isNotifyingListeners ? new PlaybackInfoUpdate() : reusablePlaybackInfoUpdate;
+    playbackInfoUpdate.set(
+        playbackInfo,
+        previousPlaybackInfo,
+        listenerSnapshot,
+        trackSelector,
+        positionDiscontinuity,
+        positionDiscontinuityReason,
+        timelineChangeReason,
+        seekProcessed,
+        playWhenReady,
+        /* isPlayingChanged= */ previousIsPlaying != isPlaying);
+    notifyListeners(playbackInfoUpdate);
+  }
+
+  private void updateListenerSnapshot() {
+    listenerSnapshot = listeners.toArray(new ListenerHolder[0]);
   }
 
   private void notifyListeners(ListenerInvocation listenerInvocation) {
-    CopyOnWriteArrayList<ListenerHolder> listenerSnapshot = new CopyOnWriteArrayList<>(listeners);
-    notifyListeners(() -> invokeAll(listenerSnapshot, listenerInvocation));
+    ListenerHolder[] listenerSnapshot = this.listenerSnapshot;
+    if (isNotifyingListeners) {
+      pendingListenerNotifications.addLast(() -> invokeAll(listenerSnapshot, listenerInvocation));
+      return;
+    }
+    isNotifyingListeners = true;
+    invokeAll(listenerSnapshot, listenerInvocation);
+    runPendingListenerNotifications();
   }
 
   private void notifyListeners(Runnable listenerNotificationRunnable) {
-    boolean isRunningRecursiveListenerNotification = !pendingListenerNotifications.isEmpty();
-    pendingListenerNotifications.addLast(listenerNotificationRunnable);
-    if (isRunningRecursiveListenerNotification) {
+    if (isNotifyingListeners) {
+      pendingListenerNotifications.addLast(listenerNotificationRunnable);
       return;
     }
+    isNotifyingListeners = true;
+    listenerNotificationRunnable.run();
+    runPendingListenerNotifications();
+  }
+
+  private void runPendingListenerNotifications() {
     while (!pendingListenerNotifications.isEmpty()) {
-      pendingListenerNotifications.peekFirst().run();
-      pendingListenerNotifications.removeFirst();
+      pendingListenerNotifications.removeFirst().run();
     }
+    isNotifyingListeners = false;
   }
 
   private long periodPositionUsToWindowPositionMs(MediaPeriodId periodId, long positionUs) {
@@ -751,25 +784,40 @@ import java.util.concurrent.CopyOnWriteArrayList;
 
   private static final class PlaybackInfoUpdate implements Runnable {
 
-    private final PlaybackInfo playbackInfo;
-    private final CopyOnWriteArrayList<ListenerHolder> listenerSnapshot;
-    private final TrackSelector trackSelector;
-    private final boolean positionDiscontinuity;
-    private final @Player.DiscontinuityReason int positionDiscontinuityReason;
-    private final @Player.TimelineChangeReason int timelineChangeReason;
-    private final boolean seekProcessed;
-    private final boolean playbackStateChanged;
-    private final boolean playbackErrorChanged;
-    private final boolean timelineChanged;
-    private final boolean isLoadingChanged;
-    private final boolean trackSelectorResultChanged;
-    private final boolean playWhenReady;
-    private final boolean isPlayingChanged;
-
-    public PlaybackInfoUpdate(
+    private static final int EVENT_TIMELINE_CHANGED = 0;
+    private static final int EVENT_POSITION_DISCONTINUITY = 1;
+    private static final int EVENT_PLAYER_ERROR = 2;
+    private static final int EVENT_TRACKS_CHANGED = 3;
+    private static final int EVENT_LOADING_CHANGED = 4;
+    private static final int EVENT_PLAYER_STATE_CHANGED = 5;
+    private static final int EVENT_IS_PLAYING_CHANGED = 6;
+    private static final int EVENT_SEEK_PROCESSED = 7;
+
+    @MonotonicNonNull private PlaybackInfo playbackInfo;
+    @MonotonicNonNull private ListenerHolder[] listenerSnapshot;
+    @MonotonicNonNull private TrackSelector trackSelector;
+    private boolean positionDiscontinuity;
+    private @Player.DiscontinuityReason int positionDiscontinuityReason;
+    private @Player.TimelineChangeReason int timelineChangeReason;
+    private boolean seekProcessed;
+    private boolean playbackStateChanged;
+    private boolean playbackErrorChanged;
+    private boolean timelineChanged;
+    private boolean isLoadingChanged;
+    private boolean trackSelectorResultChanged;
+    private boolean playWhenReady;
+    private boolean isPlayingChanged;
+    private final ListenerInvocation eventInvocation;
+    private int event;
+
+    public PlaybackInfoUpdate() {
+      eventInvocation = this::invokeListener;
+    }
+
+    public void set(
         PlaybackInfo playbackInfo,
         PlaybackInfo previousPlaybackInfo,
-        CopyOnWriteArrayList<ListenerHolder> listeners,
+        ListenerHolder[] listenerSnapshot,
         TrackSelector trackSelector,
         boolean positionDiscontinuity,
         @DiscontinuityReason int positionDiscontinuityReason,
@@ -778,7 +826,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
         boolean playWhenReady,
         boolean isPlayingChanged) {
       this.playbackInfo = playbackInfo;
-      this.listenerSnapshot = new CopyOnWriteArrayList<>(listeners);
+      this.listenerSnapshot = listenerSnapshot;
       this.trackSelector = trackSelector;
       this.positionDiscontinuity = positionDiscontinuity;
       this.positionDiscontinuityReason = positionDiscontinuityReason;
@@ -799,48 +847,73 @@ import java.util.concurrent.CopyOnWriteArrayList;
     @Override
     public void run() {
       if (timelineChanged || timelineChangeReason == TIMELINE_CHANGE_REASON_PREPARED) {
-        invokeAll(
-            listenerSnapshot,
-            listener -> listener.onTimelineChanged(playbackInfo.timeline, timelineChangeReason));
+        invokeAll(EVENT_TIMELINE_CHANGED);
       }
       if (positionDiscontinuity) {
-        invokeAll(
-            listenerSnapshot,
-            listener -> listener.onPositionDiscontinuity(positionDiscontinuityReason));
+        invokeAll(EVENT_POSITION_DISCONTINUITY);
       }
       if (playbackErrorChanged) {
-        invokeAll(listenerSnapshot, listener -> listener.onPlayerError(playbackInfo.playbackError));
+        invokeAll(EVENT_PLAYER_ERROR);
       }
       if (trackSelectorResultChanged) {
         trackSelector.onSelectionActivated(playbackInfo.trackSelectorResult.info);
-        invokeAll(
-            listenerSnapshot,
-            listener ->
-                listener.onTracksChanged(
-                    playbackInfo.trackGroups, playbackInfo.trackSelectorResult.selections));
+        invokeAll(EVENT_TRACKS_CHANGED);
       }
       if (isLoadingChanged) {
-        invokeAll(listenerSnapshot, listener -> listener.onLoadingChanged(playbackInfo.isLoading));
+        invokeAll(EVENT_LOADING_CHANGED);
       }
       if (playbackStateChanged) {
-        invokeAll(
-            listenerSnapshot,
-            listener -> listener.onPlayerStateChanged(playWhenReady, playbackInfo.playbackState));
+        invokeAll(EVENT_PLAYER_STATE_CHANGED);
       }
       if (isPlayingChanged) {
-        invokeAll(
-            listenerSnapshot,
-            listener ->
-                listener.onIsPlayingChanged(playbackInfo.playbackState == Player.STATE_READY));
+        invokeAll(EVENT_IS_PLAYING_CHANGED);
       }
       if (seekProcessed) {
-        invokeAll(listenerSnapshot, EventListener::onSeekProcessed);
+        invokeAll(EVENT_SEEK_PROCESSED);
+      }
+    }
+
+    // Dispatching on the current event rather than using a lambda per event avoids allocations.
+    private void invokeListener(EventListener listener) {
+      switch (event) {
+        case EVENT_TIMELINE_CHANGED:
+          listener.onTimelineChanged(playbackInfo.timeline, timelineChangeReason);
+          break;
+        case EVENT_POSITION_DISCONTINUITY:
+          listener.onPositionDiscontinuity(positionDiscontinuityReason);
+          break;
+        case EVENT_PLAYER_ERROR:
+          listener.onPlayerError(playbackInfo.playbackError);
+          break;
+        case EVENT_TRACKS_CHANGED:
+          listener.onTracksChanged(
+              playbackInfo.trackGroups, playbackInfo.trackSelectorResult.selections);
+          break;
+        case EVENT_LOADING_CHANGED:
+          listener.onLoadingChanged(playbackInfo.isLoading);
+          break;
+        case EVENT_PLAYER_STATE_CHANGED:
+          listener.onPlayerStateChanged(playWhenReady, playbackInfo.playbackState);
+          break;
+        case EVENT_IS_PLAYING_CHANGED:
+          listener.onIsPlayingChanged(playbackInfo.playbackState == Player.STATE_READY);
+          break;
+        case EVENT_SEEK_PROCESSED:
+          listener.onSeekProcessed();
+          break;
+        default:
+          throw new IllegalStateException();
       }
     }
+
+    private void invokeAll(int event) {
+      this.event = event;
+      ExoPlayerImpl.invokeAll(listenerSnapshot, eventInvocation);
+    }
   }
 
   private static void invokeAll(
-      CopyOnWriteArrayList<ListenerHolder> listeners, ListenerInvocation listenerInvocation) {
+      ListenerHolder[] listeners, ListenerInvocation listenerInvocation) {
     for (ListenerHolder listenerHolder : listeners) {
       listenerHolder.invoke(listenerInvocation);
     }
@@ -53,7 +53,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
         TrackSelector.InvalidationListener,
         MediaSourceCaller,
         PlaybackParameterListener,
-        PlayerMessage.Sender {
+        PlayerMessage.Sender,
+        Renderer.WakeupListener {
 
   private static final String TAG = "ExoPlayerImplInternal";
 
@@ -81,7 +82,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
   private static final int MSG_SEND_MESSAGE_TO_TARGET_THREAD = 16;
   private static final int MSG_PLAYBACK_PARAMETERS_CHANGED_INTERNAL = 17;
 
-  private static final int ACTIVE_INTERVAL_MS = 10;
+  private static final int ACTIVE_INTERVAL_MS =
+      (int) C.usToMs(Renderer.DEFAULT_DURATION_TO_PROGRESS_US);
   private static final int IDLE_INTERVAL_MS = 1000;
 
   private final Renderer[] renderers;
@@ -91,7 +93,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
   private final LoadControl loadControl;
   private final BandwidthMeter bandwidthMeter;
   private final HandlerWrapper handler;
-  private final HandlerThread internalPlaybackThread;
+  @Nullable private final HandlerThread internalPlaybackThread;
+  private final Looper playbackLooper;
   private final Handler eventHandler;
   private final Timeline.Window window;
   private final Timeline.Period period;
@@ -133,7 +136,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
       @Player.RepeatMode int repeatMode,
       boolean shuffleModeEnabled,
       Handler eventHandler,
-      Clock clock) {
+      Clock clock,
+      @Nullable Looper playbackLooper) {
     this.renderers = renderers;
     this.trackSelector = trackSelector;
     this.emptyTrackSelectorResult = emptyTrackSelectorResult;
@@ -165,12 +169,20 @@ import java.util.concurrent.atomic.AtomicBoolean;
     period = new Timeline.Period();
     trackSelector.init(/* listener= */ this, bandwidthMeter);
 
-    // Note: The documentation for Process.THREAD_PRIORITY_AUDIO that states "Applications can
-    // not normally change to this priority" is incorrect.
-    internalPlaybackThread =
-        new HandlerThread("ExoPlayerImplInternal:Handler", Process.THREAD_PRIORITY_AUDIO);
-    internalPlaybackThread.start();
-    handler = clock.createHandler(internalPlaybackThread.getLooper(), this);
+    if (playbackLooper != null) {
+      // The looper is shared with other players, whose messages are handled in the order in which
+      // they are due, and must not be quit when this player is released.
+      internalPlaybackThread = null;
+      this.playbackLooper = playbackLooper;
+    } else {
+      // Note: The documentation for Process.THREAD_PRIORITY_AUDIO that states "Applications can
+      // not normally change to this priority" is incorrect.
+      internalPlaybackThread =
+          new HandlerThread("ExoPlayerImplInternal:Handler", Process.THREAD_PRIORITY_AUDIO);
+      internalPlaybackThread.start();
+      this.playbackLooper = internalPlaybackThread.getLooper();
+    }
+    handler = clock.createHandler(this.playbackLooper, this);
     deliverPendingMessageAtStartPositionRequired = true;
   }
 
@@ -212,7 +224,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
   @Override
   public synchronized void sendMessage(PlayerMessage message) {
-    if (released || !internalPlaybackThread.isAlive()) {
+    if (released || !playbackLooper.getThread().isAlive()) {
       Log.w(TAG, "Ignoring messages sent after release.");
       message.markAsProcessed(/* isDelivered= */ false);
       return;
@@ -221,7 +233,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
   }
 
   public synchronized void setForegroundMode(boolean foregroundMode) {
-    if (released || !internalPlaybackThread.isAlive()) {
+    if (released || !playbackLooper.getThread().isAlive()) {
       return;
     }
     if (foregroundMode) {
@@ -247,7 +259,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
   }
 
   public synchronized void release() {
-    if (released || !internalPlaybackThread.isAlive()) {
+    if (released || !playbackLooper.getThread().isAlive()) {
       return;
     }
     handler.sendEmptyMessage(MSG_RELEASE);
@@ -266,7 +278,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
   }
 
   public Looper getPlaybackLooper() {
-    return internalPlaybackThread.getLooper();
+    return playbackLooper;
   }
 
   // MediaSource.MediaSourceCaller implementation.
@@ -304,10 +316,22 @@ import java.util.concurrent.atomic.AtomicBoolean;
     sendPlaybackParametersChangedInternal(playbackParameters, /* acknowledgeCommand= */ false);
   }
 
+  // Renderer.WakeupListener implementation.
+
+  @Override
+  public void onWakeup() {
+    // doSomeWork reschedules itself, replacing the work that's already scheduled.
+    handler.sendEmptyMessage(MSG_DO_SOME_WORK);
+  }
+
   // Handler.Callback implementation.
 
   @Override
   public boolean handleMessage(Message msg) {
+    if (released) {
+      // Messages may still arrive from media sources if the playback looper is shared.
+      return true;
+    }
     try {
       switch (msg.what) {
         case MSG_PREPARE:
@@ -584,6 +608,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
     boolean renderersEnded = true;
     boolean renderersAllowPlayback = true;
+    // The minimum duration to progress of the enabled renderers, or C.TIME_UNSET if none is enabled.
+    long renderersDurationToProgressUs = C.TIME_UNSET;
     if (playingPeriodHolder.prepared) {
       long rendererPositionElapsedRealtimeUs = SystemClock.elapsedRealtime() * 1000;
       playingPeriodHolder.mediaPeriod.discardBuffer(
@@ -593,10 +619,16 @@ import java.util.concurrent.atomic.AtomicBoolean;
         if (renderer.getState() == Renderer.STATE_DISABLED) {
           continue;
         }
-        // TODO: Each renderer should return the maximum delay before which it wishes to be called
-        // again. The minimum of these values should then be used as the delay before the next
-        // invocation of this method.
         renderer.render(rendererPositionUs, rendererPositionElapsedRealtimeUs);
+        long durationToProgressUs =
+            renderer.getState() == Renderer.STATE_STARTED
+                ? renderer.getDurationToProgressUs(
+                    rendererPositionUs, rendererPositionElapsedRealtimeUs)
+                : Renderer.DEFAULT_DURATION_TO_PROGRESS_US;
+        renderersDurationToProgressUs =
+            renderersDurationToProgressUs == C.TIME_UNSET
+                ? durationToProgressUs
+                : Math.min(renderersDurationToProgressUs, durationToProgressUs);
         renderersEnded = renderersEnded && renderer.isEnded();
         // Determine whether the renderer allows playback to continue. Playback can continue if the
         // renderer is ready or ended. Also continue playback if the renderer is reading ahead into
@@ -646,8 +678,16 @@ import java.util.concurrent.atomic.AtomicBoolean;
       }
     }
 
-    if ((playWhenReady && playbackInfo.playbackState == Player.STATE_READY)
-        || playbackInfo.playbackState == Player.STATE_BUFFERING) {
+    if (playWhenReady && playbackInfo.playbackState == Player.STATE_READY) {
+      // Only wake up as often as the started renderers need to make progress. Without renderers,
+      // keep the default interval to update the playback position.
+      long intervalMs =
+          renderersDurationToProgressUs == C.TIME_UNSET
+              ? ACTIVE_INTERVAL_MS
+              : Util.constrainValue(
+                  renderersDurationToProgressUs / 1000, ACTIVE_INTERVAL_MS, IDLE_INTERVAL_MS);
+      scheduleNextWork(operationStartTimeMs, intervalMs);
+    } else if (playbackInfo.playbackState == Player.STATE_BUFFERING) {
       scheduleNextWork(operationStartTimeMs, ACTIVE_INTERVAL_MS);
     } else if (enabledRenderers.length != 0 && playbackInfo.playbackState != Player.STATE_ENDED) {
       scheduleNextWork(operationStartTimeMs, IDLE_INTERVAL_MS);
@@ -869,7 +909,12 @@ import java.util.concurrent.atomic.AtomicBoolean;
         /* resetError= */ false);
     loadControl.onReleased();
     setState(Player.STATE_IDLE);
-    internalPlaybackThread.quit();
+    if (internalPlaybackThread != null) {
+      internalPlaybackThread.quit();
+    } else {
+      // Drop messages that are still pending on the shared looper.
+      handler.removeCallbacksAndMessages(/* token= */ null);
+    }
     synchronized (this) {
       released = true;
       notifyAll();
@@ -1876,6 +1921,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
           rendererPositionUs,
           joining,
           playingPeriodHolder.getRendererOffset());
+      renderer.handleMessage(C.MSG_SET_WAKEUP_LISTENER, /* message= */ this);
       mediaClock.onRendererEnabled(renderer);
       // Start the renderer if playing.
       if (playing) {
@@ -62,6 +62,23 @@ public interface Renderer extends PlayerMessage.Target {
    */
   int STATE_STARTED = 2;
 
+  /** Listener through which a renderer asks the player to render again. */
+  interface WakeupListener {
+
+    /**
+     * Called when the renderer can make progress before the next scheduled call to {@link
+     * #render(long, long)}, for example because its decoder has output a buffer. The player then
+     * calls {@link #render(long, long)} as soon as possible. May be called from any thread.
+     */
+    void onWakeup();
+  }
+
+  /**
+   * Default value returned by {@link #getDurationToProgressUs(long, long)}. The player calls {@link
+   * #render(long, long)} at this interval while playing if no renderer asks for a longer one.
+   */
+  long DEFAULT_DURATION_TO_PROGRESS_US = 10_000;
+
   /**
    * Returns the track type that the {@link Renderer} handles. For example, a video renderer will
    * return {@link C#TRACK_TYPE_VIDEO}, an audio renderer will return {@link C#TRACK_TYPE_AUDIO}, a
@@ -247,6 +264,28 @@ public interface Renderer extends PlayerMessage.Target {
    */
   void render(long positionUs, long elapsedRealtimeUs) throws ExoPlaybackException;
 
+  /**
+   * Returns the duration for which the renderer can be left alone without {@link #render(long,
+   * long)} being called, without this affecting playback. The player uses the minimum of the
+   * values returned by its started renderers to decide when to call {@link #render(long, long)}
+   * next while playing, so that it doesn't wake up more often than necessary.
+   *
+   * <p>The returned value is only a hint. {@link #render(long, long)} may be called earlier, for
+   * example when the playback state changes.
+   *
+   * <p>This method may be called when the renderer is in the {@link #STATE_STARTED} state.
+   *
+   * @param positionUs The current media time in microseconds, as passed to the last call to {@link
+   *     #render(long, long)}.
+   * @param elapsedRealtimeUs {@link android.os.SystemClock#elapsedRealtime()} in microseconds, as
+   *     passed to the last call to {@link #render(long, long)}.
+   * @return The duration in microseconds after which {@link #render(long, long)} should be called
+   *     again.
+   */
+  default long getDurationToProgressUs(long positionUs, long elapsedRealtimeUs) {
+    return DEFAULT_DURATION_TO_PROGRESS_US;
+  }
+
   /**
    * Whether the renderer is able to immediately render media from the current position.
    * <p>
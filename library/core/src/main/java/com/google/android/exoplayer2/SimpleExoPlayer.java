@@ -95,6 +95,7 @@ public class SimpleExoPlayer extends BasePlayer
     private BandwidthMeter bandwidthMeter;
     private AnalyticsCollector analyticsCollector;
     private Looper looper;
+    @Nullable private Looper playbackLooper;
     private boolean useLazyPreparation;
     private boolean buildCalled;
 
@@ -240,6 +241,29 @@ public class SimpleExoPlayer extends BasePlayer
       return this;
     }
 
+    /**
+     * Sets a {@link Looper} on which the player handles playback, instead of creating a playback
+     * thread of its own. Passing the same looper to several players lets them share one playback
+     * thread, which reduces the number of threads when many players play at the same time, for
+     * example for muted previews in a list. The work of each player is handled in the order in
+     * which it's due.
+     *
+     * <p>The looper must not be the application looper set with {@link #setLooper(Looper)}, because
+     * {@link Player#release()} blocks the application thread until the playback looper has handled
+     * the release, which would deadlock. The looper is not quit when the player is released.
+     *
+     * <p>This method is experimental, and will be renamed or removed in a future release.
+     *
+     * @param playbackLooper A {@link Looper} shared by the players.
+     * @return This builder.
+     * @throws IllegalStateException If {@link #build()} has already been called.
+     */
+    public Builder experimental_setPlaybackLooper(Looper playbackLooper) {
+      Assertions.checkState(!buildCalled);
+      this.playbackLooper = playbackLooper;
+      return this;
+    }
+
     /**
      * Sets the {@link AnalyticsCollector} that will collect and forward all player events.
      *
@@ -289,9 +313,12 @@ public class SimpleExoPlayer extends BasePlayer
      * Builds a {@link SimpleExoPlayer} instance.
      *
      * @throws IllegalStateException If {@link #build()} has already been called.
+     * @throws IllegalArgumentException If the playback looper set with {@link
+     *     #experimental_setPlaybackLooper(Looper)} is the application looper.
      */
     public SimpleExoPlayer build() {
       Assertions.checkState(!buildCalled);
+      Assertions.checkArgument(playbackLooper != looper);
       buildCalled = true;
       return new SimpleExoPlayer(
           context,
@@ -301,7 +328,8 @@ public class SimpleExoPlayer extends BasePlayer
           bandwidthMeter,
           analyticsCollector,
           clock,
-          looper);
+          looper,
+          playbackLooper);
     }
   }
 
@@ -374,6 +402,43 @@ public class SimpleExoPlayer extends BasePlayer
       AnalyticsCollector analyticsCollector,
       Clock clock,
       Looper looper) {
+    this(
+        context,
+        renderersFactory,
+        trackSelector,
+        loadControl,
+        bandwidthMeter,
+        analyticsCollector,
+        clock,
+        looper,
+        /* playbackLooper= */ null);
+  }
+
+  /**
+   * @param context A {@link Context}.
+   * @param renderersFactory A factory for creating {@link Renderer}s to be used by the instance.
+   * @param trackSelector The {@link TrackSelector} that will be used by the instance.
+   * @param loadControl The {@link LoadControl} that will be used by the instance.
+   * @param bandwidthMeter The {@link BandwidthMeter} that will be used by the instance.
+   * @param analyticsCollector A factory for creating the {@link AnalyticsCollector} that will
+   *     collect and forward all player events.
+   * @param clock The {@link Clock} that will be used by the instance. Should always be {@link
+   *     Clock#DEFAULT}, unless the player is being used from a test.
+   * @param looper The {@link Looper} which must be used for all calls to the player and which is
+   *     used to call listeners on.
+   * @param playbackLooper A {@link Looper} that is shared with other players and on which playback
+   *     is handled, or {@code null} if the instance should create its own playback thread.
+   */
+  protected SimpleExoPlayer(
+      Context context,
+      RenderersFactory renderersFactory,
+      TrackSelector trackSelector,
+      LoadControl loadControl,
+      BandwidthMeter bandwidthMeter,
+      AnalyticsCollector analyticsCollector,
+      Clock clock,
+      Looper looper,
+      @Nullable Looper playbackLooper) {
     this(
         context,
         renderersFactory,
@@ -383,7 +448,8 @@ public class SimpleExoPlayer extends BasePlayer
         bandwidthMeter,
         analyticsCollector,
         clock,
-        looper);
+        looper,
+        playbackLooper);
   }
 
   /**
@@ -415,6 +481,30 @@ public class SimpleExoPlayer extends BasePlayer
       AnalyticsCollector analyticsCollector,
       Clock clock,
       Looper looper) {
+    this(
+        context,
+        renderersFactory,
+        trackSelector,
+        loadControl,
+        drmSessionManager,
+        bandwidthMeter,
+        analyticsCollector,
+        clock,
+        looper,
+        /* playbackLooper= */ null);
+  }
+
+  private SimpleExoPlayer(
+      Context context,
+      RenderersFactory renderersFactory,
+      TrackSelector trackSelector,
+      LoadControl loadControl,
+      @Nullable DrmSessionManager<FrameworkMediaCrypto> drmSessionManager,
+      BandwidthMeter bandwidthMeter,
+      AnalyticsCollector analyticsCollector,
+      Clock clock,
+      Looper looper,
+      @Nullable Looper playbackLooper) {
     this.bandwidthMeter = bandwidthMeter;
     this.analyticsCollector = analyticsCollector;
     componentListener = new ComponentListener();
@@ -443,7 +533,8 @@ public class SimpleExoPlayer extends BasePlayer
 
     // Build the player and associated objects.
     player =
-        new ExoPlayerImpl(renderers, trackSelector, loadControl, bandwidthMeter, clock, looper);
+        new ExoPlayerImpl(
+            renderers, trackSelector, loadControl, bandwidthMeter, clock, looper, playbackLooper);
     analyticsCollector.setPlayer(player);
     addListener(analyticsCollector);
     addListener(componentListener);
@@ -15,6 +15,15 @@
  */
 package com.google.android.exoplayer2.analytics;
 
+import static com.google.android.exoplayer2.analytics.AnalyticsListener.EVENT_TYPE_AUDIO;
+import static com.google.android.exoplayer2.analytics.AnalyticsListener.EVENT_TYPE_BANDWIDTH;
+import static com.google.android.exoplayer2.analytics.AnalyticsListener.EVENT_TYPE_DRM;
+import static com.google.android.exoplayer2.analytics.AnalyticsListener.EVENT_TYPE_LOAD;
+import static com.google.android.exoplayer2.analytics.AnalyticsListener.EVENT_TYPE_MEDIA_PERIOD;
+import static com.google.android.exoplayer2.analytics.AnalyticsListener.EVENT_TYPE_METADATA;
+import static com.google.android.exoplayer2.analytics.AnalyticsListener.EVENT_TYPE_PLAYER;
+import static com.google.android.exoplayer2.analytics.AnalyticsListener.EVENT_TYPE_VIDEO;
+
 import android.view.Surface;
 import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.C;
@@ -68,7 +77,12 @@ public class AnalyticsCollector
         VideoListener,
         AudioListener {
 
+  /** The number of {@link AnalyticsListener.EventTypes} flags. */
+  private static final int EVENT_TYPE_COUNT = 8;
+
   private final CopyOnWriteArraySet<AnalyticsListener> listeners;
+  /** The listeners interested in each event type, indexed by the position of its flag. */
+  private final AnalyticsListener[][] listenersByEventType;
   private final Clock clock;
   private final Window window;
   private final MediaPeriodQueueTracker mediaPeriodQueueTracker;
@@ -83,6 +97,8 @@ public class AnalyticsCollector
   public AnalyticsCollector(Clock clock) {
     this.clock = Assertions.checkNotNull(clock);
     listeners = new CopyOnWriteArraySet<>();
+    listenersByEventType = new AnalyticsListener[EVENT_TYPE_COUNT][];
+    updateListenersByEventType();
     mediaPeriodQueueTracker = new MediaPeriodQueueTracker();
     window = new Window();
   }
@@ -93,7 +109,9 @@ public class AnalyticsCollector
    * @param listener The listener to add.
    */
   public void addListener(AnalyticsListener listener) {
-    listeners.add(listener);
+    if (listeners.add(listener)) {
+      updateListenersByEventType();
+    }
   }
 
   /**
@@ -102,7 +120,9 @@ public class AnalyticsCollector
    * @param listener The listener to remove.
    */
   public void removeListener(AnalyticsListener listener) {
-    listeners.remove(listener);
+    if (listeners.remove(listener)) {
+      updateListenersByEventType();
+    }
   }
 
   /**
@@ -124,12 +144,17 @@ public class AnalyticsCollector
    * adjusts its state and position to the seek.
    */
   public final void notifySeekStarted() {
-    if (!mediaPeriodQueueTracker.isSeeking()) {
-      EventTime eventTime = generatePlayingMediaPeriodEventTime();
+    if (mediaPeriodQueueTracker.isSeeking()) {
+      return;
+    }
+    if (!hasListeners(EVENT_TYPE_PLAYER)) {
       mediaPeriodQueueTracker.onSeekStarted();
-      for (AnalyticsListener listener : listeners) {
-        listener.onSeekStarted(eventTime);
-      }
+      return;
+    }
+    EventTime eventTime = generatePlayingMediaPeriodEventTime();
+    mediaPeriodQueueTracker.onSeekStarted();
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_PLAYER)) {
+      listener.onSeekStarted(eventTime);
     }
   }
 
@@ -150,8 +175,11 @@ public class AnalyticsCollector
 
   @Override
   public final void onMetadata(Metadata metadata) {
+    if (!hasListeners(EVENT_TYPE_METADATA)) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_METADATA)) {
       listener.onMetadata(eventTime, metadata);
     }
   }
@@ -160,9 +188,12 @@ public class AnalyticsCollector
 
   @Override
   public final void onAudioEnabled(DecoderCounters counters) {
+    if (!hasListeners(EVENT_TYPE_AUDIO)) {
+      return;
+    }
     // The renderers are only enabled after we changed the playing media period.
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_AUDIO)) {
       listener.onDecoderEnabled(eventTime, C.TRACK_TYPE_AUDIO, counters);
     }
   }
@@ -170,8 +201,11 @@ public class AnalyticsCollector
   @Override
   public final void onAudioDecoderInitialized(
       String decoderName, long initializedTimestampMs, long initializationDurationMs) {
+    if (!hasListeners(EVENT_TYPE_AUDIO)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_AUDIO)) {
       listener.onDecoderInitialized(
           eventTime, C.TRACK_TYPE_AUDIO, decoderName, initializationDurationMs);
     }
@@ -179,8 +213,11 @@ public class AnalyticsCollector
 
   @Override
   public final void onAudioInputFormatChanged(Format format) {
+    if (!hasListeners(EVENT_TYPE_AUDIO)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_AUDIO)) {
       listener.onDecoderInputFormatChanged(eventTime, C.TRACK_TYPE_AUDIO, format);
     }
   }
@@ -188,18 +225,24 @@ public class AnalyticsCollector
   @Override
   public final void onAudioSinkUnderrun(
       int bufferSize, long bufferSizeMs, long elapsedSinceLastFeedMs) {
+    if (!hasListeners(EVENT_TYPE_AUDIO)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_AUDIO)) {
       listener.onAudioUnderrun(eventTime, bufferSize, bufferSizeMs, elapsedSinceLastFeedMs);
     }
   }
 
   @Override
   public final void onAudioDisabled(DecoderCounters counters) {
+    if (!hasListeners(EVENT_TYPE_AUDIO)) {
+      return;
+    }
     // The renderers are disabled after we changed the playing media period on the playback thread
     // but before this change is reported to the app thread.
     EventTime eventTime = generateLastReportedPlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_AUDIO)) {
       listener.onDecoderDisabled(eventTime, C.TRACK_TYPE_AUDIO, counters);
     }
   }
@@ -208,24 +251,33 @@ public class AnalyticsCollector
 
   @Override
   public final void onAudioSessionId(int audioSessionId) {
+    if (!hasListeners(EVENT_TYPE_AUDIO)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_AUDIO)) {
       listener.onAudioSessionId(eventTime, audioSessionId);
     }
   }
 
   @Override
   public void onAudioAttributesChanged(AudioAttributes audioAttributes) {
+    if (!hasListeners(EVENT_TYPE_AUDIO)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_AUDIO)) {
       listener.onAudioAttributesChanged(eventTime, audioAttributes);
     }
   }
 
   @Override
   public void onVolumeChanged(float audioVolume) {
+    if (!hasListeners(EVENT_TYPE_AUDIO)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_AUDIO)) {
       listener.onVolumeChanged(eventTime, audioVolume);
     }
   }
@@ -234,9 +286,12 @@ public class AnalyticsCollector
 
   @Override
   public final void onVideoEnabled(DecoderCounters counters) {
+    if (!hasListeners(EVENT_TYPE_VIDEO)) {
+      return;
+    }
     // The renderers are only enabled after we changed the playing media period.
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_VIDEO)) {
       listener.onDecoderEnabled(eventTime, C.TRACK_TYPE_VIDEO, counters);
     }
   }
@@ -244,8 +299,11 @@ public class AnalyticsCollector
   @Override
   public final void onVideoDecoderInitialized(
       String decoderName, long initializedTimestampMs, long initializationDurationMs) {
+    if (!hasListeners(EVENT_TYPE_VIDEO)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_VIDEO)) {
       listener.onDecoderInitialized(
           eventTime, C.TRACK_TYPE_VIDEO, decoderName, initializationDurationMs);
     }
@@ -253,34 +311,46 @@ public class AnalyticsCollector
 
   @Override
   public final void onVideoInputFormatChanged(Format format) {
+    if (!hasListeners(EVENT_TYPE_VIDEO)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_VIDEO)) {
       listener.onDecoderInputFormatChanged(eventTime, C.TRACK_TYPE_VIDEO, format);
     }
   }
 
   @Override
   public final void onDroppedFrames(int count, long elapsedMs) {
+    if (!hasListeners(EVENT_TYPE_VIDEO)) {
+      return;
+    }
     EventTime eventTime = generateLastReportedPlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_VIDEO)) {
       listener.onDroppedVideoFrames(eventTime, count, elapsedMs);
     }
   }
 
   @Override
   public final void onVideoDisabled(DecoderCounters counters) {
+    if (!hasListeners(EVENT_TYPE_VIDEO)) {
+      return;
+    }
     // The renderers are disabled after we changed the playing media period on the playback thread
     // but before this change is reported to the app thread.
     EventTime eventTime = generateLastReportedPlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_VIDEO)) {
       listener.onDecoderDisabled(eventTime, C.TRACK_TYPE_VIDEO, counters);
     }
   }
 
   @Override
   public final void onRenderedFirstFrame(@Nullable Surface surface) {
+    if (!hasListeners(EVENT_TYPE_VIDEO)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_VIDEO)) {
       listener.onRenderedFirstFrame(eventTime, surface);
     }
   }
@@ -295,8 +365,11 @@ public class AnalyticsCollector
   @Override
   public final void onVideoSizeChanged(
       int width, int height, int unappliedRotationDegrees, float pixelWidthHeightRatio) {
+    if (!hasListeners(EVENT_TYPE_VIDEO)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_VIDEO)) {
       listener.onVideoSizeChanged(
           eventTime, width, height, unappliedRotationDegrees, pixelWidthHeightRatio);
     }
@@ -304,8 +377,11 @@ public class AnalyticsCollector
 
   @Override
   public void onSurfaceSizeChanged(int width, int height) {
+    if (!hasListeners(EVENT_TYPE_VIDEO)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_VIDEO)) {
       listener.onSurfaceSizeChanged(eventTime, width, height);
     }
   }
@@ -315,17 +391,25 @@ public class AnalyticsCollector
   @Override
   public final void onMediaPeriodCreated(int windowIndex, MediaPeriodId mediaPeriodId) {
     mediaPeriodQueueTracker.onMediaPeriodCreated(windowIndex, mediaPeriodId);
+    if (!hasListeners(EVENT_TYPE_MEDIA_PERIOD)) {
+      return;
+    }
     EventTime eventTime = generateMediaPeriodEventTime(windowIndex, mediaPeriodId);
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_MEDIA_PERIOD)) {
       listener.onMediaPeriodCreated(eventTime);
     }
   }
 
   @Override
   public final void onMediaPeriodReleased(int windowIndex, MediaPeriodId mediaPeriodId) {
+    if (!hasListeners(EVENT_TYPE_MEDIA_PERIOD)) {
+      mediaPeriodQueueTracker.onMediaPeriodReleased(mediaPeriodId);
+      return;
+    }
+    // The event time must be generated before the media period is removed from the queue.
     EventTime eventTime = generateMediaPeriodEventTime(windowIndex, mediaPeriodId);
     if (mediaPeriodQueueTracker.onMediaPeriodReleased(mediaPeriodId)) {
-      for (AnalyticsListener listener : listeners) {
+      for (AnalyticsListener listener : getListeners(EVENT_TYPE_MEDIA_PERIOD)) {
         listener.onMediaPeriodReleased(eventTime);
       }
     }
@@ -337,8 +421,11 @@ public class AnalyticsCollector
       @Nullable MediaPeriodId mediaPeriodId,
       LoadEventInfo loadEventInfo,
       MediaLoadData mediaLoadData) {
+    if (!hasListeners(EVENT_TYPE_LOAD)) {
+      return;
+    }
     EventTime eventTime = generateMediaPeriodEventTime(windowIndex, mediaPeriodId);
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_LOAD)) {
       listener.onLoadStarted(eventTime, loadEventInfo, mediaLoadData);
     }
   }
@@ -349,8 +436,11 @@ public class AnalyticsCollector
       @Nullable MediaPeriodId mediaPeriodId,
       LoadEventInfo loadEventInfo,
       MediaLoadData mediaLoadData) {
+    if (!hasListeners(EVENT_TYPE_LOAD)) {
+      return;
+    }
     EventTime eventTime = generateMediaPeriodEventTime(windowIndex, mediaPeriodId);
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_LOAD)) {
       listener.onLoadCompleted(eventTime, loadEventInfo, mediaLoadData);
     }
   }
@@ -361,8 +451,11 @@ public class AnalyticsCollector
       @Nullable MediaPeriodId mediaPeriodId,
       LoadEventInfo loadEventInfo,
       MediaLoadData mediaLoadData) {
+    if (!hasListeners(EVENT_TYPE_LOAD)) {
+      return;
+    }
     EventTime eventTime = generateMediaPeriodEventTime(windowIndex, mediaPeriodId);
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_LOAD)) {
       listener.onLoadCanceled(eventTime, loadEventInfo, mediaLoadData);
     }
   }
@@ -375,8 +468,11 @@ public class AnalyticsCollector
       MediaLoadData mediaLoadData,
       IOException error,
       boolean wasCanceled) {
+    if (!hasListeners(EVENT_TYPE_LOAD)) {
+      return;
+    }
     EventTime eventTime = generateMediaPeriodEventTime(windowIndex, mediaPeriodId);
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_LOAD)) {
       listener.onLoadError(eventTime, loadEventInfo, mediaLoadData, error, wasCanceled);
     }
   }
@@ -384,8 +480,11 @@ public class AnalyticsCollector
   @Override
   public final void onReadingStarted(int windowIndex, MediaPeriodId mediaPeriodId) {
     mediaPeriodQueueTracker.onReadingStarted(mediaPeriodId);
+    if (!hasListeners(EVENT_TYPE_MEDIA_PERIOD)) {
+      return;
+    }
     EventTime eventTime = generateMediaPeriodEventTime(windowIndex, mediaPeriodId);
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_MEDIA_PERIOD)) {
       listener.onReadingStarted(eventTime);
     }
   }
@@ -393,8 +492,11 @@ public class AnalyticsCollector
   @Override
   public final void onUpstreamDiscarded(
       int windowIndex, @Nullable MediaPeriodId mediaPeriodId, MediaLoadData mediaLoadData) {
+    if (!hasListeners(EVENT_TYPE_LOAD)) {
+      return;
+    }
     EventTime eventTime = generateMediaPeriodEventTime(windowIndex, mediaPeriodId);
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_LOAD)) {
       listener.onUpstreamDiscarded(eventTime, mediaLoadData);
     }
   }
@@ -402,8 +504,11 @@ public class AnalyticsCollector
   @Override
   public final void onDownstreamFormatChanged(
       int windowIndex, @Nullable MediaPeriodId mediaPeriodId, MediaLoadData mediaLoadData) {
+    if (!hasListeners(EVENT_TYPE_LOAD)) {
+      return;
+    }
     EventTime eventTime = generateMediaPeriodEventTime(windowIndex, mediaPeriodId);
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_LOAD)) {
       listener.onDownstreamFormatChanged(eventTime, mediaLoadData);
     }
   }
@@ -417,8 +522,11 @@ public class AnalyticsCollector
   @Override
   public final void onTimelineChanged(Timeline timeline, @Player.TimelineChangeReason int reason) {
     mediaPeriodQueueTracker.onTimelineChanged(timeline);
+    if (!hasListeners(EVENT_TYPE_PLAYER)) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_PLAYER)) {
       listener.onTimelineChanged(eventTime, reason);
     }
   }
@@ -426,24 +534,33 @@ public class AnalyticsCollector
   @Override
   public final void onTracksChanged(
       TrackGroupArray trackGroups, TrackSelectionArray trackSelections) {
+    if (!hasListeners(EVENT_TYPE_PLAYER)) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_PLAYER)) {
       listener.onTracksChanged(eventTime, trackGroups, trackSelections);
     }
   }
 
   @Override
   public final void onLoadingChanged(boolean isLoading) {
+    if (!hasListeners(EVENT_TYPE_PLAYER)) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_PLAYER)) {
       listener.onLoadingChanged(eventTime, isLoading);
     }
   }
 
   @Override
   public final void onPlayerStateChanged(boolean playWhenReady, @Player.State int playbackState) {
+    if (!hasListeners(EVENT_TYPE_PLAYER)) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_PLAYER)) {
       listener.onPlayerStateChanged(eventTime, playWhenReady, playbackState);
     }
   }
@@ -451,40 +568,55 @@ public class AnalyticsCollector
   @Override
   public void onPlaybackSuppressionReasonChanged(
       @PlaybackSuppressionReason int playbackSuppressionReason) {
+    if (!hasListeners(EVENT_TYPE_PLAYER)) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_PLAYER)) {
       listener.onPlaybackSuppressionReasonChanged(eventTime, playbackSuppressionReason);
     }
   }
 
   @Override
   public void onIsPlayingChanged(boolean isPlaying) {
+    if (!hasListeners(EVENT_TYPE_PLAYER)) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_PLAYER)) {
       listener.onIsPlayingChanged(eventTime, isPlaying);
     }
   }
 
   @Override
   public final void onRepeatModeChanged(@Player.RepeatMode int repeatMode) {
+    if (!hasListeners(EVENT_TYPE_PLAYER)) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_PLAYER)) {
       listener.onRepeatModeChanged(eventTime, repeatMode);
     }
   }
 
   @Override
   public final void onShuffleModeEnabledChanged(boolean shuffleModeEnabled) {
+    if (!hasListeners(EVENT_TYPE_PLAYER)) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_PLAYER)) {
       listener.onShuffleModeChanged(eventTime, shuffleModeEnabled);
     }
   }
 
   @Override
   public final void onPlayerError(ExoPlaybackException error) {
+    if (!hasListeners(EVENT_TYPE_PLAYER)) {
+      return;
+    }
     EventTime eventTime = generateLastReportedPlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_PLAYER)) {
       listener.onPlayerError(eventTime, error);
     }
   }
@@ -492,28 +624,38 @@ public class AnalyticsCollector
   @Override
   public final void onPositionDiscontinuity(@Player.DiscontinuityReason int reason) {
     mediaPeriodQueueTracker.onPositionDiscontinuity(reason);
+    if (!hasListeners(EVENT_TYPE_PLAYER)) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_PLAYER)) {
       listener.onPositionDiscontinuity(eventTime, reason);
     }
   }
 
   @Override
   public final void onPlaybackParametersChanged(PlaybackParameters playbackParameters) {
+    if (!hasListeners(EVENT_TYPE_PLAYER)) {
+      return;
+    }
     EventTime eventTime = generatePlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_PLAYER)) {
       listener.onPlaybackParametersChanged(eventTime, playbackParameters);
     }
   }
 
   @Override
   public final void onSeekProcessed() {
-    if (mediaPeriodQueueTracker.isSeeking()) {
-      mediaPeriodQueueTracker.onSeekProcessed();
-      EventTime eventTime = generatePlayingMediaPeriodEventTime();
-      for (AnalyticsListener listener : listeners) {
-        listener.onSeekProcessed(eventTime);
-      }
+    if (!mediaPeriodQueueTracker.isSeeking()) {
+      return;
+    }
+    mediaPeriodQueueTracker.onSeekProcessed();
+    if (!hasListeners(EVENT_TYPE_PLAYER)) {
+      return;
+    }
+    EventTime eventTime = generatePlayingMediaPeriodEventTime();
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_PLAYER)) {
+      listener.onSeekProcessed(eventTime);
     }
   }
 
@@ -521,8 +663,11 @@ public class AnalyticsCollector
 
   @Override
   public final void onBandwidthSample(int elapsedMs, long bytes, long bitrate) {
+    if (!hasListeners(EVENT_TYPE_BANDWIDTH)) {
+      return;
+    }
     EventTime eventTime = generateLoadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_BANDWIDTH)) {
       listener.onBandwidthEstimate(eventTime, elapsedMs, bytes, bitrate);
     }
   }
@@ -531,48 +676,66 @@ public class AnalyticsCollector
 
   @Override
   public final void onDrmSessionAcquired() {
+    if (!hasListeners(EVENT_TYPE_DRM)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_DRM)) {
       listener.onDrmSessionAcquired(eventTime);
     }
   }
 
   @Override
   public final void onDrmKeysLoaded() {
+    if (!hasListeners(EVENT_TYPE_DRM)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_DRM)) {
       listener.onDrmKeysLoaded(eventTime);
     }
   }
 
   @Override
   public final void onDrmSessionManagerError(Exception error) {
+    if (!hasListeners(EVENT_TYPE_DRM)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_DRM)) {
       listener.onDrmSessionManagerError(eventTime, error);
     }
   }
 
   @Override
   public final void onDrmKeysRestored() {
+    if (!hasListeners(EVENT_TYPE_DRM)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_DRM)) {
       listener.onDrmKeysRestored(eventTime);
     }
   }
 
   @Override
   public final void onDrmKeysRemoved() {
+    if (!hasListeners(EVENT_TYPE_DRM)) {
+      return;
+    }
     EventTime eventTime = generateReadingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_DRM)) {
       listener.onDrmKeysRemoved(eventTime);
     }
   }
 
   @Override
   public final void onDrmSessionReleased() {
+    if (!hasListeners(EVENT_TYPE_DRM)) {
+      return;
+    }
     EventTime eventTime = generateLastReportedPlayingMediaPeriodEventTime();
-    for (AnalyticsListener listener : listeners) {
+    for (AnalyticsListener listener : getListeners(EVENT_TYPE_DRM)) {
       listener.onDrmSessionReleased(eventTime);
     }
   }
@@ -584,6 +747,32 @@ public class AnalyticsCollector
     return Collections.unmodifiableSet(listeners);
   }
 
+  /**
+   * Returns whether a listener is interested in events of the given type, in which case an {@link
+   * EventTime} needs to be generated for them.
+   */
+  private boolean hasListeners(@AnalyticsListener.EventTypes int eventType) {
+    return getListeners(eventType).length > 0;
+  }
+
+  /** Returns the listeners interested in events of the given type. */
+  private AnalyticsListener[] getListeners(@AnalyticsListener.EventTypes int eventType) {
+    return listenersByEventType[Integer.numberOfTrailingZeros(eventType)];
+  }
+
+  private void updateListenersByEventType() {
+    ArrayList<AnalyticsListener> interestedListeners = new ArrayList<>();
+    for (int i = 0; i < EVENT_TYPE_COUNT; i++) {
+      for (AnalyticsListener listener : listeners) {
+        if ((listener.getEventTypes() & (1 << i)) != 0) {
+          interestedListeners.add(listener);
+        }
+      }
+      listenersByEventType[i] = interestedListeners.toArray(new AnalyticsListener[0]);
+      interestedListeners.clear();
+    }
+  }
+
   /** Returns a new {@link EventTime} for the specified timeline, window and media period id. */
   @RequiresNonNull("player")
   protected EventTime generateEventTime(
@@ -16,6 +16,7 @@
 package com.google.android.exoplayer2.analytics;
 
 import android.view.Surface;
+import androidx.annotation.IntDef;
 import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.ExoPlaybackException;
@@ -36,6 +37,9 @@ import com.google.android.exoplayer2.source.MediaSourceEventListener.MediaLoadDa
 import com.google.android.exoplayer2.source.TrackGroupArray;
 import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
 import java.io.IOException;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 
 /**
  * A listener for analytics events.
@@ -43,10 +47,65 @@ import java.io.IOException;
  * <p>All events are recorded with an {@link EventTime} specifying the elapsed real time and media
  * time at the time of the event.
  *
- * <p>All methods have no-op default implementations to allow selective overrides.
+ * <p>All methods have no-op default implementations to allow selective overrides. Listeners that
+ * only override some of them can override {@link #getEventTypes()} as well, so that events of
+ * other types aren't generated for them.
  */
 public interface AnalyticsListener {
 
+  /**
+   * Types of analytics events. Flags that can be combined by bitwise OR. Possible flags are {@link
+   * #EVENT_TYPE_PLAYER}, {@link #EVENT_TYPE_MEDIA_PERIOD}, {@link #EVENT_TYPE_LOAD}, {@link
+   * #EVENT_TYPE_BANDWIDTH}, {@link #EVENT_TYPE_METADATA}, {@link #EVENT_TYPE_AUDIO}, {@link
+   * #EVENT_TYPE_VIDEO} and {@link #EVENT_TYPE_DRM}.
+   */
+  @Documented
+  @Retention(RetentionPolicy.SOURCE)
+  @IntDef(
+      flag = true,
+      value = {
+        EVENT_TYPE_PLAYER,
+        EVENT_TYPE_MEDIA_PERIOD,
+        EVENT_TYPE_LOAD,
+        EVENT_TYPE_BANDWIDTH,
+        EVENT_TYPE_METADATA,
+        EVENT_TYPE_AUDIO,
+        EVENT_TYPE_VIDEO,
+        EVENT_TYPE_DRM
+      })
+  @interface EventTypes {}
+  /**
+   * Player events, from {@link #onPlayerStateChanged} to {@link #onTracksChanged}, including seeks
+   * and errors.
+   */
+  int EVENT_TYPE_PLAYER = 1;
+  /** Media period events, from {@link #onMediaPeriodCreated} to {@link #onReadingStarted}. */
+  int EVENT_TYPE_MEDIA_PERIOD = 1 << 1;
+  /** Load events, from {@link #onLoadStarted} to {@link #onUpstreamDiscarded}. */
+  int EVENT_TYPE_LOAD = 1 << 2;
+  /** {@link #onBandwidthEstimate}. */
+  int EVENT_TYPE_BANDWIDTH = 1 << 3;
+  /** {@link #onMetadata}. */
+  int EVENT_TYPE_METADATA = 1 << 4;
+  /** Audio events, including decoder events of audio renderers. */
+  int EVENT_TYPE_AUDIO = 1 << 5;
+  /**
+   * Video events, including decoder events of video renderers and {@link #onSurfaceSizeChanged}.
+   */
+  int EVENT_TYPE_VIDEO = 1 << 6;
+  /** DRM events, from {@link #onDrmSessionAcquired} to {@link #onDrmSessionReleased}. */
+  int EVENT_TYPE_DRM = 1 << 7;
+  /** All event types. */
+  int EVENT_TYPE_ALL =
+      EVENT_TYPE_PLAYER
+          | EVENT_TYPE_MEDIA_PERIOD
+          | EVENT_TYPE_LOAD
+          | EVENT_TYPE_BANDWIDTH
+          | EVENT_TYPE_METADATA
+          | EVENT_TYPE_AUDIO
+          | EVENT_TYPE_VIDEO
+          | EVENT_TYPE_DRM;
+
   /** Time information of an event. */
   final class EventTime {
 
@@ -123,6 +182,22 @@ public interface AnalyticsListener {
     }
   }
 
+  /**
+   * Returns the {@link EventTypes} the listener is interested in. Events of other types aren't
+   * reported to the listener, and no {@link EventTime} is created for events that no listener is
+   * interested in.
+   *
+   * <p>The value is queried when listeners are added to or removed from an {@link
+   * AnalyticsCollector}, and must not change while the listener is registered.
+   *
+   * @return The {@link EventTypes} the listener is interested in. The default implementation
+   *     returns {@link #EVENT_TYPE_ALL}.
+   */
+  @EventTypes
+  default int getEventTypes() {
+    return EVENT_TYPE_ALL;
+  }
+
   /**
    * Called when the player state changed.
    *
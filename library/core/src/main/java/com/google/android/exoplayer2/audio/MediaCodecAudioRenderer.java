@@ -77,6 +77,11 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
    * codec latency.
    */
   private static final int MAX_PENDING_STREAM_CHANGE_COUNT = 10;
+  /**
+   * Maximum duration returned by {@link #getDurationToProgressUs(long, long)}, which bounds how
+   * late the player reacts to events it only handles when rendering, such as position updates.
+   */
+  private static final long MAX_DURATION_TO_PROGRESS_US = 50_000;
 
   private static final String TAG = "MediaCodecAudioRenderer";
 
@@ -96,6 +101,8 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
   private boolean allowPositionDiscontinuity;
   private long lastInputTimeUs;
   private int pendingStreamChangeCount;
+  private boolean dynamicSchedulingEnabled;
+  private long nextBufferToWritePresentationTimeUs;
 
   /**
    * @param context A context.
@@ -350,11 +357,26 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
     this.context = context.getApplicationContext();
     this.audioSink = audioSink;
     lastInputTimeUs = C.TIME_UNSET;
+    nextBufferToWritePresentationTimeUs = C.TIME_UNSET;
     pendingStreamChangeTimesUs = new long[MAX_PENDING_STREAM_CHANGE_COUNT];
     eventDispatcher = new EventDispatcher(eventHandler, eventListener);
     audioSink.setListener(new AudioSinkListener());
   }
 
+  /**
+   * Sets whether the renderer reports how long it can be left alone while the audio sink is full
+   * via {@link #getDurationToProgressUs(long, long)}, allowing the player to call {@link
+   * #render(long, long)} less often during audio-only playback.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release. It should
+   * only be called before the renderer is used.
+   *
+   * @param enabled Whether dynamic scheduling is enabled.
+   */
+  public void experimental_setDynamicSchedulingEnabled(boolean enabled) {
+    dynamicSchedulingEnabled = enabled;
+  }
+
   @Override
   @Capabilities
   protected int supportsFormat(
@@ -680,6 +702,7 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
     allowFirstBufferPositionDiscontinuity = true;
     allowPositionDiscontinuity = true;
     lastInputTimeUs = C.TIME_UNSET;
+    nextBufferToWritePresentationTimeUs = C.TIME_UNSET;
     pendingStreamChangeCount = 0;
   }
 
@@ -700,6 +723,7 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
   protected void onDisabled() {
     try {
       lastInputTimeUs = C.TIME_UNSET;
+      nextBufferToWritePresentationTimeUs = C.TIME_UNSET;
       pendingStreamChangeCount = 0;
       audioSink.flush();
     } finally {
@@ -730,6 +754,20 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
     return audioSink.hasPendingData() || super.isReady();
   }
 
+  @Override
+  public long getDurationToProgressUs(long positionUs, long elapsedRealtimeUs) {
+    if (!dynamicSchedulingEnabled || nextBufferToWritePresentationTimeUs == C.TIME_UNSET) {
+      return DEFAULT_DURATION_TO_PROGRESS_US;
+    }
+    // The sink is full and holds the audio up to the next buffer to write. Ask to be called again
+    // once half of it has been played out, which leaves enough time to refill it.
+    float speed = audioSink.getPlaybackParameters().speed;
+    long durationToProgressUs =
+        (long) ((nextBufferToWritePresentationTimeUs - positionUs) / (speed * 2));
+    return Util.constrainValue(
+        durationToProgressUs, DEFAULT_DURATION_TO_PROGRESS_US, MAX_DURATION_TO_PROGRESS_US);
+  }
+
   @Override
   public long getPositionUs() {
     if (getState() == STATE_STARTED) {
@@ -814,12 +852,14 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
       if (audioSink.handleBuffer(buffer, bufferPresentationTimeUs)) {
         codec.releaseOutputBuffer(bufferIndex, false);
         decoderCounters.renderedOutputBufferCount++;
+        nextBufferToWritePresentationTimeUs = C.TIME_UNSET;
         return true;
       }
     } catch (AudioSink.InitializationException | AudioSink.WriteException e) {
       // TODO(internal: b/145658993) Use outputFormat instead.
       throw createRendererException(e, inputFormat);
     }
+    nextBufferToWritePresentationTimeUs = bufferPresentationTimeUs;
     return false;
   }
 
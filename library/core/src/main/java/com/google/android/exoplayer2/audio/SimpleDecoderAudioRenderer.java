@@ -46,6 +46,7 @@ import com.google.android.exoplayer2.util.Util;
 import java.lang.annotation.Documented;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.Executor;
 
 /**
  * Decodes and renders audio using a {@link SimpleDecoder}.
@@ -118,6 +119,7 @@ public abstract class SimpleDecoderAudioRenderer extends BaseRenderer implements
   private boolean inputStreamEnded;
   private boolean outputStreamEnded;
   private boolean waitingForKeys;
+  @Nullable private Executor decodeExecutor;
 
   public SimpleDecoderAudioRenderer() {
     this(/* eventHandler= */ null, /* eventListener= */ null);
@@ -217,6 +219,20 @@ public abstract class SimpleDecoderAudioRenderer extends BaseRenderer implements
     audioTrackNeedsConfigure = true;
   }
 
+  /**
+   * Sets an {@link Executor} on which decoders created by this renderer run their decode work,
+   * instead of on a decode thread of their own. See {@link
+   * SimpleDecoder#experimental_setDecodeExecutor(Executor)}.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release. It should
+   * only be called before the renderer is used.
+   *
+   * @param decodeExecutor The {@link Executor} on which to run the decode work.
+   */
+  public void experimental_setDecodeExecutor(Executor decodeExecutor) {
+    this.decodeExecutor = decodeExecutor;
+  }
+
   @Override
   public MediaClock getMediaClock() {
     return this;
@@ -639,6 +655,9 @@ public abstract class SimpleDecoderAudioRenderer extends BaseRenderer implements
       long codecInitializingTimestamp = SystemClock.elapsedRealtime();
       TraceUtil.beginSection("createAudioDecoder");
       decoder = createDecoder(inputFormat, mediaCrypto);
+      if (decodeExecutor != null) {
+        decoder.experimental_setDecodeExecutor(decodeExecutor);
+      }
       TraceUtil.endSection();
       long codecInitializedTimestamp = SystemClock.elapsedRealtime();
       eventDispatcher.decoderInitialized(decoder.getName(), codecInitializedTimestamp,
@@ -20,14 +20,20 @@ import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.util.Assertions;
 import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
-/** Base class for {@link Decoder}s that use their own decode thread. */
+/**
+ * Base class for {@link Decoder}s that use their own decode thread, or that run their decode work
+ * on a shared {@link Executor} if one is set with {@link #experimental_setDecodeExecutor(Executor)}.
+ */
 @SuppressWarnings("UngroupedOverloads")
 public abstract class SimpleDecoder<
         I extends DecoderInputBuffer, O extends OutputBuffer, E extends Exception>
     implements Decoder<I, O, E> {
 
   private final Thread decodeThread;
+  private final Runnable decodeTask;
 
   private final Object lock;
   private final ArrayDeque<I> queuedInputBuffers;
@@ -43,6 +49,10 @@ public abstract class SimpleDecoder<
   private boolean flushed;
   private boolean released;
   private int skippedOutputBufferCount;
+  @Nullable private Executor decodeExecutor;
+  private boolean decodeThreadStarted;
+  private boolean decodeTaskScheduled;
+  private boolean decodeTaskRunning;
 
   /**
    * @param inputBuffers An array of nulls that will be used to store references to input buffers.
@@ -68,7 +78,30 @@ public abstract class SimpleDecoder<
         SimpleDecoder.this.run();
       }
     };
-    decodeThread.start();
+    decodeTask = this::runDecodeTask;
+  }
+
+  /**
+   * Sets an {@link Executor} on which to run the decode work, instead of a decode thread owned by
+   * this decoder. The executor may be shared by many decoders, for example a bounded thread pool.
+   * Buffers of this decoder are still decoded one at a time and in order.
+   *
+   * <p>{@link #release()} waits for a decode task that's running, but not for one that's waiting
+   * to be run. It doesn't block if the executor never runs a submitted task, for example because
+   * the executor has been shut down, its threads are blocked, or it runs tasks on the thread that
+   * releases the decoder. A task that runs after the decoder has been released does nothing.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release. It should
+   * only be called before the decoder is used (i.e. before the first call to {@link
+   * #dequeueInputBuffer()}).
+   *
+   * @param decodeExecutor The {@link Executor} on which to run the decode work.
+   */
+  public final void experimental_setDecodeExecutor(Executor decodeExecutor) {
+    synchronized (lock) {
+      Assertions.checkState(!decodeThreadStarted && !decodeTaskScheduled);
+      this.decodeExecutor = decodeExecutor;
+    }
   }
 
   /**
@@ -100,13 +133,17 @@ public abstract class SimpleDecoder<
 
   @Override
   public final void queueInputBuffer(I inputBuffer) throws E {
+    boolean scheduleDecodeTask;
     synchronized (lock) {
       maybeThrowException();
       Assertions.checkArgument(inputBuffer == dequeuedInputBuffer);
       queuedInputBuffers.addLast(inputBuffer);
-      maybeNotifyDecodeLoop();
+      scheduleDecodeTask = maybeNotifyDecodeLoop();
       dequeuedInputBuffer = null;
     }
+    if (scheduleDecodeTask) {
+      scheduleDecodeTask();
+    }
   }
 
   @Override
@@ -128,9 +165,13 @@ public abstract class SimpleDecoder<
    */
   @CallSuper
   protected void releaseOutputBuffer(O outputBuffer) {
+    boolean scheduleDecodeTask;
     synchronized (lock) {
       releaseOutputBufferInternal(outputBuffer);
-      maybeNotifyDecodeLoop();
+      scheduleDecodeTask = maybeNotifyDecodeLoop();
+    }
+    if (scheduleDecodeTask) {
+      scheduleDecodeTask();
     }
   }
 
@@ -155,13 +196,26 @@ public abstract class SimpleDecoder<
   @CallSuper
   @Override
   public void release() {
+    boolean interrupted = false;
     synchronized (lock) {
       released = true;
-      lock.notify();
+      lock.notifyAll();
+      // Wait for a running decode task, so that subclasses can release their resources safely.
+      // Tasks that haven't started yet won't decode, so there's no need to wait for them.
+      while (decodeTaskRunning) {
+        try {
+          lock.wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
     }
     try {
       decodeThread.join();
     } catch (InterruptedException e) {
+      interrupted = true;
+    }
+    if (interrupted) {
       Thread.currentThread().interrupt();
     }
   }
@@ -182,11 +236,72 @@ public abstract class SimpleDecoder<
    * to decode into.
    * <p>
    * Should only be called whilst synchronized on the lock object.
+   *
+   * @return Whether a decode task was marked as scheduled, in which case the caller must call
+   *     {@link #scheduleDecodeTask()} after releasing the lock.
    */
-  private void maybeNotifyDecodeLoop() {
-    if (canDecodeBuffer()) {
+  private boolean maybeNotifyDecodeLoop() {
+    if (!canDecodeBuffer()) {
+      return false;
+    }
+    if (decodeExecutor != null) {
+      if (!decodeTaskScheduled) {
+        decodeTaskScheduled = true;
+        return true;
+      }
+    } else if (!decodeThreadStarted) {
+      decodeThreadStarted = true;
+      decodeThread.start();
+    } else {
       lock.notify();
     }
+    return false;
+  }
+
+  /**
+   * Submits the decode task to the decode executor. Must not be called whilst synchronized on the
+   * lock object, as the executor may run the task on the calling thread or block.
+   */
+  private void scheduleDecodeTask() {
+    try {
+      Assertions.checkNotNull(decodeExecutor).execute(decodeTask);
+    } catch (RejectedExecutionException e) {
+      synchronized (lock) {
+        decodeTaskScheduled = false;
+        if (exception == null) {
+          exception = createUnexpectedDecodeException(e);
+        }
+        lock.notifyAll();
+      }
+    }
+  }
+
+  private void runDecodeTask() {
+    boolean continueDecoding;
+    synchronized (lock) {
+      if (released) {
+        decodeTaskScheduled = false;
+        return;
+      }
+      decodeTaskRunning = true;
+      continueDecoding = exception == null;
+    }
+    if (continueDecoding) {
+      continueDecoding = decodeBuffer();
+    }
+    boolean scheduleDecodeTask = false;
+    synchronized (lock) {
+      decodeTaskScheduled = false;
+      decodeTaskRunning = false;
+      if (continueDecoding && !released) {
+        // Decode one buffer per task, so that decoders sharing the executor are served fairly.
+        scheduleDecodeTask = maybeNotifyDecodeLoop();
+      }
+      lock.notifyAll();
+    }
+    if (scheduleDecodeTask) {
+      scheduleDecodeTask();
+    }
   }
 
   private void run() {
@@ -201,17 +316,32 @@ public abstract class SimpleDecoder<
   }
 
   private boolean decode() throws InterruptedException {
-    I inputBuffer;
-    O outputBuffer;
-    boolean resetDecoder;
-
     // Wait until we have an input buffer to decode, and an output buffer to decode into.
     synchronized (lock) {
       while (!released && !canDecodeBuffer()) {
         lock.wait();
       }
+    }
+    return decodeBuffer();
+  }
+
+  /**
+   * Decodes the next queued input buffer into an available output buffer, if there is one.
+   *
+   * @return Whether decoding should continue, which is false if the decoder has been released or a
+   *     decode exception occurred.
+   */
+  private boolean decodeBuffer() {
+    I inputBuffer;
+    O outputBuffer;
+    boolean resetDecoder;
+
+    synchronized (lock) {
       if (released) {
         return false;
+      } else if (!canDecodeBuffer()) {
+        // The decoder has been flushed since the decode work was scheduled.
+        return true;
       }
       inputBuffer = queuedInputBuffers.removeFirst();
       outputBuffer = availableOutputBuffers[--availableOutputBufferCount];
@@ -189,6 +189,11 @@ import org.checkerframework.checker.nullness.qual.RequiresNonNull;
     responseHandler = new ResponseHandler(playbackLooper);
   }
 
+  /** Returns the number of times the session has been acquired and not yet released. */
+  /* package */ int getReferenceCount() {
+    return referenceCount;
+  }
+
   public boolean hasSessionId(byte[] sessionId) {
     return Arrays.equals(this.sessionId, sessionId);
   }
@@ -20,6 +20,7 @@ import android.annotation.TargetApi;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
+import android.os.SystemClock;
 import androidx.annotation.IntDef;
 import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.C;
@@ -38,6 +39,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -60,6 +62,8 @@ public class DefaultDrmSessionManager<T extends ExoMediaCrypto> implements DrmSe
     private int[] useDrmSessionsForClearContentTrackTypes;
     private boolean playClearSamplesWithoutKeys;
     private LoadErrorHandlingPolicy loadErrorHandlingPolicy;
+    private long sessionKeepaliveMs;
+    private int maxKeepaliveSessionCount;
 
     /**
      * Creates a builder with default values. The default values are:
@@ -74,6 +78,10 @@ public class DefaultDrmSessionManager<T extends ExoMediaCrypto> implements DrmSe
      *   <li>{@link #setPlayClearSamplesWithoutKeys playClearSamplesWithoutKeys}: {@code false}.
      *   <li>{@link #setLoadErrorHandlingPolicy LoadErrorHandlingPolicy}: {@link
      *       DefaultLoadErrorHandlingPolicy}.
+     *   <li>{@link #setSessionKeepaliveMs sessionKeepaliveMs}: {@link C#TIME_UNSET}, meaning that
+     *       sessions are released as soon as they're no longer used.
+     *   <li>{@link #setMaxKeepaliveSessionCount maxKeepaliveSessionCount}: {@link
+     *       #DEFAULT_MAX_KEEPALIVE_SESSION_COUNT}.
      * </ul>
      */
     @SuppressWarnings("unchecked")
@@ -83,6 +91,8 @@ public class DefaultDrmSessionManager<T extends ExoMediaCrypto> implements DrmSe
       exoMediaDrmProvider = (ExoMediaDrm.Provider) FrameworkMediaDrm.DEFAULT_PROVIDER;
       loadErrorHandlingPolicy = new DefaultLoadErrorHandlingPolicy();
       useDrmSessionsForClearContentTrackTypes = new int[0];
+      sessionKeepaliveMs = C.TIME_UNSET;
+      maxKeepaliveSessionCount = DEFAULT_MAX_KEEPALIVE_SESSION_COUNT;
     }
 
     /**
@@ -179,8 +189,52 @@ public class DefaultDrmSessionManager<T extends ExoMediaCrypto> implements DrmSe
       return this;
     }
 
-    /** Builds a {@link DefaultDrmSessionManager} instance. */
+    /**
+     * Sets the time for which sessions are kept open after they were last acquired, so that they
+     * can be reused by later playbacks of content with the same {@link DrmInitData} without a new
+     * key request. A session that is still in use when this time has passed is kept open for
+     * another period. Sessions can also be acquired in advance with {@link
+     * DefaultDrmSessionManager#prefetchSession(Looper, DrmInitData)}.
+     *
+     * <p>Sessions are kept open only while the manager is prepared. Keeping sessions open requires
+     * {@link #setMultiSession multiSession}, so that each kept session is only reused for content
+     * with matching {@link DrmInitData}.
+     *
+     * @param sessionKeepaliveMs The keepalive time in milliseconds, or {@link C#TIME_UNSET} to
+     *     release sessions as soon as they're no longer used.
+     * @return This builder.
+     * @throws IllegalArgumentException If {@code sessionKeepaliveMs} is not positive and not {@link
+     *     C#TIME_UNSET}.
+     */
+    public Builder setSessionKeepaliveMs(long sessionKeepaliveMs) {
+      Assertions.checkArgument(sessionKeepaliveMs > 0 || sessionKeepaliveMs == C.TIME_UNSET);
+      this.sessionKeepaliveMs = sessionKeepaliveMs;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of sessions that are kept open by {@link #setSessionKeepaliveMs
+     * sessionKeepaliveMs}. If more sessions are acquired, the one that was acquired least recently
+     * is no longer kept open.
+     *
+     * @param maxKeepaliveSessionCount The maximum number of sessions to keep open.
+     * @return This builder.
+     * @throws IllegalArgumentException If {@code maxKeepaliveSessionCount} is not positive.
+     */
+    public Builder setMaxKeepaliveSessionCount(int maxKeepaliveSessionCount) {
+      Assertions.checkArgument(maxKeepaliveSessionCount > 0);
+      this.maxKeepaliveSessionCount = maxKeepaliveSessionCount;
+      return this;
+    }
+
+    /**
+     * Builds a {@link DefaultDrmSessionManager} instance.
+     *
+     * @throws IllegalStateException If {@link #setSessionKeepaliveMs sessionKeepaliveMs} is set
+     *     without {@link #setMultiSession multiSession}.
+     */
     public DefaultDrmSessionManager<ExoMediaCrypto> build(MediaDrmCallback mediaDrmCallback) {
+      Assertions.checkState(multiSession || sessionKeepaliveMs == C.TIME_UNSET);
       return new DefaultDrmSessionManager<>(
           uuid,
           exoMediaDrmProvider,
@@ -189,7 +243,9 @@ public class DefaultDrmSessionManager<T extends ExoMediaCrypto> implements DrmSe
           multiSession,
           useDrmSessionsForClearContentTrackTypes,
           playClearSamplesWithoutKeys,
-          loadErrorHandlingPolicy);
+          loadErrorHandlingPolicy,
+          sessionKeepaliveMs,
+          maxKeepaliveSessionCount);
     }
   }
 
@@ -231,6 +287,8 @@ public class DefaultDrmSessionManager<T extends ExoMediaCrypto> implements DrmSe
   public static final int MODE_RELEASE = 3;
   /** Number of times to retry for initial provisioning and key request for reporting error. */
   public static final int INITIAL_DRM_REQUEST_RETRY_COUNT = 3;
+  /** The default maximum number of sessions that are kept open after they're no longer used. */
+  public static final int DEFAULT_MAX_KEEPALIVE_SESSION_COUNT = 4;
 
   private static final String TAG = "DefaultDrmSessionMgr";
 
@@ -244,15 +302,19 @@ public class DefaultDrmSessionManager<T extends ExoMediaCrypto> implements DrmSe
   private final boolean playClearSamplesWithoutKeys;
   private final ProvisioningManagerImpl provisioningManagerImpl;
   private final LoadErrorHandlingPolicy loadErrorHandlingPolicy;
+  private final long sessionKeepaliveMs;
+  private final int maxKeepaliveSessionCount;
 
   private final List<DefaultDrmSession<T>> sessions;
   private final List<DefaultDrmSession<T>> provisioningSessions;
+  private final LinkedHashMap<DefaultDrmSession<T>, Long> keepaliveSessionReleaseTimesMs;
 
   private int prepareCallsCount;
   @Nullable private ExoMediaDrm<T> exoMediaDrm;
   @Nullable private DefaultDrmSession<T> placeholderDrmSession;
   @Nullable private DefaultDrmSession<T> noMultiSessionDrmSession;
   @Nullable private Looper playbackLooper;
+  @Nullable private Handler sessionKeepaliveHandler;
   private int mode;
   @Nullable private byte[] offlineLicenseKeySetId;
 
@@ -336,7 +398,9 @@ public class DefaultDrmSessionManager<T extends ExoMediaCrypto> implements DrmSe
         multiSession,
         /* useDrmSessionsForClearContentTrackTypes= */ new int[0],
         /* playClearSamplesWithoutKeys= */ false,
-        new DefaultLoadErrorHandlingPolicy(initialDrmRequestRetryCount));
+        new DefaultLoadErrorHandlingPolicy(initialDrmRequestRetryCount),
+        /* sessionKeepaliveMs= */ C.TIME_UNSET,
+        DEFAULT_MAX_KEEPALIVE_SESSION_COUNT);
   }
 
   // the constructor does not initialize fields: offlineLicenseKeySetId
@@ -349,7 +413,9 @@ public class DefaultDrmSessionManager<T extends ExoMediaCrypto> implements DrmSe
       boolean multiSession,
       int[] useDrmSessionsForClearContentTrackTypes,
       boolean playClearSamplesWithoutKeys,
-      LoadErrorHandlingPolicy loadErrorHandlingPolicy) {
+      LoadErrorHandlingPolicy loadErrorHandlingPolicy,
+      long sessionKeepaliveMs,
+      int maxKeepaliveSessionCount) {
     Assertions.checkNotNull(uuid);
     Assertions.checkArgument(!C.COMMON_PSSH_UUID.equals(uuid), "Use C.CLEARKEY_UUID instead");
     this.uuid = uuid;
@@ -361,10 +427,13 @@ public class DefaultDrmSessionManager<T extends ExoMediaCrypto> implements DrmSe
     this.useDrmSessionsForClearContentTrackTypes = useDrmSessionsForClearContentTrackTypes;
     this.playClearSamplesWithoutKeys = playClearSamplesWithoutKeys;
     this.loadErrorHandlingPolicy = loadErrorHandlingPolicy;
+    this.sessionKeepaliveMs = sessionKeepaliveMs;
+    this.maxKeepaliveSessionCount = maxKeepaliveSessionCount;
     provisioningManagerImpl = new ProvisioningManagerImpl();
     mode = MODE_PLAYBACK;
     sessions = new ArrayList<>();
     provisioningSessions = new ArrayList<>();
+    keepaliveSessionReleaseTimesMs = new LinkedHashMap<>();
   }
 
   /**
@@ -419,6 +488,26 @@ public class DefaultDrmSessionManager<T extends ExoMediaCrypto> implements DrmSe
     this.offlineLicenseKeySetId = offlineLicenseKeySetId;
   }
 
+  /**
+   * Acquires a session for the given {@link DrmInitData} in advance, so that its key request is
+   * made before the content is played. The session is kept open for the {@link
+   * Builder#setSessionKeepaliveMs session keepalive time}, and is returned by {@link
+   * #acquireSession(Looper, DrmInitData)} for matching {@link DrmInitData} within that time.
+   *
+   * <p>Must be called on the thread of the playback looper, while the manager is prepared. This is
+   * typically the case for the upcoming items of a playlist that's being played.
+   *
+   * @param playbackLooper The looper associated with the media playback thread.
+   * @param drmInitData The {@link DrmInitData} of the content that will be played.
+   * @throws IllegalStateException If the manager has no session keepalive time or isn't in multi
+   *     session mode.
+   */
+  public final void prefetchSession(Looper playbackLooper, DrmInitData drmInitData) {
+    Assertions.checkState(multiSession && sessionKeepaliveMs != C.TIME_UNSET);
+    // The session stays open after this reference is released, because the manager keeps it alive.
+    acquireSession(playbackLooper, drmInitData).release();
+  }
+
   // DrmSessionManager implementation.
 
   @Override
@@ -433,6 +522,7 @@ public class DefaultDrmSessionManager<T extends ExoMediaCrypto> implements DrmSe
   @Override
   public final void release() {
     if (--prepareCallsCount == 0) {
+      releaseKeepaliveSessions(/* releaseAll= */ true);
       Assertions.checkNotNull(exoMediaDrm).release();
       exoMediaDrm = null;
     }
@@ -500,6 +590,8 @@ public class DefaultDrmSessionManager<T extends ExoMediaCrypto> implements DrmSe
   public DrmSession<T> acquireSession(Looper playbackLooper, DrmInitData drmInitData) {
     assertExpectedPlaybackLooper(playbackLooper);
     maybeCreateMediaDrmHandler(playbackLooper);
+    // Sessions that failed shouldn't be reused after the content for which they failed has ended.
+    releaseKeepaliveSessions(/* releaseAll= */ false);
 
     @Nullable List<SchemeData> schemeDatas = null;
     if (offlineLicenseKeySetId == null) {
@@ -534,6 +626,9 @@ public class DefaultDrmSessionManager<T extends ExoMediaCrypto> implements DrmSe
       sessions.add(session);
     }
     session.acquire();
+    if (sessionKeepaliveMs != C.TIME_UNSET) {
+      keepSessionAlive(session);
+    }
     return session;
   }
 
@@ -580,6 +675,79 @@ public class DefaultDrmSessionManager<T extends ExoMediaCrypto> implements DrmSe
         loadErrorHandlingPolicy);
   }
 
+  private void keepSessionAlive(DefaultDrmSession<T> session) {
+    if (keepaliveSessionReleaseTimesMs.remove(session) == null) {
+      // Hold a reference, so that the session stays open when it's released by the player.
+      session.acquire();
+    }
+    // Re-inserting the session keeps the sessions ordered by the time they were last acquired.
+    keepaliveSessionReleaseTimesMs.put(session, SystemClock.elapsedRealtime() + sessionKeepaliveMs);
+    if (keepaliveSessionReleaseTimesMs.size() > maxKeepaliveSessionCount) {
+      DefaultDrmSession<T> leastRecentlyAcquiredSession =
+          keepaliveSessionReleaseTimesMs.keySet().iterator().next();
+      keepaliveSessionReleaseTimesMs.remove(leastRecentlyAcquiredSession);
+      leastRecentlyAcquiredSession.release();
+    }
+    scheduleKeepaliveSessionRelease();
+  }
+
+  /**
+   * Releases the references held to keep sessions open, for all sessions if {@code releaseAll} is
+   * true, or otherwise for sessions whose keepalive time has passed or that are in an error state.
+   * Sessions whose keepalive time has passed while they're still in use are kept open for another
+   * keepalive time.
+   */
+  private void releaseKeepaliveSessions(boolean releaseAll) {
+    if (keepaliveSessionReleaseTimesMs.isEmpty()) {
+      return;
+    }
+    long nowMs = SystemClock.elapsedRealtime();
+    List<DefaultDrmSession<T>> sessionsToRelease = new ArrayList<>();
+    List<DefaultDrmSession<T>> sessionsToKeepAlive = new ArrayList<>();
+    for (Map.Entry<DefaultDrmSession<T>, Long> entry : keepaliveSessionReleaseTimesMs.entrySet()) {
+      DefaultDrmSession<T> session = entry.getKey();
+      if (releaseAll || session.getState() == DrmSession.STATE_ERROR) {
+        sessionsToRelease.add(session);
+      } else if (entry.getValue() <= nowMs) {
+        // The manager holds one of the references.
+        if (session.getReferenceCount() > 1) {
+          sessionsToKeepAlive.add(session);
+        } else {
+          sessionsToRelease.add(session);
+        }
+      }
+    }
+    for (DefaultDrmSession<T> session : sessionsToKeepAlive) {
+      keepaliveSessionReleaseTimesMs.remove(session);
+      keepaliveSessionReleaseTimesMs.put(session, nowMs + sessionKeepaliveMs);
+    }
+    for (DefaultDrmSession<T> session : sessionsToRelease) {
+      keepaliveSessionReleaseTimesMs.remove(session);
+      session.release();
+    }
+    scheduleKeepaliveSessionRelease();
+  }
+
+  private void scheduleKeepaliveSessionRelease() {
+    if (sessionKeepaliveHandler == null) {
+      if (keepaliveSessionReleaseTimesMs.isEmpty()) {
+        return;
+      }
+      sessionKeepaliveHandler = new Handler(Assertions.checkNotNull(playbackLooper));
+    }
+    sessionKeepaliveHandler.removeCallbacksAndMessages(/* token= */ null);
+    if (keepaliveSessionReleaseTimesMs.isEmpty()) {
+      return;
+    }
+    long nextReleaseTimeMs = Long.MAX_VALUE;
+    for (long releaseTimeMs : keepaliveSessionReleaseTimesMs.values()) {
+      nextReleaseTimeMs = Math.min(nextReleaseTimeMs, releaseTimeMs);
+    }
+    sessionKeepaliveHandler.postDelayed(
+        () -> releaseKeepaliveSessions(/* releaseAll= */ false),
+        Math.max(0, nextReleaseTimeMs - SystemClock.elapsedRealtime()));
+  }
+
   private void onSessionReleased(DefaultDrmSession<T> drmSession) {
     sessions.remove(drmSession);
     if (placeholderDrmSession == drmSession) {
@@ -35,6 +35,11 @@ import java.nio.ByteBuffer;
  * seek time, the seeker will find the corresponding target timestamp, and perform a search
  * operation within the stream to identify the target frame and return the byte position in the
  * stream of the target frame.
+ *
+ * <p>Each step of the search may require reloading the source at a new position. If {@link
+ * #experimental_setProbeCachingEnabled(boolean)} is enabled, the timestamps found by the steps of
+ * previous searches are kept, and used to narrow the initial search range of later seeks in the
+ * same stream, so that they require fewer steps.
  */
 public abstract class BinarySearchSeeker {
 
@@ -160,6 +165,21 @@ public abstract class BinarySearchSeeker {
             approxBytesPerFrame);
   }
 
+  /**
+   * Sets whether to keep the timestamps found at each step of a search, and to use them to narrow
+   * the initial search range of later seeks. This reduces the number of times the source needs to
+   * be reloaded when seeking repeatedly within the same stream. Has no effect on timestamps found
+   * before it's called.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release. It should
+   * be called before the seek map is output.
+   *
+   * @param probeCachingEnabled Whether to enable caching of search steps.
+   */
+  public final void experimental_setProbeCachingEnabled(boolean probeCachingEnabled) {
+    seekMap.probeCache = probeCachingEnabled ? new ProbeCache() : null;
+  }
+
   /** Returns the seek map for the stream. */
   public final SeekMap getSeekMap() {
     return seekMap;
@@ -177,6 +197,14 @@ public abstract class BinarySearchSeeker {
     seekOperationParams = createSeekParamsForTargetTimeUs(timeUs);
   }
 
+  /** Cancels the operation set by {@link #setSeekTargetUs(long)}, if it's still pending. */
+  public final void cancelPendingSeek() {
+    if (seekOperationParams != null) {
+      seekOperationParams = null;
+      timestampSeeker.onSeekFinished();
+    }
+  }
+
   /** Returns whether the last operation set by {@link #setSeekTargetUs(long)} is still pending. */
   public final boolean isSeeking() {
     return seekOperationParams != null;
@@ -224,10 +252,12 @@ public abstract class BinarySearchSeeker {
         case TimestampSearchResult.TYPE_POSITION_OVERESTIMATED:
           seekOperationParams.updateSeekCeiling(
               timestampSearchResult.timestampToUpdate, timestampSearchResult.bytePositionToUpdate);
+          maybeCacheProbe(timestampSearchResult);
           break;
         case TimestampSearchResult.TYPE_POSITION_UNDERESTIMATED:
           seekOperationParams.updateSeekFloor(
               timestampSearchResult.timestampToUpdate, timestampSearchResult.bytePositionToUpdate);
+          maybeCacheProbe(timestampSearchResult);
           break;
         case TimestampSearchResult.TYPE_TARGET_TIMESTAMP_FOUND:
           markSeekOperationFinished(
@@ -247,14 +277,7 @@ public abstract class BinarySearchSeeker {
   }
 
   protected SeekOperationParams createSeekParamsForTargetTimeUs(long timeUs) {
-    return new SeekOperationParams(
-        timeUs,
-        seekMap.timeUsToTargetTime(timeUs),
-        seekMap.floorTimePosition,
-        seekMap.ceilingTimePosition,
-        seekMap.floorBytePosition,
-        seekMap.ceilingBytePosition,
-        seekMap.approxBytesPerFrame);
+    return seekMap.createSeekOperationParams(timeUs);
   }
 
   protected final void markSeekOperationFinished(boolean foundTargetFrame, long resultPosition) {
@@ -287,6 +310,14 @@ public abstract class BinarySearchSeeker {
     }
   }
 
+  private void maybeCacheProbe(TimestampSearchResult timestampSearchResult) {
+    @Nullable ProbeCache probeCache = seekMap.probeCache;
+    if (probeCache != null) {
+      probeCache.add(
+          timestampSearchResult.timestampToUpdate, timestampSearchResult.bytePositionToUpdate);
+    }
+  }
+
   /**
    * Contains parameters for a pending seek operation by {@link BinarySearchSeeker}.
    *
@@ -520,6 +551,8 @@ public abstract class BinarySearchSeeker {
     private final long ceilingBytePosition;
     private final long approxBytesPerFrame;
 
+    @Nullable private volatile ProbeCache probeCache;
+
     /** Constructs a new instance of this seek map. */
     public BinarySearchSeekMap(
         SeekTimestampConverter seekTimestampConverter,
@@ -545,14 +578,8 @@ public abstract class BinarySearchSeeker {
 
     @Override
     public SeekPoints getSeekPoints(long timeUs) {
-      long nextSearchPosition =
-          SeekOperationParams.calculateNextSearchBytePosition(
-              /* targetTimePosition= */ seekTimestampConverter.timeUsToTargetTime(timeUs),
-              /* floorTimePosition= */ floorTimePosition,
-              /* ceilingTimePosition= */ ceilingTimePosition,
-              /* floorBytePosition= */ floorBytePosition,
-              /* ceilingBytePosition= */ ceilingBytePosition,
-              /* approxBytesPerFrame= */ approxBytesPerFrame);
+      // Use the same range as the search that follows, so that it starts at the returned position.
+      long nextSearchPosition = createSeekOperationParams(timeUs).getNextSearchBytePosition();
       return new SeekPoints(new SeekPoint(timeUs, nextSearchPosition));
     }
 
@@ -565,5 +592,104 @@ public abstract class BinarySearchSeeker {
     public long timeUsToTargetTime(long timeUs) {
       return seekTimestampConverter.timeUsToTargetTime(timeUs);
     }
+
+    private SeekOperationParams createSeekOperationParams(long timeUs) {
+      SeekOperationParams seekOperationParams =
+          new SeekOperationParams(
+              timeUs,
+              seekTimestampConverter.timeUsToTargetTime(timeUs),
+              floorTimePosition,
+              ceilingTimePosition,
+              floorBytePosition,
+              ceilingBytePosition,
+              approxBytesPerFrame);
+      @Nullable ProbeCache probeCache = this.probeCache;
+      if (probeCache != null) {
+        probeCache.narrowSearchRange(seekOperationParams);
+      }
+      return seekOperationParams;
+    }
+  }
+
+  /**
+   * The timestamps found at given byte positions by the steps of previous searches, sorted by
+   * timestamp.
+   *
+   * <p>A timestamp that overestimated the target of one search bounds the search range from above
+   * for all lower targets, and from below for all higher targets. The same holds for a timestamp
+   * that underestimated the target. The number of cached steps is bounded, and further steps are
+   * not cached once the cache is full.
+   */
+  private static final class ProbeCache {
+
+    private static final int MAX_PROBE_COUNT = 256;
+
+    private final long[] timestamps;
+    private final long[] bytePositions;
+
+    private int probeCount;
+
+    public ProbeCache() {
+      timestamps = new long[MAX_PROBE_COUNT];
+      bytePositions = new long[MAX_PROBE_COUNT];
+    }
+
+    /** Adds a timestamp found at a byte position, unless the timestamp is already cached. */
+    public synchronized void add(long timestamp, long bytePosition) {
+      int index = getIndexOfFirstTimestampAbove(timestamp);
+      if (probeCount == MAX_PROBE_COUNT || (index > 0 && timestamps[index - 1] == timestamp)) {
+        return;
+      }
+      System.arraycopy(timestamps, index, timestamps, index + 1, probeCount - index);
+      System.arraycopy(bytePositions, index, bytePositions, index + 1, probeCount - index);
+      timestamps[index] = timestamp;
+      bytePositions[index] = bytePosition;
+      probeCount++;
+    }
+
+    /**
+     * Narrows the range of the given operation to the closest cached timestamps below and above
+     * its target, if they're within its range.
+     */
+    public synchronized void narrowSearchRange(SeekOperationParams seekOperationParams) {
+      long targetTimePosition = seekOperationParams.targetTimePosition;
+      long floorTimePosition = seekOperationParams.floorTimePosition;
+      long ceilingTimePosition = seekOperationParams.ceilingTimePosition;
+      long floorBytePosition = seekOperationParams.floorBytePosition;
+      long ceilingBytePosition = seekOperationParams.ceilingBytePosition;
+      int ceilingIndex = getIndexOfFirstTimestampAbove(targetTimePosition);
+      int floorIndex = ceilingIndex - 1;
+      if (floorIndex >= 0 && timestamps[floorIndex] == targetTimePosition) {
+        floorIndex--;
+      }
+      if (floorIndex >= 0 && bytePositions[floorIndex] > floorBytePosition) {
+        floorTimePosition = timestamps[floorIndex];
+        floorBytePosition = bytePositions[floorIndex];
+      }
+      if (ceilingIndex < probeCount && bytePositions[ceilingIndex] < ceilingBytePosition) {
+        ceilingTimePosition = timestamps[ceilingIndex];
+        ceilingBytePosition = bytePositions[ceilingIndex];
+      }
+      if (floorBytePosition >= ceilingBytePosition || floorTimePosition >= ceilingTimePosition) {
+        // The cached steps are inconsistent with each other, so keep the original range.
+        return;
+      }
+      seekOperationParams.updateSeekFloor(floorTimePosition, floorBytePosition);
+      seekOperationParams.updateSeekCeiling(ceilingTimePosition, ceilingBytePosition);
+    }
+
+    private int getIndexOfFirstTimestampAbove(long timestamp) {
+      int low = 0;
+      int high = probeCount;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (timestamps[mid] <= timestamp) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
   }
 }
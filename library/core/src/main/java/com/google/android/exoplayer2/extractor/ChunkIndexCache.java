@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor;
+
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.Cache.CacheException;
+import com.google.android.exoplayer2.upstream.cache.ContentMetadata;
+import com.google.android.exoplayer2.upstream.cache.ContentMetadataMutations;
+import com.google.android.exoplayer2.util.Log;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Persists {@link ChunkIndex ChunkIndices} in the {@link ContentMetadata} of a {@link Cache}, so
+ * that an index that was read from a stream once doesn't need to be requested and parsed again
+ * when the same content is played later, including across application sessions.
+ *
+ * <p>Indices are stored in the metadata of the cache key under which the indexed media is cached.
+ * The cache removes metadata of keys for which no media is cached when it's initialized, so stored
+ * indices have the same lifetime as the cached media they describe.
+ */
+public final class ChunkIndexCache {
+
+  /** Metadata key under which an index covering a whole stream is stored. */
+  public static final String KEY_CHUNK_INDEX = "exo_cidx";
+
+  private static final String TAG = "ChunkIndexCache";
+
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 8;
+  private static final int ENTRY_SIZE = 28;
+
+  private final Cache cache;
+
+  /** @param cache The {@link Cache} in whose content metadata the indices are stored. */
+  public ChunkIndexCache(Cache cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Returns the {@link ChunkIndex} stored for a cache key, or null if no valid index is stored.
+   *
+   * @param cacheKey The cache key of the indexed media.
+   * @param metadataKey The metadata key under which the index is stored.
+   * @return The stored {@link ChunkIndex}, or null.
+   */
+  @Nullable
+  public ChunkIndex get(String cacheKey, String metadataKey) {
+    byte[] data =
+        cache.getContentMetadata(cacheKey).get(metadataKey, /* defaultValue= */ (byte[]) null);
+    if (data == null) {
+      return null;
+    }
+    try {
+      return deserialize(data);
+    } catch (IOException e) {
+      Log.w(TAG, "Ignoring invalid stored index.", e);
+      return null;
+    }
+  }
+
+  /**
+   * Stores a {@link ChunkIndex} for a cache key.
+   *
+   * @param cacheKey The cache key of the indexed media.
+   * @param metadataKey The metadata key under which to store the index.
+   * @param chunkIndex The {@link ChunkIndex} to store.
+   */
+  public void put(String cacheKey, String metadataKey, ChunkIndex chunkIndex) {
+    ContentMetadataMutations mutations = new ContentMetadataMutations();
+    mutations.set(metadataKey, serialize(chunkIndex));
+    try {
+      cache.applyContentMetadataMutations(cacheKey, mutations);
+    } catch (CacheException e) {
+      Log.w(TAG, "Failed to store index.", e);
+    }
+  }
+
+  /* package */ static byte[] serialize(ChunkIndex chunkIndex) {
+    ByteArrayOutputStream bytes =
+        new ByteArrayOutputStream(HEADER_SIZE + chunkIndex.length * ENTRY_SIZE);
+    DataOutputStream output = new DataOutputStream(bytes);
+    try {
+      output.writeInt(VERSION);
+      output.writeInt(chunkIndex.length);
+      for (int i = 0; i < chunkIndex.length; i++) {
+        output.writeInt(chunkIndex.sizes[i]);
+        output.writeLong(chunkIndex.offsets[i]);
+        output.writeLong(chunkIndex.durationsUs[i]);
+        output.writeLong(chunkIndex.timesUs[i]);
+      }
+      output.flush();
+    } catch (IOException e) {
+      // Never happens when writing to a ByteArrayOutputStream.
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /* package */ static ChunkIndex deserialize(byte[] data) throws IOException {
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+    int version = input.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported version: " + version);
+    }
+    int length = input.readInt();
+    if (length < 0 || length > (data.length - HEADER_SIZE) / ENTRY_SIZE) {
+      throw new IOException("Invalid length: " + length);
+    }
+    int[] sizes = new int[length];
+    long[] offsets = new long[length];
+    long[] durationsUs = new long[length];
+    long[] timesUs = new long[length];
+    for (int i = 0; i < length; i++) {
+      sizes[i] = input.readInt();
+      offsets[i] = input.readLong();
+      durationsUs[i] = input.readLong();
+      timesUs[i] = input.readLong();
+    }
+    return new ChunkIndex(sizes, offsets, durationsUs, timesUs);
+  }
+}
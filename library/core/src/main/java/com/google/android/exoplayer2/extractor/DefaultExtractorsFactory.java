@@ -15,6 +15,7 @@
  */
 package com.google.android.exoplayer2.extractor;
 
+import android.net.Uri;
 import com.google.android.exoplayer2.extractor.amr.AmrExtractor;
 import com.google.android.exoplayer2.extractor.flv.FlvExtractor;
 import com.google.android.exoplayer2.extractor.mkv.MatroskaExtractor;
@@ -30,8 +31,13 @@ import com.google.android.exoplayer2.extractor.ts.PsExtractor;
 import com.google.android.exoplayer2.extractor.ts.TsExtractor;
 import com.google.android.exoplayer2.extractor.ts.TsPayloadReader;
 import com.google.android.exoplayer2.extractor.wav.WavExtractor;
+import com.google.android.exoplayer2.util.FileTypes;
 import com.google.android.exoplayer2.util.TimestampAdjuster;
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 /**
  * An {@link ExtractorsFactory} that provides an array of extractors for the following formats:
@@ -52,9 +58,15 @@ import java.lang.reflect.Constructor;
  *   <li>AMR ({@link AmrExtractor})
  *   <li>FLAC (only available if the FLAC extension is built and included)
  * </ul>
+ *
+ * <p>When the file type can be inferred from the response headers or the {@link Uri} passed to
+ * {@link #createExtractors(Uri, Map)}, the extractors for that type are placed first so that
+ * extractor selection doesn't need to sniff the stream with each of the other extractors.
  */
 public final class DefaultExtractorsFactory implements ExtractorsFactory {
 
+  // The value of FlacExtractor.FLAG_ENABLE_PROBE_CACHING in the FLAC extension.
+  private static final int FLAC_EXTRACTOR_FLAG_ENABLE_PROBE_CACHING = 1 << 1;
   private static final Constructor<? extends Extractor> FLAC_EXTRACTOR_CONSTRUCTOR;
   static {
     Constructor<? extends Extractor> flacExtractorConstructor = null;
@@ -63,7 +75,7 @@ public final class DefaultExtractorsFactory implements ExtractorsFactory {
       flacExtractorConstructor =
           Class.forName("com.google.android.exoplayer2.ext.flac.FlacExtractor")
               .asSubclass(Extractor.class)
-              .getConstructor();
+              .getConstructor(int.class);
       // LINT.ThenChange(../../../../../../../../proguard-rules.txt)
     } catch (ClassNotFoundException e) {
       // Expected if the app was built without the FLAC extension.
@@ -74,7 +86,28 @@ public final class DefaultExtractorsFactory implements ExtractorsFactory {
     FLAC_EXTRACTOR_CONSTRUCTOR = flacExtractorConstructor;
   }
 
+  // The order in which extractors are tried when the file type can't be inferred from the URI or
+  // the response headers.
+  private static final int[] DEFAULT_EXTRACTOR_ORDER =
+      new int[] {
+        FileTypes.MATROSKA,
+        FileTypes.MP4,
+        FileTypes.MP3,
+        FileTypes.ADTS,
+        FileTypes.AC3,
+        FileTypes.TS,
+        FileTypes.FLV,
+        FileTypes.OGG,
+        FileTypes.PS,
+        FileTypes.WAV,
+        FileTypes.AMR,
+        FileTypes.AC4,
+        FileTypes.FLAC
+      };
+
   private boolean constantBitrateSeekingEnabled;
+  private boolean indexSeekingEnabled;
+  private boolean probeCachingEnabled;
   private @AdtsExtractor.Flags int adtsFlags;
   private @AmrExtractor.Flags int amrFlags;
   private @MatroskaExtractor.Flags int matroskaFlags;
@@ -105,6 +138,39 @@ public final class DefaultExtractorsFactory implements ExtractorsFactory {
     return this;
   }
 
+  /**
+   * Convenience method to set whether seeking using an index of the part of the stream that has
+   * been read should be enabled for all extractors that support it. Such seeks are exact and don't
+   * require any additional requests. If set to true, the flags required to enable this
+   * functionality will be OR'd with those passed to the setters when creating extractor instances.
+   *
+   * @param indexSeekingEnabled Whether index seeking should be enabled for all extractors that
+   *     support it.
+   * @return The factory, for convenience.
+   */
+  public synchronized DefaultExtractorsFactory setIndexSeekingEnabled(boolean indexSeekingEnabled) {
+    this.indexSeekingEnabled = indexSeekingEnabled;
+    return this;
+  }
+
+  /**
+   * Sets whether extractors that seek using a binary search should keep the timestamps found by
+   * previous searches, and use them to narrow later searches in the same stream so that they
+   * require fewer requests. Applies to the TS, PS and FLAC (extension) extractors. See {@link
+   * BinarySearchSeeker#experimental_setProbeCachingEnabled(boolean)}.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release.
+   *
+   * @param probeCachingEnabled Whether probe caching should be enabled for all extractors that
+   *     support it.
+   * @return The factory, for convenience.
+   */
+  public synchronized DefaultExtractorsFactory experimental_setProbeCachingEnabled(
+      boolean probeCachingEnabled) {
+    this.probeCachingEnabled = probeCachingEnabled;
+    return this;
+  }
+
   /**
    * Sets flags for {@link AdtsExtractor} instances created by the factory.
    *
@@ -208,44 +274,111 @@ public final class DefaultExtractorsFactory implements ExtractorsFactory {
 
   @Override
   public synchronized Extractor[] createExtractors() {
-    Extractor[] extractors = new Extractor[FLAC_EXTRACTOR_CONSTRUCTOR == null ? 13 : 14];
-    extractors[0] = new MatroskaExtractor(matroskaFlags);
-    extractors[1] = new FragmentedMp4Extractor(fragmentedMp4Flags);
-    extractors[2] = new Mp4Extractor(mp4Flags);
-    extractors[3] =
-        new Mp3Extractor(
-            mp3Flags
-                | (constantBitrateSeekingEnabled
-                    ? Mp3Extractor.FLAG_ENABLE_CONSTANT_BITRATE_SEEKING
-                    : 0));
-    extractors[4] =
-        new AdtsExtractor(
-            adtsFlags
-                | (constantBitrateSeekingEnabled
-                    ? AdtsExtractor.FLAG_ENABLE_CONSTANT_BITRATE_SEEKING
-                    : 0));
-    extractors[5] = new Ac3Extractor();
-    extractors[6] = new TsExtractor(tsMode, tsFlags);
-    extractors[7] = new FlvExtractor();
-    extractors[8] = new OggExtractor();
-    extractors[9] = new PsExtractor();
-    extractors[10] = new WavExtractor();
-    extractors[11] =
-        new AmrExtractor(
-            amrFlags
-                | (constantBitrateSeekingEnabled
-                    ? AmrExtractor.FLAG_ENABLE_CONSTANT_BITRATE_SEEKING
-                    : 0));
-    extractors[12] = new Ac4Extractor();
-    if (FLAC_EXTRACTOR_CONSTRUCTOR != null) {
-      try {
-        extractors[13] = FLAC_EXTRACTOR_CONSTRUCTOR.newInstance();
-      } catch (Exception e) {
-        // Should never happen.
-        throw new IllegalStateException("Unexpected error creating FLAC extractor", e);
+    return createExtractors(Uri.EMPTY, Collections.emptyMap());
+  }
+
+  @Override
+  public synchronized Extractor[] createExtractors(
+      Uri uri, Map<String, List<String>> responseHeaders) {
+    List<Extractor> extractors = new ArrayList<>(/* initialCapacity= */ 14);
+
+    @FileTypes.Type
+    int responseHeadersInferredFileType =
+        FileTypes.inferFileTypeFromResponseHeaders(responseHeaders);
+    if (responseHeadersInferredFileType != FileTypes.UNKNOWN) {
+      addExtractorsForFileType(responseHeadersInferredFileType, extractors);
+    }
+
+    @FileTypes.Type int uriInferredFileType = FileTypes.inferFileTypeFromUri(uri);
+    if (uriInferredFileType != FileTypes.UNKNOWN
+        && uriInferredFileType != responseHeadersInferredFileType) {
+      addExtractorsForFileType(uriInferredFileType, extractors);
+    }
+
+    for (int fileType : DEFAULT_EXTRACTOR_ORDER) {
+      if (fileType != responseHeadersInferredFileType && fileType != uriInferredFileType) {
+        addExtractorsForFileType(fileType, extractors);
       }
     }
-    return extractors;
+    return extractors.toArray(new Extractor[extractors.size()]);
   }
 
+  private void addExtractorsForFileType(@FileTypes.Type int fileType, List<Extractor> extractors) {
+    switch (fileType) {
+      case FileTypes.AC3:
+        extractors.add(new Ac3Extractor());
+        break;
+      case FileTypes.AC4:
+        extractors.add(new Ac4Extractor());
+        break;
+      case FileTypes.ADTS:
+        extractors.add(
+            new AdtsExtractor(
+                adtsFlags
+                    | (constantBitrateSeekingEnabled
+                        ? AdtsExtractor.FLAG_ENABLE_CONSTANT_BITRATE_SEEKING
+                        : 0)
+                    | (indexSeekingEnabled ? AdtsExtractor.FLAG_ENABLE_INDEX_SEEKING : 0)));
+        break;
+      case FileTypes.AMR:
+        extractors.add(
+            new AmrExtractor(
+                amrFlags
+                    | (constantBitrateSeekingEnabled
+                        ? AmrExtractor.FLAG_ENABLE_CONSTANT_BITRATE_SEEKING
+                        : 0)));
+        break;
+      case FileTypes.FLAC:
+        if (FLAC_EXTRACTOR_CONSTRUCTOR != null) {
+          try {
+            extractors.add(
+                FLAC_EXTRACTOR_CONSTRUCTOR.newInstance(
+                    probeCachingEnabled ? FLAC_EXTRACTOR_FLAG_ENABLE_PROBE_CACHING : 0));
+          } catch (Exception e) {
+            // Should never happen.
+            throw new IllegalStateException("Unexpected error creating FLAC extractor", e);
+          }
+        }
+        break;
+      case FileTypes.FLV:
+        extractors.add(new FlvExtractor());
+        break;
+      case FileTypes.MATROSKA:
+        extractors.add(new MatroskaExtractor(matroskaFlags));
+        break;
+      case FileTypes.MP3:
+        extractors.add(
+            new Mp3Extractor(
+                mp3Flags
+                    | (constantBitrateSeekingEnabled
+                        ? Mp3Extractor.FLAG_ENABLE_CONSTANT_BITRATE_SEEKING
+                        : 0)
+                    | (indexSeekingEnabled ? Mp3Extractor.FLAG_ENABLE_INDEX_SEEKING : 0)));
+        break;
+      case FileTypes.MP4:
+        extractors.add(new FragmentedMp4Extractor(fragmentedMp4Flags));
+        extractors.add(new Mp4Extractor(mp4Flags));
+        break;
+      case FileTypes.OGG:
+        extractors.add(new OggExtractor());
+        break;
+      case FileTypes.PS:
+        PsExtractor psExtractor = new PsExtractor();
+        psExtractor.experimental_setProbeCachingEnabled(probeCachingEnabled);
+        extractors.add(psExtractor);
+        break;
+      case FileTypes.TS:
+        TsExtractor tsExtractor = new TsExtractor(tsMode, tsFlags);
+        tsExtractor.experimental_setIndexSeekingEnabled(indexSeekingEnabled);
+        tsExtractor.experimental_setProbeCachingEnabled(probeCachingEnabled);
+        extractors.add(tsExtractor);
+        break;
+      case FileTypes.WAV:
+        extractors.add(new WavExtractor());
+        break;
+      case FileTypes.UNKNOWN:
+      default:
+        break;
+    }
+  }
 }
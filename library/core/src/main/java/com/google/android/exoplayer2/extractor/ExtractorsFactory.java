@@ -15,9 +15,27 @@
  */
 package com.google.android.exoplayer2.extractor;
 
+import android.net.Uri;
+import java.util.List;
+import java.util.Map;
+
 /** Factory for arrays of {@link Extractor} instances. */
 public interface ExtractorsFactory {
 
   /** Returns an array of new {@link Extractor} instances. */
   Extractor[] createExtractors();
+
+  /**
+   * Returns an array of new {@link Extractor} instances to extract the stream corresponding to the
+   * provided {@link Uri} and response headers. Implementations can use the information to order
+   * the extractors so that the one most likely to read the stream is tried first.
+   *
+   * @param uri The {@link Uri} of the media to extract.
+   * @param responseHeaders The response headers of the media to extract, or an empty map if there
+   *     are none. The map lookup should be case-insensitive.
+   * @return The {@link Extractor} instances.
+   */
+  default Extractor[] createExtractors(Uri uri, Map<String, List<String>> responseHeaders) {
+    return createExtractors();
+  }
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor;
+
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.util.Assertions;
+
+/**
+ * An index of exact seek points, built by an extractor as it reads a stream from its start.
+ *
+ * <p>Extractors for formats without a complete seek table can only estimate the position of a
+ * given time, for example by assuming a constant bitrate or by performing a binary search. This
+ * index records the time and position of frames as they're read, so that seeks back into the
+ * region that has already been read are exact and don't need any additional requests.
+ *
+ * <p>Seek points are only added while the stream is read contiguously from the start of its data,
+ * or from a position that is already in the index, so that the indexed region never has gaps. The
+ * number of points is bounded. When the index is full, every other point is dropped and the
+ * minimum time between points is doubled, so the points thin out as the indexed region grows.
+ *
+ * <p>The index may be queried from a different thread to the one that adds seek points.
+ */
+public final class SeekPointIndex {
+
+  /** The default minimum time between seek points, in microseconds. */
+  public static final long DEFAULT_MIN_TIME_BETWEEN_POINTS_US = 100_000;
+  /** The default maximum number of seek points. */
+  public static final int DEFAULT_MAX_POINT_COUNT = 4096;
+
+  private final long dataStartPosition;
+  private final long[] timesUs;
+  private final long[] positions;
+
+  private long minTimeBetweenPointsUs;
+  private int pointCount;
+  private long indexedEndTimeUs;
+  private boolean isIndexing;
+
+  /**
+   * Creates an instance using {@link #DEFAULT_MIN_TIME_BETWEEN_POINTS_US} and {@link
+   * #DEFAULT_MAX_POINT_COUNT}.
+   *
+   * @param dataStartPosition The position of the first frame in the stream.
+   */
+  public SeekPointIndex(long dataStartPosition) {
+    this(dataStartPosition, DEFAULT_MIN_TIME_BETWEEN_POINTS_US, DEFAULT_MAX_POINT_COUNT);
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param dataStartPosition The position of the first frame in the stream.
+   * @param minTimeBetweenPointsUs The initial minimum time between seek points, in microseconds.
+   * @param maxPointCount The maximum number of seek points. Must be at least two.
+   */
+  public SeekPointIndex(long dataStartPosition, long minTimeBetweenPointsUs, int maxPointCount) {
+    Assertions.checkArgument(maxPointCount >= 2);
+    this.dataStartPosition = dataStartPosition;
+    this.minTimeBetweenPointsUs = minTimeBetweenPointsUs;
+    timesUs = new long[maxPointCount];
+    positions = new long[maxPointCount];
+    indexedEndTimeUs = C.TIME_UNSET;
+    isIndexing = true;
+  }
+
+  /**
+   * Notifies the index that the extractor is about to read from a new position. Seek points are
+   * added after this call only if reading continues from the start of the data or from a position
+   * that is in the index.
+   *
+   * @param position The position from which the extractor is going to read.
+   */
+  public synchronized void onSeek(long position) {
+    isIndexing = position <= dataStartPosition || indexOfPosition(position) != C.INDEX_UNSET;
+  }
+
+  /**
+   * Adds a seek point for a frame that has been read, if the stream is being read contiguously and
+   * the frame is sufficiently far from the last indexed point. Must be called for the frames in
+   * the order in which they're read.
+   *
+   * @param timeUs The exact time of the frame, in microseconds.
+   * @param position The position of the start of the frame.
+   */
+  public synchronized void maybeAddSeekPoint(long timeUs, long position) {
+    if (!isIndexing) {
+      return;
+    }
+    if (indexedEndTimeUs == C.TIME_UNSET || timeUs > indexedEndTimeUs) {
+      indexedEndTimeUs = timeUs;
+    }
+    if (pointCount > 0
+        && (position <= positions[pointCount - 1]
+            || timeUs < timesUs[pointCount - 1] + minTimeBetweenPointsUs)) {
+      return;
+    }
+    if (pointCount == timesUs.length) {
+      // Drop every other point, keeping the first, and halve the density of future points.
+      for (int i = 2; i < pointCount; i += 2) {
+        timesUs[i / 2] = timesUs[i];
+        positions[i / 2] = positions[i];
+      }
+      pointCount = (pointCount + 1) / 2;
+      minTimeBetweenPointsUs *= 2;
+      if (timeUs < timesUs[pointCount - 1] + minTimeBetweenPointsUs) {
+        return;
+      }
+    }
+    timesUs[pointCount] = timeUs;
+    positions[pointCount] = position;
+    pointCount++;
+  }
+
+  /** Returns the number of seek points in the index. */
+  public synchronized int getSeekPointCount() {
+    return pointCount;
+  }
+
+  /**
+   * Returns the time of the seek point at the given position, or {@link C#TIME_UNSET} if the
+   * position isn't the position of a seek point in the index.
+   *
+   * @param position The position.
+   * @return The exact time at the position, in microseconds, or {@link C#TIME_UNSET}.
+   */
+  public synchronized long getTimeUs(long position) {
+    int index = indexOfPosition(position);
+    return index == C.INDEX_UNSET ? C.TIME_UNSET : timesUs[index];
+  }
+
+  /**
+   * Returns the seek points for the given time, or null if the time is beyond the indexed region.
+   *
+   * @param timeUs A seek time in microseconds.
+   * @return The indexed seek points surrounding the time, or null.
+   */
+  @Nullable
+  public synchronized SeekMap.SeekPoints getSeekPoints(long timeUs) {
+    if (pointCount == 0 || timeUs > indexedEndTimeUs) {
+      return null;
+    }
+    int index = binarySearchFloor(timesUs, pointCount, timeUs);
+    if (index == C.INDEX_UNSET) {
+      return new SeekMap.SeekPoints(new SeekPoint(timesUs[0], positions[0]));
+    }
+    SeekPoint seekPoint = new SeekPoint(timesUs[index], positions[index]);
+    if (seekPoint.timeUs == timeUs || index == pointCount - 1) {
+      return new SeekMap.SeekPoints(seekPoint);
+    }
+    return new SeekMap.SeekPoints(
+        seekPoint, new SeekPoint(timesUs[index + 1], positions[index + 1]));
+  }
+
+  /**
+   * Returns a {@link SeekMap} that uses the index for seeks into the indexed region, and the given
+   * {@link SeekMap} for all other seeks.
+   *
+   * @param fallbackSeekMap The {@link SeekMap} to use for seeks beyond the indexed region. Also
+   *     determines whether the stream is seekable and its duration.
+   * @return The {@link SeekMap}.
+   */
+  public SeekMap createSeekMap(SeekMap fallbackSeekMap) {
+    return new IndexSeekMap(this, fallbackSeekMap);
+  }
+
+  private int indexOfPosition(long position) {
+    int index = binarySearchFloor(positions, pointCount, position);
+    return index != C.INDEX_UNSET && positions[index] == position ? index : C.INDEX_UNSET;
+  }
+
+  /**
+   * Returns the index of the largest of the first {@code length} values that is less than or
+   * equal to {@code value}, or {@link C#INDEX_UNSET} if there's no such value.
+   */
+  private static int binarySearchFloor(long[] values, int length, long value) {
+    int low = 0;
+    int high = length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (values[mid] <= value) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high >= 0 ? high : C.INDEX_UNSET;
+  }
+
+  private static final class IndexSeekMap implements SeekMap {
+
+    private final SeekPointIndex seekPointIndex;
+    private final SeekMap fallbackSeekMap;
+
+    public IndexSeekMap(SeekPointIndex seekPointIndex, SeekMap fallbackSeekMap) {
+      this.seekPointIndex = seekPointIndex;
+      this.fallbackSeekMap = fallbackSeekMap;
+    }
+
+    @Override
+    public boolean isSeekable() {
+      return fallbackSeekMap.isSeekable();
+    }
+
+    @Override
+    public long getDurationUs() {
+      return fallbackSeekMap.getDurationUs();
+    }
+
+    @Override
+    public SeekPoints getSeekPoints(long timeUs) {
+      @Nullable SeekPoints seekPoints = seekPointIndex.getSeekPoints(timeUs);
+      return seekPoints != null ? seekPoints : fallbackSeekMap.getSeekPoints(timeUs);
+    }
+  }
+}
@@ -358,6 +358,7 @@ public class MatroskaExtractor implements Extractor {
   private long clusterTimecodeUs = C.TIME_UNSET;
   private LongArray cueTimesUs;
   private LongArray cueClusterPositions;
+  @Nullable private ChunkIndex storedCuesIndex;
   private boolean seenClusterPositionForCurrentCuePoint;
 
   // Reading state.
@@ -422,6 +423,22 @@ public class MatroskaExtractor implements Extractor {
     return new Sniffer().sniff(input);
   }
 
+  /**
+   * Sets a {@link ChunkIndex} previously built from the cues of the same stream. If set, the index
+   * is output as the {@link SeekMap} when the first cluster is reached, and the extractor doesn't
+   * seek to the cues element to build it.
+   *
+   * <p>The index is only used if it covers the segment and duration read from the stream, which
+   * both change when the stream is modified. Otherwise it's discarded and the cues are read.
+   *
+   * <p>Must be called before the first call to {@link #read(ExtractorInput, PositionHolder)}.
+   *
+   * @param cuesIndex The {@link ChunkIndex}, or null to build the index from the stream.
+   */
+  public final void setStoredCuesIndex(@Nullable ChunkIndex cuesIndex) {
+    storedCuesIndex = cuesIndex;
+  }
+
   @Override
   public final void init(ExtractorOutput output) {
     extractorOutput = output;
@@ -613,7 +630,11 @@ public class MatroskaExtractor implements Extractor {
       case ID_CLUSTER:
         if (!sentSeekMap) {
           // We need to build cues before parsing the cluster.
-          if (seekForCuesEnabled && cuesContentPosition != C.POSITION_UNSET) {
+          if (storedCuesIndex != null && isStoredCuesIndexValid(storedCuesIndex)) {
+            // The cues were read previously. There's no need to request them again.
+            extractorOutput.seekMap(storedCuesIndex);
+            sentSeekMap = true;
+          } else if (seekForCuesEnabled && cuesContentPosition != C.POSITION_UNSET) {
             // We know where the Cues element is located. Seek to request it.
             seekForCues = true;
           } else {
@@ -1640,6 +1661,24 @@ public class MatroskaExtractor implements Extractor {
     return new ChunkIndex(sizes, offsets, durationsUs, timesUs);
   }
 
+  /**
+   * Returns whether a stored cues index matches the stream, which is the case if it ends where the
+   * segment ends and covers its duration, as an index built by {@link #buildSeekMap()} does.
+   */
+  private boolean isStoredCuesIndexValid(ChunkIndex cuesIndex) {
+    if (segmentContentPosition == C.POSITION_UNSET
+        || segmentContentSize == C.LENGTH_UNSET
+        || durationUs == C.TIME_UNSET
+        || cuesIndex.length == 0) {
+      return false;
+    }
+    int lastIndex = cuesIndex.length - 1;
+    return cuesIndex.offsets[0] >= segmentContentPosition
+        && cuesIndex.offsets[lastIndex] + cuesIndex.sizes[lastIndex]
+            == segmentContentPosition + segmentContentSize
+        && cuesIndex.timesUs[lastIndex] + cuesIndex.durationsUs[lastIndex] == durationUs;
+  }
+
   /**
    * Updates the position of the holder to Cues element's position if the extractor configuration
    * permits use of master seek entry. After building Cues sets the holder's position back to where
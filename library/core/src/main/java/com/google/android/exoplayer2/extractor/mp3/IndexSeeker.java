@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor.mp3;
+
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.extractor.SeekPointIndex;
+
+/**
+ * MP3 seeker that uses a {@link SeekPointIndex} of the frames that have been read for seeks into
+ * the indexed region, and another {@link Seeker} for all other seeks.
+ */
+/* package */ final class IndexSeeker implements Seeker {
+
+  private final Seeker fallbackSeeker;
+  private final SeekPointIndex seekPointIndex;
+
+  /**
+   * @param fallbackSeeker The seeker to use for seeks beyond the indexed region.
+   * @param dataStartPosition The position of the first frame in the stream.
+   */
+  public IndexSeeker(Seeker fallbackSeeker, long dataStartPosition) {
+    this.fallbackSeeker = fallbackSeeker;
+    seekPointIndex = new SeekPointIndex(dataStartPosition);
+  }
+
+  /** @see SeekPointIndex#onSeek(long) */
+  public void onSeek(long position) {
+    seekPointIndex.onSeek(position);
+  }
+
+  /** @see SeekPointIndex#maybeAddSeekPoint(long, long) */
+  public void maybeAddSeekPoint(long timeUs, long position) {
+    seekPointIndex.maybeAddSeekPoint(timeUs, position);
+  }
+
+  @Override
+  public boolean isSeekable() {
+    return fallbackSeeker.isSeekable();
+  }
+
+  @Override
+  public long getDurationUs() {
+    return fallbackSeeker.getDurationUs();
+  }
+
+  @Override
+  public SeekPoints getSeekPoints(long timeUs) {
+    @Nullable SeekPoints seekPoints = seekPointIndex.getSeekPoints(timeUs);
+    return seekPoints != null ? seekPoints : fallbackSeeker.getSeekPoints(timeUs);
+  }
+
+  @Override
+  public long getTimeUs(long position) {
+    long timeUs = seekPointIndex.getTimeUs(position);
+    return timeUs != C.TIME_UNSET ? timeUs : fallbackSeeker.getTimeUs(position);
+  }
+
+  @Override
+  public long getDataEndPosition() {
+    return fallbackSeeker.getDataEndPosition();
+  }
+}
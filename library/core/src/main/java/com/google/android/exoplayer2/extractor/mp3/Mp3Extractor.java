@@ -51,13 +51,18 @@ public final class Mp3Extractor implements Extractor {
 
   /**
    * Flags controlling the behavior of the extractor. Possible flag values are {@link
-   * #FLAG_ENABLE_CONSTANT_BITRATE_SEEKING} and {@link #FLAG_DISABLE_ID3_METADATA}.
+   * #FLAG_ENABLE_CONSTANT_BITRATE_SEEKING}, {@link #FLAG_DISABLE_ID3_METADATA} and {@link
+   * #FLAG_ENABLE_INDEX_SEEKING}.
    */
   @Documented
   @Retention(RetentionPolicy.SOURCE)
   @IntDef(
       flag = true,
-      value = {FLAG_ENABLE_CONSTANT_BITRATE_SEEKING, FLAG_DISABLE_ID3_METADATA})
+      value = {
+        FLAG_ENABLE_CONSTANT_BITRATE_SEEKING,
+        FLAG_DISABLE_ID3_METADATA,
+        FLAG_ENABLE_INDEX_SEEKING
+      })
   public @interface Flags {}
   /**
    * Flag to force enable seeking using a constant bitrate assumption in cases where seeking would
@@ -69,6 +74,12 @@ public final class Mp3Extractor implements Extractor {
    * required.
    */
   public static final int FLAG_DISABLE_ID3_METADATA = 2;
+  /**
+   * Flag to build an index of the frames as they're read, and to use it for exact seeking into the
+   * part of the stream that has been read. Seeks beyond that part use the seek table or constant
+   * bitrate assumption as usual. Has no effect if the stream isn't seekable.
+   */
+  public static final int FLAG_ENABLE_INDEX_SEEKING = 4;
 
   /** Predicate that matches ID3 frames containing only required gapless/seeking metadata. */
   private static final FramePredicate REQUIRED_ID3_FRAME_PREDICATE =
@@ -166,6 +177,9 @@ public final class Mp3Extractor implements Extractor {
     basisTimeUs = C.TIME_UNSET;
     samplesRead = 0;
     sampleBytesRemaining = 0;
+    if (seeker instanceof IndexSeeker) {
+      ((IndexSeeker) seeker).onSeek(position);
+    }
   }
 
   @Override
@@ -201,6 +215,9 @@ public final class Mp3Extractor implements Extractor {
             || (!seeker.isSeekable() && (flags & FLAG_ENABLE_CONSTANT_BITRATE_SEEKING) != 0)) {
           seeker = getConstantBitrateSeeker(input);
         }
+        if (seeker.isSeekable() && (flags & FLAG_ENABLE_INDEX_SEEKING) != 0) {
+          seeker = new IndexSeeker(seeker, /* dataStartPosition= */ input.getPosition());
+        }
       }
       extractorOutput.seekMap(seeker);
       trackOutput.format(
@@ -266,6 +283,10 @@ public final class Mp3Extractor implements Extractor {
         }
       }
       sampleBytesRemaining = synchronizedHeader.frameSize;
+      if (seeker instanceof IndexSeeker) {
+        ((IndexSeeker) seeker)
+            .maybeAddSeekPoint(computeTimeUs(samplesRead), extractorInput.getPosition());
+      }
     }
     int bytesAppended = trackOutput.sampleData(extractorInput, sampleBytesRemaining, true);
     if (bytesAppended == C.RESULT_END_OF_INPUT) {
@@ -275,14 +296,21 @@ public final class Mp3Extractor implements Extractor {
     if (sampleBytesRemaining > 0) {
       return RESULT_CONTINUE;
     }
-    long timeUs = basisTimeUs + (samplesRead * C.MICROS_PER_SECOND / synchronizedHeader.sampleRate);
-    trackOutput.sampleMetadata(timeUs, C.BUFFER_FLAG_KEY_FRAME, synchronizedHeader.frameSize, 0,
-        null);
+    trackOutput.sampleMetadata(
+        computeTimeUs(samplesRead),
+        C.BUFFER_FLAG_KEY_FRAME,
+        synchronizedHeader.frameSize,
+        /* offset= */ 0,
+        /* encryptionData= */ null);
     samplesRead += synchronizedHeader.samplesPerFrame;
     sampleBytesRemaining = 0;
     return RESULT_CONTINUE;
   }
 
+  private long computeTimeUs(long samplesRead) {
+    return basisTimeUs + samplesRead * C.MICROS_PER_SECOND / synchronizedHeader.sampleRate;
+  }
+
   private boolean synchronize(ExtractorInput input, boolean sniffing)
       throws IOException, InterruptedException {
     int validFrameCount = 0;
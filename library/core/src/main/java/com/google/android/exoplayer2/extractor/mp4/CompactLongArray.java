@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor.mp4;
+
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.C;
+import java.util.Arrays;
+
+/**
+ * An immutable array of long values that is stored compactly if neighboring values are close to
+ * each other, as is the case for the sample offsets, sizes and timestamps of a track.
+ *
+ * <p>Values are stored in blocks of {@link #BLOCK_SIZE} values. If the values in a block increase
+ * by the same amount, as for constant sample durations, only the first value and the step are
+ * stored. Otherwise each value is stored as an unsigned 32-bit offset from the smallest value in
+ * the block. Values are only stored uncompressed if a block's values span more than 32 bits.
+ */
+/* package */ final class CompactLongArray {
+
+  /** The number of values in each block. */
+  /* package */ static final int BLOCK_SIZE = 64;
+
+  private static final int BLOCK_SIZE_LOG2 = 6;
+  private static final int BLOCK_INDEX_MASK = BLOCK_SIZE - 1;
+  private static final long MAX_OFFSET_FROM_BLOCK_BASE = 0xFFFFFFFFL;
+
+  private final int length;
+  private final long[] blockBaseValues;
+  private final int[] blockSteps;
+  private final int[] blockOffsetsStartIndices;
+  private final int[] offsetsFromBlockBase;
+  @Nullable private final long[] uncompressedValues;
+
+  /**
+   * Creates an instance holding the given values.
+   *
+   * @param values The values, which are copied.
+   */
+  public CompactLongArray(long[] values) {
+    length = values.length;
+    int blockCount = (length + BLOCK_SIZE - 1) >> BLOCK_SIZE_LOG2;
+    long[] blockBaseValues = new long[blockCount];
+    int[] blockSteps = new int[blockCount];
+    int[] blockOffsetsStartIndices = new int[blockCount];
+    int[] offsetsFromBlockBase = new int[length];
+    int offsetCount = 0;
+    for (int block = 0; block < blockCount; block++) {
+      int startIndex = block << BLOCK_SIZE_LOG2;
+      int endIndex = Math.min(startIndex + BLOCK_SIZE, length);
+      long step = endIndex - startIndex > 1 ? values[startIndex + 1] - values[startIndex] : 0;
+      if (isArithmeticProgression(values, startIndex, endIndex, step)) {
+        blockBaseValues[block] = values[startIndex];
+        blockSteps[block] = (int) step;
+        blockOffsetsStartIndices[block] = C.INDEX_UNSET;
+        continue;
+      }
+      long minValue = Long.MAX_VALUE;
+      long maxValue = Long.MIN_VALUE;
+      for (int i = startIndex; i < endIndex; i++) {
+        minValue = Math.min(minValue, values[i]);
+        maxValue = Math.max(maxValue, values[i]);
+      }
+      if (maxValue - minValue > MAX_OFFSET_FROM_BLOCK_BASE || maxValue - minValue < 0) {
+        // The values are too far apart to be stored as offsets.
+        this.blockBaseValues = new long[0];
+        this.blockSteps = new int[0];
+        this.blockOffsetsStartIndices = new int[0];
+        this.offsetsFromBlockBase = new int[0];
+        uncompressedValues = Arrays.copyOf(values, length);
+        return;
+      }
+      blockBaseValues[block] = minValue;
+      blockOffsetsStartIndices[block] = offsetCount;
+      for (int i = startIndex; i < endIndex; i++) {
+        offsetsFromBlockBase[offsetCount++] = (int) (values[i] - minValue);
+      }
+    }
+    this.blockBaseValues = blockBaseValues;
+    this.blockSteps = blockSteps;
+    this.blockOffsetsStartIndices = blockOffsetsStartIndices;
+    this.offsetsFromBlockBase = Arrays.copyOf(offsetsFromBlockBase, offsetCount);
+    uncompressedValues = null;
+  }
+
+  /** Returns the number of values. */
+  public int size() {
+    return length;
+  }
+
+  /**
+   * Returns the value at the given index.
+   *
+   * @param index The index of the value.
+   * @return The value.
+   * @throws ArrayIndexOutOfBoundsException If the index is out of bounds.
+   */
+  public long get(int index) {
+    if (index < 0 || index >= length) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    if (uncompressedValues != null) {
+      return uncompressedValues[index];
+    }
+    int block = index >> BLOCK_SIZE_LOG2;
+    int indexInBlock = index & BLOCK_INDEX_MASK;
+    int offsetsStartIndex = blockOffsetsStartIndices[block];
+    if (offsetsStartIndex == C.INDEX_UNSET) {
+      return blockBaseValues[block] + (long) blockSteps[block] * indexInBlock;
+    }
+    return blockBaseValues[block]
+        + (offsetsFromBlockBase[offsetsStartIndex + indexInBlock] & MAX_OFFSET_FROM_BLOCK_BASE);
+  }
+
+  private static boolean isArithmeticProgression(
+      long[] values, int startIndex, int endIndex, long step) {
+    if (step < Integer.MIN_VALUE || step > Integer.MAX_VALUE) {
+      return false;
+    }
+    for (int i = startIndex + 1; i < endIndex; i++) {
+      if (values[i] - values[i - 1] != step) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
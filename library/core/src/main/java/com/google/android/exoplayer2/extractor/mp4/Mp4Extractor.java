@@ -115,7 +115,7 @@ public final class Mp4Extractor implements Extractor, SeekMap {
   // Extractor outputs.
   private ExtractorOutput extractorOutput;
   private Mp4Track[] tracks;
-  private long[][] accumulatedSampleSizes;
+  private CompactLongArray[] accumulatedSampleSizes;
   private int firstVideoTrackIndex;
   private long durationUs;
   private boolean isQuickTime;
@@ -226,14 +226,14 @@ public final class Mp4Extractor implements Extractor, SeekMap {
       if (sampleIndex == C.INDEX_UNSET) {
         return new SeekPoints(SeekPoint.START);
       }
-      long sampleTimeUs = sampleTable.timestampsUs[sampleIndex];
+      long sampleTimeUs = sampleTable.getTimestampUs(sampleIndex);
       firstTimeUs = sampleTimeUs;
-      firstOffset = sampleTable.offsets[sampleIndex];
+      firstOffset = sampleTable.getOffset(sampleIndex);
       if (sampleTimeUs < timeUs && sampleIndex < sampleTable.sampleCount - 1) {
         int secondSampleIndex = sampleTable.getIndexOfLaterOrEqualSynchronizationSample(timeUs);
         if (secondSampleIndex != C.INDEX_UNSET && secondSampleIndex != sampleIndex) {
-          secondTimeUs = sampleTable.timestampsUs[secondSampleIndex];
-          secondOffset = sampleTable.offsets[secondSampleIndex];
+          secondTimeUs = sampleTable.getTimestampUs(secondSampleIndex);
+          secondOffset = sampleTable.getOffset(secondSampleIndex);
         }
       }
     } else {
@@ -507,8 +507,8 @@ public final class Mp4Extractor implements Extractor, SeekMap {
     Mp4Track track = tracks[sampleTrackIndex];
     TrackOutput trackOutput = track.trackOutput;
     int sampleIndex = track.sampleIndex;
-    long position = track.sampleTable.offsets[sampleIndex];
-    int sampleSize = track.sampleTable.sizes[sampleIndex];
+    long position = track.sampleTable.getOffset(sampleIndex);
+    int sampleSize = track.sampleTable.getSize(sampleIndex);
     long skipAmount = position - inputPosition + sampleBytesWritten;
     if (skipAmount < 0 || skipAmount >= RELOAD_MINIMUM_SEEK_DISTANCE) {
       positionHolder.position = position;
@@ -570,8 +570,8 @@ public final class Mp4Extractor implements Extractor, SeekMap {
         sampleCurrentNalBytesRemaining -= writtenBytes;
       }
     }
-    trackOutput.sampleMetadata(track.sampleTable.timestampsUs[sampleIndex],
-        track.sampleTable.flags[sampleIndex], sampleSize, 0, null);
+    trackOutput.sampleMetadata(track.sampleTable.getTimestampUs(sampleIndex),
+        track.sampleTable.getFlags(sampleIndex), sampleSize, 0, null);
     track.sampleIndex++;
     sampleTrackIndex = C.INDEX_UNSET;
     sampleBytesWritten = 0;
@@ -606,8 +606,8 @@ public final class Mp4Extractor implements Extractor, SeekMap {
       if (sampleIndex == track.sampleTable.sampleCount) {
         continue;
       }
-      long sampleOffset = track.sampleTable.offsets[sampleIndex];
-      long sampleAccumulatedBytes = accumulatedSampleSizes[trackIndex][sampleIndex];
+      long sampleOffset = track.sampleTable.getOffset(sampleIndex);
+      long sampleAccumulatedBytes = accumulatedSampleSizes[trackIndex].get(sampleIndex);
       long skipAmount = sampleOffset - inputPosition;
       boolean requiresReload = skipAmount < 0 || skipAmount >= RELOAD_MINIMUM_SEEK_DISTANCE;
       if ((!requiresReload && preferredRequiresReload)
@@ -675,14 +675,14 @@ public final class Mp4Extractor implements Extractor, SeekMap {
    * For each sample of each track, calculates accumulated size of all samples which need to be read
    * before this sample can be used.
    */
-  private static long[][] calculateAccumulatedSampleSizes(Mp4Track[] tracks) {
+  private static CompactLongArray[] calculateAccumulatedSampleSizes(Mp4Track[] tracks) {
     long[][] accumulatedSampleSizes = new long[tracks.length][];
     int[] nextSampleIndex = new int[tracks.length];
     long[] nextSampleTimesUs = new long[tracks.length];
     boolean[] tracksFinished = new boolean[tracks.length];
     for (int i = 0; i < tracks.length; i++) {
       accumulatedSampleSizes[i] = new long[tracks[i].sampleTable.sampleCount];
-      nextSampleTimesUs[i] = tracks[i].sampleTable.timestampsUs[0];
+      nextSampleTimesUs[i] = tracks[i].sampleTable.getTimestampUs(0);
     }
     long accumulatedSampleSize = 0;
     int finishedTracks = 0;
@@ -697,17 +697,21 @@ public final class Mp4Extractor implements Extractor, SeekMap {
       }
       int trackSampleIndex = nextSampleIndex[minTimeTrackIndex];
       accumulatedSampleSizes[minTimeTrackIndex][trackSampleIndex] = accumulatedSampleSize;
-      accumulatedSampleSize += tracks[minTimeTrackIndex].sampleTable.sizes[trackSampleIndex];
+      accumulatedSampleSize += tracks[minTimeTrackIndex].sampleTable.getSize(trackSampleIndex);
       nextSampleIndex[minTimeTrackIndex] = ++trackSampleIndex;
       if (trackSampleIndex < accumulatedSampleSizes[minTimeTrackIndex].length) {
         nextSampleTimesUs[minTimeTrackIndex] =
-            tracks[minTimeTrackIndex].sampleTable.timestampsUs[trackSampleIndex];
+            tracks[minTimeTrackIndex].sampleTable.getTimestampUs(trackSampleIndex);
       } else {
         tracksFinished[minTimeTrackIndex] = true;
         finishedTracks++;
       }
     }
-    return accumulatedSampleSizes;
+    CompactLongArray[] compactAccumulatedSampleSizes = new CompactLongArray[tracks.length];
+    for (int i = 0; i < tracks.length; i++) {
+      compactAccumulatedSampleSizes[i] = new CompactLongArray(accumulatedSampleSizes[i]);
+    }
+    return compactAccumulatedSampleSizes;
   }
 
   /**
@@ -725,7 +729,7 @@ public final class Mp4Extractor implements Extractor, SeekMap {
     if (sampleIndex == C.INDEX_UNSET) {
       return offset;
     }
-    long sampleOffset = sampleTable.offsets[sampleIndex];
+    long sampleOffset = sampleTable.getOffset(sampleIndex);
     return Math.min(sampleOffset, offset);
   }
 
@@ -17,10 +17,13 @@ package com.google.android.exoplayer2.extractor.mp4;
 
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.util.Assertions;
-import com.google.android.exoplayer2.util.Util;
 
 /**
  * Sample table for a track in an MP4 file.
+ *
+ * <p>The table is held for as long as the file is being played, so sample offsets, sizes and
+ * timestamps are stored in {@link CompactLongArray CompactLongArrays} and synchronization samples
+ * in a bit set, rather than in arrays holding a value for each sample.
  */
 /* package */ final class TrackSampleTable {
 
@@ -28,22 +31,31 @@ import com.google.android.exoplayer2.util.Util;
   public final Track track;
   /** Number of samples. */
   public final int sampleCount;
-  /** Sample offsets in bytes. */
-  public final long[] offsets;
-  /** Sample sizes in bytes. */
-  public final int[] sizes;
-  /** Maximum sample size in {@link #sizes}. */
+  /** Maximum sample size in bytes. */
   public final int maximumSize;
-  /** Sample timestamps in microseconds. */
-  public final long[] timestampsUs;
-  /** Sample flags. */
-  public final int[] flags;
   /**
    * The duration of the track sample table in microseconds, or {@link C#TIME_UNSET} if the sample
    * table is empty.
    */
   public final long durationUs;
 
+  private final CompactLongArray offsets;
+  private final CompactLongArray sizes;
+  private final CompactLongArray timestampsUs;
+  private final long[] synchronizationSampleBits;
+
+  /**
+   * Creates a sample table.
+   *
+   * @param track The track corresponding to this sample table.
+   * @param offsets Sample offsets in bytes.
+   * @param sizes Sample sizes in bytes.
+   * @param maximumSize Maximum sample size in {@code sizes}.
+   * @param timestampsUs Sample timestamps in microseconds.
+   * @param flags Sample flags. Only {@link C#BUFFER_FLAG_KEY_FRAME} is retained.
+   * @param durationUs The duration of the track sample table in microseconds, or {@link
+   *     C#TIME_UNSET} if the sample table is empty.
+   */
   public TrackSampleTable(
       Track track,
       long[] offsets,
@@ -57,18 +69,57 @@ import com.google.android.exoplayer2.util.Util;
     Assertions.checkArgument(flags.length == timestampsUs.length);
 
     this.track = track;
-    this.offsets = offsets;
-    this.sizes = sizes;
     this.maximumSize = maximumSize;
-    this.timestampsUs = timestampsUs;
-    this.flags = flags;
     this.durationUs = durationUs;
     sampleCount = offsets.length;
-    if (flags.length > 0) {
-      flags[flags.length - 1] |= C.BUFFER_FLAG_LAST_SAMPLE;
+    this.offsets = new CompactLongArray(offsets);
+    long[] sizesAsLongs = new long[sampleCount];
+    for (int i = 0; i < sampleCount; i++) {
+      sizesAsLongs[i] = sizes[i];
+    }
+    this.sizes = new CompactLongArray(sizesAsLongs);
+    this.timestampsUs = new CompactLongArray(timestampsUs);
+    synchronizationSampleBits = new long[(sampleCount + 63) >> 6];
+    for (int i = 0; i < sampleCount; i++) {
+      if ((flags[i] & C.BUFFER_FLAG_KEY_FRAME) != 0) {
+        synchronizationSampleBits[i >> 6] |= 1L << i;
+      }
     }
   }
 
+  /** Returns the offset of the sample at the given index, in bytes. */
+  public long getOffset(int sampleIndex) {
+    return offsets.get(sampleIndex);
+  }
+
+  /** Returns the size of the sample at the given index, in bytes. */
+  public int getSize(int sampleIndex) {
+    return (int) sizes.get(sampleIndex);
+  }
+
+  /** Returns the timestamp of the sample at the given index, in microseconds. */
+  public long getTimestampUs(int sampleIndex) {
+    return timestampsUs.get(sampleIndex);
+  }
+
+  /**
+   * Returns the {@link C.BufferFlags} of the sample at the given index. The last sample has {@link
+   * C#BUFFER_FLAG_LAST_SAMPLE} set.
+   */
+  @C.BufferFlags
+  public int getFlags(int sampleIndex) {
+    int flags = isSynchronizationSample(sampleIndex) ? C.BUFFER_FLAG_KEY_FRAME : 0;
+    if (sampleIndex == sampleCount - 1) {
+      flags |= C.BUFFER_FLAG_LAST_SAMPLE;
+    }
+    return flags;
+  }
+
+  /** Returns whether the sample at the given index is a synchronization sample. */
+  public boolean isSynchronizationSample(int sampleIndex) {
+    return (synchronizationSampleBits[sampleIndex >> 6] & (1L << sampleIndex)) != 0;
+  }
+
   /**
    * Returns the sample index of the closest synchronization sample at or before the given
    * timestamp, if one is available.
@@ -79,9 +130,9 @@ import com.google.android.exoplayer2.util.Util;
   public int getIndexOfEarlierOrEqualSynchronizationSample(long timeUs) {
     // Video frame timestamps may not be sorted, so the behavior of this call can be undefined.
     // Frames are not reordered past synchronization samples so this works in practice.
-    int startIndex = Util.binarySearchFloor(timestampsUs, timeUs, true, false);
+    int startIndex = binarySearchTimestampsFloor(timeUs);
     for (int i = startIndex; i >= 0; i--) {
-      if ((flags[i] & C.BUFFER_FLAG_KEY_FRAME) != 0) {
+      if (isSynchronizationSample(i)) {
         return i;
       }
     }
@@ -96,13 +147,55 @@ import com.google.android.exoplayer2.util.Util;
    * @return index Index of the synchronization sample, or {@link C#INDEX_UNSET} if none.
    */
   public int getIndexOfLaterOrEqualSynchronizationSample(long timeUs) {
-    int startIndex = Util.binarySearchCeil(timestampsUs, timeUs, true, false);
-    for (int i = startIndex; i < timestampsUs.length; i++) {
-      if ((flags[i] & C.BUFFER_FLAG_KEY_FRAME) != 0) {
+    int startIndex = binarySearchTimestampsCeil(timeUs);
+    for (int i = startIndex; i < sampleCount; i++) {
+      if (isSynchronizationSample(i)) {
         return i;
       }
     }
     return C.INDEX_UNSET;
   }
 
+  // Internal methods. The searches behave like Util.binarySearchFloor and Util.binarySearchCeil
+  // with inclusive set and stayInBounds unset, including for unsorted timestamps.
+
+  private int binarySearchTimestampsFloor(long timeUs) {
+    int index = binarySearchTimestamps(timeUs);
+    if (index < 0) {
+      index = -(index + 2);
+    } else {
+      while (--index >= 0 && timestampsUs.get(index) == timeUs) {}
+      index++;
+    }
+    return index;
+  }
+
+  private int binarySearchTimestampsCeil(long timeUs) {
+    int index = binarySearchTimestamps(timeUs);
+    if (index < 0) {
+      index = ~index;
+    } else {
+      while (++index < sampleCount && timestampsUs.get(index) == timeUs) {}
+      index--;
+    }
+    return index;
+  }
+
+  /** Equivalent to {@link java.util.Arrays#binarySearch(long[], long)} on the timestamps. */
+  private int binarySearchTimestamps(long timeUs) {
+    int low = 0;
+    int high = sampleCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long midTimeUs = timestampsUs.get(mid);
+      if (midTimeUs < timeUs) {
+        low = mid + 1;
+      } else if (midTimeUs > timeUs) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
 }
@@ -30,6 +30,7 @@ import com.google.android.exoplayer2.extractor.ExtractorOutput;
 import com.google.android.exoplayer2.extractor.ExtractorsFactory;
 import com.google.android.exoplayer2.extractor.PositionHolder;
 import com.google.android.exoplayer2.extractor.SeekMap;
+import com.google.android.exoplayer2.extractor.SeekPointIndex;
 import com.google.android.exoplayer2.extractor.ts.TsPayloadReader.TrackIdGenerator;
 import com.google.android.exoplayer2.util.Assertions;
 import com.google.android.exoplayer2.util.ParsableBitArray;
@@ -49,14 +50,14 @@ public final class AdtsExtractor implements Extractor {
   public static final ExtractorsFactory FACTORY = () -> new Extractor[] {new AdtsExtractor()};
 
   /**
-   * Flags controlling the behavior of the extractor. Possible flag value is {@link
-   * #FLAG_ENABLE_CONSTANT_BITRATE_SEEKING}.
+   * Flags controlling the behavior of the extractor. Possible flag values are {@link
+   * #FLAG_ENABLE_CONSTANT_BITRATE_SEEKING} and {@link #FLAG_ENABLE_INDEX_SEEKING}.
    */
   @Documented
   @Retention(RetentionPolicy.SOURCE)
   @IntDef(
       flag = true,
-      value = {FLAG_ENABLE_CONSTANT_BITRATE_SEEKING})
+      value = {FLAG_ENABLE_CONSTANT_BITRATE_SEEKING, FLAG_ENABLE_INDEX_SEEKING})
   public @interface Flags {}
   /**
    * Flag to force enable seeking using a constant bitrate assumption in cases where seeking would
@@ -66,6 +67,13 @@ public final class AdtsExtractor implements Extractor {
    * are not precise, especially when the stream bitrate varies a lot.
    */
   public static final int FLAG_ENABLE_CONSTANT_BITRATE_SEEKING = 1;
+  /**
+   * Flag to build an index of the frames as they're read, and to use it for exact seeking into the
+   * part of the stream that has been read. Seeks beyond that part use the constant bitrate
+   * assumption as usual. Has no effect unless {@link #FLAG_ENABLE_CONSTANT_BITRATE_SEEKING} is
+   * also set.
+   */
+  public static final int FLAG_ENABLE_INDEX_SEEKING = 2;
 
   private static final int MAX_PACKET_SIZE = 2 * 1024;
   /**
@@ -78,6 +86,8 @@ public final class AdtsExtractor implements Extractor {
    * bitrate seeking.
    */
   private static final int NUM_FRAMES_FOR_AVERAGE_FRAME_SIZE = 1000;
+  /** The number of bytes at the start of an ADTS header that include the frame length. */
+  private static final int HEADER_BYTES_FOR_FRAME_LENGTH = 6;
 
   private final @Flags int flags;
 
@@ -94,6 +104,10 @@ public final class AdtsExtractor implements Extractor {
   private boolean hasCalculatedAverageFrameSize;
   private boolean startedPacket;
   private boolean hasOutputSeekMap;
+  @Nullable private SeekPointIndex seekPointIndex;
+  private long nextIndexedFramePosition;
+  private long indexedFramesStartTimeUs;
+  private long indexedFrameCount;
 
   /** Creates a new extractor for ADTS bitstreams. */
   public AdtsExtractor() {
@@ -111,6 +125,7 @@ public final class AdtsExtractor implements Extractor {
     packetBuffer = new ParsableByteArray(MAX_PACKET_SIZE);
     averageFrameSize = C.LENGTH_UNSET;
     firstFramePosition = C.POSITION_UNSET;
+    nextIndexedFramePosition = C.POSITION_UNSET;
     // Allocate scratch space for an ID3 header. The same buffer is also used to read 4 byte values.
     scratch = new ParsableByteArray(ID3_HEADER_LENGTH);
     scratchBits = new ParsableBitArray(scratch.data);
@@ -169,6 +184,19 @@ public final class AdtsExtractor implements Extractor {
   public void seek(long position, long timeUs) {
     startedPacket = false;
     reader.seek();
+    if (seekPointIndex != null) {
+      seekPointIndex.onSeek(position);
+      long indexedTimeUs = seekPointIndex.getTimeUs(position);
+      if (indexedTimeUs != C.TIME_UNSET) {
+        // The seek map returns indexed positions with their exact times for seeks into the index.
+        timeUs = indexedTimeUs;
+        startIndexingFrames(position, timeUs);
+      } else if (position <= firstFramePosition) {
+        startIndexingFrames(firstFramePosition, timeUs);
+      } else {
+        nextIndexedFramePosition = C.POSITION_UNSET;
+      }
+    }
     firstSampleTimestampUs = timeUs;
   }
 
@@ -185,6 +213,13 @@ public final class AdtsExtractor implements Extractor {
         (flags & FLAG_ENABLE_CONSTANT_BITRATE_SEEKING) != 0 && inputLength != C.LENGTH_UNSET;
     if (canUseConstantBitrateSeeking) {
       calculateAverageFrameSize(input);
+      if (seekPointIndex == null
+          && (flags & FLAG_ENABLE_INDEX_SEEKING) != 0
+          && averageFrameSize > 0
+          && input.getPosition() <= firstFramePosition) {
+        seekPointIndex = new SeekPointIndex(firstFramePosition);
+        startIndexingFrames(firstFramePosition, firstSampleTimestampUs);
+      }
     }
 
     int bytesRead = input.read(packetBuffer.data, 0, MAX_PACKET_SIZE);
@@ -206,6 +241,7 @@ public final class AdtsExtractor implements Extractor {
     // TODO: Make it possible for reader to consume the dataSource directly, so that it becomes
     // unnecessary to copy the data through packetBuffer.
     reader.consume(packetBuffer);
+    maybeAddSeekPoints(input, bytesRead);
     return RESULT_CONTINUE;
   }
 
@@ -246,13 +282,86 @@ public final class AdtsExtractor implements Extractor {
 
     ExtractorOutput extractorOutput = Assertions.checkNotNull(this.extractorOutput);
     if (useConstantBitrateSeeking && reader.getSampleDurationUs() != C.TIME_UNSET) {
-      extractorOutput.seekMap(getConstantBitrateSeekMap(inputLength));
+      SeekMap seekMap = getConstantBitrateSeekMap(inputLength);
+      extractorOutput.seekMap(
+          seekPointIndex != null ? seekPointIndex.createSeekMap(seekMap) : seekMap);
     } else {
       extractorOutput.seekMap(new SeekMap.Unseekable(C.TIME_UNSET));
     }
     hasOutputSeekMap = true;
   }
 
+  private void startIndexingFrames(long framePosition, long frameTimeUs) {
+    nextIndexedFramePosition = framePosition;
+    indexedFramesStartTimeUs = frameTimeUs;
+    indexedFrameCount = 0;
+  }
+
+  /**
+   * Adds seek points for the frames that start in the packet that has just been read, if the frames
+   * are being indexed.
+   *
+   * @param input The {@link ExtractorInput} from which the packet was read.
+   * @param packetSize The size of the packet, which is held in {@link #packetBuffer}.
+   */
+  private void maybeAddSeekPoints(ExtractorInput input, int packetSize)
+      throws IOException, InterruptedException {
+    SeekPointIndex seekPointIndex = this.seekPointIndex;
+    if (seekPointIndex == null || nextIndexedFramePosition == C.POSITION_UNSET) {
+      return;
+    }
+    long packetEndPosition = input.getPosition();
+    long packetPosition = packetEndPosition - packetSize;
+    while (nextIndexedFramePosition < packetEndPosition) {
+      int offset = (int) (nextIndexedFramePosition - packetPosition);
+      int headerBytesInPacket = Math.min(HEADER_BYTES_FOR_FRAME_LENGTH, packetSize - offset);
+      System.arraycopy(packetBuffer.data, offset, scratch.data, 0, headerBytesInPacket);
+      if (headerBytesInPacket < HEADER_BYTES_FOR_FRAME_LENGTH
+          && !peekHeaderBytes(input, headerBytesInPacket)) {
+        nextIndexedFramePosition = C.POSITION_UNSET;
+        return;
+      }
+      scratch.setPosition(0);
+      scratchBits.setPosition(30);
+      int frameSize = scratchBits.readBits(13);
+      long sampleDurationUs = reader.getSampleDurationUs();
+      if (!AdtsReader.isAdtsSyncWord(scratch.readUnsignedShort())
+          || frameSize <= HEADER_BYTES_FOR_FRAME_LENGTH
+          || (indexedFrameCount > 0 && sampleDurationUs == C.TIME_UNSET)) {
+        // The frame timestamps can't be derived reliably from here on.
+        nextIndexedFramePosition = C.POSITION_UNSET;
+        return;
+      }
+      long frameTimeUs =
+          indexedFrameCount == 0
+              ? indexedFramesStartTimeUs
+              : indexedFramesStartTimeUs + indexedFrameCount * sampleDurationUs;
+      seekPointIndex.maybeAddSeekPoint(frameTimeUs, nextIndexedFramePosition);
+      nextIndexedFramePosition += frameSize;
+      indexedFrameCount++;
+    }
+  }
+
+  /**
+   * Peeks the bytes of a frame header that follow the end of the packet into {@link #scratch},
+   * returning whether they could be peeked.
+   */
+  private boolean peekHeaderBytes(ExtractorInput input, int headerBytesInPacket)
+      throws IOException, InterruptedException {
+    try {
+      return input.peekFully(
+          scratch.data,
+          /* offset= */ headerBytesInPacket,
+          /* length= */ HEADER_BYTES_FOR_FRAME_LENGTH - headerBytesInPacket,
+          /* allowEndOfInput= */ true);
+    } catch (EOFException e) {
+      // The stream ends within the header.
+      return false;
+    } finally {
+      input.resetPeekPosition();
+    }
+  }
+
   private void calculateAverageFrameSize(ExtractorInput input)
       throws IOException, InterruptedException {
     if (hasCalculatedAverageFrameSize) {
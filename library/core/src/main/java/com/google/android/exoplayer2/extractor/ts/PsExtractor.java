@@ -18,6 +18,7 @@ package com.google.android.exoplayer2.extractor.ts;
 import android.util.SparseArray;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.ParserException;
+import com.google.android.exoplayer2.extractor.BinarySearchSeeker;
 import com.google.android.exoplayer2.extractor.Extractor;
 import com.google.android.exoplayer2.extractor.ExtractorInput;
 import com.google.android.exoplayer2.extractor.ExtractorOutput;
@@ -65,6 +66,7 @@ public final class PsExtractor implements Extractor {
   private boolean foundAudioTrack;
   private boolean foundVideoTrack;
   private long lastTrackPosition;
+  private boolean probeCachingEnabled;
 
   // Accessed only by the loading thread.
   private PsBinarySearchSeeker psBinarySearchSeeker;
@@ -82,6 +84,21 @@ public final class PsExtractor implements Extractor {
     durationReader = new PsDurationReader();
   }
 
+  /**
+   * Sets whether the binary search used for seeking keeps the timestamps found by previous
+   * searches, and uses them to narrow later searches in the same stream so that they require fewer
+   * requests. See {@link BinarySearchSeeker#experimental_setProbeCachingEnabled(boolean)}. Has no
+   * effect unless the stream is seekable.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release. It must be
+   * called before the extractor is used.
+   *
+   * @param probeCachingEnabled Whether to enable probe caching.
+   */
+  public void experimental_setProbeCachingEnabled(boolean probeCachingEnabled) {
+    this.probeCachingEnabled = probeCachingEnabled;
+  }
+
   // Extractor implementation.
 
   @Override
@@ -288,6 +305,7 @@ public final class PsExtractor implements Extractor {
                 durationReader.getScrTimestampAdjuster(),
                 durationReader.getDurationUs(),
                 inputLength);
+        psBinarySearchSeeker.experimental_setProbeCachingEnabled(probeCachingEnabled);
         output.seekMap(psBinarySearchSeeker.getSeekMap());
       } else {
         output.seekMap(new SeekMap.Unseekable(durationReader.getDurationUs()));
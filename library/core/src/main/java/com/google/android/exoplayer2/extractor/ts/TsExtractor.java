@@ -21,14 +21,17 @@ import android.util.SparseArray;
 import android.util.SparseBooleanArray;
 import android.util.SparseIntArray;
 import androidx.annotation.IntDef;
+import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.ParserException;
+import com.google.android.exoplayer2.extractor.BinarySearchSeeker;
 import com.google.android.exoplayer2.extractor.Extractor;
 import com.google.android.exoplayer2.extractor.ExtractorInput;
 import com.google.android.exoplayer2.extractor.ExtractorOutput;
 import com.google.android.exoplayer2.extractor.ExtractorsFactory;
 import com.google.android.exoplayer2.extractor.PositionHolder;
 import com.google.android.exoplayer2.extractor.SeekMap;
+import com.google.android.exoplayer2.extractor.SeekPointIndex;
 import com.google.android.exoplayer2.extractor.TrackOutput;
 import com.google.android.exoplayer2.extractor.ts.DefaultTsPayloadReaderFactory.Flags;
 import com.google.android.exoplayer2.extractor.ts.TsPayloadReader.DvbSubtitleInfo;
@@ -119,8 +122,12 @@ public final class TsExtractor implements Extractor {
   private final SparseBooleanArray trackPids;
   private final TsDurationReader durationReader;
 
+  private boolean indexSeekingEnabled;
+  private boolean probeCachingEnabled;
+
   // Accessed only by the loading thread.
   private TsBinarySearchSeeker tsBinarySearchSeeker;
+  @Nullable private SeekPointIndex seekPointIndex;
   private ExtractorOutput output;
   private int remainingPmts;
   private boolean tracksEnded;
@@ -183,6 +190,36 @@ public final class TsExtractor implements Extractor {
     resetPayloadReaders();
   }
 
+  /**
+   * Sets whether to build an index of the PCR timestamps of the packets as they're read, and to use
+   * it for seeking into the part of the stream that has been read. Such seeks are then resolved
+   * without a binary search, which requires additional requests. Seeks beyond that part still use a
+   * binary search. Has no effect unless the stream is seekable.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release. It must be
+   * called before the extractor is used.
+   *
+   * @param indexSeekingEnabled Whether to enable index seeking.
+   */
+  public void experimental_setIndexSeekingEnabled(boolean indexSeekingEnabled) {
+    this.indexSeekingEnabled = indexSeekingEnabled;
+  }
+
+  /**
+   * Sets whether the binary search used for seeking keeps the timestamps found by previous
+   * searches, and uses them to narrow later searches in the same stream so that they require fewer
+   * requests. See {@link BinarySearchSeeker#experimental_setProbeCachingEnabled(boolean)}. Has no
+   * effect unless the stream is seekable.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release. It must be
+   * called before the extractor is used.
+   *
+   * @param probeCachingEnabled Whether to enable probe caching.
+   */
+  public void experimental_setProbeCachingEnabled(boolean probeCachingEnabled) {
+    this.probeCachingEnabled = probeCachingEnabled;
+  }
+
   // Extractor implementation.
 
   @Override
@@ -214,6 +251,16 @@ public final class TsExtractor implements Extractor {
   @Override
   public void seek(long position, long timeUs) {
     Assertions.checkState(mode != MODE_HLS);
+    boolean isIndexedPosition = false;
+    if (seekPointIndex != null) {
+      seekPointIndex.onSeek(position);
+      long indexedTimeUs = seekPointIndex.getTimeUs(position);
+      if (indexedTimeUs != C.TIME_UNSET) {
+        // The seek map returns indexed positions with their exact times for seeks into the index.
+        timeUs = indexedTimeUs;
+        isIndexedPosition = true;
+      }
+    }
     int timestampAdjustersCount = timestampAdjusters.size();
     for (int i = 0; i < timestampAdjustersCount; i++) {
       TimestampAdjuster timestampAdjuster = timestampAdjusters.get(i);
@@ -231,8 +278,12 @@ public final class TsExtractor implements Extractor {
         timestampAdjuster.setFirstSampleTimestampUs(timeUs);
       }
     }
-    if (timeUs != 0 && tsBinarySearchSeeker != null) {
-      tsBinarySearchSeeker.setSeekTargetUs(timeUs);
+    if (tsBinarySearchSeeker != null) {
+      if (isIndexedPosition) {
+        tsBinarySearchSeeker.cancelPendingSeek();
+      } else if (timeUs != 0) {
+        tsBinarySearchSeeker.setSeekTargetUs(timeUs);
+      }
     }
     tsPacketBuffer.reset();
     continuityCounters.clear();
@@ -299,6 +350,10 @@ public final class TsExtractor implements Extractor {
     boolean adaptationFieldExists = (tsPacketHeader & 0x20) != 0;
     boolean payloadExists = (tsPacketHeader & 0x10) != 0;
 
+    if (seekPointIndex != null && pid == pcrPid && adaptationFieldExists) {
+      maybeAddSeekPoint(seekPointIndex, input, /* startOfPacket= */ endOfPacket - TS_PACKET_SIZE);
+    }
+
     TsPayloadReader payloadReader = payloadExists ? tsPayloadReaders.get(pid) : null;
     if (payloadReader == null) {
       tsPacketBuffer.setPosition(endOfPacket);
@@ -362,13 +417,32 @@ public final class TsExtractor implements Extractor {
                 durationReader.getDurationUs(),
                 inputLength,
                 pcrPid);
-        output.seekMap(tsBinarySearchSeeker.getSeekMap());
+        tsBinarySearchSeeker.experimental_setProbeCachingEnabled(probeCachingEnabled);
+        SeekMap seekMap = tsBinarySearchSeeker.getSeekMap();
+        if (indexSeekingEnabled) {
+          seekPointIndex = new SeekPointIndex(/* dataStartPosition= */ 0);
+          seekMap = seekPointIndex.createSeekMap(seekMap);
+        }
+        output.seekMap(seekMap);
       } else {
         output.seekMap(new SeekMap.Unseekable(durationReader.getDurationUs()));
       }
     }
   }
 
+  private void maybeAddSeekPoint(
+      SeekPointIndex seekPointIndex, ExtractorInput input, int startOfPacket) {
+    int position = tsPacketBuffer.getPosition();
+    long pcrValue = TsUtil.readPcrFromPacket(tsPacketBuffer, startOfPacket, pcrPid);
+    tsPacketBuffer.setPosition(position);
+    if (pcrValue != C.TIME_UNSET) {
+      // Use the same time base as the binary search.
+      long pcrTimeUs = durationReader.getPcrTimestampAdjuster().adjustTsTimestamp(pcrValue);
+      long packetPosition = input.getPosition() - tsPacketBuffer.limit() + startOfPacket;
+      seekPointIndex.maybeAddSeekPoint(pcrTimeUs, packetPosition);
+    }
+  }
+
   private boolean fillBufferWithAtLeastOnePacket(ExtractorInput input)
       throws IOException, InterruptedException {
     byte[] data = tsPacketBuffer.data;
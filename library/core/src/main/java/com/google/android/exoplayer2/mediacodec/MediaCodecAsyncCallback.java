@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.mediacodec;
+
+import android.annotation.TargetApi;
+import android.media.MediaCodec;
+import android.media.MediaFormat;
+import androidx.annotation.Nullable;
+import java.util.ArrayDeque;
+
+/**
+ * A {@link MediaCodec.Callback} that queues the input and output buffer indices reported by an
+ * asynchronous {@link MediaCodec}, so that they can be dequeued by the playback thread in the same
+ * way as when the codec is used synchronously.
+ *
+ * <p>All methods are thread-safe, so callbacks may be delivered on any thread.
+ */
+@TargetApi(21)
+/* package */ final class MediaCodecAsyncCallback extends MediaCodec.Callback {
+
+  private final ArrayDeque<Integer> availableInputBuffers;
+  private final ArrayDeque<Integer> availableOutputBuffers;
+  private final ArrayDeque<MediaCodec.BufferInfo> bufferInfos;
+  private final ArrayDeque<MediaFormat> formats;
+
+  @Nullable private MediaFormat currentFormat;
+  @Nullable private IllegalStateException mediaCodecException;
+  private int pendingFlushCount;
+  @Nullable private Runnable bufferAvailableListener;
+  private boolean waitingForBuffer;
+
+  /** Creates a new callback. */
+  public MediaCodecAsyncCallback() {
+    availableInputBuffers = new ArrayDeque<>();
+    availableOutputBuffers = new ArrayDeque<>();
+    bufferInfos = new ArrayDeque<>();
+    formats = new ArrayDeque<>();
+  }
+
+  /**
+   * Sets a listener that's invoked on the callback thread when the codec reports a buffer, a
+   * format change or an error after one of the dequeue methods returned {@link
+   * MediaCodec#INFO_TRY_AGAIN_LATER}. It's invoked at most once per such call, so that the caller
+   * can dequeue again without polling.
+   *
+   * @param listener The listener, or null to remove the listener.
+   */
+  public synchronized void setBufferAvailableListener(@Nullable Runnable listener) {
+    bufferAvailableListener = listener;
+  }
+
+  /**
+   * Returns the next available input buffer index, or {@link MediaCodec#INFO_TRY_AGAIN_LATER} if
+   * no input buffer is available.
+   *
+   * @throws IllegalStateException If the codec reported an error.
+   */
+  public synchronized int dequeueInputBufferIndex() {
+    maybeThrowMediaCodecException();
+    if (pendingFlushCount > 0 || availableInputBuffers.isEmpty()) {
+      waitingForBuffer = true;
+      return MediaCodec.INFO_TRY_AGAIN_LATER;
+    }
+    return availableInputBuffers.remove();
+  }
+
+  /**
+   * Returns the next available output buffer index, {@link MediaCodec#INFO_OUTPUT_FORMAT_CHANGED}
+   * if the output format changed before the next output buffer, or {@link
+   * MediaCodec#INFO_TRY_AGAIN_LATER} if no output buffer is available.
+   *
+   * @param bufferInfo Populated with the metadata of the dequeued output buffer, if any.
+   * @throws IllegalStateException If the codec reported an error.
+   */
+  public synchronized int dequeueOutputBufferIndex(MediaCodec.BufferInfo bufferInfo) {
+    maybeThrowMediaCodecException();
+    if (pendingFlushCount > 0 || availableOutputBuffers.isEmpty()) {
+      waitingForBuffer = true;
+      return MediaCodec.INFO_TRY_AGAIN_LATER;
+    }
+    int bufferIndex = availableOutputBuffers.remove();
+    if (bufferIndex >= 0) {
+      MediaCodec.BufferInfo nextBufferInfo = bufferInfos.remove();
+      bufferInfo.set(
+          nextBufferInfo.offset,
+          nextBufferInfo.size,
+          nextBufferInfo.presentationTimeUs,
+          nextBufferInfo.flags);
+    } else if (bufferIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+      currentFormat = formats.remove();
+    }
+    return bufferIndex;
+  }
+
+  /**
+   * Returns the output format that was reported with the last {@link
+   * MediaCodec#INFO_OUTPUT_FORMAT_CHANGED} returned by {@link
+   * #dequeueOutputBufferIndex(MediaCodec.BufferInfo)}.
+   *
+   * @throws IllegalStateException If no format change has been dequeued yet.
+   */
+  public synchronized MediaFormat getOutputFormat() {
+    if (currentFormat == null) {
+      throw new IllegalStateException();
+    }
+    return currentFormat;
+  }
+
+  /**
+   * Notifies the callback that the codec is being flushed. Buffer indices are not returned until
+   * {@link #onFlushCompleted()} is called, which must happen on the callback thread so that indices
+   * reported before the flush are discarded.
+   */
+  public synchronized void onFlushStarted() {
+    pendingFlushCount++;
+  }
+
+  /**
+   * Discards all buffer indices reported before the flush started. Must be called on the callback
+   * thread after {@link #onFlushStarted()}.
+   */
+  public synchronized void onFlushCompleted() {
+    pendingFlushCount--;
+    availableInputBuffers.clear();
+    availableOutputBuffers.clear();
+    bufferInfos.clear();
+    // Keep the most recent pending format so that it's reported for the buffers output after the
+    // flush, since the codec will not report it again.
+    MediaFormat lastPendingFormat = formats.isEmpty() ? null : formats.getLast();
+    formats.clear();
+    if (lastPendingFormat != null) {
+      addOutputFormat(lastPendingFormat);
+    }
+  }
+
+  /** Sets an error that will be thrown by the next call to one of the dequeue methods. */
+  public synchronized void onMediaCodecError(IllegalStateException e) {
+    mediaCodecException = e;
+    maybeNotifyBufferAvailable();
+  }
+
+  // MediaCodec.Callback implementation.
+
+  @Override
+  public synchronized void onInputBufferAvailable(MediaCodec codec, int index) {
+    availableInputBuffers.add(index);
+    maybeNotifyBufferAvailable();
+  }
+
+  @Override
+  public synchronized void onOutputBufferAvailable(
+      MediaCodec codec, int index, MediaCodec.BufferInfo info) {
+    availableOutputBuffers.add(index);
+    bufferInfos.add(info);
+    maybeNotifyBufferAvailable();
+  }
+
+  @Override
+  public synchronized void onError(MediaCodec codec, MediaCodec.CodecException e) {
+    onMediaCodecError(e);
+  }
+
+  @Override
+  public synchronized void onOutputFormatChanged(MediaCodec codec, MediaFormat format) {
+    addOutputFormat(format);
+    maybeNotifyBufferAvailable();
+  }
+
+  private void addOutputFormat(MediaFormat format) {
+    availableOutputBuffers.add(MediaCodec.INFO_OUTPUT_FORMAT_CHANGED);
+    formats.add(format);
+  }
+
+  private void maybeNotifyBufferAvailable() {
+    if (waitingForBuffer && pendingFlushCount == 0 && bufferAvailableListener != null) {
+      waitingForBuffer = false;
+      bufferAvailableListener.run();
+    }
+  }
+
+  private void maybeThrowMediaCodecException() {
+    IllegalStateException exception = mediaCodecException;
+    if (exception != null) {
+      mediaCodecException = null;
+      throw exception;
+    }
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.mediacodec;
+
+import android.media.MediaCodec;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.google.android.exoplayer2.util.Assertions;
+import com.google.android.exoplayer2.util.Clock;
+import java.util.ArrayList;
+
+/**
+ * A pool of stopped {@link MediaCodec} instances that {@link MediaCodecRenderer
+ * MediaCodecRenderers} return their codecs to when releasing them, and obtain codecs with the same
+ * name from when initializing a new codec. Sharing a pool between players avoids paying the
+ * latency of {@link MediaCodec#createByCodecName(String)} each time a new player is created for the
+ * next item of a feed.
+ *
+ * <p>Pooled codecs are not configured, so they can be reused for any format that the codec
+ * supports. If more than the maximum number of codecs are returned, the least recently returned
+ * codec is released. Codecs that have been in the pool for longer than the maximum idle time are
+ * released the next time a codec is obtained from or returned to the pool, on the calling thread.
+ * Codecs used with a {@link android.media.MediaCrypto} are never pooled.
+ *
+ * <p>The pool is thread-safe. As idle codecs are only released when the pool is used, call {@link
+ * #clear()} to release all pooled codecs once they are no longer needed, for example when the app
+ * moves to the background.
+ */
+public final class MediaCodecPool {
+
+  /** The default maximum number of pooled codecs. */
+  public static final int DEFAULT_MAX_POOLED_CODEC_COUNT = 2;
+  /** The default maximum time for which a codec is kept in the pool, in milliseconds. */
+  public static final long DEFAULT_MAX_IDLE_TIME_MS = 30_000;
+
+  private final int maxPooledCodecCount;
+  private final long maxIdleTimeMs;
+  private final Clock clock;
+  private final ArrayList<PooledCodec> pooledCodecs;
+
+  private int hitCount;
+  private int missCount;
+
+  /**
+   * Creates a pool that holds up to {@link #DEFAULT_MAX_POOLED_CODEC_COUNT} codecs for up to
+   * {@link #DEFAULT_MAX_IDLE_TIME_MS}.
+   */
+  public MediaCodecPool() {
+    this(DEFAULT_MAX_POOLED_CODEC_COUNT);
+  }
+
+  /**
+   * Creates a pool that holds codecs for up to {@link #DEFAULT_MAX_IDLE_TIME_MS}.
+   *
+   * @param maxPooledCodecCount The maximum number of codecs that are kept in the pool.
+   */
+  public MediaCodecPool(int maxPooledCodecCount) {
+    this(maxPooledCodecCount, DEFAULT_MAX_IDLE_TIME_MS);
+  }
+
+  /**
+   * Creates a pool.
+   *
+   * @param maxPooledCodecCount The maximum number of codecs that are kept in the pool.
+   * @param maxIdleTimeMs The maximum time for which a codec is kept in the pool, in milliseconds.
+   */
+  public MediaCodecPool(int maxPooledCodecCount, long maxIdleTimeMs) {
+    this(maxPooledCodecCount, maxIdleTimeMs, Clock.DEFAULT);
+  }
+
+  @VisibleForTesting
+  /* package */ MediaCodecPool(int maxPooledCodecCount, long maxIdleTimeMs, Clock clock) {
+    Assertions.checkArgument(maxPooledCodecCount > 0);
+    Assertions.checkArgument(maxIdleTimeMs > 0);
+    this.maxPooledCodecCount = maxPooledCodecCount;
+    this.maxIdleTimeMs = maxIdleTimeMs;
+    this.clock = clock;
+    pooledCodecs = new ArrayList<>();
+  }
+
+  /**
+   * Removes a codec with the given name from the pool.
+   *
+   * @param codecName The name of the codec.
+   * @return A stopped codec with the given name, or {@code null} if the pool has none, in which
+   *     case the caller should create the codec itself.
+   */
+  @Nullable
+  public synchronized MediaCodec obtainCodec(String codecName) {
+    releaseIdleCodecs();
+    // Prefer the most recently returned codec.
+    for (int i = pooledCodecs.size() - 1; i >= 0; i--) {
+      if (pooledCodecs.get(i).name.equals(codecName)) {
+        hitCount++;
+        return pooledCodecs.remove(i).codec;
+      }
+    }
+    missCount++;
+    return null;
+  }
+
+  /**
+   * Returns a codec to the pool. If the pool is full, the least recently returned codec is
+   * released. If the codec isn't obtained again within the maximum idle time, it's released the
+   * next time the pool is used.
+   *
+   * @param codecName The name with which the codec was created.
+   * @param codec The codec, which must have been stopped and must not be used by the caller any
+   *     more.
+   */
+  public synchronized void returnCodec(String codecName, MediaCodec codec) {
+    releaseIdleCodecs();
+    pooledCodecs.add(new PooledCodec(codecName, codec, clock.elapsedRealtime()));
+    while (pooledCodecs.size() > maxPooledCodecCount) {
+      pooledCodecs.remove(0).codec.release();
+    }
+  }
+
+  /** Releases all pooled codecs. */
+  public synchronized void clear() {
+    for (int i = 0; i < pooledCodecs.size(); i++) {
+      pooledCodecs.get(i).codec.release();
+    }
+    pooledCodecs.clear();
+  }
+
+  /** Returns the number of codecs currently in the pool, after releasing idle codecs. */
+  public synchronized int getPooledCodecCount() {
+    releaseIdleCodecs();
+    return pooledCodecs.size();
+  }
+
+  /** Returns the number of calls to {@link #obtainCodec(String)} that returned a pooled codec. */
+  public synchronized int getHitCount() {
+    return hitCount;
+  }
+
+  /** Returns the number of calls to {@link #obtainCodec(String)} that returned {@code null}. */
+  public synchronized int getMissCount() {
+    return missCount;
+  }
+
+  private void releaseIdleCodecs() {
+    // Codecs are ordered by the time they were returned.
+    long nowMs = clock.elapsedRealtime();
+    while (!pooledCodecs.isEmpty() && nowMs - pooledCodecs.get(0).returnTimeMs >= maxIdleTimeMs) {
+      pooledCodecs.remove(0).codec.release();
+    }
+  }
+
+  private static final class PooledCodec {
+
+    public final String name;
+    public final MediaCodec codec;
+    public final long returnTimeMs;
+
+    public PooledCodec(String name, MediaCodec codec, long returnTimeMs) {
+      this.name = name;
+      this.codec = codec;
+      this.returnTimeMs = returnTimeMs;
+    }
+  }
+}
@@ -23,6 +23,8 @@ import android.media.MediaCrypto;
 import android.media.MediaCryptoException;
 import android.media.MediaFormat;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.SystemClock;
 import androidx.annotation.CheckResult;
 import androidx.annotation.IntDef;
@@ -371,8 +373,15 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
   private boolean outputStreamEnded;
   private boolean waitingForKeys;
   private boolean waitingForFirstSyncSample;
+  private boolean skippingNonKeyFrames;
   private boolean waitingForFirstSampleInFormat;
   private boolean skipMediaCodecStopOnRelease;
+  private boolean asynchronousCallbackEnabled;
+  @Nullable private Handler codecCallbackHandler;
+  @Nullable private WakeupListener wakeupListener;
+  @Nullable private MediaCodecAsyncCallback codecAsyncCallback;
+  @Nullable private MediaCodecPool codecPool;
+  private boolean codecHasError;
   private boolean pendingOutputEndOfStream;
 
   protected DecoderCounters decoderCounters;
@@ -451,6 +460,53 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     skipMediaCodecStopOnRelease = enabled;
   }
 
+  /**
+   * Enables or disables operating the underlying {@link MediaCodec} in asynchronous mode.
+   *
+   * <p>When enabled, the renderer registers a {@link MediaCodec.Callback} that is invoked on the
+   * playback thread, and input and output buffers are dequeued from the indices reported by the
+   * callback rather than by polling the codec. If the renderer found no buffer to dequeue when it
+   * last rendered, the callback asks the player to render again as soon as the codec reports one,
+   * rather than at the next scheduled time. Asynchronous mode is only used on API level 23 and
+   * above, and is disabled by default.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release. It should
+   * only be called before the renderer is used.
+   *
+   * @param enabled Whether asynchronous mode should be used.
+   */
+  public void experimental_setAsynchronousCallbackEnabled(boolean enabled) {
+    asynchronousCallbackEnabled = enabled;
+  }
+
+  /**
+   * Sets a {@link MediaCodecPool} from which codecs are obtained when initializing a codec, and to
+   * which codecs are returned instead of being released. Sharing a pool between players reduces
+   * the codec initialization latency of players that are created one after the other.
+   *
+   * <p>Codecs are only returned to the pool if they could be stopped and didn't report an error,
+   * so this has no effect if {@link #experimental_setSkipMediaCodecStopOnRelease(boolean)} is
+   * enabled. If a codec can't be initialized while the pool holds codecs, the pooled codecs are
+   * released to free their resources and the initialization is retried.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release. It should
+   * only be called before the renderer is used.
+   *
+   * @param codecPool The {@link MediaCodecPool}, or {@code null} to always release codecs.
+   */
+  public void experimental_setMediaCodecPool(@Nullable MediaCodecPool codecPool) {
+    this.codecPool = codecPool;
+  }
+
+  @Override
+  public void handleMessage(int messageType, @Nullable Object message) throws ExoPlaybackException {
+    if (messageType == C.MSG_SET_WAKEUP_LISTENER) {
+      wakeupListener = (WakeupListener) message;
+    } else {
+      super.handleMessage(messageType, message);
+    }
+  }
+
   @Override
   @AdaptiveSupport
   public final int supportsMixedMimeTypeAdaptation() {
@@ -621,6 +677,11 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     }
   }
 
+  /** Returns the operating rate of the renderer, as set by {@link #setOperatingRate(float)}. */
+  protected final float getOperatingRate() {
+    return rendererOperatingRate;
+  }
+
   @Override
   protected void onDisabled() {
     inputFormat = null;
@@ -642,6 +703,7 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
   }
 
   protected void releaseCodec() {
+    @Nullable String codecName = codecInfo != null ? codecInfo.name : null;
     availableCodecInfos = null;
     codecInfo = null;
     codecFormat = null;
@@ -656,16 +718,28 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     try {
       if (codec != null) {
         decoderCounters.decoderReleaseCount++;
+        boolean codecStopped = false;
         try {
           if (!skipMediaCodecStopOnRelease) {
             codec.stop();
+            codecStopped = true;
           }
         } finally {
-          codec.release();
+          if (codecStopped
+              && !codecHasError
+              && codecPool != null
+              && codecName != null
+              && mediaCrypto == null) {
+            returnCodecToPool(codecPool, codecName, codec);
+          } else {
+            codec.release();
+          }
         }
       }
     } finally {
       codec = null;
+      codecHasError = false;
+      releaseCodecCallbackHandler();
       try {
         if (mediaCrypto != null) {
           mediaCrypto.release();
@@ -722,6 +796,8 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
       decoderCounters.ensureUpdated();
     } catch (IllegalStateException e) {
       if (isMediaCodecException(e)) {
+        // Don't reuse a codec that reported an error.
+        codecHasError = true;
         throw createRendererException(e, inputFormat);
       }
       throw e;
@@ -764,12 +840,16 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     }
 
     codec.flush();
+    if (codecAsyncCallback != null) {
+      flushAsynchronousCodec(codec, codecAsyncCallback);
+    }
     resetInputBuffer();
     resetOutputBuffer();
     codecHotswapDeadlineMs = C.TIME_UNSET;
     codecReceivedEos = false;
     codecReceivedBuffers = false;
     waitingForFirstSyncSample = true;
+    skippingNonKeyFrames = false;
     codecNeedsAdaptationWorkaroundBuffer = false;
     shouldSkipAdaptationWorkaroundOutputBuffer = false;
     isDecodeOnlyOutputBuffer = false;
@@ -910,15 +990,17 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     }
     try {
       codecInitializingTimestamp = SystemClock.elapsedRealtime();
-      TraceUtil.beginSection("createCodec:" + codecName);
-      codec = MediaCodec.createByCodecName(codecName);
-      TraceUtil.endSection();
-      TraceUtil.beginSection("configureCodec");
-      configureCodec(codecInfo, codec, inputFormat, crypto, codecOperatingRate);
-      TraceUtil.endSection();
-      TraceUtil.beginSection("startCodec");
-      codec.start();
-      TraceUtil.endSection();
+      try {
+        codec = createAndStartCodec(codecInfo, crypto, codecOperatingRate);
+      } catch (Exception e) {
+        if (codecPool == null || codecPool.getPooledCodecCount() == 0) {
+          throw e;
+        }
+        // The codec may have failed because the pooled codecs hold the resources it needs.
+        Log.w(TAG, "Failed to initialize " + codecName + ", retrying with an empty pool", e);
+        codecPool.clear();
+        codec = createAndStartCodec(codecInfo, crypto, codecOperatingRate);
+      }
       codecInitializedTimestamp = SystemClock.elapsedRealtime();
       getCodecBuffers(codec);
     } catch (Exception e) {
@@ -926,6 +1008,7 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
         resetCodecBuffers();
         codec.release();
       }
+      releaseCodecCallbackHandler();
       throw e;
     }
 
@@ -963,12 +1046,43 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     isDecodeOnlyOutputBuffer = false;
     isLastOutputBuffer = false;
     waitingForFirstSyncSample = true;
+    skippingNonKeyFrames = false;
 
     decoderCounters.decoderInitCount++;
     long elapsed = codecInitializedTimestamp - codecInitializingTimestamp;
     onCodecInitialized(codecName, codecInitializedTimestamp, elapsed);
   }
 
+  private MediaCodec createAndStartCodec(
+      MediaCodecInfo codecInfo, MediaCrypto crypto, float codecOperatingRate) throws Exception {
+    String codecName = codecInfo.name;
+    MediaCodec codec = null;
+    try {
+      TraceUtil.beginSection("createCodec:" + codecName);
+      codec = codecPool != null ? codecPool.obtainCodec(codecName) : null;
+      if (codec == null) {
+        codec = MediaCodec.createByCodecName(codecName);
+      }
+      TraceUtil.endSection();
+      if (asynchronousCallbackEnabled && Util.SDK_INT >= 23) {
+        setCodecCallbackV23(codec);
+      }
+      TraceUtil.beginSection("configureCodec");
+      configureCodec(codecInfo, codec, inputFormat, crypto, codecOperatingRate);
+      TraceUtil.endSection();
+      TraceUtil.beginSection("startCodec");
+      codec.start();
+      TraceUtil.endSection();
+      return codec;
+    } catch (Exception e) {
+      if (codec != null) {
+        codec.release();
+      }
+      releaseCodecCallbackHandler();
+      throw e;
+    }
+  }
+
   private boolean shouldContinueFeeding(long drainStartTimeMs) {
     return renderTimeLimitMs == C.TIME_UNSET
         || SystemClock.elapsedRealtime() - drainStartTimeMs < renderTimeLimitMs;
@@ -988,6 +1102,67 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     }
   }
 
+  private void returnCodecToPool(MediaCodecPool codecPool, String codecName, MediaCodec codec) {
+    if (Util.SDK_INT >= 23) {
+      // Make sure that the next user of the codec doesn't get callbacks meant for this renderer.
+      try {
+        clearCodecListenersV23(codec);
+      } catch (IllegalStateException e) {
+        codec.release();
+        return;
+      }
+    }
+    codecPool.returnCodec(codecName, codec);
+  }
+
+  @TargetApi(23)
+  private void clearCodecListenersV23(MediaCodec codec) {
+    codec.setOnFrameRenderedListener(/* listener= */ null, /* handler= */ null);
+    if (codecAsyncCallback != null) {
+      codec.setCallback(/* cb= */ null);
+    }
+  }
+
+  @TargetApi(23)
+  private void setCodecCallbackV23(MediaCodec codec) {
+    // Callbacks are delivered on the playback thread, rather than on a thread per codec.
+    codecCallbackHandler = new Handler(Assertions.checkNotNull(Looper.myLooper()));
+    codecAsyncCallback = new MediaCodecAsyncCallback();
+    codecAsyncCallback.setBufferAvailableListener(this::onCodecBufferAvailable);
+    codec.setCallback(codecAsyncCallback, codecCallbackHandler);
+  }
+
+  private void flushAsynchronousCodec(MediaCodec codec, MediaCodecAsyncCallback callback) {
+    // A flushed codec in asynchronous mode has to be restarted. The restart is posted to the
+    // callback handler so that buffer indices reported before the flush are discarded first.
+    callback.onFlushStarted();
+    Assertions.checkNotNull(codecCallbackHandler)
+        .post(
+            () -> {
+              callback.onFlushCompleted();
+              try {
+                codec.start();
+              } catch (IllegalStateException e) {
+                callback.onMediaCodecError(e);
+              }
+            });
+  }
+
+  private void onCodecBufferAvailable() {
+    if (wakeupListener != null) {
+      wakeupListener.onWakeup();
+    }
+  }
+
+  private void releaseCodecCallbackHandler() {
+    if (codecCallbackHandler != null) {
+      // Drop a pending restart of the flushed codec.
+      codecCallbackHandler.removeCallbacksAndMessages(/* token= */ null);
+    }
+    codecCallbackHandler = null;
+    codecAsyncCallback = null;
+  }
+
   private ByteBuffer getInputBuffer(int inputIndex) {
     if (Util.SDK_INT >= 21) {
       return codec.getInputBuffer(inputIndex);
@@ -1038,7 +1213,10 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     }
 
     if (inputIndex < 0) {
-      inputIndex = codec.dequeueInputBuffer(0);
+      inputIndex =
+          codecAsyncCallback != null
+              ? codecAsyncCallback.dequeueInputBufferIndex()
+              : codec.dequeueInputBuffer(0);
       if (inputIndex < 0) {
         return false;
       }
@@ -1135,6 +1313,12 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
       }
       return false;
     }
+    if (!waitingForFirstSyncSample && !buffer.isKeyFrame() && shouldSkipNonKeyFrames()) {
+      // The samples up to the next key frame depend on this one, so they need to be skipped too,
+      // even if non-key frames stop being skipped in the meantime.
+      waitingForFirstSyncSample = true;
+      skippingNonKeyFrames = true;
+    }
     if (waitingForFirstSyncSample && !buffer.isKeyFrame()) {
       buffer.clear();
       if (codecReconfigurationState == RECONFIGURATION_STATE_QUEUE_PENDING) {
@@ -1142,9 +1326,13 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
         // data into a subsequent buffer (if there is one).
         codecReconfigurationState = RECONFIGURATION_STATE_WRITE_PENDING;
       }
+      if (skippingNonKeyFrames) {
+        decoderCounters.skippedInputBufferCount++;
+      }
       return true;
     }
     waitingForFirstSyncSample = false;
+    skippingNonKeyFrames = false;
     boolean bufferEncrypted = buffer.isEncrypted();
     waitingForKeys = shouldWaitForKeys(bufferEncrypted);
     if (waitingForKeys) {
@@ -1327,6 +1515,17 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     // Do nothing.
   }
 
+  /**
+   * Returns whether input samples that aren't key frames should currently be skipped rather than
+   * queued into the codec, for example to reduce the decoding load during high speed playback.
+   * Once a sample has been skipped, all samples up to the next key frame are skipped as well.
+   *
+   * <p>The default implementation returns {@code false}.
+   */
+  protected boolean shouldSkipNonKeyFrames() {
+    return false;
+  }
+
   /**
    * Called immediately before an input buffer is queued into the codec.
    *
@@ -1491,8 +1690,7 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
       int outputIndex;
       if (codecNeedsEosOutputExceptionWorkaround && codecReceivedEos) {
         try {
-          outputIndex =
-              codec.dequeueOutputBuffer(outputBufferInfo, getDequeueOutputBufferTimeoutUs());
+          outputIndex = dequeueOutputBufferIndex();
         } catch (IllegalStateException e) {
           processEndOfStream();
           if (outputStreamEnded) {
@@ -1502,8 +1700,7 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
           return false;
         }
       } else {
-        outputIndex =
-            codec.dequeueOutputBuffer(outputBufferInfo, getDequeueOutputBufferTimeoutUs());
+        outputIndex = dequeueOutputBufferIndex();
       }
 
       if (outputIndex < 0) {
@@ -1599,9 +1796,16 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     return false;
   }
 
+  private int dequeueOutputBufferIndex() {
+    return codecAsyncCallback != null
+        ? codecAsyncCallback.dequeueOutputBufferIndex(outputBufferInfo)
+        : codec.dequeueOutputBuffer(outputBufferInfo, getDequeueOutputBufferTimeoutUs());
+  }
+
   /** Processes a new output {@link MediaFormat}. */
   private void processOutputFormat() throws ExoPlaybackException {
-    MediaFormat mediaFormat = codec.getOutputFormat();
+    MediaFormat mediaFormat =
+        codecAsyncCallback != null ? codecAsyncCallback.getOutputFormat() : codec.getOutputFormat();
     if (codecAdaptationWorkaroundMode != ADAPTATION_WORKAROUND_MODE_NEVER
         && mediaFormat.getInteger(MediaFormat.KEY_WIDTH) == ADAPTATION_WORKAROUND_SLICE_WIDTH_HEIGHT
         && mediaFormat.getInteger(MediaFormat.KEY_HEIGHT)
@@ -20,6 +20,7 @@ import android.annotation.TargetApi;
 import android.media.MediaCodecInfo.CodecCapabilities;
 import android.media.MediaCodecInfo.CodecProfileLevel;
 import android.media.MediaCodecList;
+import android.os.SystemClock;
 import android.text.TextUtils;
 import android.util.Pair;
 import android.util.SparseIntArray;
@@ -92,8 +93,56 @@ public final class MediaCodecUtil {
   // Lazily initialized.
   private static int maxH264DecodableFrameSize = -1;
 
+  private static int cacheHitCount;
+  private static int cacheMissCount;
+  private static long decoderQueryTimeMs;
+
+  /** Statistics about the decoder queries made through {@link MediaCodecUtil}. */
+  public static final class DecoderInfoCacheStatistics {
+
+    /** The number of queries answered from the in-memory cache. */
+    public final int cacheHitCount;
+    /** The number of queries that required enumerating all decoders. */
+    public final int cacheMissCount;
+    /** The total time spent querying decoders, in milliseconds. */
+    public final long decoderQueryTimeMs;
+
+    private DecoderInfoCacheStatistics(
+        int cacheHitCount, int cacheMissCount, long decoderQueryTimeMs) {
+      this.cacheHitCount = cacheHitCount;
+      this.cacheMissCount = cacheMissCount;
+      this.decoderQueryTimeMs = decoderQueryTimeMs;
+    }
+  }
+
   private MediaCodecUtil() {}
 
+  /** Returns statistics about the decoder queries made so far. */
+  public static synchronized DecoderInfoCacheStatistics getDecoderInfoCacheStatistics() {
+    return new DecoderInfoCacheStatistics(cacheHitCount, cacheMissCount, decoderQueryTimeMs);
+  }
+
+  /**
+   * Warms the codec cache for the given mime types on a background thread, using {@link
+   * #warmDecoderInfoCache(String, boolean, boolean)} for non-secure, non-tunneling decoders.
+   *
+   * <p>Calling this method at application start may speed up the initialization of the first
+   * renderers. Queries made while warming is in progress wait for it rather than duplicating it.
+   *
+   * @param mimeTypes The mime types.
+   */
+  public static void warmDecoderInfoCacheInBackground(String... mimeTypes) {
+    String[] mimeTypesCopy = mimeTypes.clone();
+    new Thread("ExoPlayer:MediaCodecUtilWarmUp") {
+      @Override
+      public void run() {
+        for (String mimeType : mimeTypesCopy) {
+          warmDecoderInfoCache(mimeType, /* secure= */ false, /* tunneling= */ false);
+        }
+      }
+    }.start();
+  }
+
   /**
    * Optional call to warm the codec cache for a given mime type.
    *
@@ -165,8 +214,11 @@ public final class MediaCodecUtil {
     CodecKey key = new CodecKey(mimeType, secure, tunneling);
     @Nullable List<MediaCodecInfo> cachedDecoderInfos = decoderInfosCache.get(key);
     if (cachedDecoderInfos != null) {
+      cacheHitCount++;
       return cachedDecoderInfos;
     }
+    cacheMissCount++;
+    long queryStartTimeMs = SystemClock.elapsedRealtime();
     MediaCodecListCompat mediaCodecList =
         Util.SDK_INT >= 21
             ? new MediaCodecListCompatV21(secure, tunneling)
@@ -182,6 +234,7 @@ public final class MediaCodecUtil {
             + ". Assuming: " + decoderInfos.get(0).name);
       }
     }
+    decoderQueryTimeMs += SystemClock.elapsedRealtime() - queryStartTimeMs;
     applyWorkarounds(mimeType, decoderInfos);
     List<MediaCodecInfo> unmodifiableDecoderInfos = Collections.unmodifiableList(decoderInfos);
     decoderInfosCache.put(key, unmodifiableDecoderInfos);
@@ -23,6 +23,7 @@ import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.Timeline;
 import com.google.android.exoplayer2.source.ConcatenatingMediaSource.MediaSourceHolder;
 import com.google.android.exoplayer2.source.ShuffleOrder.DefaultShuffleOrder;
+import com.google.android.exoplayer2.source.WeightedList.Node;
 import com.google.android.exoplayer2.upstream.Allocator;
 import com.google.android.exoplayer2.upstream.TransferListener;
 import com.google.android.exoplayer2.util.Assertions;
@@ -39,6 +40,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 
 /**
  * Concatenates multiple {@link MediaSource}s. The list of {@link MediaSource}s can be modified
@@ -66,7 +68,7 @@ public final class ConcatenatingMediaSource extends CompositeMediaSource<MediaSo
   private Handler playbackThreadHandler;
 
   // Accessed on the playback thread only.
-  private final List<MediaSourceHolder> mediaSourceHolders;
+  private final WeightedList<MediaSourceHolder> mediaSourceHolders;
   private final Map<MediaPeriod, MediaSourceHolder> mediaSourceByMediaPeriod;
   private final Map<Object, MediaSourceHolder> mediaSourceByUid;
   private final Set<MediaSourceHolder> enabledMediaSourceHolders;
@@ -130,7 +132,7 @@ public final class ConcatenatingMediaSource extends CompositeMediaSource<MediaSo
     this.mediaSourceByMediaPeriod = new IdentityHashMap<>();
     this.mediaSourceByUid = new HashMap<>();
     this.mediaSourcesPublic = new ArrayList<>();
-    this.mediaSourceHolders = new ArrayList<>();
+    this.mediaSourceHolders = new WeightedList<>();
     this.nextTimelineUpdateOnCompletionActions = new HashSet<>();
     this.pendingOnCompletionActions = new HashSet<>();
     this.enabledMediaSourceHolders = new HashSet<>();
@@ -525,7 +527,11 @@ public final class ConcatenatingMediaSource extends CompositeMediaSource<MediaSo
   @Override
   protected int getWindowIndexForChildWindowIndex(
       MediaSourceHolder mediaSourceHolder, int windowIndex) {
-    return windowIndex + mediaSourceHolder.firstWindowIndexInChild;
+    if (mediaSourceHolder.isRemoved) {
+      return windowIndex + mediaSourceHolder.firstWindowIndexInChildWhenRemoved;
+    }
+    return windowIndex
+        + mediaSourceHolders.getWeightBefore(Assertions.checkNotNull(mediaSourceHolder.node));
   }
 
   // Internal methods. Called from any thread.
@@ -655,9 +661,7 @@ public final class ConcatenatingMediaSource extends CompositeMediaSource<MediaSo
         } else {
           shuffleOrder = shuffleOrder.cloneAndRemove(fromIndex, toIndex);
         }
-        for (int index = toIndex - 1; index >= fromIndex; index--) {
-          removeMediaSourceInternal(index);
-        }
+        removeMediaSourcesInternal(fromIndex, toIndex);
         scheduleTimelineUpdate(removeMessage.onCompletionAction);
         break;
       case MSG_MOVE:
@@ -727,23 +731,24 @@ public final class ConcatenatingMediaSource extends CompositeMediaSource<MediaSo
 
   private void addMediaSourcesInternal(
       int index, Collection<MediaSourceHolder> mediaSourceHolders) {
+    // The holders are weighted by their window counts, so that inserting a holder and looking up
+    // the window offsets of the following ones takes O(log n) rather than rewriting their offsets.
+    for (MediaSourceHolder mediaSourceHolder : mediaSourceHolders) {
+      mediaSourceHolder.reset();
+      mediaSourceHolder.node =
+          this.mediaSourceHolders.add(
+              index++,
+              mediaSourceHolder,
+              mediaSourceHolder.mediaSource.getTimeline().getWindowCount());
+    }
+    // Only prepare the new sources once all holders are in place, as preparation may trigger
+    // synchronous timeline updates which rely on consistent indices.
     for (MediaSourceHolder mediaSourceHolder : mediaSourceHolders) {
-      addMediaSourceInternal(index++, mediaSourceHolder);
+      addMediaSourceInternal(mediaSourceHolder);
     }
   }
 
-  private void addMediaSourceInternal(int newIndex, MediaSourceHolder newMediaSourceHolder) {
-    if (newIndex > 0) {
-      MediaSourceHolder previousHolder = mediaSourceHolders.get(newIndex - 1);
-      Timeline previousTimeline = previousHolder.mediaSource.getTimeline();
-      newMediaSourceHolder.reset(
-          newIndex, previousHolder.firstWindowIndexInChild + previousTimeline.getWindowCount());
-    } else {
-      newMediaSourceHolder.reset(newIndex, /* firstWindowIndexInChild= */ 0);
-    }
-    Timeline newTimeline = newMediaSourceHolder.mediaSource.getTimeline();
-    correctOffsets(newIndex, /* childIndexUpdate= */ 1, newTimeline.getWindowCount());
-    mediaSourceHolders.add(newIndex, newMediaSourceHolder);
+  private void addMediaSourceInternal(MediaSourceHolder newMediaSourceHolder) {
     mediaSourceByUid.put(newMediaSourceHolder.uid, newMediaSourceHolder);
     prepareChildSource(newMediaSourceHolder, newMediaSourceHolder.mediaSource);
     if (isEnabled() && mediaSourceByMediaPeriod.isEmpty()) {
@@ -757,49 +762,37 @@ public final class ConcatenatingMediaSource extends CompositeMediaSource<MediaSo
     if (mediaSourceHolder == null) {
       throw new IllegalArgumentException();
     }
-    if (mediaSourceHolder.childIndex + 1 < mediaSourceHolders.size()) {
-      MediaSourceHolder nextHolder = mediaSourceHolders.get(mediaSourceHolder.childIndex + 1);
-      int windowOffsetUpdate =
-          timeline.getWindowCount()
-              - (nextHolder.firstWindowIndexInChild - mediaSourceHolder.firstWindowIndexInChild);
-      if (windowOffsetUpdate != 0) {
-        correctOffsets(
-            mediaSourceHolder.childIndex + 1, /* childIndexUpdate= */ 0, windowOffsetUpdate);
-      }
+    if (!mediaSourceHolder.isRemoved) {
+      mediaSourceHolders.setWeight(
+          Assertions.checkNotNull(mediaSourceHolder.node), timeline.getWindowCount());
     }
     scheduleTimelineUpdate();
   }
 
-  private void removeMediaSourceInternal(int index) {
-    MediaSourceHolder holder = mediaSourceHolders.remove(index);
-    mediaSourceByUid.remove(holder.uid);
-    Timeline oldTimeline = holder.mediaSource.getTimeline();
-    correctOffsets(index, /* childIndexUpdate= */ -1, -oldTimeline.getWindowCount());
-    holder.isRemoved = true;
-    maybeReleaseChildSource(holder);
-  }
-
-  private void moveMediaSourceInternal(int currentIndex, int newIndex) {
-    int startIndex = Math.min(currentIndex, newIndex);
-    int endIndex = Math.max(currentIndex, newIndex);
-    int windowOffset = mediaSourceHolders.get(startIndex).firstWindowIndexInChild;
-    mediaSourceHolders.add(newIndex, mediaSourceHolders.remove(currentIndex));
-    for (int i = startIndex; i <= endIndex; i++) {
-      MediaSourceHolder holder = mediaSourceHolders.get(i);
-      holder.childIndex = i;
-      holder.firstWindowIndexInChild = windowOffset;
+  private void removeMediaSourcesInternal(int fromIndex, int toIndex) {
+    if (fromIndex == toIndex) {
+      return;
+    }
+    MediaSourceHolder firstRemovedHolder = mediaSourceHolders.get(fromIndex);
+    int windowOffset =
+        mediaSourceHolders.getWeightBefore(Assertions.checkNotNull(firstRemovedHolder.node));
+    List<MediaSourceHolder> holdersToRelease = mediaSourceHolders.removeRange(fromIndex, toIndex);
+    for (int i = 0; i < holdersToRelease.size(); i++) {
+      // Events of periods that are still active are reported with the window index they had.
+      MediaSourceHolder holder = holdersToRelease.get(i);
+      holder.firstWindowIndexInChildWhenRemoved = windowOffset;
       windowOffset += holder.mediaSource.getTimeline().getWindowCount();
     }
+    for (int i = holdersToRelease.size() - 1; i >= 0; i--) {
+      MediaSourceHolder holder = holdersToRelease.get(i);
+      mediaSourceByUid.remove(holder.uid);
+      holder.isRemoved = true;
+      maybeReleaseChildSource(holder);
+    }
   }
 
-  private void correctOffsets(int startIndex, int childIndexUpdate, int windowOffsetUpdate) {
-    // TODO: Replace window index with uid in reporting to get rid of this inefficient method and
-    // the childIndex and firstWindowIndexInChild variables.
-    for (int i = startIndex; i < mediaSourceHolders.size(); i++) {
-      MediaSourceHolder holder = mediaSourceHolders.get(i);
-      holder.childIndex += childIndexUpdate;
-      holder.firstWindowIndexInChild += windowOffsetUpdate;
-    }
+  private void moveMediaSourceInternal(int currentIndex, int newIndex) {
+    mediaSourceHolders.move(currentIndex, newIndex);
   }
 
   private void maybeReleaseChildSource(MediaSourceHolder mediaSourceHolder) {
@@ -847,8 +840,8 @@ public final class ConcatenatingMediaSource extends CompositeMediaSource<MediaSo
     public final Object uid;
     public final List<MediaPeriodId> activeMediaPeriodIds;
 
-    public int childIndex;
-    public int firstWindowIndexInChild;
+    public @MonotonicNonNull Node<MediaSourceHolder> node;
+    public int firstWindowIndexInChildWhenRemoved;
     public boolean isRemoved;
 
     public MediaSourceHolder(MediaSource mediaSource, boolean useLazyPreparation) {
@@ -857,9 +850,7 @@ public final class ConcatenatingMediaSource extends CompositeMediaSource<MediaSo
       this.uid = new Object();
     }
 
-    public void reset(int childIndex, int firstWindowIndexInChild) {
-      this.childIndex = childIndex;
-      this.firstWindowIndexInChild = firstWindowIndexInChild;
+    public void reset() {
       this.isRemoved = false;
       this.activeMediaPeriodIds.clear();
     }
@@ -879,7 +870,13 @@ public final class ConcatenatingMediaSource extends CompositeMediaSource<MediaSo
     }
   }
 
-  /** Timeline exposing concatenated timelines of playlist media sources. */
+  /**
+   * Timeline exposing concatenated timelines of playlist media sources.
+   *
+   * <p>Window, period and uid lookups are binary searches or hash lookups. The timeline is an
+   * immutable snapshot, so it's rebuilt in O(n) once for all playlist updates handled in the same
+   * message loop iteration.
+   */
   private static final class ConcatenatedTimeline extends AbstractConcatenatedTimeline {
 
     private final int windowCount;
@@ -891,7 +888,7 @@ public final class ConcatenatingMediaSource extends CompositeMediaSource<MediaSo
     private final HashMap<Object, Integer> childIndexByUid;
 
     public ConcatenatedTimeline(
-        Collection<MediaSourceHolder> mediaSourceHolders,
+        WeightedList<MediaSourceHolder> mediaSourceHolders,
         ShuffleOrder shuffleOrder,
         boolean isAtomic) {
       super(isAtomic, shuffleOrder);
@@ -900,7 +897,8 @@ public final class ConcatenatingMediaSource extends CompositeMediaSource<MediaSo
       firstWindowInChildIndices = new int[childCount];
       timelines = new Timeline[childCount];
       uids = new Object[childCount];
-      childIndexByUid = new HashMap<>();
+      // Size the map up front to avoid repeated rehashing for large playlists.
+      childIndexByUid = new HashMap<>(/* initialCapacity= */ childCount * 4 / 3 + 1);
       int index = 0;
       int windowCount = 0;
       int periodCount = 0;
@@ -333,6 +333,7 @@ public final class ExtractorMediaSource extends CompositeMediaSource<Void> {
             loadableLoadErrorHandlingPolicy,
             customCacheKey,
             continueLoadingCheckIntervalBytes,
+            /* chunkIndexCache= */ null,
             tag);
   }
 
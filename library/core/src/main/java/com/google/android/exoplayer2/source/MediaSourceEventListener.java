@@ -29,6 +29,7 @@ import com.google.android.exoplayer2.upstream.DataSpec;
 import com.google.android.exoplayer2.util.Assertions;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -298,24 +299,24 @@ public interface MediaSourceEventListener {
     /** The {@link MediaPeriodId} reported with the events. */
     @Nullable public final MediaPeriodId mediaPeriodId;
 
-    private final CopyOnWriteArrayList<ListenerAndHandler> listenerAndHandlers;
+    private final CopyOnWriteArrayList<HandlerAndListeners> handlerAndListeners;
     private final long mediaTimeOffsetMs;
 
     /** Creates an event dispatcher. */
     public EventDispatcher() {
       this(
-          /* listenerAndHandlers= */ new CopyOnWriteArrayList<>(),
+          /* handlerAndListeners= */ new CopyOnWriteArrayList<>(),
           /* windowIndex= */ 0,
           /* mediaPeriodId= */ null,
           /* mediaTimeOffsetMs= */ 0);
     }
 
     private EventDispatcher(
-        CopyOnWriteArrayList<ListenerAndHandler> listenerAndHandlers,
+        CopyOnWriteArrayList<HandlerAndListeners> handlerAndListeners,
         int windowIndex,
         @Nullable MediaPeriodId mediaPeriodId,
         long mediaTimeOffsetMs) {
-      this.listenerAndHandlers = listenerAndHandlers;
+      this.handlerAndListeners = handlerAndListeners;
       this.windowIndex = windowIndex;
       this.mediaPeriodId = mediaPeriodId;
       this.mediaTimeOffsetMs = mediaTimeOffsetMs;
@@ -334,18 +335,33 @@ public interface MediaSourceEventListener {
     public EventDispatcher withParameters(
         int windowIndex, @Nullable MediaPeriodId mediaPeriodId, long mediaTimeOffsetMs) {
       return new EventDispatcher(
-          listenerAndHandlers, windowIndex, mediaPeriodId, mediaTimeOffsetMs);
+          handlerAndListeners, windowIndex, mediaPeriodId, mediaTimeOffsetMs);
     }
 
     /**
      * Adds a listener to the event dispatcher.
      *
+     * <p>Listeners added with the same handler are notified of each event by a single message
+     * posted to that handler, in the order in which they were added. Listeners are grouped by the
+     * handler they were first added with, so listeners of different handlers aren't necessarily
+     * notified in the order in which they were added, even if the handlers share a looper. For
+     * example, if listeners A, B and C are added with handlers 1, 2 and 1, an event is delivered to
+     * A, C and then B.
+     *
      * @param handler A handler on the which listener events will be posted.
      * @param eventListener The listener to be added.
      */
     public void addEventListener(Handler handler, MediaSourceEventListener eventListener) {
       Assertions.checkArgument(handler != null && eventListener != null);
-      listenerAndHandlers.add(new ListenerAndHandler(handler, eventListener));
+      synchronized (handlerAndListeners) {
+        for (HandlerAndListeners handlerAndListener : handlerAndListeners) {
+          if (handlerAndListener.handler == handler) {
+            handlerAndListener.listeners.add(eventListener);
+            return;
+          }
+        }
+        handlerAndListeners.add(new HandlerAndListeners(handler, eventListener));
+      }
     }
 
     /**
@@ -354,9 +370,12 @@ public interface MediaSourceEventListener {
      * @param eventListener The listener to be removed.
      */
     public void removeEventListener(MediaSourceEventListener eventListener) {
-      for (ListenerAndHandler listenerAndHandler : listenerAndHandlers) {
-        if (listenerAndHandler.listener == eventListener) {
-          listenerAndHandlers.remove(listenerAndHandler);
+      synchronized (handlerAndListeners) {
+        for (HandlerAndListeners handlerAndListener : handlerAndListeners) {
+          handlerAndListener.listeners.removeAll(Collections.singletonList(eventListener));
+          if (handlerAndListener.listeners.isEmpty()) {
+            handlerAndListeners.remove(handlerAndListener);
+          }
         }
       }
     }
@@ -364,23 +383,13 @@ public interface MediaSourceEventListener {
     /** Dispatches {@link #onMediaPeriodCreated(int, MediaPeriodId)}. */
     public void mediaPeriodCreated() {
       MediaPeriodId mediaPeriodId = Assertions.checkNotNull(this.mediaPeriodId);
-      for (ListenerAndHandler listenerAndHandler : listenerAndHandlers) {
-        final MediaSourceEventListener listener = listenerAndHandler.listener;
-        postOrRun(
-            listenerAndHandler.handler,
-            () -> listener.onMediaPeriodCreated(windowIndex, mediaPeriodId));
-      }
+      dispatch(listener -> listener.onMediaPeriodCreated(windowIndex, mediaPeriodId));
     }
 
     /** Dispatches {@link #onMediaPeriodReleased(int, MediaPeriodId)}. */
     public void mediaPeriodReleased() {
       MediaPeriodId mediaPeriodId = Assertions.checkNotNull(this.mediaPeriodId);
-      for (ListenerAndHandler listenerAndHandler : listenerAndHandlers) {
-        final MediaSourceEventListener listener = listenerAndHandler.listener;
-        postOrRun(
-            listenerAndHandler.handler,
-            () -> listener.onMediaPeriodReleased(windowIndex, mediaPeriodId));
-      }
+      dispatch(listener -> listener.onMediaPeriodReleased(windowIndex, mediaPeriodId));
     }
 
     /** Dispatches {@link #onLoadStarted(int, MediaPeriodId, LoadEventInfo, MediaLoadData)}. */
@@ -408,6 +417,9 @@ public interface MediaSourceEventListener {
         long mediaStartTimeUs,
         long mediaEndTimeUs,
         long elapsedRealtimeMs) {
+      if (handlerAndListeners.isEmpty()) {
+        return;
+      }
       loadStarted(
           new LoadEventInfo(
               dataSpec,
@@ -428,12 +440,9 @@ public interface MediaSourceEventListener {
 
     /** Dispatches {@link #onLoadStarted(int, MediaPeriodId, LoadEventInfo, MediaLoadData)}. */
     public void loadStarted(LoadEventInfo loadEventInfo, MediaLoadData mediaLoadData) {
-      for (ListenerAndHandler listenerAndHandler : listenerAndHandlers) {
-        final MediaSourceEventListener listener = listenerAndHandler.listener;
-        postOrRun(
-            listenerAndHandler.handler,
-            () -> listener.onLoadStarted(windowIndex, mediaPeriodId, loadEventInfo, mediaLoadData));
-      }
+      dispatch(
+          listener ->
+              listener.onLoadStarted(windowIndex, mediaPeriodId, loadEventInfo, mediaLoadData));
     }
 
     /** Dispatches {@link #onLoadCompleted(int, MediaPeriodId, LoadEventInfo, MediaLoadData)}. */
@@ -476,6 +485,9 @@ public interface MediaSourceEventListener {
         long elapsedRealtimeMs,
         long loadDurationMs,
         long bytesLoaded) {
+      if (handlerAndListeners.isEmpty()) {
+        return;
+      }
       loadCompleted(
           new LoadEventInfo(
               dataSpec, uri, responseHeaders, elapsedRealtimeMs, loadDurationMs, bytesLoaded),
@@ -491,13 +503,9 @@ public interface MediaSourceEventListener {
 
     /** Dispatches {@link #onLoadCompleted(int, MediaPeriodId, LoadEventInfo, MediaLoadData)}. */
     public void loadCompleted(LoadEventInfo loadEventInfo, MediaLoadData mediaLoadData) {
-      for (ListenerAndHandler listenerAndHandler : listenerAndHandlers) {
-        final MediaSourceEventListener listener = listenerAndHandler.listener;
-        postOrRun(
-            listenerAndHandler.handler,
-            () ->
-                listener.onLoadCompleted(windowIndex, mediaPeriodId, loadEventInfo, mediaLoadData));
-      }
+      dispatch(
+          listener ->
+              listener.onLoadCompleted(windowIndex, mediaPeriodId, loadEventInfo, mediaLoadData));
     }
 
     /** Dispatches {@link #onLoadCanceled(int, MediaPeriodId, LoadEventInfo, MediaLoadData)}. */
@@ -540,6 +548,9 @@ public interface MediaSourceEventListener {
         long elapsedRealtimeMs,
         long loadDurationMs,
         long bytesLoaded) {
+      if (handlerAndListeners.isEmpty()) {
+        return;
+      }
       loadCanceled(
           new LoadEventInfo(
               dataSpec, uri, responseHeaders, elapsedRealtimeMs, loadDurationMs, bytesLoaded),
@@ -555,13 +566,9 @@ public interface MediaSourceEventListener {
 
     /** Dispatches {@link #onLoadCanceled(int, MediaPeriodId, LoadEventInfo, MediaLoadData)}. */
     public void loadCanceled(LoadEventInfo loadEventInfo, MediaLoadData mediaLoadData) {
-      for (ListenerAndHandler listenerAndHandler : listenerAndHandlers) {
-        MediaSourceEventListener listener = listenerAndHandler.listener;
-        postOrRun(
-            listenerAndHandler.handler,
-            () ->
-                listener.onLoadCanceled(windowIndex, mediaPeriodId, loadEventInfo, mediaLoadData));
-      }
+      dispatch(
+          listener ->
+              listener.onLoadCanceled(windowIndex, mediaPeriodId, loadEventInfo, mediaLoadData));
     }
 
     /**
@@ -616,6 +623,9 @@ public interface MediaSourceEventListener {
         long bytesLoaded,
         IOException error,
         boolean wasCanceled) {
+      if (handlerAndListeners.isEmpty()) {
+        return;
+      }
       loadError(
           new LoadEventInfo(
               dataSpec, uri, responseHeaders, elapsedRealtimeMs, loadDurationMs, bytesLoaded),
@@ -640,29 +650,23 @@ public interface MediaSourceEventListener {
         MediaLoadData mediaLoadData,
         IOException error,
         boolean wasCanceled) {
-      for (ListenerAndHandler listenerAndHandler : listenerAndHandlers) {
-        final MediaSourceEventListener listener = listenerAndHandler.listener;
-        postOrRun(
-            listenerAndHandler.handler,
-            () ->
-                listener.onLoadError(
-                    windowIndex, mediaPeriodId, loadEventInfo, mediaLoadData, error, wasCanceled));
-      }
+      dispatch(
+          listener ->
+              listener.onLoadError(
+                  windowIndex, mediaPeriodId, loadEventInfo, mediaLoadData, error, wasCanceled));
     }
 
     /** Dispatches {@link #onReadingStarted(int, MediaPeriodId)}. */
     public void readingStarted() {
       MediaPeriodId mediaPeriodId = Assertions.checkNotNull(this.mediaPeriodId);
-      for (ListenerAndHandler listenerAndHandler : listenerAndHandlers) {
-        final MediaSourceEventListener listener = listenerAndHandler.listener;
-        postOrRun(
-            listenerAndHandler.handler,
-            () -> listener.onReadingStarted(windowIndex, mediaPeriodId));
-      }
+      dispatch(listener -> listener.onReadingStarted(windowIndex, mediaPeriodId));
     }
 
     /** Dispatches {@link #onUpstreamDiscarded(int, MediaPeriodId, MediaLoadData)}. */
     public void upstreamDiscarded(int trackType, long mediaStartTimeUs, long mediaEndTimeUs) {
+      if (handlerAndListeners.isEmpty()) {
+        return;
+      }
       upstreamDiscarded(
           new MediaLoadData(
               C.DATA_TYPE_MEDIA,
@@ -677,12 +681,7 @@ public interface MediaSourceEventListener {
     /** Dispatches {@link #onUpstreamDiscarded(int, MediaPeriodId, MediaLoadData)}. */
     public void upstreamDiscarded(MediaLoadData mediaLoadData) {
       MediaPeriodId mediaPeriodId = Assertions.checkNotNull(this.mediaPeriodId);
-      for (ListenerAndHandler listenerAndHandler : listenerAndHandlers) {
-        final MediaSourceEventListener listener = listenerAndHandler.listener;
-        postOrRun(
-            listenerAndHandler.handler,
-            () -> listener.onUpstreamDiscarded(windowIndex, mediaPeriodId, mediaLoadData));
-      }
+      dispatch(listener -> listener.onUpstreamDiscarded(windowIndex, mediaPeriodId, mediaLoadData));
     }
 
     /** Dispatches {@link #onDownstreamFormatChanged(int, MediaPeriodId, MediaLoadData)}. */
@@ -692,6 +691,9 @@ public interface MediaSourceEventListener {
         int trackSelectionReason,
         @Nullable Object trackSelectionData,
         long mediaTimeUs) {
+      if (handlerAndListeners.isEmpty()) {
+        return;
+      }
       downstreamFormatChanged(
           new MediaLoadData(
               C.DATA_TYPE_MEDIA,
@@ -705,12 +707,9 @@ public interface MediaSourceEventListener {
 
     /** Dispatches {@link #onDownstreamFormatChanged(int, MediaPeriodId, MediaLoadData)}. */
     public void downstreamFormatChanged(MediaLoadData mediaLoadData) {
-      for (ListenerAndHandler listenerAndHandler : listenerAndHandlers) {
-        final MediaSourceEventListener listener = listenerAndHandler.listener;
-        postOrRun(
-            listenerAndHandler.handler,
-            () -> listener.onDownstreamFormatChanged(windowIndex, mediaPeriodId, mediaLoadData));
-      }
+      dispatch(
+          listener ->
+              listener.onDownstreamFormatChanged(windowIndex, mediaPeriodId, mediaLoadData));
     }
 
     private long adjustMediaTime(long mediaTimeUs) {
@@ -718,22 +717,40 @@ public interface MediaSourceEventListener {
       return mediaTimeMs == C.TIME_UNSET ? C.TIME_UNSET : mediaTimeOffsetMs + mediaTimeMs;
     }
 
-    private void postOrRun(Handler handler, Runnable runnable) {
-      if (handler.getLooper() == Looper.myLooper()) {
-        runnable.run();
-      } else {
-        handler.post(runnable);
+    private void dispatch(EventInvocation invocation) {
+      for (HandlerAndListeners handlerAndListener : handlerAndListeners) {
+        // The iterator is a snapshot of the listeners at the time of dispatch, so that listeners
+        // added or removed before a posted event is handled don't change who receives it.
+        Iterator<MediaSourceEventListener> listeners = handlerAndListener.listeners.iterator();
+        if (handlerAndListener.handler.getLooper() == Looper.myLooper()) {
+          invokeAll(listeners, invocation);
+        } else {
+          handlerAndListener.handler.post(() -> invokeAll(listeners, invocation));
+        }
+      }
+    }
+
+    private static void invokeAll(
+        Iterator<MediaSourceEventListener> listeners, EventInvocation invocation) {
+      while (listeners.hasNext()) {
+        invocation.invoke(listeners.next());
       }
     }
 
-    private static final class ListenerAndHandler {
+    private interface EventInvocation {
+
+      void invoke(MediaSourceEventListener listener);
+    }
+
+    private static final class HandlerAndListeners {
 
       public final Handler handler;
-      public final MediaSourceEventListener listener;
+      public final CopyOnWriteArrayList<MediaSourceEventListener> listeners;
 
-      public ListenerAndHandler(Handler handler, MediaSourceEventListener listener) {
+      public HandlerAndListeners(Handler handler, MediaSourceEventListener listener) {
         this.handler = handler;
-        this.listener = listener;
+        listeners = new CopyOnWriteArrayList<>();
+        listeners.add(listener);
       }
     }
   }
@@ -25,15 +25,19 @@ import com.google.android.exoplayer2.ParserException;
 import com.google.android.exoplayer2.SeekParameters;
 import com.google.android.exoplayer2.decoder.DecoderInputBuffer;
 import com.google.android.exoplayer2.drm.DrmSessionManager;
+import com.google.android.exoplayer2.extractor.ChunkIndex;
+import com.google.android.exoplayer2.extractor.ChunkIndexCache;
 import com.google.android.exoplayer2.extractor.DefaultExtractorInput;
 import com.google.android.exoplayer2.extractor.Extractor;
 import com.google.android.exoplayer2.extractor.ExtractorInput;
 import com.google.android.exoplayer2.extractor.ExtractorOutput;
+import com.google.android.exoplayer2.extractor.ExtractorsFactory;
 import com.google.android.exoplayer2.extractor.PositionHolder;
 import com.google.android.exoplayer2.extractor.SeekMap;
 import com.google.android.exoplayer2.extractor.SeekMap.SeekPoints;
 import com.google.android.exoplayer2.extractor.SeekMap.Unseekable;
 import com.google.android.exoplayer2.extractor.TrackOutput;
+import com.google.android.exoplayer2.extractor.mkv.MatroskaExtractor;
 import com.google.android.exoplayer2.extractor.mp3.Mp3Extractor;
 import com.google.android.exoplayer2.metadata.Metadata;
 import com.google.android.exoplayer2.metadata.icy.IcyHeaders;
@@ -48,6 +52,7 @@ import com.google.android.exoplayer2.upstream.Loader;
 import com.google.android.exoplayer2.upstream.Loader.LoadErrorAction;
 import com.google.android.exoplayer2.upstream.Loader.Loadable;
 import com.google.android.exoplayer2.upstream.StatsDataSource;
+import com.google.android.exoplayer2.upstream.cache.CacheUtil;
 import com.google.android.exoplayer2.util.Assertions;
 import com.google.android.exoplayer2.util.ConditionVariable;
 import com.google.android.exoplayer2.util.MimeTypes;
@@ -58,6 +63,7 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.checkerframework.checker.nullness.compatqual.NullableType;
 
@@ -105,6 +111,7 @@ import org.checkerframework.checker.nullness.compatqual.NullableType;
   private final Allocator allocator;
   @Nullable private final String customCacheKey;
   private final long continueLoadingCheckIntervalBytes;
+  @Nullable private final ChunkIndexCache chunkIndexCache;
   private final Loader loader;
   private final ExtractorHolder extractorHolder;
   private final ConditionVariable loadCondition;
@@ -140,10 +147,14 @@ import org.checkerframework.checker.nullness.compatqual.NullableType;
   private boolean loadingFinished;
   private boolean released;
 
+  // Accessed only by the loading thread.
+  private boolean chunkIndexRestoreAttempted;
+  @Nullable private ChunkIndex restoredChunkIndex;
+
   /**
    * @param uri The {@link Uri} of the media stream.
    * @param dataSource The data source to read the media.
-   * @param extractors The extractors to use to read the data source.
+   * @param extractorsFactory The factory for the extractors to use to read the data source.
    * @param loadErrorHandlingPolicy The {@link LoadErrorHandlingPolicy}.
    * @param eventDispatcher A dispatcher to notify of events.
    * @param listener A listener to notify when information about the period changes.
@@ -152,6 +163,8 @@ import org.checkerframework.checker.nullness.compatqual.NullableType;
    *     indexing. May be null.
    * @param continueLoadingCheckIntervalBytes The number of bytes that should be loaded between each
    *     invocation of {@link Callback#onContinueLoadingRequested(SequenceableLoader)}.
+   * @param chunkIndexCache A {@link ChunkIndexCache} in which seek indices read from the media are
+   *     stored and from which they are restored, or null.
    */
   // maybeFinishPrepare is not posted to the handler until initialization completes.
   @SuppressWarnings({
@@ -161,14 +174,15 @@ import org.checkerframework.checker.nullness.compatqual.NullableType;
   public ProgressiveMediaPeriod(
       Uri uri,
       DataSource dataSource,
-      Extractor[] extractors,
+      ExtractorsFactory extractorsFactory,
       DrmSessionManager<?> drmSessionManager,
       LoadErrorHandlingPolicy loadErrorHandlingPolicy,
       EventDispatcher eventDispatcher,
       Listener listener,
       Allocator allocator,
       @Nullable String customCacheKey,
-      int continueLoadingCheckIntervalBytes) {
+      int continueLoadingCheckIntervalBytes,
+      @Nullable ChunkIndexCache chunkIndexCache) {
     this.uri = uri;
     this.dataSource = dataSource;
     this.drmSessionManager = drmSessionManager;
@@ -178,8 +192,9 @@ import org.checkerframework.checker.nullness.compatqual.NullableType;
     this.allocator = allocator;
     this.customCacheKey = customCacheKey;
     this.continueLoadingCheckIntervalBytes = continueLoadingCheckIntervalBytes;
+    this.chunkIndexCache = chunkIndexCache;
     loader = new Loader("Loader:ProgressiveMediaPeriod");
-    extractorHolder = new ExtractorHolder(extractors);
+    extractorHolder = new ExtractorHolder(extractorsFactory);
     loadCondition = new ConditionVariable();
     maybeFinishPrepareRunnable = this::maybeFinishPrepare;
     onContinueLoadingRequestedRunnable =
@@ -657,6 +672,14 @@ import org.checkerframework.checker.nullness.compatqual.NullableType;
   @Override
   public void seekMap(SeekMap seekMap) {
     this.seekMap = icyHeaders == null ? seekMap : new Unseekable(/* durationUs */ C.TIME_UNSET);
+    // The extractor discards a restored index that doesn't match the media, in which case the index
+    // it outputs instead replaces the stored one.
+    if (chunkIndexCache != null
+        && seekMap != restoredChunkIndex
+        && seekMap instanceof ChunkIndex
+        && extractorHolder.extractor instanceof MatroskaExtractor) {
+      chunkIndexCache.put(getCacheKey(), ChunkIndexCache.KEY_CHUNK_INDEX, (ChunkIndex) seekMap);
+    }
     handler.post(maybeFinishPrepareRunnable);
   }
 
@@ -675,6 +698,29 @@ import org.checkerframework.checker.nullness.compatqual.NullableType;
 
   // Internal methods.
 
+  /**
+   * Restores a seek index stored by a previous playback of the same media into the extractor, if
+   * the extractor supports it. Called by the loading thread.
+   */
+  private void maybeRestoreChunkIndex(Extractor extractor) {
+    if (chunkIndexCache == null || chunkIndexRestoreAttempted) {
+      return;
+    }
+    chunkIndexRestoreAttempted = true;
+    if (extractor instanceof MatroskaExtractor) {
+      @Nullable
+      ChunkIndex chunkIndex = chunkIndexCache.get(getCacheKey(), ChunkIndexCache.KEY_CHUNK_INDEX);
+      if (chunkIndex != null) {
+        ((MatroskaExtractor) extractor).setStoredCuesIndex(chunkIndex);
+        restoredChunkIndex = chunkIndex;
+      }
+    }
+  }
+
+  private String getCacheKey() {
+    return customCacheKey != null ? customCacheKey : CacheUtil.generateKey(uri);
+  }
+
   private TrackOutput prepareTrackOutput(TrackId id) {
     int trackCount = sampleQueues.length;
     for (int i = 0; i < trackCount; i++) {
@@ -971,7 +1017,11 @@ import org.checkerframework.checker.nullness.compatqual.NullableType;
             icyTrackOutput.format(ICY_FORMAT);
           }
           input = new DefaultExtractorInput(extractorDataSource, position, length);
-          Extractor extractor = extractorHolder.selectExtractor(input, extractorOutput, uri);
+          Extractor extractor =
+              extractorHolder.selectExtractor(
+                  input, extractorOutput, uri, dataSource.getResponseHeaders());
+
+          maybeRestoreChunkIndex(extractor);
 
           // MP3 live streams commonly have seekable metadata, despite being unseekable.
           if (icyHeaders != null && extractor instanceof Mp3Extractor) {
@@ -1040,40 +1090,52 @@ import org.checkerframework.checker.nullness.compatqual.NullableType;
     }
   }
 
-  /** Stores a list of extractors and a selected extractor when the format has been detected. */
+  /**
+   * Creates the extractors for a stream and stores the selected extractor when the format has been
+   * detected.
+   */
   private static final class ExtractorHolder {
 
-    private final Extractor[] extractors;
+    private final ExtractorsFactory extractorsFactory;
 
     @Nullable private Extractor extractor;
 
     /**
      * Creates a holder that will select an extractor and initialize it using the specified output.
      *
-     * @param extractors One or more extractors to choose from.
+     * @param extractorsFactory The factory for the extractors to choose from.
      */
-    public ExtractorHolder(Extractor[] extractors) {
-      this.extractors = extractors;
+    public ExtractorHolder(ExtractorsFactory extractorsFactory) {
+      this.extractorsFactory = extractorsFactory;
     }
 
     /**
      * Returns an initialized extractor for reading {@code input}, and returns the same extractor on
      * later calls.
      *
+     * <p>The extractors are created using the {@link Uri} and response headers of the stream, so
+     * that the ones most likely to read it are sniffed first.
+     *
      * @param input The {@link ExtractorInput} from which data should be read.
      * @param output The {@link ExtractorOutput} that will be used to initialize the selected
      *     extractor.
      * @param uri The {@link Uri} of the data.
+     * @param responseHeaders The response headers of the data, or an empty map if there are none.
      * @return An initialized extractor for reading {@code input}.
      * @throws UnrecognizedInputFormatException Thrown if the input format could not be detected.
      * @throws IOException Thrown if the input could not be read.
      * @throws InterruptedException Thrown if the thread was interrupted.
      */
-    public Extractor selectExtractor(ExtractorInput input, ExtractorOutput output, Uri uri)
+    public Extractor selectExtractor(
+        ExtractorInput input,
+        ExtractorOutput output,
+        Uri uri,
+        Map<String, List<String>> responseHeaders)
         throws IOException, InterruptedException {
       if (extractor != null) {
         return extractor;
       }
+      Extractor[] extractors = extractorsFactory.createExtractors(uri, responseHeaders);
       if (extractors.length == 1) {
         this.extractor = extractors[0];
       } else {
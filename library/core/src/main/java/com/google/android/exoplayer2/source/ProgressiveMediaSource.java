@@ -20,6 +20,7 @@ import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.drm.DrmSession;
 import com.google.android.exoplayer2.drm.DrmSessionManager;
+import com.google.android.exoplayer2.extractor.ChunkIndexCache;
 import com.google.android.exoplayer2.extractor.DefaultExtractorsFactory;
 import com.google.android.exoplayer2.extractor.Extractor;
 import com.google.android.exoplayer2.extractor.ExtractorsFactory;
@@ -56,6 +57,7 @@ public final class ProgressiveMediaSource extends BaseMediaSource
     private DrmSessionManager<?> drmSessionManager;
     private LoadErrorHandlingPolicy loadErrorHandlingPolicy;
     private int continueLoadingCheckIntervalBytes;
+    @Nullable private ChunkIndexCache chunkIndexCache;
     private boolean isCreateCalled;
 
     /**
@@ -177,6 +179,25 @@ public final class ProgressiveMediaSource extends BaseMediaSource
       return this;
     }
 
+    /**
+     * Sets a {@link ChunkIndexCache} in which seek indices read from the media are stored, so that
+     * they don't need to be requested again when the same media is played later. This is currently
+     * supported for Matroska and WebM streams, whose cues element is commonly located after the
+     * media data. The default value is {@code null}, meaning indices aren't stored.
+     *
+     * <p>The cache should be the one in which the media itself is cached, since stored indices are
+     * removed along with the media they describe.
+     *
+     * @param chunkIndexCache A {@link ChunkIndexCache}, or {@code null}.
+     * @return This factory, for convenience.
+     * @throws IllegalStateException If {@link #createMediaSource(Uri)} has already been called.
+     */
+    public Factory setChunkIndexCache(@Nullable ChunkIndexCache chunkIndexCache) {
+      Assertions.checkState(!isCreateCalled);
+      this.chunkIndexCache = chunkIndexCache;
+      return this;
+    }
+
     /**
      * Returns a new {@link ProgressiveMediaSource} using the current parameters.
      *
@@ -194,6 +215,7 @@ public final class ProgressiveMediaSource extends BaseMediaSource
           loadErrorHandlingPolicy,
           customCacheKey,
           continueLoadingCheckIntervalBytes,
+          chunkIndexCache,
           tag);
     }
 
@@ -216,6 +238,7 @@ public final class ProgressiveMediaSource extends BaseMediaSource
   private final LoadErrorHandlingPolicy loadableLoadErrorHandlingPolicy;
   @Nullable private final String customCacheKey;
   private final int continueLoadingCheckIntervalBytes;
+  @Nullable private final ChunkIndexCache chunkIndexCache;
   @Nullable private final Object tag;
 
   private long timelineDurationUs;
@@ -232,6 +255,7 @@ public final class ProgressiveMediaSource extends BaseMediaSource
       LoadErrorHandlingPolicy loadableLoadErrorHandlingPolicy,
       @Nullable String customCacheKey,
       int continueLoadingCheckIntervalBytes,
+      @Nullable ChunkIndexCache chunkIndexCache,
       @Nullable Object tag) {
     this.uri = uri;
     this.dataSourceFactory = dataSourceFactory;
@@ -240,6 +264,7 @@ public final class ProgressiveMediaSource extends BaseMediaSource
     this.loadableLoadErrorHandlingPolicy = loadableLoadErrorHandlingPolicy;
     this.customCacheKey = customCacheKey;
     this.continueLoadingCheckIntervalBytes = continueLoadingCheckIntervalBytes;
+    this.chunkIndexCache = chunkIndexCache;
     this.timelineDurationUs = C.TIME_UNSET;
     this.tag = tag;
   }
@@ -271,14 +296,15 @@ public final class ProgressiveMediaSource extends BaseMediaSource
     return new ProgressiveMediaPeriod(
         uri,
         dataSource,
-        extractorsFactory.createExtractors(),
+        extractorsFactory,
         drmSessionManager,
         loadableLoadErrorHandlingPolicy,
         createEventDispatcher(id),
         this,
         allocator,
         customCacheKey,
-        continueLoadingCheckIntervalBytes);
+        continueLoadingCheckIntervalBytes,
+        chunkIndexCache);
   }
 
   @Override
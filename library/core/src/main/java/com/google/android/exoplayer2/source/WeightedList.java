@@ -0,0 +1,324 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source;
+
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.util.Assertions;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * A list of elements with integer weights, such as the window counts of the sources of a
+ * playlist.
+ *
+ * <p>Inserting, removing and moving an element, changing its weight, and looking up its position
+ * and the summed weight of the elements before it each take O(log n) expected time. The list is
+ * an implicit treap whose nodes link to their parents, so that the position of a {@link Node} is
+ * found by walking up to the root.
+ */
+/* package */ final class WeightedList<T> implements Iterable<T> {
+
+  /** A node holding an element of a {@link WeightedList}. */
+  public static final class Node<T> {
+
+    public final T element;
+
+    private final int priority;
+    private int weight;
+    private int size;
+    private int weightSum;
+    @Nullable private Node<T> parent;
+    @Nullable private Node<T> left;
+    @Nullable private Node<T> right;
+
+    private Node(T element, int weight, int priority) {
+      this.element = element;
+      this.weight = weight;
+      this.priority = priority;
+      size = 1;
+      weightSum = weight;
+    }
+  }
+
+  private final Random random;
+
+  @Nullable private Node<T> root;
+  // Results of split(Node, int).
+  @Nullable private Node<T> splitLeft;
+  @Nullable private Node<T> splitRight;
+
+  public WeightedList() {
+    random = new Random();
+  }
+
+  /** Returns the number of elements in the list. */
+  public int size() {
+    return size(root);
+  }
+
+  /** Returns the element at {@code index}. */
+  public T get(int index) {
+    Assertions.checkIndex(index, /* start= */ 0, /* limit= */ size());
+    Node<T> node = Assertions.checkNotNull(root);
+    while (true) {
+      int leftSize = size(node.left);
+      if (index == leftSize) {
+        return node.element;
+      } else if (index < leftSize) {
+        node = Assertions.checkNotNull(node.left);
+      } else {
+        index -= leftSize + 1;
+        node = Assertions.checkNotNull(node.right);
+      }
+    }
+  }
+
+  /**
+   * Inserts an element.
+   *
+   * @param index The position at which to insert the element.
+   * @param element The element.
+   * @param weight The weight of the element.
+   * @return The {@link Node} holding the element, which identifies it in the other methods.
+   */
+  public Node<T> add(int index, T element, int weight) {
+    Assertions.checkIndex(index, /* start= */ 0, /* limit= */ size() + 1);
+    Node<T> node = new Node<>(element, weight, random.nextInt());
+    split(root, index);
+    Node<T> left = splitLeft;
+    Node<T> right = splitRight;
+    setRoot(merge(merge(left, node), right));
+    return node;
+  }
+
+  /**
+   * Removes the elements in a range. The nodes of removed elements must no longer be passed to
+   * the other methods.
+   *
+   * @param fromIndex The position of the first element to remove.
+   * @param toIndex The position after the last element to remove.
+   * @return The removed elements, in list order.
+   */
+  public List<T> removeRange(int fromIndex, int toIndex) {
+    Assertions.checkArgument(0 <= fromIndex && fromIndex <= toIndex && toIndex <= size());
+    split(root, toIndex);
+    Node<T> right = splitRight;
+    split(splitLeft, fromIndex);
+    Node<T> left = splitLeft;
+    Node<T> removed = splitRight;
+    setRoot(merge(left, right));
+    List<T> removedElements = new ArrayList<>(toIndex - fromIndex);
+    detach(removed, removedElements);
+    return removedElements;
+  }
+
+  /**
+   * Moves an element. Its {@link Node} stays the same.
+   *
+   * @param currentIndex The current position of the element.
+   * @param newIndex The position of the element after the move.
+   */
+  public void move(int currentIndex, int newIndex) {
+    int size = size();
+    Assertions.checkIndex(currentIndex, /* start= */ 0, /* limit= */ size);
+    Assertions.checkIndex(newIndex, /* start= */ 0, /* limit= */ size);
+    split(root, currentIndex + 1);
+    Node<T> right = splitRight;
+    split(splitLeft, currentIndex);
+    Node<T> left = splitLeft;
+    Node<T> node = Assertions.checkNotNull(splitRight);
+    setRoot(merge(left, right));
+    node.parent = null;
+    split(root, newIndex);
+    left = splitLeft;
+    right = splitRight;
+    setRoot(merge(merge(left, node), right));
+  }
+
+  /** Removes all elements. */
+  public void clear() {
+    root = null;
+  }
+
+  /** Returns the position of the element held by a node of this list. */
+  public int indexOf(Node<T> node) {
+    int index = size(node.left);
+    Node<T> child = node;
+    for (Node<T> parent = node.parent; parent != null; parent = parent.parent) {
+      if (child == parent.right) {
+        index += size(parent.left) + 1;
+      }
+      child = parent;
+    }
+    return index;
+  }
+
+  /** Returns the summed weight of the elements before the element held by a node of this list. */
+  public int getWeightBefore(Node<T> node) {
+    int weightBefore = weightSum(node.left);
+    Node<T> child = node;
+    for (Node<T> parent = node.parent; parent != null; parent = parent.parent) {
+      if (child == parent.right) {
+        weightBefore += weightSum(parent.left) + parent.weight;
+      }
+      child = parent;
+    }
+    return weightBefore;
+  }
+
+  /** Sets the weight of the element held by a node of this list. */
+  public void setWeight(Node<T> node, int weight) {
+    node.weight = weight;
+    for (Node<T> ancestor = node; ancestor != null; ancestor = ancestor.parent) {
+      update(ancestor);
+    }
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<T>() {
+
+      @Nullable private Node<T> next = root == null ? null : first(root);
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public T next() {
+        Node<T> node = next;
+        if (node == null) {
+          throw new NoSuchElementException();
+        }
+        next = successor(node);
+        return node.element;
+      }
+    };
+  }
+
+  // Internal methods.
+
+  private void setRoot(@Nullable Node<T> node) {
+    root = node;
+    if (node != null) {
+      node.parent = null;
+    }
+    splitLeft = null;
+    splitRight = null;
+  }
+
+  /**
+   * Splits a subtree into its first {@code count} elements, stored in {@link #splitLeft}, and the
+   * remaining elements, stored in {@link #splitRight}. The parent links of the two resulting roots
+   * must be overwritten by the caller.
+   */
+  private void split(@Nullable Node<T> node, int count) {
+    if (node == null) {
+      splitLeft = null;
+      splitRight = null;
+      return;
+    }
+    int leftSize = size(node.left);
+    if (count <= leftSize) {
+      split(node.left, count);
+      node.left = splitRight;
+      update(node);
+      splitRight = node;
+    } else {
+      split(node.right, count - leftSize - 1);
+      node.right = splitLeft;
+      update(node);
+      splitLeft = node;
+    }
+  }
+
+  /** Merges two subtrees, where all elements of {@code left} come before those of {@code right}. */
+  @Nullable
+  private static <T> Node<T> merge(@Nullable Node<T> left, @Nullable Node<T> right) {
+    if (left == null) {
+      return right;
+    } else if (right == null) {
+      return left;
+    } else if (left.priority > right.priority) {
+      left.right = merge(left.right, right);
+      update(left);
+      return left;
+    } else {
+      right.left = merge(left, right.left);
+      update(right);
+      return right;
+    }
+  }
+
+  /** Recomputes the size and weight of a subtree and the parent links of its children. */
+  private static <T> void update(Node<T> node) {
+    node.size = 1 + size(node.left) + size(node.right);
+    node.weightSum = node.weight + weightSum(node.left) + weightSum(node.right);
+    if (node.left != null) {
+      node.left.parent = node;
+    }
+    if (node.right != null) {
+      node.right.parent = node;
+    }
+  }
+
+  /** Adds the elements of a removed subtree to a list in order, and unlinks its nodes. */
+  private static <T> void detach(@Nullable Node<T> node, List<T> elements) {
+    if (node == null) {
+      return;
+    }
+    detach(node.left, elements);
+    elements.add(node.element);
+    detach(node.right, elements);
+    node.parent = null;
+    node.left = null;
+    node.right = null;
+    update(node);
+  }
+
+  private static <T> Node<T> first(Node<T> node) {
+    while (node.left != null) {
+      node = node.left;
+    }
+    return node;
+  }
+
+  @Nullable
+  private static <T> Node<T> successor(Node<T> node) {
+    if (node.right != null) {
+      return first(node.right);
+    }
+    Node<T> child = node;
+    Node<T> parent = node.parent;
+    while (parent != null && child == parent.right) {
+      child = parent;
+      parent = parent.parent;
+    }
+    return parent;
+  }
+
+  private static <T> int size(@Nullable Node<T> node) {
+    return node == null ? 0 : node.size;
+  }
+
+  private static <T> int weightSum(@Nullable Node<T> node) {
+    return node == null ? 0 : node.weightSum;
+  }
+}
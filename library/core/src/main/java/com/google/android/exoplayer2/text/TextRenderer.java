@@ -27,6 +27,7 @@ import com.google.android.exoplayer2.ExoPlaybackException;
 import com.google.android.exoplayer2.Format;
 import com.google.android.exoplayer2.FormatHolder;
 import com.google.android.exoplayer2.RendererCapabilities;
+import com.google.android.exoplayer2.decoder.SimpleDecoder;
 import com.google.android.exoplayer2.util.Assertions;
 import com.google.android.exoplayer2.util.MimeTypes;
 import com.google.android.exoplayer2.util.Util;
@@ -35,6 +36,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * A renderer for text.
@@ -86,6 +88,7 @@ public final class TextRenderer extends BaseRenderer implements Callback {
   @Nullable private SubtitleOutputBuffer subtitle;
   @Nullable private SubtitleOutputBuffer nextSubtitle;
   private int nextSubtitleEventIndex;
+  @Nullable private Executor decodeExecutor;
 
   /**
    * @param output The output.
@@ -118,6 +121,20 @@ public final class TextRenderer extends BaseRenderer implements Callback {
     formatHolder = new FormatHolder();
   }
 
+  /**
+   * Sets an {@link Executor} on which decoders that are {@link SimpleDecoder SimpleDecoders} run
+   * their decode work, instead of on a decode thread of their own. See {@link
+   * SimpleDecoder#experimental_setDecodeExecutor(Executor)}.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release. It should
+   * only be called before the renderer is used.
+   *
+   * @param decodeExecutor The {@link Executor} on which to run the decode work.
+   */
+  public void experimental_setDecodeExecutor(Executor decodeExecutor) {
+    this.decodeExecutor = decodeExecutor;
+  }
+
   @Override
   @Capabilities
   public int supportsFormat(Format format) {
@@ -137,7 +154,7 @@ public final class TextRenderer extends BaseRenderer implements Callback {
     if (decoder != null) {
       decoderReplacementState = REPLACEMENT_STATE_SIGNAL_END_OF_STREAM;
     } else {
-      decoder = decoderFactory.createDecoder(streamFormat);
+      decoder = createDecoder(streamFormat);
     }
   }
 
@@ -292,7 +309,15 @@ public final class TextRenderer extends BaseRenderer implements Callback {
 
   private void replaceDecoder() {
     releaseDecoder();
-    decoder = decoderFactory.createDecoder(streamFormat);
+    decoder = createDecoder(streamFormat);
+  }
+
+  private SubtitleDecoder createDecoder(Format format) {
+    SubtitleDecoder decoder = decoderFactory.createDecoder(format);
+    if (decodeExecutor != null && decoder instanceof SimpleDecoder) {
+      ((SimpleDecoder<?, ?, ?>) decoder).experimental_setDecodeExecutor(decodeExecutor);
+    }
+    return decoder;
   }
 
   private long getNextEventTime() {
@@ -91,9 +91,21 @@ public final class TtmlDecoder extends SimpleSubtitleDecoder {
       new CellResolution(/* columns= */ 32, /* rows= */ 15);
 
   private final XmlPullParserFactory xmlParserFactory;
+  private final boolean precomputeCues;
 
   public TtmlDecoder() {
+    this(/* precomputeCues= */ false);
+  }
+
+  /**
+   * @param precomputeCues Whether decoded subtitles should resolve the cues of all their event
+   *     intervals on the decoder thread, rather than lazily when they're first queried. This
+   *     reduces the work done on the playback thread at the cost of building cues that may not be
+   *     displayed.
+   */
+  public TtmlDecoder(boolean precomputeCues) {
     super("TtmlDecoder");
+    this.precomputeCues = precomputeCues;
     try {
       xmlParserFactory = XmlPullParserFactory.newInstance();
       xmlParserFactory.setNamespaceAware(true);
@@ -152,7 +164,9 @@ public final class TtmlDecoder extends SimpleSubtitleDecoder {
             parent.addChild(TtmlNode.buildTextNode(xmlParser.getText()));
           } else if (eventType == XmlPullParser.END_TAG) {
             if (xmlParser.getName().equals(TtmlNode.TAG_TT)) {
-              ttmlSubtitle = new TtmlSubtitle(nodeStack.peek(), globalStyles, regionMap, imageMap);
+              ttmlSubtitle =
+                  new TtmlSubtitle(
+                      nodeStack.peek(), globalStyles, regionMap, imageMap, precomputeCues);
             }
             nodeStack.pop();
           }
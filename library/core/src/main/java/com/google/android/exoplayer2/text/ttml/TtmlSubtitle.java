@@ -23,6 +23,7 @@ import com.google.android.exoplayer2.util.Util;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import org.checkerframework.checker.nullness.compatqual.NullableType;
 
 /**
  * A representation of a TTML subtitle.
@@ -34,18 +35,45 @@ import java.util.Map;
   private final Map<String, TtmlStyle> globalStyles;
   private final Map<String, TtmlRegion> regionMap;
   private final Map<String, String> imageMap;
+  /** The cues active in each interval between consecutive event times. */
+  private final @NullableType List<Cue>[] cuesByEventInterval;
 
   public TtmlSubtitle(
       TtmlNode root,
       Map<String, TtmlStyle> globalStyles,
       Map<String, TtmlRegion> regionMap,
       Map<String, String> imageMap) {
+    this(root, globalStyles, regionMap, imageMap, /* precomputeCues= */ false);
+  }
+
+  /**
+   * @param root The root node of the document.
+   * @param globalStyles The global styles, keyed by id.
+   * @param regionMap The regions, keyed by id.
+   * @param imageMap The images, keyed by id.
+   * @param precomputeCues Whether to build the cues of every event interval up front, rather than
+   *     lazily when they're first queried.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public TtmlSubtitle(
+      TtmlNode root,
+      Map<String, TtmlStyle> globalStyles,
+      Map<String, TtmlRegion> regionMap,
+      Map<String, String> imageMap,
+      boolean precomputeCues) {
     this.root = root;
     this.regionMap = regionMap;
     this.imageMap = imageMap;
     this.globalStyles =
         globalStyles != null ? Collections.unmodifiableMap(globalStyles) : Collections.emptyMap();
     this.eventTimesUs = root.getEventTimesUs();
+    cuesByEventInterval = new List[eventTimesUs.length + 1];
+    if (precomputeCues) {
+      for (int i = 0; i < eventTimesUs.length; i++) {
+        // Interval i + 1 starts at event time i.
+        getCues(eventTimesUs[i]);
+      }
+    }
   }
 
   @Override
@@ -71,7 +99,16 @@ import java.util.Map;
 
   @Override
   public List<Cue> getCues(long timeUs) {
-    return root.getCues(timeUs, globalStyles, regionMap, imageMap);
+    // The active nodes only change at event times, so the resolved cues are cached per event
+    // interval, which is identified by the index of the next event time.
+    int eventIntervalIndex = Util.binarySearchCeil(eventTimesUs, timeUs, false, false);
+    List<Cue> cues = cuesByEventInterval[eventIntervalIndex];
+    if (cues == null) {
+      cues =
+          Collections.unmodifiableList(root.getCues(timeUs, globalStyles, regionMap, imageMap));
+      cuesByEventInterval[eventIntervalIndex] = cues;
+    }
+    return cues;
   }
 
   @VisibleForTesting
@@ -23,7 +23,10 @@ import com.google.android.exoplayer2.util.Assertions;
 import com.google.android.exoplayer2.util.Util;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.TreeSet;
+import org.checkerframework.checker.nullness.compatqual.NullableType;
 
 /**
  * A representation of a WebVTT subtitle.
@@ -34,10 +37,18 @@ import java.util.List;
   private final int numCues;
   private final long[] cueTimesUs;
   private final long[] sortedCueTimesUs;
+  /**
+   * The indices of the cues active in each interval between consecutive event times, in
+   * ascending order. The interval ending at {@code sortedCueTimesUs[i]} has index {@code i}.
+   */
+  private final int[][] activeCueIndicesByEventInterval;
+  /** The cues active in each interval between consecutive event times, populated lazily. */
+  private final @NullableType List<Cue>[] cuesByEventInterval;
 
   /**
    * @param cues A list of the cues in this subtitle.
    */
+  @SuppressWarnings({"unchecked", "rawtypes"})
   public WebvttSubtitle(List<WebvttCue> cues) {
     this.cues = cues;
     numCues = cues.size();
@@ -50,6 +61,8 @@ import java.util.List;
     }
     sortedCueTimesUs = Arrays.copyOf(cueTimesUs, cueTimesUs.length);
     Arrays.sort(sortedCueTimesUs);
+    activeCueIndicesByEventInterval = buildActiveCueIndicesByEventInterval();
+    cuesByEventInterval = new List[sortedCueTimesUs.length + 1];
   }
 
   @Override
@@ -72,34 +85,46 @@ import java.util.List;
 
   @Override
   public List<Cue> getCues(long timeUs) {
+    // The active cues only change at event times, so the result is cached per event interval,
+    // which is identified by the index of the next event time.
+    int eventIntervalIndex = Util.binarySearchCeil(sortedCueTimesUs, timeUs, false, false);
+    List<Cue> cachedCues = cuesByEventInterval[eventIntervalIndex];
+    if (cachedCues == null) {
+      cachedCues =
+          Collections.unmodifiableList(
+              buildCues(activeCueIndicesByEventInterval[eventIntervalIndex]));
+      cuesByEventInterval[eventIntervalIndex] = cachedCues;
+    }
+    return cachedCues;
+  }
+
+  private List<Cue> buildCues(int[] activeCueIndices) {
     List<Cue> list = new ArrayList<>();
     WebvttCue firstNormalCue = null;
     SpannableStringBuilder normalCueTextBuilder = null;
 
-    for (int i = 0; i < numCues; i++) {
-      if ((cueTimesUs[i * 2] <= timeUs) && (timeUs < cueTimesUs[i * 2 + 1])) {
-        WebvttCue cue = cues.get(i);
-        // TODO(ibaker): Replace this with a closer implementation of the WebVTT spec (keeping
-        // individual cues, but tweaking their `line` value):
-        // https://www.w3.org/TR/webvtt1/#cue-computed-line
-        if (cue.isNormalCue()) {
-          // we want to merge all of the normal cues into a single cue to ensure they are drawn
-          // correctly (i.e. don't overlap) and to emulate roll-up, but only if there are multiple
-          // normal cues, otherwise we can just append the single normal cue
-          if (firstNormalCue == null) {
-            firstNormalCue = cue;
-          } else if (normalCueTextBuilder == null) {
-            normalCueTextBuilder = new SpannableStringBuilder();
-            normalCueTextBuilder
-                .append(Assertions.checkNotNull(firstNormalCue.text))
-                .append("\n")
-                .append(Assertions.checkNotNull(cue.text));
-          } else {
-            normalCueTextBuilder.append("\n").append(Assertions.checkNotNull(cue.text));
-          }
+    for (int cueIndex : activeCueIndices) {
+      WebvttCue cue = cues.get(cueIndex);
+      // TODO(ibaker): Replace this with a closer implementation of the WebVTT spec (keeping
+      // individual cues, but tweaking their `line` value):
+      // https://www.w3.org/TR/webvtt1/#cue-computed-line
+      if (cue.isNormalCue()) {
+        // we want to merge all of the normal cues into a single cue to ensure they are drawn
+        // correctly (i.e. don't overlap) and to emulate roll-up, but only if there are multiple
+        // normal cues, otherwise we can just append the single normal cue
+        if (firstNormalCue == null) {
+          firstNormalCue = cue;
+        } else if (normalCueTextBuilder == null) {
+          normalCueTextBuilder = new SpannableStringBuilder();
+          normalCueTextBuilder
+              .append(Assertions.checkNotNull(firstNormalCue.text))
+              .append("\n")
+              .append(Assertions.checkNotNull(cue.text));
         } else {
-          list.add(cue);
+          normalCueTextBuilder.append("\n").append(Assertions.checkNotNull(cue.text));
         }
+      } else {
+        list.add(cue);
       }
     }
     if (normalCueTextBuilder != null) {
@@ -112,4 +137,60 @@ import java.util.List;
     return list;
   }
 
+  /**
+   * Returns the indices of the cues active in each interval between consecutive event times,
+   * computed in a single sweep over the event times.
+   */
+  private int[][] buildActiveCueIndicesByEventInterval() {
+    Integer[] cueIndicesByStartTime = new Integer[numCues];
+    Integer[] cueIndicesByEndTime = new Integer[numCues];
+    for (int cueIndex = 0; cueIndex < numCues; cueIndex++) {
+      cueIndicesByStartTime[cueIndex] = cueIndex;
+      cueIndicesByEndTime[cueIndex] = cueIndex;
+    }
+    Arrays.sort(
+        cueIndicesByStartTime,
+        (first, second) -> Long.compare(getStartTimeUs(first), getStartTimeUs(second)));
+    Arrays.sort(
+        cueIndicesByEndTime,
+        (first, second) -> Long.compare(getEndTimeUs(first), getEndTimeUs(second)));
+
+    int[][] activeCueIndicesByEventInterval = new int[sortedCueTimesUs.length + 1][];
+    int[] emptyCueIndices = new int[0];
+    activeCueIndicesByEventInterval[0] = emptyCueIndices;
+    // Keep the active cues in the order of the file.
+    TreeSet<Integer> activeCueIndices = new TreeSet<>();
+    int startIndex = 0;
+    int endIndex = 0;
+    for (int i = 1; i <= sortedCueTimesUs.length; i++) {
+      long timeUs = sortedCueTimesUs[i - 1];
+      // A cue is active from its start time (inclusive) to its end time (exclusive). Cues are
+      // added before they're removed, so that empty cues are never active.
+      while (startIndex < numCues && getStartTimeUs(cueIndicesByStartTime[startIndex]) <= timeUs) {
+        activeCueIndices.add(cueIndicesByStartTime[startIndex++]);
+      }
+      while (endIndex < numCues && getEndTimeUs(cueIndicesByEndTime[endIndex]) <= timeUs) {
+        activeCueIndices.remove(cueIndicesByEndTime[endIndex++]);
+      }
+      if (activeCueIndices.isEmpty()) {
+        activeCueIndicesByEventInterval[i] = emptyCueIndices;
+      } else {
+        int[] intervalCueIndices = new int[activeCueIndices.size()];
+        int activeCueCount = 0;
+        for (int cueIndex : activeCueIndices) {
+          intervalCueIndices[activeCueCount++] = cueIndex;
+        }
+        activeCueIndicesByEventInterval[i] = intervalCueIndices;
+      }
+    }
+    return activeCueIndicesByEventInterval;
+  }
+
+  private long getStartTimeUs(int cueIndex) {
+    return cueTimesUs[cueIndex * 2];
+  }
+
+  private long getEndTimeUs(int cueIndex) {
+    return cueTimesUs[cueIndex * 2 + 1];
+  }
 }
@@ -1992,6 +1992,7 @@ public class DefaultTrackSelector extends MappingTrackSelector {
       int maxVideoBitrate) {
     return isSupported(formatSupport, false)
         && ((formatSupport & requiredAdaptiveSupport) != 0)
+        && (format.roleFlags & C.ROLE_FLAG_TRICK_PLAY) == 0
         && (mimeType == null || Util.areEqual(format.sampleMimeType, mimeType))
         && (format.width == Format.NO_VALUE || format.width <= maxVideoWidth)
         && (format.height == Format.NO_VALUE || format.height <= maxVideoHeight)
@@ -2013,9 +2014,13 @@ public class DefaultTrackSelector extends MappingTrackSelector {
           params.viewportWidth, params.viewportHeight, params.viewportOrientationMayChange);
       @Capabilities int[] trackFormatSupport = formatSupports[groupIndex];
       for (int trackIndex = 0; trackIndex < trackGroup.length; trackIndex++) {
+        Format format = trackGroup.getFormat(trackIndex);
+        if ((format.roleFlags & C.ROLE_FLAG_TRICK_PLAY) != 0) {
+          // Trick play tracks are only selected if set by a selection override.
+          continue;
+        }
         if (isSupported(trackFormatSupport[trackIndex],
             params.exceedRendererCapabilitiesIfNecessary)) {
-          Format format = trackGroup.getFormat(trackIndex);
           boolean isWithinConstraints =
               selectedTrackIndices.contains(trackIndex)
                   && (format.width == Format.NO_VALUE || format.width <= params.maxVideoWidth)
@@ -19,11 +19,18 @@ import android.net.Uri;
 import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.ParserException;
+import com.google.android.exoplayer2.upstream.HttpDataSource.InvalidResponseCodeException;
 import com.google.android.exoplayer2.upstream.Loader.Loadable;
 import com.google.android.exoplayer2.util.Assertions;
 import com.google.android.exoplayer2.util.Util;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -99,8 +106,10 @@ public final class ParsingLoadable<T> implements Loadable {
 
   private final StatsDataSource dataSource;
   private final Parser<? extends T> parser;
+  @Nullable private final LoadState<? extends T> previousLoadState;
 
   private volatile @Nullable T result;
+  private volatile @Nullable LoadState<? extends T> loadState;
 
   /**
    * @param dataSource A {@link DataSource} to use when loading the data.
@@ -120,10 +129,39 @@ public final class ParsingLoadable<T> implements Loadable {
    */
   public ParsingLoadable(DataSource dataSource, DataSpec dataSpec, int type,
       Parser<? extends T> parser) {
+    this(dataSource, dataSpec, type, parser, /* previousLoadable= */ null);
+  }
+
+  /**
+   * Creates an instance that reloads a resource that was loaded by a previous loadable.
+   *
+   * <p>The request is made conditional on the resource having changed, using the {@code ETag} and
+   * {@code Last-Modified} response headers of the previous load. If the server responds with {@code
+   * 304 Not Modified}, or if the response is byte-identical to the previous one, the result of the
+   * previous load is reused instead of being parsed again.
+   *
+   * @param dataSource A {@link DataSource} to use when loading the data.
+   * @param dataSpec The {@link DataSpec} from which the object should be loaded.
+   * @param type See {@link #type}.
+   * @param parser Parses the object from the response.
+   * @param previousLoadable The loadable that previously loaded the same resource, or null. If it
+   *     didn't complete successfully, the state of the last successful load that it was created
+   *     with is used instead.
+   */
+  public ParsingLoadable(
+      DataSource dataSource,
+      DataSpec dataSpec,
+      int type,
+      Parser<? extends T> parser,
+      @Nullable ParsingLoadable<? extends T> previousLoadable) {
     this.dataSource = new StatsDataSource(dataSource);
-    this.dataSpec = dataSpec;
     this.type = type;
     this.parser = parser;
+    previousLoadState = previousLoadable != null ? previousLoadable.getLastLoadState() : null;
+    this.dataSpec =
+        previousLoadState != null
+            ? withConditionalRequestHeaders(dataSpec, previousLoadState)
+            : dataSpec;
   }
 
   /** Returns the loaded object, or null if an object has not been loaded. */
@@ -167,11 +205,101 @@ public final class ParsingLoadable<T> implements Loadable {
     dataSource.resetBytesRead();
     DataSourceInputStream inputStream = new DataSourceInputStream(dataSource, dataSpec);
     try {
-      inputStream.open();
+      try {
+        inputStream.open();
+      } catch (InvalidResponseCodeException e) {
+        if (previousLoadState == null || e.responseCode != HttpURLConnection.HTTP_NOT_MODIFIED) {
+          throw e;
+        }
+        // The resource hasn't changed since the previous load.
+        loadState = previousLoadState;
+        result = previousLoadState.result;
+        return;
+      }
       Uri dataSourceUri = Assertions.checkNotNull(dataSource.getUri());
-      result = parser.parse(dataSourceUri, inputStream);
+      Map<String, List<String>> responseHeaders = dataSource.getLastResponseHeaders();
+      if (previousLoadState == null) {
+        T loadedResult = parser.parse(dataSourceUri, inputStream);
+        loadState =
+            new LoadState<>(loadedResult, dataSourceUri, responseHeaders, /* contentHash= */ null);
+        result = loadedResult;
+        return;
+      }
+      // This is a reload, so buffer the response to skip parsing it if it hasn't changed.
+      byte[] data = Util.toByteArray(inputStream);
+      byte[] contentHash = computeContentHash(data);
+      T loadedResult;
+      if (dataSourceUri.equals(previousLoadState.uri)
+          && Arrays.equals(contentHash, previousLoadState.contentHash)) {
+        loadedResult = previousLoadState.result;
+      } else {
+        loadedResult = parser.parse(dataSourceUri, new ByteArrayInputStream(data));
+      }
+      loadState = new LoadState<>(loadedResult, dataSourceUri, responseHeaders, contentHash);
+      result = loadedResult;
     } finally {
       Util.closeQuietly(inputStream);
     }
   }
+
+  @Nullable
+  private LoadState<? extends T> getLastLoadState() {
+    return loadState != null ? loadState : previousLoadState;
+  }
+
+  private static DataSpec withConditionalRequestHeaders(
+      DataSpec dataSpec, LoadState<?> loadState) {
+    Map<String, String> conditionalRequestHeaders = new HashMap<>();
+    @Nullable String eTag = getResponseHeader(loadState.responseHeaders, "ETag");
+    if (eTag != null) {
+      conditionalRequestHeaders.put("If-None-Match", eTag);
+    }
+    @Nullable String lastModified = getResponseHeader(loadState.responseHeaders, "Last-Modified");
+    if (lastModified != null) {
+      conditionalRequestHeaders.put("If-Modified-Since", lastModified);
+    }
+    return conditionalRequestHeaders.isEmpty()
+        ? dataSpec
+        : dataSpec.withAdditionalHeaders(conditionalRequestHeaders);
+  }
+
+  @Nullable
+  private static String getResponseHeader(Map<String, List<String>> responseHeaders, String name) {
+    for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+      // Header names are case-insensitive, and the key of the status line is null.
+      if (name.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+        return header.getValue().get(0);
+      }
+    }
+    return null;
+  }
+
+  private static byte[] computeContentHash(byte[] data) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(data);
+    } catch (NoSuchAlgorithmException e) {
+      // SHA-256 is supported on all platforms.
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** The state of a successful load, which is used to reload the resource conditionally. */
+  private static final class LoadState<T> {
+
+    public final T result;
+    public final Uri uri;
+    public final Map<String, List<String>> responseHeaders;
+    @Nullable public final byte[] contentHash;
+
+    public LoadState(
+        T result,
+        Uri uri,
+        Map<String, List<String>> responseHeaders,
+        @Nullable byte[] contentHash) {
+      this.result = result;
+      this.uri = uri;
+      this.responseHeaders = responseHeaders;
+      this.contentHash = contentHash;
+    }
+  }
 }
@@ -16,17 +16,30 @@
 package com.google.android.exoplayer2.upstream;
 
 import android.net.Uri;
+import androidx.annotation.IntDef;
 import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.util.Assertions;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.MulticastSocket;
-import java.net.SocketException;
+import java.net.SocketTimeoutException;
 
-/** A UDP {@link DataSource}. */
+/**
+ * A UDP {@link DataSource}.
+ *
+ * <p>Packets are received on a dedicated thread into a ring buffer of packets, so that the socket
+ * is drained even while the reader is busy. If the ring buffer is full, further packets are
+ * dropped until data is read, and counted by {@link #getOverrunPacketCount()}. The ring buffer is
+ * allocated when the data source is opened and released when it's closed.
+ */
 public final class UdpDataSource extends BaseDataSource {
 
   /**
@@ -40,6 +53,27 @@ public final class UdpDataSource extends BaseDataSource {
 
   }
 
+  /**
+   * Flags controlling the behavior of the data source. Possible flag value is {@link
+   * #FLAG_STRIP_RTP_HEADERS}.
+   */
+  @Documented
+  @Retention(RetentionPolicy.SOURCE)
+  @IntDef(
+      flag = true,
+      value = {FLAG_STRIP_RTP_HEADERS})
+  public @interface Flags {}
+  /**
+   * Flag to treat received packets as RTP packets. The RTP headers are stripped, payloads are
+   * returned in sequence number order and sequence numbers that are never received are counted by
+   * {@link #getLostPacketCount()}. Packets that are not RTP version 2 packets are discarded.
+   *
+   * <p>Packets are only reordered while they are buffered, that is while the reader lags behind
+   * the receipt of packets. The reader doesn't wait for missing packets, so a packet that arrives
+   * after a later packet has been read is discarded and counted as lost.
+   */
+  public static final int FLAG_STRIP_RTP_HEADERS = 1;
+
   /**
    * The default maximum datagram packet size, in bytes.
    */
@@ -48,18 +82,43 @@ public final class UdpDataSource extends BaseDataSource {
   /** The default socket timeout, in milliseconds. */
   public static final int DEFAULT_SOCKET_TIMEOUT_MILLIS = 8 * 1000;
 
+  /** The default maximum number of received packets that are buffered until they are read. */
+  public static final int DEFAULT_MAX_BUFFERED_PACKET_COUNT = 512;
+
+  private static final int RTP_VERSION = 2;
+  private static final int RTP_FIXED_HEADER_SIZE = 12;
+  private static final int RTP_SEQUENCE_NUMBER_MODULUS = 1 << 16;
+
+  private final int maxPacketSize;
+  private final int maxBufferedPacketCount;
   private final int socketTimeoutMillis;
-  private final byte[] packetBuffer;
-  private final DatagramPacket packet;
+  private final int socketReceiveBufferSize;
+  private final @Flags int flags;
+  private final Object lock;
+
+  // Ring buffer of received packets, guarded by lock. The packet data is only allocated while the
+  // data source is open.
+  @Nullable private byte[][] packetData;
+  private final int[] packetOffsets;
+  private final int[] packetLengths;
+  private final int[] packetSequenceNumbers;
+  private int firstPacketIndex;
+  private int bufferedPacketCount;
+  @Nullable private IOException receiveException;
+  private long overrunPacketCount;
+  private long lostPacketCount;
 
   @Nullable private Uri uri;
   @Nullable private DatagramSocket socket;
   @Nullable private MulticastSocket multicastSocket;
   @Nullable private InetAddress address;
   @Nullable private InetSocketAddress socketAddress;
+  @Nullable private Thread receiveThread;
   private boolean opened;
 
+  private boolean readingPacket;
   private int packetRemaining;
+  private int previousSequenceNumber;
 
   public UdpDataSource() {
     this(DEFAULT_MAX_PACKET_SIZE);
@@ -82,10 +141,43 @@ public final class UdpDataSource extends BaseDataSource {
    *     as an infinite timeout.
    */
   public UdpDataSource(int maxPacketSize, int socketTimeoutMillis) {
+    this(
+        maxPacketSize,
+        socketTimeoutMillis,
+        DEFAULT_MAX_BUFFERED_PACKET_COUNT,
+        /* socketReceiveBufferSize= */ C.LENGTH_UNSET,
+        /* flags= */ 0);
+  }
+
+  /**
+   * Constructs a new instance.
+   *
+   * @param maxPacketSize The maximum datagram packet size, in bytes.
+   * @param socketTimeoutMillis The socket timeout in milliseconds. A timeout of zero is interpreted
+   *     as an infinite timeout.
+   * @param maxBufferedPacketCount The maximum number of received packets that are buffered until
+   *     they are read.
+   * @param socketReceiveBufferSize The size of the socket receive buffer to request, in bytes, or
+   *     {@link C#LENGTH_UNSET} to use the system default.
+   * @param flags Flags that control the data source's behavior.
+   */
+  public UdpDataSource(
+      int maxPacketSize,
+      int socketTimeoutMillis,
+      int maxBufferedPacketCount,
+      int socketReceiveBufferSize,
+      @Flags int flags) {
     super(/* isNetwork= */ true);
+    Assertions.checkArgument(maxBufferedPacketCount > 0);
+    this.maxPacketSize = maxPacketSize;
+    this.maxBufferedPacketCount = maxBufferedPacketCount;
     this.socketTimeoutMillis = socketTimeoutMillis;
-    packetBuffer = new byte[maxPacketSize];
-    packet = new DatagramPacket(packetBuffer, 0, maxPacketSize);
+    this.socketReceiveBufferSize = socketReceiveBufferSize;
+    this.flags = flags;
+    lock = new Object();
+    packetOffsets = new int[maxBufferedPacketCount];
+    packetLengths = new int[maxBufferedPacketCount];
+    packetSequenceNumbers = new int[maxBufferedPacketCount];
   }
 
   @Override
@@ -94,25 +186,45 @@ public final class UdpDataSource extends BaseDataSource {
     String host = uri.getHost();
     int port = uri.getPort();
     transferInitializing(dataSpec);
+    DatagramSocket socket;
     try {
       address = InetAddress.getByName(host);
       socketAddress = new InetSocketAddress(address, port);
       if (address.isMulticastAddress()) {
-        multicastSocket = new MulticastSocket(socketAddress);
-        multicastSocket.joinGroup(address);
+        multicastSocket = new MulticastSocket(/* bindaddr= */ null);
+        multicastSocket.setReuseAddress(true);
         socket = multicastSocket;
       } else {
-        socket = new DatagramSocket(socketAddress);
+        socket = new DatagramSocket(/* bindaddr= */ null);
+      }
+      this.socket = socket;
+      // Set the receive buffer size before binding, so that it applies to the first packets too.
+      if (socketReceiveBufferSize != C.LENGTH_UNSET) {
+        socket.setReceiveBufferSize(socketReceiveBufferSize);
+      }
+      socket.bind(socketAddress);
+      if (multicastSocket != null) {
+        multicastSocket.joinGroup(address);
       }
     } catch (IOException e) {
       throw new UdpDataSourceException(e);
     }
 
-    try {
-      socket.setSoTimeout(socketTimeoutMillis);
-    } catch (SocketException e) {
-      throw new UdpDataSourceException(e);
+    byte[][] packetData = new byte[maxBufferedPacketCount][maxPacketSize];
+    synchronized (lock) {
+      this.packetData = packetData;
+      firstPacketIndex = 0;
+      bufferedPacketCount = 0;
+      receiveException = null;
+      overrunPacketCount = 0;
+      lostPacketCount = 0;
     }
+    readingPacket = false;
+    packetRemaining = 0;
+    previousSequenceNumber = C.INDEX_UNSET;
+    receiveThread =
+        new Thread(() -> receivePackets(socket, packetData), "ExoPlayer:UdpDataSource");
+    receiveThread.start();
 
     opened = true;
     transferStarted(dataSpec);
@@ -125,20 +237,31 @@ public final class UdpDataSource extends BaseDataSource {
       return 0;
     }
 
-    if (packetRemaining == 0) {
-      // We've read all of the data from the current packet. Get another.
-      try {
-        socket.receive(packet);
-      } catch (IOException e) {
-        throw new UdpDataSourceException(e);
+    int packetIndex;
+    byte[] packet;
+    boolean isNewPacket = packetRemaining == 0;
+    synchronized (lock) {
+      if (isNewPacket) {
+        // We've read all of the data from the current packet. Get another.
+        try {
+          waitForNextPacket();
+        } catch (IOException e) {
+          throw new UdpDataSourceException(e);
+        }
+        packetRemaining = packetLengths[firstPacketIndex];
       }
-      packetRemaining = packet.getLength();
+      packetIndex = firstPacketIndex;
+      packet = Assertions.checkNotNull(packetData)[packetIndex];
+    }
+    if (isNewPacket) {
       bytesTransferred(packetRemaining);
     }
 
-    int packetOffset = packet.getLength() - packetRemaining;
+    // The packet being read is never modified by the receive thread, so it can be copied without
+    // holding the lock.
+    int packetOffset = packetOffsets[packetIndex] + packetLengths[packetIndex] - packetRemaining;
     int bytesToRead = Math.min(packetRemaining, readLength);
-    System.arraycopy(packetBuffer, packetOffset, buffer, offset, bytesToRead);
+    System.arraycopy(packet, packetOffset, buffer, offset, bytesToRead);
     packetRemaining -= bytesToRead;
     return bytesToRead;
   }
@@ -161,11 +284,30 @@ public final class UdpDataSource extends BaseDataSource {
       multicastSocket = null;
     }
     if (socket != null) {
+      // Closing the socket causes the receive thread to exit.
       socket.close();
       socket = null;
     }
+    if (receiveThread != null) {
+      boolean wasInterrupted = false;
+      while (receiveThread.isAlive()) {
+        try {
+          receiveThread.join();
+        } catch (InterruptedException e) {
+          wasInterrupted = true;
+        }
+      }
+      if (wasInterrupted) {
+        Thread.currentThread().interrupt();
+      }
+      receiveThread = null;
+    }
+    synchronized (lock) {
+      packetData = null;
+    }
     address = null;
     socketAddress = null;
+    readingPacket = false;
     packetRemaining = 0;
     if (opened) {
       opened = false;
@@ -173,4 +315,199 @@ public final class UdpDataSource extends BaseDataSource {
     }
   }
 
+  /**
+   * Returns the number of received packets that were dropped because the packet buffer was full
+   * since the most recent call to {@link #open(DataSpec)}.
+   */
+  public long getOverrunPacketCount() {
+    synchronized (lock) {
+      return overrunPacketCount;
+    }
+  }
+
+  /**
+   * Returns the number of RTP packets that were missing from the sequence of read packets since the
+   * most recent call to {@link #open(DataSpec)}. Always zero unless {@link #FLAG_STRIP_RTP_HEADERS}
+   * is set.
+   */
+  public long getLostPacketCount() {
+    synchronized (lock) {
+      return lostPacketCount;
+    }
+  }
+
+  // Internal methods.
+
+  /**
+   * Releases the packet that has been read, and waits until the first buffered packet is one that
+   * should be read next. Must be called while holding the lock.
+   */
+  private void waitForNextPacket() throws IOException {
+    long timeoutDeadlineNs =
+        socketTimeoutMillis == 0
+            ? Long.MAX_VALUE
+            : System.nanoTime() + socketTimeoutMillis * 1000000L;
+    while (true) {
+      if (readingPacket) {
+        firstPacketIndex = (firstPacketIndex + 1) % maxBufferedPacketCount;
+        bufferedPacketCount--;
+        readingPacket = false;
+      }
+      while (bufferedPacketCount == 0) {
+        if (receiveException != null) {
+          throw receiveException;
+        }
+        long remainingNs = timeoutDeadlineNs - System.nanoTime();
+        if (remainingNs <= 0) {
+          throw new SocketTimeoutException();
+        }
+        try {
+          lock.wait(Math.max(1, remainingNs / 1000000));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException();
+        }
+      }
+      readingPacket = true;
+      if ((flags & FLAG_STRIP_RTP_HEADERS) == 0) {
+        return;
+      }
+      int sequenceNumber = packetSequenceNumbers[firstPacketIndex];
+      if (previousSequenceNumber == C.INDEX_UNSET) {
+        previousSequenceNumber = sequenceNumber;
+        return;
+      }
+      int sequenceNumberDelta =
+          (sequenceNumber - previousSequenceNumber) & (RTP_SEQUENCE_NUMBER_MODULUS - 1);
+      if (sequenceNumberDelta != 0 && sequenceNumberDelta < RTP_SEQUENCE_NUMBER_MODULUS / 2) {
+        lostPacketCount += sequenceNumberDelta - 1;
+        previousSequenceNumber = sequenceNumber;
+        return;
+      }
+      // The packet is a duplicate, or arrived after a later packet was read. Discard it.
+    }
+  }
+
+  /** Receives packets from the socket into the packet buffer until the socket is closed. */
+  private void receivePackets(DatagramSocket socket, byte[][] packetData) {
+    boolean isRtp = (flags & FLAG_STRIP_RTP_HEADERS) != 0;
+    byte[] discardBuffer = new byte[maxPacketSize];
+    DatagramPacket packet = new DatagramPacket(discardBuffer, maxPacketSize);
+    while (true) {
+      // The index after the last buffered packet doesn't change when packets are read, so it's
+      // safe to receive into it without holding the lock.
+      int packetIndex;
+      synchronized (lock) {
+        packetIndex =
+            bufferedPacketCount < packetData.length
+                ? (firstPacketIndex + bufferedPacketCount) % packetData.length
+                : C.INDEX_UNSET;
+      }
+      byte[] data = packetIndex != C.INDEX_UNSET ? packetData[packetIndex] : discardBuffer;
+      packet.setData(data);
+      try {
+        socket.receive(packet);
+      } catch (IOException e) {
+        synchronized (lock) {
+          receiveException = e;
+          lock.notifyAll();
+        }
+        return;
+      }
+      if (packetIndex == C.INDEX_UNSET) {
+        synchronized (lock) {
+          overrunPacketCount++;
+        }
+        continue;
+      }
+
+      int packetOffset = 0;
+      int packetLength = packet.getLength();
+      int sequenceNumber = 0;
+      if (isRtp) {
+        packetOffset = getRtpPayloadOffset(data, packetLength);
+        if (packetOffset == C.INDEX_UNSET) {
+          continue;
+        }
+        packetLength -= packetOffset + getRtpPaddingLength(data, packetLength);
+        if (packetLength <= 0) {
+          continue;
+        }
+        sequenceNumber = ((data[2] & 0xFF) << 8) | (data[3] & 0xFF);
+      }
+
+      synchronized (lock) {
+        packetOffsets[packetIndex] = packetOffset;
+        packetLengths[packetIndex] = packetLength;
+        packetSequenceNumbers[packetIndex] = sequenceNumber;
+        bufferedPacketCount++;
+        if (isRtp) {
+          insertInSequenceNumberOrder(packetData, bufferedPacketCount - 1);
+        }
+        lock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Moves the buffered packet at the given position ahead of any buffered packets with later
+   * sequence numbers. The first buffered packet is never moved, since it may be being read. Must be
+   * called while holding the lock.
+   */
+  private void insertInSequenceNumberOrder(byte[][] packetData, int position) {
+    while (position > 1) {
+      int index = (firstPacketIndex + position) % packetData.length;
+      int previousIndex = (firstPacketIndex + position - 1) % packetData.length;
+      int sequenceNumberDelta =
+          (packetSequenceNumbers[index] - packetSequenceNumbers[previousIndex])
+              & (RTP_SEQUENCE_NUMBER_MODULUS - 1);
+      if (sequenceNumberDelta < RTP_SEQUENCE_NUMBER_MODULUS / 2) {
+        return;
+      }
+      swapPackets(packetData, index, previousIndex);
+      position--;
+    }
+  }
+
+  private void swapPackets(byte[][] packetData, int index, int otherIndex) {
+    byte[] data = packetData[index];
+    packetData[index] = packetData[otherIndex];
+    packetData[otherIndex] = data;
+    int offset = packetOffsets[index];
+    packetOffsets[index] = packetOffsets[otherIndex];
+    packetOffsets[otherIndex] = offset;
+    int length = packetLengths[index];
+    packetLengths[index] = packetLengths[otherIndex];
+    packetLengths[otherIndex] = length;
+    int sequenceNumber = packetSequenceNumbers[index];
+    packetSequenceNumbers[index] = packetSequenceNumbers[otherIndex];
+    packetSequenceNumbers[otherIndex] = sequenceNumber;
+  }
+
+  /**
+   * Returns the offset of the payload in an RTP packet, or {@link C#INDEX_UNSET} if the data isn't
+   * a valid RTP version 2 packet.
+   */
+  private static int getRtpPayloadOffset(byte[] data, int length) {
+    if (length < RTP_FIXED_HEADER_SIZE || ((data[0] & 0xFF) >> 6) != RTP_VERSION) {
+      return C.INDEX_UNSET;
+    }
+    int csrcCount = data[0] & 0x0F;
+    int payloadOffset = RTP_FIXED_HEADER_SIZE + 4 * csrcCount;
+    boolean hasExtension = (data[0] & 0x10) != 0;
+    if (hasExtension) {
+      if (length < payloadOffset + 4) {
+        return C.INDEX_UNSET;
+      }
+      int extensionLength =
+          ((data[payloadOffset + 2] & 0xFF) << 8) | (data[payloadOffset + 3] & 0xFF);
+      payloadOffset += 4 + 4 * extensionLength;
+    }
+    return payloadOffset <= length ? payloadOffset : C.INDEX_UNSET;
+  }
+
+  private static int getRtpPaddingLength(byte[] data, int length) {
+    boolean hasPadding = (data[0] & 0x20) != 0;
+    return hasPadding ? data[length - 1] & 0xFF : 0;
+  }
 }
@@ -38,6 +38,7 @@ import com.google.android.exoplayer2.Format;
 import com.google.android.exoplayer2.FormatHolder;
 import com.google.android.exoplayer2.PlayerMessage.Target;
 import com.google.android.exoplayer2.RendererCapabilities;
+import com.google.android.exoplayer2.decoder.DecoderCounters;
 import com.google.android.exoplayer2.decoder.DecoderInputBuffer;
 import com.google.android.exoplayer2.drm.DrmInitData;
 import com.google.android.exoplayer2.drm.DrmSessionManager;
@@ -72,6 +73,8 @@ import java.util.List;
  *       payload should be one of the integer scaling modes in {@link C.VideoScalingMode}. Note that
  *       the scaling mode only applies if the {@link Surface} targeted by this renderer is owned by
  *       a {@link android.view.SurfaceView}.
+ *   <li>Message with type {@link C#MSG_SET_KEY_FRAME_ONLY_DECODING} to set whether only key frames
+ *       should be decoded. The message payload should be a {@link Boolean}.
  * </ul>
  */
 public class MediaCodecVideoRenderer extends MediaCodecRenderer {
@@ -164,6 +167,8 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
   private long outputStreamOffsetUs;
   private int pendingOutputStreamOffsetCount;
   @Nullable private VideoFrameMetadataListener frameMetadataListener;
+  private float keyFrameOnlyDecodingSpeedThreshold;
+  private boolean keyFrameOnlyDecodingEnabled;
 
   /**
    * @param context A context.
@@ -357,9 +362,29 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
     currentPixelWidthHeightRatio = Format.NO_VALUE;
     pendingPixelWidthHeightRatio = Format.NO_VALUE;
     scalingMode = C.VIDEO_SCALING_MODE_DEFAULT;
+    keyFrameOnlyDecodingSpeedThreshold = Float.MAX_VALUE;
     clearReportedVideoSize();
   }
 
+  /**
+   * Sets the playback speed above which only key frames are decoded. Decoding every frame at high
+   * playback speeds saturates the decoder, only for most of the decoded frames to be dropped
+   * because they are late. Skipped samples are counted in {@link
+   * DecoderCounters#skippedInputBufferCount}.
+   *
+   * <p>The default value is {@link Float#MAX_VALUE}, meaning that all frames are always decoded.
+   * Key frame only decoding can also be enabled independently of the playback speed by sending a
+   * {@link C#MSG_SET_KEY_FRAME_ONLY_DECODING} message, for example while the user is scrubbing.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release. It should
+   * only be called before the renderer is used.
+   *
+   * @param speedThreshold The playback speed above which only key frames are decoded.
+   */
+  public void experimental_setKeyFrameOnlyDecodingSpeedThreshold(float speedThreshold) {
+    keyFrameOnlyDecodingSpeedThreshold = speedThreshold;
+  }
+
   @Override
   @Capabilities
   protected int supportsFormat(
@@ -501,6 +526,12 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
     super.onStreamChanged(formats, offsetUs);
   }
 
+  @Override
+  protected boolean shouldSkipNonKeyFrames() {
+    return !tunneling
+        && (keyFrameOnlyDecodingEnabled || getOperatingRate() > keyFrameOnlyDecodingSpeedThreshold);
+  }
+
   @Override
   protected void onPositionReset(long positionUs, boolean joining) throws ExoPlaybackException {
     super.onPositionReset(positionUs, joining);
@@ -598,6 +629,8 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
       }
     } else if (messageType == C.MSG_SET_VIDEO_FRAME_METADATA_LISTENER) {
       frameMetadataListener = (VideoFrameMetadataListener) message;
+    } else if (messageType == C.MSG_SET_KEY_FRAME_ONLY_DECODING) {
+      keyFrameOnlyDecodingEnabled = (Boolean) message;
     } else {
       super.handleMessage(messageType, message);
     }
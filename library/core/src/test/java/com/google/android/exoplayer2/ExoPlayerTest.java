@@ -24,6 +24,7 @@ import android.content.Intent;
 import android.graphics.SurfaceTexture;
 import android.media.AudioManager;
 import android.net.Uri;
+import android.os.HandlerThread;
 import android.os.Looper;
 import android.view.Surface;
 import androidx.annotation.Nullable;
@@ -142,6 +143,77 @@ public final class ExoPlayerTest {
     assertThat(renderer.isEnded).isTrue();
   }
 
+  /** Tests that the player only renders as often as requested by the renderers while playing. */
+  @Test
+  public void testPlayback_rendersAtDurationToProgress() throws Exception {
+    Timeline timeline = new FakeTimeline(/* windowCount= */ 1);
+    AtomicInteger startedRenderCount = new AtomicInteger();
+    FakeRenderer renderer =
+        new FakeRenderer(Builder.VIDEO_FORMAT) {
+          @Override
+          public void render(long positionUs, long elapsedRealtimeUs)
+              throws ExoPlaybackException {
+            if (getState() == STATE_STARTED) {
+              startedRenderCount.incrementAndGet();
+            }
+            super.render(positionUs, elapsedRealtimeUs);
+          }
+
+          @Override
+          public long getDurationToProgressUs(long positionUs, long elapsedRealtimeUs) {
+            return 100_000;
+          }
+        };
+    new Builder()
+        .setTimeline(timeline)
+        .setRenderers(renderer)
+        .build(context)
+        .start()
+        .blockUntilEnded(TIMEOUT_MS);
+
+    // The 10 second window would be rendered about 1000 times at the default interval.
+    assertThat(startedRenderCount.get()).isAtLeast(50);
+    assertThat(startedRenderCount.get()).isAtMost(200);
+  }
+
+  /** Tests that the player keeps the default interval while playing without enabled renderers. */
+  @Test
+  public void testPlayback_withoutEnabledRenderers_usesDefaultInterval() throws Exception {
+    Timeline timeline = new FakeTimeline(/* windowCount= */ 1);
+    AtomicInteger discardBufferCount = new AtomicInteger();
+    FakeMediaSource mediaSource =
+        new FakeMediaSource(timeline, /* manifest= */ null, Builder.VIDEO_FORMAT) {
+          @Override
+          protected FakeMediaPeriod createFakeMediaPeriod(
+              MediaPeriodId id,
+              TrackGroupArray trackGroupArray,
+              Allocator allocator,
+              EventDispatcher eventDispatcher,
+              @Nullable TransferListener transferListener) {
+            return new FakeMediaPeriod(trackGroupArray, eventDispatcher) {
+              @Override
+              public void discardBuffer(long positionUs, boolean toKeyframe) {
+                // Called once per iteration of the playback loop.
+                discardBufferCount.incrementAndGet();
+              }
+            };
+          }
+        };
+    // The renderer doesn't support the video track, so it isn't enabled.
+    FakeRenderer renderer = new FakeRenderer(Builder.AUDIO_FORMAT);
+    new Builder()
+        .setMediaSource(mediaSource)
+        .setRenderers(renderer)
+        .build(context)
+        .start()
+        .blockUntilEnded(TIMEOUT_MS);
+
+    assertThat(renderer.getState()).isEqualTo(Renderer.STATE_DISABLED);
+    // The 10 second window is played in about 1000 iterations at the default interval, but in
+    // only about 10 at the idle interval.
+    assertThat(discardBufferCount.get()).isAtLeast(500);
+  }
+
   /** Tests playback of a source that exposes three periods. */
   @Test
   public void testPlayMultiPeriodTimeline() throws Exception {
@@ -2326,6 +2398,103 @@ public final class ExoPlayerTest {
     assertThat(eventListenerPlayWhenReady).containsExactly(true, true, true, false).inOrder();
   }
 
+  @Test
+  public void testListenerRemovedDuringNotification_receivesNoFurtherEvents() throws Exception {
+    // The first listener removes the second one as soon as the player is ready. The second listener
+    // must not receive the ready state change, even though it was registered when it was reported.
+    final AtomicReference<Player> playerReference = new AtomicReference<>();
+    final List<Integer> eventListener2States = new ArrayList<>();
+    final EventListener eventListener2 =
+        new EventListener() {
+          @Override
+          public void onPlayerStateChanged(boolean playWhenReady, @Player.State int playbackState) {
+            eventListener2States.add(playbackState);
+          }
+        };
+    final EventListener eventListener1 =
+        new EventListener() {
+          @Override
+          public void onPlayerStateChanged(boolean playWhenReady, @Player.State int playbackState) {
+            if (playbackState == Player.STATE_READY) {
+              playerReference.get().removeListener(eventListener2);
+            }
+          }
+        };
+    ActionSchedule actionSchedule =
+        new ActionSchedule.Builder("testListenerRemovedDuringNotification")
+            .executeRunnable(
+                new PlayerRunnable() {
+                  @Override
+                  public void run(SimpleExoPlayer player) {
+                    playerReference.set(player);
+                    player.addListener(eventListener1);
+                    player.addListener(eventListener2);
+                  }
+                })
+            .build();
+    new ExoPlayerTestRunner.Builder()
+        .setActionSchedule(actionSchedule)
+        .build(context)
+        .start()
+        .blockUntilEnded(TIMEOUT_MS);
+
+    assertThat(eventListener2States).containsExactly(Player.STATE_BUFFERING);
+  }
+
+  @Test
+  public void testPlaybackInfoUpdateDuringNotification_isReportedAfterCurrentUpdate()
+      throws Exception {
+    // The first listener stops the player as soon as it's ready. The resulting update is queued
+    // while the ready state is still being reported, so it must not overwrite that update before
+    // the second listener received it.
+    final AtomicReference<Player> playerReference = new AtomicReference<>();
+    final List<Integer> eventListener2States = new ArrayList<>();
+    final List<Boolean> eventListener2IsPlaying = new ArrayList<>();
+    final EventListener eventListener1 =
+        new EventListener() {
+          @Override
+          public void onPlayerStateChanged(boolean playWhenReady, @Player.State int playbackState) {
+            if (playbackState == Player.STATE_READY) {
+              playerReference.get().stop();
+            }
+          }
+        };
+    final EventListener eventListener2 =
+        new EventListener() {
+          @Override
+          public void onPlayerStateChanged(boolean playWhenReady, @Player.State int playbackState) {
+            eventListener2States.add(playbackState);
+          }
+
+          @Override
+          public void onIsPlayingChanged(boolean isPlaying) {
+            eventListener2IsPlaying.add(isPlaying);
+          }
+        };
+    ActionSchedule actionSchedule =
+        new ActionSchedule.Builder("testPlaybackInfoUpdateDuringNotification")
+            .executeRunnable(
+                new PlayerRunnable() {
+                  @Override
+                  public void run(SimpleExoPlayer player) {
+                    playerReference.set(player);
+                    player.addListener(eventListener1);
+                    player.addListener(eventListener2);
+                  }
+                })
+            .build();
+    new ExoPlayerTestRunner.Builder()
+        .setActionSchedule(actionSchedule)
+        .build(context)
+        .start()
+        .blockUntilEnded(TIMEOUT_MS);
+
+    assertThat(eventListener2States)
+        .containsExactly(Player.STATE_BUFFERING, Player.STATE_READY, Player.STATE_IDLE)
+        .inOrder();
+    assertThat(eventListener2IsPlaying).containsExactly(true, false).inOrder();
+  }
+
   @Test
   public void testClippedLoopedPeriodsArePlayedFully() throws Exception {
     long startPositionUs = 300_000;
@@ -2926,6 +3095,47 @@ public final class ExoPlayerTest {
     assertThat(seenPlaybackSuppression.get()).isFalse();
   }
 
+  @Test
+  public void testSharedPlaybackLooper_isUsedByAllPlayersAndNotQuitOnRelease() throws Exception {
+    HandlerThread sharedPlaybackThread = new HandlerThread("ExoPlayerTest:SharedPlayback");
+    sharedPlaybackThread.start();
+    Looper sharedPlaybackLooper = sharedPlaybackThread.getLooper();
+    ExoPlayer player1 =
+        new ExoPlayer.Builder(context, new FakeRenderer(Builder.VIDEO_FORMAT))
+            .experimental_setPlaybackLooper(sharedPlaybackLooper)
+            .build();
+    ExoPlayer player2 =
+        new ExoPlayer.Builder(context, new FakeRenderer(Builder.VIDEO_FORMAT))
+            .experimental_setPlaybackLooper(sharedPlaybackLooper)
+            .build();
+
+    assertThat(player1.getPlaybackLooper()).isSameInstanceAs(sharedPlaybackLooper);
+    assertThat(player2.getPlaybackLooper()).isSameInstanceAs(sharedPlaybackLooper);
+
+    player1.release();
+    assertThat(sharedPlaybackThread.isAlive()).isTrue();
+    // The remaining player can still be released on the shared thread.
+    player2.release();
+    assertThat(sharedPlaybackThread.isAlive()).isTrue();
+    sharedPlaybackThread.quit();
+  }
+
+  @Test
+  public void testBuild_withApplicationLooperAsPlaybackLooper_throws() {
+    Looper looper = Looper.getMainLooper();
+    ExoPlayer.Builder builder =
+        new ExoPlayer.Builder(context, new FakeRenderer(Builder.VIDEO_FORMAT))
+            .setLooper(looper)
+            .experimental_setPlaybackLooper(looper);
+
+    try {
+      builder.build();
+      fail();
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+  }
+
   // Internal methods.
 
   private static ActionSchedule.Builder addSurfaceSwitch(ActionSchedule.Builder builder) {
@@ -15,6 +15,8 @@
  */
 package com.google.android.exoplayer2.analytics;
 
+import static com.google.android.exoplayer2.analytics.AnalyticsListener.EVENT_TYPE_ALL;
+import static com.google.android.exoplayer2.analytics.AnalyticsListener.EVENT_TYPE_PLAYER;
 import static com.google.common.truth.Truth.assertThat;
 
 import android.os.Handler;
@@ -32,6 +34,7 @@ import com.google.android.exoplayer2.RenderersFactory;
 import com.google.android.exoplayer2.SimpleExoPlayer;
 import com.google.android.exoplayer2.Timeline;
 import com.google.android.exoplayer2.Timeline.Window;
+import com.google.android.exoplayer2.analytics.AnalyticsListener.EventTypes;
 import com.google.android.exoplayer2.audio.AudioRendererEventListener;
 import com.google.android.exoplayer2.decoder.DecoderCounters;
 import com.google.android.exoplayer2.metadata.Metadata;
@@ -43,12 +46,14 @@ import com.google.android.exoplayer2.source.MediaSourceEventListener.MediaLoadDa
 import com.google.android.exoplayer2.source.TrackGroupArray;
 import com.google.android.exoplayer2.testutil.ActionSchedule;
 import com.google.android.exoplayer2.testutil.ActionSchedule.PlayerRunnable;
+import com.google.android.exoplayer2.testutil.AutoAdvancingFakeClock;
 import com.google.android.exoplayer2.testutil.ExoPlayerTestRunner;
 import com.google.android.exoplayer2.testutil.ExoPlayerTestRunner.Builder;
 import com.google.android.exoplayer2.testutil.FakeMediaSource;
 import com.google.android.exoplayer2.testutil.FakeRenderer;
 import com.google.android.exoplayer2.testutil.FakeTimeline;
 import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
+import com.google.android.exoplayer2.util.Clock;
 import com.google.android.exoplayer2.util.Util;
 import com.google.android.exoplayer2.video.VideoRendererEventListener;
 import java.io.IOException;
@@ -689,12 +694,93 @@ public final class AnalyticsCollectorTest {
     }
   }
 
+  @Test
+  public void testLongPlayback_withoutInterestedListener_generatesNoEventTimes() throws Exception {
+    FakeMediaSource mediaSource =
+        new FakeMediaSource(
+            new FakeTimeline(/* windowCount= */ 20),
+            ExoPlayerTestRunner.Builder.VIDEO_FORMAT,
+            ExoPlayerTestRunner.Builder.AUDIO_FORMAT);
+    TestAnalyticsListener listener = new TestAnalyticsListener(/* eventTypes= */ 0);
+    Clock clock = new AutoAdvancingFakeClock();
+    EventTimeCountingAnalyticsCollector analyticsCollector =
+        new EventTimeCountingAnalyticsCollector(clock);
+
+    runAnalyticsTest(
+        mediaSource,
+        /* actionSchedule= */ null,
+        listener,
+        new ExoPlayerTestRunner.Builder()
+            .setClock(clock)
+            .setAnalyticsCollector(analyticsCollector));
+
+    assertThat(analyticsCollector.generatedEventTimeCount).isEqualTo(0);
+    listener.assertNoMoreEvents();
+  }
+
+  @Test
+  public void testLongPlayback_withPlayerEventsListener_generatesFewerEventTimes()
+      throws Exception {
+    Timeline timeline = new FakeTimeline(/* windowCount= */ 20);
+    TestAnalyticsListener allEventsListener = new TestAnalyticsListener(EVENT_TYPE_ALL);
+    Clock allEventsClock = new AutoAdvancingFakeClock();
+    EventTimeCountingAnalyticsCollector allEventsAnalyticsCollector =
+        new EventTimeCountingAnalyticsCollector(allEventsClock);
+    TestAnalyticsListener playerEventsListener = new TestAnalyticsListener(EVENT_TYPE_PLAYER);
+    Clock playerEventsClock = new AutoAdvancingFakeClock();
+    EventTimeCountingAnalyticsCollector playerEventsAnalyticsCollector =
+        new EventTimeCountingAnalyticsCollector(playerEventsClock);
+
+    runAnalyticsTest(
+        new FakeMediaSource(
+            timeline,
+            ExoPlayerTestRunner.Builder.VIDEO_FORMAT,
+            ExoPlayerTestRunner.Builder.AUDIO_FORMAT),
+        /* actionSchedule= */ null,
+        allEventsListener,
+        new ExoPlayerTestRunner.Builder()
+            .setClock(allEventsClock)
+            .setAnalyticsCollector(allEventsAnalyticsCollector));
+    runAnalyticsTest(
+        new FakeMediaSource(
+            timeline,
+            ExoPlayerTestRunner.Builder.VIDEO_FORMAT,
+            ExoPlayerTestRunner.Builder.AUDIO_FORMAT),
+        /* actionSchedule= */ null,
+        playerEventsListener,
+        new ExoPlayerTestRunner.Builder()
+            .setClock(playerEventsClock)
+            .setAnalyticsCollector(playerEventsAnalyticsCollector));
+
+    assertThat(playerEventsAnalyticsCollector.generatedEventTimeCount).isGreaterThan(0);
+    assertThat(playerEventsAnalyticsCollector.generatedEventTimeCount)
+        .isLessThan(allEventsAnalyticsCollector.generatedEventTimeCount);
+    assertThat(playerEventsListener.getEvents(EVENT_POSITION_DISCONTINUITY)).hasSize(19);
+    assertThat(playerEventsListener.getEvents(EVENT_PLAYER_STATE_CHANGED)).isNotEmpty();
+    assertThat(playerEventsListener.getEvents(EVENT_MEDIA_PERIOD_CREATED)).isEmpty();
+    assertThat(playerEventsListener.getEvents(EVENT_LOAD_STARTED)).isEmpty();
+    assertThat(playerEventsListener.getEvents(EVENT_BANDWIDTH_ESTIMATE)).isEmpty();
+    assertThat(playerEventsListener.getEvents(EVENT_DECODER_ENABLED)).isEmpty();
+    assertThat(playerEventsListener.getEvents(EVENT_DECODER_INIT)).isEmpty();
+  }
+
   private static TestAnalyticsListener runAnalyticsTest(MediaSource mediaSource) throws Exception {
     return runAnalyticsTest(mediaSource, /* actionSchedule= */ null);
   }
 
   private static TestAnalyticsListener runAnalyticsTest(
       MediaSource mediaSource, @Nullable ActionSchedule actionSchedule) throws Exception {
+    TestAnalyticsListener listener = new TestAnalyticsListener();
+    runAnalyticsTest(mediaSource, actionSchedule, listener, new ExoPlayerTestRunner.Builder());
+    return listener;
+  }
+
+  private static void runAnalyticsTest(
+      MediaSource mediaSource,
+      @Nullable ActionSchedule actionSchedule,
+      AnalyticsListener listener,
+      ExoPlayerTestRunner.Builder testRunnerBuilder)
+      throws Exception {
     RenderersFactory renderersFactory =
         (eventHandler,
             videoRendererEventListener,
@@ -706,9 +792,8 @@ public final class AnalyticsCollectorTest {
               new FakeVideoRenderer(eventHandler, videoRendererEventListener),
               new FakeAudioRenderer(eventHandler, audioRendererEventListener)
             };
-    TestAnalyticsListener listener = new TestAnalyticsListener();
     try {
-      new ExoPlayerTestRunner.Builder()
+      testRunnerBuilder
           .setMediaSource(mediaSource)
           .setRenderersFactory(renderersFactory)
           .setAnalyticsListener(listener)
@@ -720,7 +805,23 @@ public final class AnalyticsCollectorTest {
     } catch (ExoPlaybackException e) {
       // Ignore ExoPlaybackException as these may be expected.
     }
-    return listener;
+  }
+
+  /** An {@link AnalyticsCollector} counting the {@link EventTime EventTimes} it generates. */
+  private static final class EventTimeCountingAnalyticsCollector extends AnalyticsCollector {
+
+    public int generatedEventTimeCount;
+
+    public EventTimeCountingAnalyticsCollector(Clock clock) {
+      super(clock);
+    }
+
+    @Override
+    protected EventTime generateEventTime(
+        Timeline timeline, int windowIndex, @Nullable MediaPeriodId mediaPeriodId) {
+      generatedEventTimeCount++;
+      return super.generateEventTime(timeline, windowIndex, mediaPeriodId);
+    }
   }
 
   private static final class FakeVideoRenderer extends FakeRenderer {
@@ -873,13 +974,25 @@ public final class AnalyticsCollectorTest {
 
     public Timeline lastReportedTimeline;
 
+    @EventTypes private final int eventTypes;
     private final ArrayList<ReportedEvent> reportedEvents;
 
     public TestAnalyticsListener() {
+      this(EVENT_TYPE_ALL);
+    }
+
+    public TestAnalyticsListener(@EventTypes int eventTypes) {
+      this.eventTypes = eventTypes;
       reportedEvents = new ArrayList<>();
       lastReportedTimeline = Timeline.EMPTY;
     }
 
+    @Override
+    @EventTypes
+    public int getEventTypes() {
+      return eventTypes;
+    }
+
     public List<EventWindowAndPeriodId> getEvents(int eventType) {
       ArrayList<EventWindowAndPeriodId> eventTimes = new ArrayList<>();
       Iterator<ReportedEvent> eventIterator = reportedEvents.iterator();
@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.decoder;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import androidx.annotation.Nullable;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link SimpleDecoder}. */
+@RunWith(AndroidJUnit4.class)
+public final class SimpleDecoderTest {
+
+  private static final long TIMEOUT_MS = 10_000;
+
+  @Test
+  public void testDecodeWithDirectExecutor_decodesOnCallingThread() throws Exception {
+    FakeDecoder decoder = new FakeDecoder();
+    decoder.experimental_setDecodeExecutor(Runnable::run);
+
+    DecoderInputBuffer inputBuffer = decoder.dequeueInputBuffer();
+    inputBuffer.timeUs = 1000;
+    decoder.queueInputBuffer(inputBuffer);
+    SimpleOutputBuffer outputBuffer = decoder.dequeueOutputBuffer();
+
+    assertThat(outputBuffer).isNotNull();
+    assertThat(outputBuffer.timeUs).isEqualTo(1000);
+    assertThat(decoder.decodeThreads).containsExactly(Thread.currentThread());
+    decoder.release();
+  }
+
+  @Test
+  public void testDecodersSharingExecutor_decodeInOrderOnExecutorThread() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    FakeDecoder decoder1 = new FakeDecoder();
+    FakeDecoder decoder2 = new FakeDecoder();
+    decoder1.experimental_setDecodeExecutor(executor);
+    decoder2.experimental_setDecodeExecutor(executor);
+
+    List<Long> outputTimesUs1 = new ArrayList<>();
+    List<Long> outputTimesUs2 = new ArrayList<>();
+    long nextInputTimeUs1 = 0;
+    long nextInputTimeUs2 = 0;
+    long deadlineMs = System.currentTimeMillis() + TIMEOUT_MS;
+    while ((outputTimesUs1.size() < 20 || outputTimesUs2.size() < 20)
+        && System.currentTimeMillis() < deadlineMs) {
+      nextInputTimeUs1 = maybeQueueInputBuffer(decoder1, nextInputTimeUs1);
+      nextInputTimeUs2 = maybeQueueInputBuffer(decoder2, nextInputTimeUs2);
+      maybeDequeueOutputBuffer(decoder1, outputTimesUs1);
+      maybeDequeueOutputBuffer(decoder2, outputTimesUs2);
+    }
+    decoder1.release();
+    decoder2.release();
+    executor.shutdown();
+
+    assertThat(outputTimesUs1.subList(0, 20)).isInStrictOrder();
+    assertThat(outputTimesUs2.subList(0, 20)).isInStrictOrder();
+    assertThat(decoder1.decodeThreads).hasSize(1);
+    assertThat(decoder2.decodeThreads).isEqualTo(decoder1.decodeThreads);
+    assertThat(decoder1.decodeThreads).doesNotContain(Thread.currentThread());
+  }
+
+  @Test
+  public void testDecodeWithoutExecutor_decodesOnOwnThread() throws Exception {
+    FakeDecoder decoder = new FakeDecoder();
+
+    DecoderInputBuffer inputBuffer = decoder.dequeueInputBuffer();
+    inputBuffer.timeUs = 1000;
+    decoder.queueInputBuffer(inputBuffer);
+    List<Long> outputTimesUs = new ArrayList<>();
+    long deadlineMs = System.currentTimeMillis() + TIMEOUT_MS;
+    while (outputTimesUs.isEmpty() && System.currentTimeMillis() < deadlineMs) {
+      maybeDequeueOutputBuffer(decoder, outputTimesUs);
+    }
+    decoder.release();
+
+    assertThat(outputTimesUs).containsExactly(1000L);
+    assertThat(decoder.decodeThreads).hasSize(1);
+    assertThat(decoder.decodeThreads).doesNotContain(Thread.currentThread());
+  }
+
+  @Test
+  public void testDecodeWithBlockingExecutor_decodesOnExecutorThread() throws Exception {
+    FakeDecoder decoder = new FakeDecoder();
+    // Runs each task on a new thread and waits for it, which deadlocks if the decoder holds its
+    // lock while submitting the task.
+    decoder.experimental_setDecodeExecutor(
+        task -> {
+          Thread thread = new Thread(task);
+          thread.start();
+          try {
+            thread.join(TIMEOUT_MS);
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+        });
+
+    DecoderInputBuffer inputBuffer = decoder.dequeueInputBuffer();
+    inputBuffer.timeUs = 1000;
+    decoder.queueInputBuffer(inputBuffer);
+    SimpleOutputBuffer outputBuffer = decoder.dequeueOutputBuffer();
+
+    assertThat(outputBuffer).isNotNull();
+    assertThat(outputBuffer.timeUs).isEqualTo(1000);
+    assertThat(decoder.decodeThreads).doesNotContain(Thread.currentThread());
+    decoder.release();
+  }
+
+  @Test
+  public void testDecodeWithRejectingExecutor_throwsDecoderException() throws Exception {
+    FakeDecoder decoder = new FakeDecoder();
+    decoder.experimental_setDecodeExecutor(
+        task -> {
+          throw new RejectedExecutionException();
+        });
+
+    DecoderInputBuffer inputBuffer = decoder.dequeueInputBuffer();
+    decoder.queueInputBuffer(inputBuffer);
+
+    try {
+      decoder.dequeueOutputBuffer();
+      fail();
+    } catch (Exception e) {
+      assertThat(e).hasCauseThat().isInstanceOf(RejectedExecutionException.class);
+    }
+    // Releasing doesn't wait for the rejected task.
+    decoder.release();
+  }
+
+  @Test
+  public void testRelease_withDecodeTaskThatIsNotRun_returnsAndTaskDoesNothing()
+      throws Exception {
+    FakeDecoder decoder = new FakeDecoder();
+    // Holds on to the submitted tasks, like an executor whose threads are all blocked.
+    List<Runnable> pendingTasks = new ArrayList<>();
+    decoder.experimental_setDecodeExecutor(pendingTasks::add);
+    DecoderInputBuffer inputBuffer = decoder.dequeueInputBuffer();
+    decoder.queueInputBuffer(inputBuffer);
+
+    decoder.release();
+    pendingTasks.get(0).run();
+
+    assertThat(pendingTasks).hasSize(1);
+    assertThat(decoder.decodeThreads).isEmpty();
+  }
+
+  private static long maybeQueueInputBuffer(FakeDecoder decoder, long timeUs) throws Exception {
+    DecoderInputBuffer inputBuffer = decoder.dequeueInputBuffer();
+    if (inputBuffer == null) {
+      return timeUs;
+    }
+    inputBuffer.timeUs = timeUs;
+    decoder.queueInputBuffer(inputBuffer);
+    return timeUs + 1;
+  }
+
+  private static void maybeDequeueOutputBuffer(FakeDecoder decoder, List<Long> outputTimesUs)
+      throws Exception {
+    SimpleOutputBuffer outputBuffer = decoder.dequeueOutputBuffer();
+    if (outputBuffer != null) {
+      outputTimesUs.add(outputBuffer.timeUs);
+      outputBuffer.release();
+    }
+  }
+
+  private static final class FakeDecoder
+      extends SimpleDecoder<DecoderInputBuffer, SimpleOutputBuffer, Exception> {
+
+    public final List<Thread> decodeThreads;
+
+    public FakeDecoder() {
+      super(new DecoderInputBuffer[2], new SimpleOutputBuffer[2]);
+      decodeThreads = new ArrayList<>();
+    }
+
+    @Override
+    public String getName() {
+      return "FakeDecoder";
+    }
+
+    @Override
+    protected DecoderInputBuffer createInputBuffer() {
+      return new DecoderInputBuffer(DecoderInputBuffer.BUFFER_REPLACEMENT_MODE_NORMAL);
+    }
+
+    @Override
+    protected SimpleOutputBuffer createOutputBuffer() {
+      return new SimpleOutputBuffer(this);
+    }
+
+    @Override
+    protected Exception createUnexpectedDecodeException(Throwable error) {
+      return new Exception(error);
+    }
+
+    @Nullable
+    @Override
+    protected Exception decode(
+        DecoderInputBuffer inputBuffer, SimpleOutputBuffer outputBuffer, boolean reset) {
+      synchronized (decodeThreads) {
+        if (!decodeThreads.contains(Thread.currentThread())) {
+          decodeThreads.add(Thread.currentThread());
+        }
+      }
+      outputBuffer.init(inputBuffer.timeUs, /* size= */ 0);
+      return null;
+    }
+  }
+}
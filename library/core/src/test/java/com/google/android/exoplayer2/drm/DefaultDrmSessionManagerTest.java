@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.drm;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.os.Looper;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.drm.DrmInitData.SchemeData;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.annotation.LooperMode;
+import org.robolectric.shadows.ShadowLooper;
+
+/** Unit tests for {@link DefaultDrmSessionManager}. */
+@RunWith(AndroidJUnit4.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public final class DefaultDrmSessionManagerTest {
+
+  private static final long SESSION_KEEPALIVE_MS = 10_000;
+  private static final byte[] SESSION_ID_1 = new byte[] {1};
+  private static final byte[] SESSION_ID_2 = new byte[] {2};
+  private static final byte[] SESSION_ID_3 = new byte[] {3};
+  private static final DrmInitData DRM_INIT_DATA_1 = createDrmInitData(/* keyId= */ 1);
+  private static final DrmInitData DRM_INIT_DATA_2 = createDrmInitData(/* keyId= */ 2);
+  private static final DrmInitData DRM_INIT_DATA_3 = createDrmInitData(/* keyId= */ 3);
+
+  @Mock private ExoMediaDrm<ExoMediaCrypto> mediaDrm;
+
+  private Looper playbackLooper;
+  private DefaultDrmSessionManager<ExoMediaCrypto> drmSessionManager;
+
+  @Before
+  public void setUp() throws Exception {
+    MockitoAnnotations.initMocks(this);
+    when(mediaDrm.openSession()).thenReturn(SESSION_ID_1, SESSION_ID_2, SESSION_ID_3);
+    when(mediaDrm.getKeyRequest(any(), any(), anyInt(), any()))
+        .thenReturn(
+            new ExoMediaDrm.KeyRequest(/* data= */ new byte[0], /* licenseServerUrl= */ ""));
+    playbackLooper = Looper.getMainLooper();
+    drmSessionManager =
+        createDrmSessionManager(DefaultDrmSessionManager.DEFAULT_MAX_KEEPALIVE_SESSION_COUNT);
+    drmSessionManager.prepare();
+  }
+
+  @After
+  public void tearDown() {
+    drmSessionManager.release();
+  }
+
+  @Test
+  public void testAcquireSession_afterPrefetch_reusesSessionWithoutKeyRequest() throws Exception {
+    drmSessionManager.prefetchSession(playbackLooper, DRM_INIT_DATA_1);
+    verify(mediaDrm, times(1)).getKeyRequest(any(), any(), anyInt(), any());
+
+    DrmSession<ExoMediaCrypto> session =
+        drmSessionManager.acquireSession(playbackLooper, DRM_INIT_DATA_1);
+
+    assertThat(session.getState()).isNotEqualTo(DrmSession.STATE_RELEASED);
+    verify(mediaDrm, times(1)).openSession();
+    verify(mediaDrm, times(1)).getKeyRequest(any(), any(), anyInt(), any());
+    session.release();
+  }
+
+  @Test
+  public void testAcquireSession_afterReleaseWithinKeepalive_reusesSession() throws Exception {
+    drmSessionManager.acquireSession(playbackLooper, DRM_INIT_DATA_1).release();
+    ShadowLooper.idleMainLooper(SESSION_KEEPALIVE_MS / 2, TimeUnit.MILLISECONDS);
+
+    DrmSession<ExoMediaCrypto> session =
+        drmSessionManager.acquireSession(playbackLooper, DRM_INIT_DATA_1);
+
+    verify(mediaDrm, times(1)).openSession();
+    verify(mediaDrm, never()).closeSession(any());
+    session.release();
+  }
+
+  @Test
+  public void testAcquireSession_withDifferentDrmInitData_opensNewSession() throws Exception {
+    drmSessionManager.prefetchSession(playbackLooper, DRM_INIT_DATA_1);
+
+    DrmSession<ExoMediaCrypto> session =
+        drmSessionManager.acquireSession(playbackLooper, DRM_INIT_DATA_2);
+
+    verify(mediaDrm, times(2)).openSession();
+    verify(mediaDrm, times(2)).getKeyRequest(any(), any(), anyInt(), any());
+    session.release();
+  }
+
+  @Test
+  public void testPrefetchSession_afterKeepalive_releasesSession() throws Exception {
+    drmSessionManager.prefetchSession(playbackLooper, DRM_INIT_DATA_1);
+
+    ShadowLooper.idleMainLooper(SESSION_KEEPALIVE_MS, TimeUnit.MILLISECONDS);
+
+    verify(mediaDrm).closeSession(SESSION_ID_1);
+  }
+
+  @Test
+  public void testAcquireSession_inUseAfterKeepalive_keepsSessionOpen() throws Exception {
+    DrmSession<ExoMediaCrypto> session =
+        drmSessionManager.acquireSession(playbackLooper, DRM_INIT_DATA_1);
+
+    ShadowLooper.idleMainLooper(SESSION_KEEPALIVE_MS * 3 / 2, TimeUnit.MILLISECONDS);
+    session.release();
+    ShadowLooper.idleMainLooper(SESSION_KEEPALIVE_MS / 4, TimeUnit.MILLISECONDS);
+
+    verify(mediaDrm, never()).closeSession(any());
+    ShadowLooper.idleMainLooper(SESSION_KEEPALIVE_MS, TimeUnit.MILLISECONDS);
+    verify(mediaDrm).closeSession(SESSION_ID_1);
+  }
+
+  @Test
+  public void testPrefetchSession_beyondMaxKeepaliveSessionCount_releasesLeastRecentlyAcquired()
+      throws Exception {
+    drmSessionManager.release();
+    drmSessionManager = createDrmSessionManager(/* maxKeepaliveSessionCount= */ 2);
+    drmSessionManager.prepare();
+    drmSessionManager.prefetchSession(playbackLooper, DRM_INIT_DATA_1);
+    drmSessionManager.prefetchSession(playbackLooper, DRM_INIT_DATA_2);
+    // Acquiring the first session again makes the second the least recently acquired.
+    drmSessionManager.acquireSession(playbackLooper, DRM_INIT_DATA_1).release();
+
+    drmSessionManager.prefetchSession(playbackLooper, DRM_INIT_DATA_3);
+
+    verify(mediaDrm).closeSession(SESSION_ID_2);
+    verify(mediaDrm, never()).closeSession(SESSION_ID_1);
+    verify(mediaDrm, never()).closeSession(SESSION_ID_3);
+  }
+
+  @Test
+  public void testRelease_releasesPrefetchedSessions() throws Exception {
+    drmSessionManager.prefetchSession(playbackLooper, DRM_INIT_DATA_1);
+    drmSessionManager.prefetchSession(playbackLooper, DRM_INIT_DATA_2);
+
+    drmSessionManager.release();
+    drmSessionManager.prepare();
+
+    verify(mediaDrm).closeSession(SESSION_ID_1);
+    verify(mediaDrm).closeSession(SESSION_ID_2);
+  }
+
+  @Test
+  public void testBuild_withSessionKeepaliveWithoutMultiSession_throws() {
+    DefaultDrmSessionManager.Builder builder =
+        new DefaultDrmSessionManager.Builder()
+            .setUuidAndExoMediaDrmProvider(
+                C.WIDEVINE_UUID, new ExoMediaDrm.AppManagedProvider<>(mediaDrm))
+            .setSessionKeepaliveMs(SESSION_KEEPALIVE_MS);
+
+    try {
+      builder.build(new LocalMediaDrmCallback(/* keyResponse= */ new byte[] {4, 5, 6}));
+      fail();
+    } catch (IllegalStateException e) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void testPrefetchSession_withoutSessionKeepalive_throws() {
+    drmSessionManager.release();
+    drmSessionManager =
+        new DefaultDrmSessionManager.Builder()
+            .setUuidAndExoMediaDrmProvider(
+                C.WIDEVINE_UUID, new ExoMediaDrm.AppManagedProvider<>(mediaDrm))
+            .setMultiSession(true)
+            .build(new LocalMediaDrmCallback(/* keyResponse= */ new byte[] {4, 5, 6}));
+    drmSessionManager.prepare();
+
+    try {
+      drmSessionManager.prefetchSession(playbackLooper, DRM_INIT_DATA_1);
+      fail();
+    } catch (IllegalStateException e) {
+      // Expected.
+    }
+  }
+
+  private DefaultDrmSessionManager<ExoMediaCrypto> createDrmSessionManager(
+      int maxKeepaliveSessionCount) {
+    return new DefaultDrmSessionManager.Builder()
+        .setUuidAndExoMediaDrmProvider(
+            C.WIDEVINE_UUID, new ExoMediaDrm.AppManagedProvider<>(mediaDrm))
+        .setMultiSession(true)
+        .setSessionKeepaliveMs(SESSION_KEEPALIVE_MS)
+        .setMaxKeepaliveSessionCount(maxKeepaliveSessionCount)
+        .build(new LocalMediaDrmCallback(/* keyResponse= */ new byte[] {4, 5, 6}));
+  }
+
+  private static DrmInitData createDrmInitData(int keyId) {
+    return new DrmInitData(
+        new SchemeData(C.WIDEVINE_UUID, "mimeType", new byte[] {1, 4, 7, 0, 3, (byte) keyId}));
+  }
+}
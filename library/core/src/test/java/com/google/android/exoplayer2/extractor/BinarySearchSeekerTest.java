@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.testutil.FakeExtractorInput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link BinarySearchSeeker}. */
+@RunWith(AndroidJUnit4.class)
+public final class BinarySearchSeekerTest {
+
+  /** The length of the stream, whose first half has ten times the bitrate of the second half. */
+  private static final int STREAM_LENGTH = 4_000_000;
+
+  private static final long DURATION_US = getTimestampAtPosition(STREAM_LENGTH);
+  private static final int SEARCH_WINDOW_BYTES = 10_000;
+  private static final int MINIMUM_SEARCH_RANGE = 1_000;
+  private static final int SEEK_COUNT = 20;
+
+  @Test
+  public void testSeek_findsPositionWithinMinimumSearchRangeOfTarget() throws Exception {
+    FakeBinarySearchSeeker seeker = new FakeBinarySearchSeeker();
+    FakeExtractorInput input = createInput();
+
+    for (long timeUs : createSeekTimesUs()) {
+      seek(seeker, input, timeUs);
+
+      long targetPosition = getPositionOfTimestamp(timeUs, /* fromPosition= */ 0, STREAM_LENGTH);
+      assertThat(input.getPosition()).isAtMost(targetPosition);
+      assertThat(input.getPosition()).isAtLeast(targetPosition - MINIMUM_SEARCH_RANGE);
+    }
+  }
+
+  @Test
+  public void testSeek_withProbeCaching_findsSamePositionsAsWithout() throws Exception {
+    FakeBinarySearchSeeker seeker = new FakeBinarySearchSeeker();
+    FakeBinarySearchSeeker cachingSeeker = new FakeBinarySearchSeeker();
+    cachingSeeker.experimental_setProbeCachingEnabled(true);
+    FakeExtractorInput input = createInput();
+    FakeExtractorInput cachingInput = createInput();
+
+    for (long timeUs : createSeekTimesUs()) {
+      seek(seeker, input, timeUs);
+      seek(cachingSeeker, cachingInput, timeUs);
+
+      assertThat(cachingInput.getPosition()).isEqualTo(input.getPosition());
+    }
+  }
+
+  @Test
+  public void testSeek_withProbeCaching_requiresFewerRequests() throws Exception {
+    FakeBinarySearchSeeker seeker = new FakeBinarySearchSeeker();
+    FakeBinarySearchSeeker cachingSeeker = new FakeBinarySearchSeeker();
+    cachingSeeker.experimental_setProbeCachingEnabled(true);
+    FakeExtractorInput input = createInput();
+    FakeExtractorInput cachingInput = createInput();
+
+    int requestCount = 0;
+    int cachingRequestCount = 0;
+    for (long timeUs : createSeekTimesUs()) {
+      requestCount += seek(seeker, input, timeUs);
+      cachingRequestCount += seek(cachingSeeker, cachingInput, timeUs);
+    }
+
+    // Each seek requires at least the request at the position from the seek map.
+    assertThat(cachingRequestCount).isAtLeast(SEEK_COUNT);
+    assertThat(cachingRequestCount).isLessThan(requestCount);
+  }
+
+  @Test
+  public void testGetSeekPoints_withProbeCaching_returnsFirstSearchPosition() throws Exception {
+    FakeBinarySearchSeeker cachingSeeker = new FakeBinarySearchSeeker();
+    cachingSeeker.experimental_setProbeCachingEnabled(true);
+    FakeExtractorInput cachingInput = createInput();
+    seek(cachingSeeker, cachingInput, DURATION_US / 3);
+    long timeUs = DURATION_US / 3 + 500_000;
+
+    // The seek map should return the position from which the search continues, so that the seek
+    // doesn't require an extra request.
+    long seekMapPosition = cachingSeeker.getSeekMap().getSeekPoints(timeUs).first.position;
+    cachingSeeker.setSeekTargetUs(timeUs);
+    cachingInput.setPosition((int) seekMapPosition);
+    cachingSeeker.handlePendingSeek(
+        cachingInput,
+        new PositionHolder(),
+        new BinarySearchSeeker.OutputFrameHolder(ByteBuffer.allocate(0)));
+
+    assertThat(cachingSeeker.firstSearchPosition).isEqualTo(seekMapPosition);
+  }
+
+  /**
+   * Seeks to the given time, as an extractor would, and returns the number of requests the seek
+   * required, including the initial request at the position returned by the seek map.
+   */
+  private static int seek(BinarySearchSeeker seeker, FakeExtractorInput input, long timeUs)
+      throws IOException, InterruptedException {
+    PositionHolder positionHolder = new PositionHolder();
+    BinarySearchSeeker.OutputFrameHolder outputFrameHolder =
+        new BinarySearchSeeker.OutputFrameHolder(ByteBuffer.allocate(0));
+    input.setPosition((int) seeker.getSeekMap().getSeekPoints(timeUs).first.position);
+    seeker.setSeekTargetUs(timeUs);
+    int requestCount = 1;
+    while (seeker.isSeeking()) {
+      if (seeker.handlePendingSeek(input, positionHolder, outputFrameHolder)
+          == Extractor.RESULT_SEEK) {
+        input.setPosition((int) positionHolder.position);
+        requestCount++;
+      }
+    }
+    return requestCount;
+  }
+
+  private static FakeExtractorInput createInput() {
+    return new FakeExtractorInput.Builder().setData(new byte[STREAM_LENGTH]).build();
+  }
+
+  private static long[] createSeekTimesUs() {
+    Random random = new Random(/* seed= */ 0);
+    long[] seekTimesUs = new long[SEEK_COUNT];
+    for (int i = 0; i < SEEK_COUNT; i++) {
+      seekTimesUs[i] = 1 + (long) (random.nextDouble() * (DURATION_US - 2));
+    }
+    return seekTimesUs;
+  }
+
+  /** Returns the timestamp of the byte at the given position of the fake stream. */
+  private static long getTimestampAtPosition(long position) {
+    long halfLength = STREAM_LENGTH / 2;
+    return position < halfLength
+        ? position * 2
+        : halfLength * 2 + (position - halfLength) * 20;
+  }
+
+  /**
+   * Returns the first position of the fake stream in [fromPosition, toPosition) whose timestamp
+   * is at least the given timestamp, or toPosition if there's no such position.
+   */
+  private static long getPositionOfTimestamp(long timestamp, long fromPosition, long toPosition) {
+    long low = fromPosition;
+    long high = toPosition;
+    while (low < high) {
+      long mid = (low + high) >>> 1;
+      if (getTimestampAtPosition(mid) < timestamp) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static final class FakeBinarySearchSeeker extends BinarySearchSeeker {
+
+    private long firstSearchPosition;
+
+    public FakeBinarySearchSeeker() {
+      this(new FakeTimestampSeeker());
+    }
+
+    private FakeBinarySearchSeeker(FakeTimestampSeeker timestampSeeker) {
+      super(
+          new DefaultSeekTimestampConverter(),
+          timestampSeeker,
+          DURATION_US,
+          /* floorTimePosition= */ 0,
+          /* ceilingTimePosition= */ DURATION_US + 1,
+          /* floorBytePosition= */ 0,
+          /* ceilingBytePosition= */ STREAM_LENGTH,
+          /* approxBytesPerFrame= */ 100,
+          MINIMUM_SEARCH_RANGE);
+      timestampSeeker.binarySearchSeeker = this;
+    }
+  }
+
+  /**
+   * A {@link BinarySearchSeeker.TimestampSeeker} that looks for the target timestamp in a window
+   * of the fake stream, without reading it.
+   */
+  private static final class FakeTimestampSeeker implements BinarySearchSeeker.TimestampSeeker {
+
+    private FakeBinarySearchSeeker binarySearchSeeker;
+    private boolean isFirstSearch;
+
+    public FakeTimestampSeeker() {
+      isFirstSearch = true;
+    }
+
+    @Override
+    public BinarySearchSeeker.TimestampSearchResult searchForTimestamp(
+        ExtractorInput input,
+        long targetTimestamp,
+        BinarySearchSeeker.OutputFrameHolder outputFrameHolder) {
+      long searchPosition = input.getPosition();
+      if (isFirstSearch) {
+        binarySearchSeeker.firstSearchPosition = searchPosition;
+        isFirstSearch = false;
+      }
+      long windowEndPosition = Math.min(searchPosition + SEARCH_WINDOW_BYTES, STREAM_LENGTH);
+      long firstTimestamp = getTimestampAtPosition(searchPosition);
+      long lastTimestamp = getTimestampAtPosition(windowEndPosition - 1);
+      if (firstTimestamp >= targetTimestamp && searchPosition > 0) {
+        if (getTimestampAtPosition(searchPosition - 1) < targetTimestamp) {
+          return BinarySearchSeeker.TimestampSearchResult.targetFoundResult(searchPosition);
+        }
+        return BinarySearchSeeker.TimestampSearchResult.overestimatedResult(
+            firstTimestamp, searchPosition);
+      } else if (lastTimestamp < targetTimestamp) {
+        return BinarySearchSeeker.TimestampSearchResult.underestimatedResult(
+            lastTimestamp, windowEndPosition);
+      }
+      return BinarySearchSeeker.TimestampSearchResult.targetFoundResult(
+          getPositionOfTimestamp(targetTimestamp, searchPosition, windowEndPosition));
+    }
+
+    @Override
+    public void onSeekFinished() {
+      isFirstSearch = true;
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.upstream.cache.ContentMetadataMutations;
+import com.google.android.exoplayer2.upstream.cache.NoOpCacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+import com.google.android.exoplayer2.util.Util;
+import java.io.File;
+import java.io.IOException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link ChunkIndexCache}. */
+@RunWith(AndroidJUnit4.class)
+public final class ChunkIndexCacheTest {
+
+  private static final String CACHE_KEY = "key";
+  private static final ChunkIndex CHUNK_INDEX =
+      new ChunkIndex(
+          /* sizes= */ new int[] {100, 200, 300},
+          /* offsets= */ new long[] {1000, 1100, 1300},
+          /* durationsUs= */ new long[] {2_000_000, 2_000_000, 1_500_000},
+          /* timesUs= */ new long[] {0, 2_000_000, 4_000_000});
+
+  private File cacheDir;
+  private SimpleCache cache;
+
+  @Before
+  public void setUp() throws Exception {
+    cacheDir = Util.createTempFile(ApplicationProvider.getApplicationContext(), "ExoPlayerTest");
+    // Delete the file. SimpleCache initialization should create a directory with the same name.
+    assertThat(cacheDir.delete()).isTrue();
+    cache = new SimpleCache(cacheDir, new NoOpCacheEvictor());
+  }
+
+  @After
+  public void tearDown() {
+    cache.release();
+    Util.recursiveDelete(cacheDir);
+  }
+
+  @Test
+  public void testGetWithoutPut_returnsNull() {
+    ChunkIndexCache chunkIndexCache = new ChunkIndexCache(cache);
+
+    assertThat(chunkIndexCache.get(CACHE_KEY, ChunkIndexCache.KEY_CHUNK_INDEX)).isNull();
+  }
+
+  @Test
+  public void testPutThenGet_returnsEqualIndex() {
+    ChunkIndexCache chunkIndexCache = new ChunkIndexCache(cache);
+
+    chunkIndexCache.put(CACHE_KEY, ChunkIndexCache.KEY_CHUNK_INDEX, CHUNK_INDEX);
+    ChunkIndex chunkIndex = chunkIndexCache.get(CACHE_KEY, ChunkIndexCache.KEY_CHUNK_INDEX);
+
+    assertChunkIndexEquals(chunkIndex, CHUNK_INDEX);
+  }
+
+  @Test
+  public void testSerializeDeserializeEmptyIndex() throws IOException {
+    ChunkIndex emptyIndex = new ChunkIndex(new int[0], new long[0], new long[0], new long[0]);
+
+    ChunkIndex chunkIndex = ChunkIndexCache.deserialize(ChunkIndexCache.serialize(emptyIndex));
+
+    assertThat(chunkIndex.length).isEqualTo(0);
+  }
+
+  @Test
+  public void testDeserializeTruncatedData_throws() {
+    byte[] data = ChunkIndexCache.serialize(CHUNK_INDEX);
+    byte[] truncatedData = new byte[data.length - 1];
+    System.arraycopy(data, 0, truncatedData, 0, truncatedData.length);
+
+    try {
+      ChunkIndexCache.deserialize(truncatedData);
+      fail();
+    } catch (IOException e) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void testGetInvalidData_returnsNull() throws Exception {
+    byte[] data = ChunkIndexCache.serialize(CHUNK_INDEX);
+    // Corrupt the version.
+    data[0] = 0x7F;
+    ContentMetadataMutations mutations = new ContentMetadataMutations();
+    cache.applyContentMetadataMutations(
+        CACHE_KEY, mutations.set(ChunkIndexCache.KEY_CHUNK_INDEX, data));
+
+    assertThat(new ChunkIndexCache(cache).get(CACHE_KEY, ChunkIndexCache.KEY_CHUNK_INDEX))
+        .isNull();
+  }
+
+  private static void assertChunkIndexEquals(ChunkIndex actual, ChunkIndex expected) {
+    assertThat(actual).isNotNull();
+    assertThat(actual.sizes).isEqualTo(expected.sizes);
+    assertThat(actual.offsets).isEqualTo(expected.offsets);
+    assertThat(actual.durationsUs).isEqualTo(expected.durationsUs);
+    assertThat(actual.timesUs).isEqualTo(expected.timesUs);
+  }
+}
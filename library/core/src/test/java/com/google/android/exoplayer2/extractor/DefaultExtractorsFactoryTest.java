@@ -17,6 +17,7 @@ package com.google.android.exoplayer2.extractor;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import android.net.Uri;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import com.google.android.exoplayer2.extractor.amr.AmrExtractor;
 import com.google.android.exoplayer2.extractor.flv.FlvExtractor;
@@ -31,8 +32,12 @@ import com.google.android.exoplayer2.extractor.ts.AdtsExtractor;
 import com.google.android.exoplayer2.extractor.ts.PsExtractor;
 import com.google.android.exoplayer2.extractor.ts.TsExtractor;
 import com.google.android.exoplayer2.extractor.wav.WavExtractor;
+import com.google.android.exoplayer2.util.MimeTypes;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -70,4 +75,40 @@ public final class DefaultExtractorsFactoryTest {
     assertThat(listCreatedExtractorClasses).containsNoDuplicates();
     assertThat(listCreatedExtractorClasses).containsExactlyElementsIn(expectedExtractorClassses);
   }
+
+  @Test
+  public void testCreateExtractors_withMediaInfo_startsWithExtractorsMatchingHeadersAndThenUri() {
+    DefaultExtractorsFactory defaultExtractorsFactory = new DefaultExtractorsFactory();
+    Uri uri = Uri.parse("test.mp3");
+    Map<String, List<String>> responseHeaders = new HashMap<>();
+    responseHeaders.put("Content-Type", Collections.singletonList(MimeTypes.VIDEO_MP4));
+
+    Extractor[] extractors = defaultExtractorsFactory.createExtractors(uri, responseHeaders);
+
+    List<Class<?>> extractorClasses = getExtractorClasses(extractors);
+    assertThat(extractorClasses.subList(0, 2))
+        .containsExactly(FragmentedMp4Extractor.class, Mp4Extractor.class);
+    assertThat(extractorClasses.get(2)).isEqualTo(Mp3Extractor.class);
+    assertThat(extractorClasses).containsNoDuplicates();
+  }
+
+  @Test
+  public void testCreateExtractors_withUnknownMediaInfo_returnsAllExtractorsInDefaultOrder() {
+    DefaultExtractorsFactory defaultExtractorsFactory = new DefaultExtractorsFactory();
+
+    Extractor[] extractors =
+        defaultExtractorsFactory.createExtractors(
+            Uri.parse("test.unknown"), Collections.emptyMap());
+
+    assertThat(getExtractorClasses(extractors))
+        .isEqualTo(getExtractorClasses(defaultExtractorsFactory.createExtractors()));
+  }
+
+  private static List<Class<?>> getExtractorClasses(Extractor[] extractors) {
+    List<Class<?>> extractorClasses = new ArrayList<>();
+    for (Extractor extractor : extractors) {
+      extractorClasses.add(extractor.getClass());
+    }
+    return extractorClasses;
+  }
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.extractor.SeekMap.SeekPoints;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link SeekPointIndex}. */
+@RunWith(AndroidJUnit4.class)
+public final class SeekPointIndexTest {
+
+  private static final long DATA_START_POSITION = 100;
+
+  @Test
+  public void testGetSeekPoints_withEmptyIndex_returnsNull() {
+    SeekPointIndex seekPointIndex = new SeekPointIndex(DATA_START_POSITION);
+
+    assertThat(seekPointIndex.getSeekPoints(/* timeUs= */ 0)).isNull();
+  }
+
+  @Test
+  public void testGetSeekPoints_withinIndexedRegion_returnsSurroundingPoints() {
+    SeekPointIndex seekPointIndex = createIndexWithFramesUntil(/* endTimeUs= */ 1000);
+
+    // Frames are every 10 us, and points at least 100 us apart.
+    assertThat(seekPointIndex.getSeekPoints(/* timeUs= */ 250))
+        .isEqualTo(
+            new SeekPoints(
+                new SeekPoint(/* timeUs= */ 200, getFramePosition(200)),
+                new SeekPoint(/* timeUs= */ 300, getFramePosition(300))));
+    assertThat(seekPointIndex.getSeekPoints(/* timeUs= */ 300))
+        .isEqualTo(new SeekPoints(new SeekPoint(/* timeUs= */ 300, getFramePosition(300))));
+  }
+
+  @Test
+  public void testGetSeekPoints_betweenLastPointAndEndOfIndexedRegion_returnsLastPoint() {
+    SeekPointIndex seekPointIndex = createIndexWithFramesUntil(/* endTimeUs= */ 1050);
+
+    assertThat(seekPointIndex.getSeekPoints(/* timeUs= */ 1050))
+        .isEqualTo(new SeekPoints(new SeekPoint(/* timeUs= */ 1000, getFramePosition(1000))));
+  }
+
+  @Test
+  public void testGetSeekPoints_beyondIndexedRegion_returnsNull() {
+    SeekPointIndex seekPointIndex = createIndexWithFramesUntil(/* endTimeUs= */ 1000);
+
+    assertThat(seekPointIndex.getSeekPoints(/* timeUs= */ 1001)).isNull();
+  }
+
+  @Test
+  public void testGetTimeUs_returnsTimeOfIndexedPositionsOnly() {
+    SeekPointIndex seekPointIndex = createIndexWithFramesUntil(/* endTimeUs= */ 1000);
+
+    assertThat(seekPointIndex.getTimeUs(getFramePosition(500))).isEqualTo(500);
+    assertThat(seekPointIndex.getTimeUs(getFramePosition(510))).isEqualTo(C.TIME_UNSET);
+  }
+
+  @Test
+  public void testMaybeAddSeekPoint_afterSeekBeyondIndexedRegion_doesNotAddPoints() {
+    SeekPointIndex seekPointIndex = createIndexWithFramesUntil(/* endTimeUs= */ 1000);
+    int seekPointCount = seekPointIndex.getSeekPointCount();
+
+    seekPointIndex.onSeek(getFramePosition(2000));
+    addFrames(seekPointIndex, /* startTimeUs= */ 2000, /* endTimeUs= */ 3000);
+
+    assertThat(seekPointIndex.getSeekPointCount()).isEqualTo(seekPointCount);
+    assertThat(seekPointIndex.getSeekPoints(/* timeUs= */ 2500)).isNull();
+  }
+
+  @Test
+  public void testMaybeAddSeekPoint_afterSeekToIndexedPosition_extendsIndexedRegion() {
+    SeekPointIndex seekPointIndex = createIndexWithFramesUntil(/* endTimeUs= */ 1000);
+    seekPointIndex.onSeek(getFramePosition(2000));
+    seekPointIndex.onSeek(getFramePosition(500));
+
+    addFrames(seekPointIndex, /* startTimeUs= */ 500, /* endTimeUs= */ 2000);
+
+    assertThat(seekPointIndex.getSeekPoints(/* timeUs= */ 2000))
+        .isEqualTo(new SeekPoints(new SeekPoint(/* timeUs= */ 2000, getFramePosition(2000))));
+    assertThat(seekPointIndex.getSeekPointCount()).isEqualTo(21);
+  }
+
+  @Test
+  public void testMaybeAddSeekPoint_whenFull_dropsEveryOtherPoint() {
+    SeekPointIndex seekPointIndex =
+        new SeekPointIndex(
+            DATA_START_POSITION, /* minTimeBetweenPointsUs= */ 100, /* maxPointCount= */ 4);
+
+    // Points at 0, 100, 200 and 300 fill the index. At 400, it keeps 0 and 200 and adds 400.
+    // Points are then at least 200 us apart, so the next is at 600.
+    addFrames(seekPointIndex, /* startTimeUs= */ 0, /* endTimeUs= */ 600);
+
+    assertThat(seekPointIndex.getSeekPointCount()).isEqualTo(4);
+    assertThat(seekPointIndex.getSeekPoints(/* timeUs= */ 150))
+        .isEqualTo(
+            new SeekPoints(
+                new SeekPoint(/* timeUs= */ 0, getFramePosition(0)),
+                new SeekPoint(/* timeUs= */ 200, getFramePosition(200))));
+    assertThat(seekPointIndex.getSeekPoints(/* timeUs= */ 500))
+        .isEqualTo(
+            new SeekPoints(
+                new SeekPoint(/* timeUs= */ 400, getFramePosition(400)),
+                new SeekPoint(/* timeUs= */ 600, getFramePosition(600))));
+  }
+
+  @Test
+  public void testCreateSeekMap_beyondIndexedRegion_usesFallbackSeekMap() {
+    SeekPointIndex seekPointIndex = createIndexWithFramesUntil(/* endTimeUs= */ 1000);
+    SeekMap fallbackSeekMap =
+        new ConstantBitrateSeekMap(
+            /* inputLength= */ 100_000,
+            DATA_START_POSITION,
+            /* bitrate= */ 80_000,
+            /* frameSize= */ C.LENGTH_UNSET);
+
+    SeekMap seekMap = seekPointIndex.createSeekMap(fallbackSeekMap);
+
+    assertThat(seekMap.isSeekable()).isTrue();
+    assertThat(seekMap.getDurationUs()).isEqualTo(fallbackSeekMap.getDurationUs());
+    assertThat(seekMap.getSeekPoints(/* timeUs= */ 500).first.position)
+        .isEqualTo(getFramePosition(500));
+    assertThat(seekMap.getSeekPoints(/* timeUs= */ 5_000_000))
+        .isEqualTo(fallbackSeekMap.getSeekPoints(/* timeUs= */ 5_000_000));
+  }
+
+  private static SeekPointIndex createIndexWithFramesUntil(long endTimeUs) {
+    SeekPointIndex seekPointIndex =
+        new SeekPointIndex(
+            DATA_START_POSITION, /* minTimeBetweenPointsUs= */ 100, /* maxPointCount= */ 100);
+    addFrames(seekPointIndex, /* startTimeUs= */ 0, endTimeUs);
+    return seekPointIndex;
+  }
+
+  /** Adds frames that are 10 us long and have a size of 1000 + (time / 10) % 7 bytes. */
+  private static void addFrames(SeekPointIndex seekPointIndex, long startTimeUs, long endTimeUs) {
+    for (long timeUs = startTimeUs; timeUs <= endTimeUs; timeUs += 10) {
+      seekPointIndex.maybeAddSeekPoint(timeUs, getFramePosition(timeUs));
+    }
+  }
+
+  private static long getFramePosition(long timeUs) {
+    long position = DATA_START_POSITION;
+    for (long frameTimeUs = 0; frameTimeUs < timeUs; frameTimeUs += 10) {
+      position += 1000 + (frameTimeUs / 10) % 7;
+    }
+    return position;
+  }
+}
@@ -15,8 +15,17 @@
  */
 package com.google.android.exoplayer2.extractor.mkv;
 
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.extractor.ChunkIndex;
+import com.google.android.exoplayer2.extractor.Extractor;
+import com.google.android.exoplayer2.extractor.PositionHolder;
 import com.google.android.exoplayer2.testutil.ExtractorAsserts;
+import com.google.android.exoplayer2.testutil.FakeExtractorInput;
+import com.google.android.exoplayer2.testutil.FakeExtractorOutput;
+import com.google.android.exoplayer2.testutil.TestUtil;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -39,4 +48,63 @@ public final class MatroskaExtractorTest {
   public void testWebmSubsampleEncryptionWithAltrefFrames() throws Exception {
     ExtractorAsserts.assertBehavior(MatroskaExtractor::new, "mkv/subsample_encrypted_altref.webm");
   }
+
+  @Test
+  public void testStoredCuesIndex_isOutputWithoutSeekingForCues() throws Exception {
+    byte[] data =
+        TestUtil.getByteArray(ApplicationProvider.getApplicationContext(), "mkv/sample.mkv");
+    ChunkIndex storedIndex =
+        new ChunkIndex(
+            /* sizes= */ new int[] {(int) (data.length - 5576)},
+            /* offsets= */ new long[] {5576},
+            /* durationsUs= */ new long[] {1072000},
+            /* timesUs= */ new long[] {0});
+    MatroskaExtractor extractor = new MatroskaExtractor();
+    extractor.setStoredCuesIndex(storedIndex);
+    FakeExtractorOutput output = new FakeExtractorOutput();
+    extractor.init(output);
+    FakeExtractorInput input = new FakeExtractorInput.Builder().setData(data).build();
+    PositionHolder positionHolder = new PositionHolder();
+
+    int readResult = Extractor.RESULT_CONTINUE;
+    while (readResult == Extractor.RESULT_CONTINUE) {
+      readResult = extractor.read(input, positionHolder);
+    }
+
+    // The sample's cues are located after the clusters, so the extractor would have to seek to
+    // read them if the stored index weren't used.
+    assertThat(readResult).isEqualTo(Extractor.RESULT_END_OF_INPUT);
+    assertThat(output.seekMap).isSameInstanceAs(storedIndex);
+  }
+
+  @Test
+  public void testStoredCuesIndex_withMismatchingDuration_isDiscarded() throws Exception {
+    byte[] data =
+        TestUtil.getByteArray(ApplicationProvider.getApplicationContext(), "mkv/sample.mkv");
+    // An index stored for a different version of the stream, which is longer than this one.
+    ChunkIndex storedIndex =
+        new ChunkIndex(
+            /* sizes= */ new int[] {(int) (data.length - 5576)},
+            /* offsets= */ new long[] {5576},
+            /* durationsUs= */ new long[] {2000000},
+            /* timesUs= */ new long[] {0});
+    MatroskaExtractor extractor = new MatroskaExtractor();
+    extractor.setStoredCuesIndex(storedIndex);
+    FakeExtractorOutput output = new FakeExtractorOutput();
+    extractor.init(output);
+    FakeExtractorInput input = new FakeExtractorInput.Builder().setData(data).build();
+    PositionHolder positionHolder = new PositionHolder();
+
+    int readResult = Extractor.RESULT_CONTINUE;
+    while (readResult != Extractor.RESULT_END_OF_INPUT) {
+      readResult = extractor.read(input, positionHolder);
+      if (readResult == Extractor.RESULT_SEEK) {
+        input.setPosition((int) positionHolder.position);
+      }
+    }
+
+    assertThat(output.seekMap).isNotSameInstanceAs(storedIndex);
+    assertThat(output.seekMap).isInstanceOf(ChunkIndex.class);
+    assertThat(output.seekMap.getDurationUs()).isEqualTo(1072000);
+  }
 }
@@ -15,8 +15,20 @@
  */
 package com.google.android.exoplayer2.extractor.mp3;
 
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.net.Uri;
+import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.extractor.SeekMap;
 import com.google.android.exoplayer2.testutil.ExtractorAsserts;
+import com.google.android.exoplayer2.testutil.FakeExtractorOutput;
+import com.google.android.exoplayer2.testutil.FakeTrackOutput;
+import com.google.android.exoplayer2.testutil.TestUtil;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DefaultDataSourceFactory;
+import java.util.Random;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -33,4 +45,43 @@ public final class Mp3ExtractorTest {
   public void testTrimmedMp3Sample() throws Exception {
     ExtractorAsserts.assertBehavior(Mp3Extractor::new, "mp3/play-trimmed.mp3");
   }
+
+  @Test
+  public void testSeek_withIndexSeekingAfterReadingFile_extractsExactSamples() throws Exception {
+    Context context = ApplicationProvider.getApplicationContext();
+    String fileName = "mp3/bear.mp3";
+    Uri fileUri = TestUtil.buildAssetUri(fileName);
+    DataSource dataSource = new DefaultDataSourceFactory(context, "UserAgent").createDataSource();
+    FakeTrackOutput expectedTrackOutput =
+        TestUtil.extractAllSamplesFromFile(new Mp3Extractor(), context, fileName)
+            .trackOutputs
+            .get(0);
+    Mp3Extractor extractor = new Mp3Extractor(Mp3Extractor.FLAG_ENABLE_INDEX_SEEKING);
+    FakeExtractorOutput extractorOutput =
+        TestUtil.extractAllSamplesFromFile(extractor, context, fileName);
+    SeekMap seekMap = extractorOutput.seekMap;
+    FakeTrackOutput trackOutput = extractorOutput.trackOutputs.get(0);
+
+    Random random = new Random(/* seed= */ 0);
+    int sampleCount = expectedTrackOutput.getSampleCount();
+    long lastSampleTimeUs = expectedTrackOutput.getSampleTimeUs(sampleCount - 1);
+    for (int i = 0; i < 20; i++) {
+      long targetSeekTimeUs = random.nextInt((int) lastSampleTimeUs + 1);
+      int extractedSampleIndex =
+          TestUtil.seekToTimeUs(
+              extractor, seekMap, targetSeekTimeUs, dataSource, trackOutput, fileUri);
+
+      // The file has been read, so the seek is to an indexed frame with its exact timestamp.
+      long sampleTimeUs = trackOutput.getSampleTimeUs(extractedSampleIndex);
+      assertThat(sampleTimeUs).isAtMost(targetSeekTimeUs);
+      int expectedSampleIndex = 0;
+      while (expectedSampleIndex < sampleCount
+          && expectedTrackOutput.getSampleTimeUs(expectedSampleIndex) != sampleTimeUs) {
+        expectedSampleIndex++;
+      }
+      assertThat(expectedSampleIndex).isLessThan(sampleCount);
+      assertThat(trackOutput.getSampleData(extractedSampleIndex))
+          .isEqualTo(expectedTrackOutput.getSampleData(expectedSampleIndex));
+    }
+  }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor.mp4;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link CompactLongArray}. */
+@RunWith(AndroidJUnit4.class)
+public final class CompactLongArrayTest {
+
+  @Test
+  public void testGet_withConstantSteps_returnsValues() {
+    long[] values = new long[CompactLongArray.BLOCK_SIZE * 3 + 5];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = 5_000_000_000L + i * 21_333L;
+    }
+
+    assertContainsValues(new CompactLongArray(values), values);
+  }
+
+  @Test
+  public void testGet_withUnsortedValues_returnsValues() {
+    // Video sample timestamps with composition time offsets, as derived from stts and ctts boxes.
+    long[] values = new long[1000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i * 33_333L + (i % 3 == 1 ? 66_666L : 0) - (i % 3 == 2 ? 33_333L : 0);
+    }
+
+    assertContainsValues(new CompactLongArray(values), values);
+  }
+
+  @Test
+  public void testGet_withValuesSpanningMoreThan32Bits_returnsValues() {
+    long[] values = new long[] {0, 100, 1L << 40, (1L << 40) + 100, Long.MIN_VALUE, Long.MAX_VALUE};
+
+    assertContainsValues(new CompactLongArray(values), values);
+  }
+
+  @Test
+  public void testGet_withSyntheticLongFile_returnsValues() {
+    // Sample offsets of a three hour 60 fps video track, with audio interleaved every second.
+    Random random = new Random(/* seed= */ 0);
+    long[] offsets = new long[3 * 3600 * 60];
+    long offset = 0;
+    for (int i = 0; i < offsets.length; i++) {
+      offsets[i] = offset;
+      offset += 5_000 + random.nextInt(40_000);
+      if (i % 60 == 59) {
+        offset += 16_000;
+      }
+    }
+
+    assertContainsValues(new CompactLongArray(offsets), offsets);
+  }
+
+  @Test
+  public void testGet_withIndexOutOfBounds_throws() {
+    CompactLongArray array = new CompactLongArray(new long[] {1, 2, 3});
+
+    try {
+      array.get(3);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void testSize_withEmptyArray_returnsZero() {
+    assertThat(new CompactLongArray(new long[0]).size()).isEqualTo(0);
+  }
+
+  private static void assertContainsValues(CompactLongArray array, long[] values) {
+    assertThat(array.size()).isEqualTo(values.length);
+    for (int i = 0; i < values.length; i++) {
+      assertThat(array.get(i)).isEqualTo(values[i]);
+    }
+  }
+}
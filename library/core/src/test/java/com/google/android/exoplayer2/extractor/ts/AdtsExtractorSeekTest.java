@@ -214,6 +214,49 @@ public final class AdtsExtractorSeekTest {
     }
   }
 
+  @Test
+  public void testSeeking_withIndexSeekingAfterReadingFile_extractsExactSamples()
+      throws IOException, InterruptedException {
+    String fileName = TEST_FILE;
+    Uri fileUri = TestUtil.buildAssetUri(fileName);
+    expectedTrackOutput =
+        TestUtil.extractAllSamplesFromFile(
+                createAdtsExtractor(), ApplicationProvider.getApplicationContext(), fileName)
+            .trackOutputs
+            .get(0);
+    AdtsExtractor extractor =
+        new AdtsExtractor(
+            AdtsExtractor.FLAG_ENABLE_CONSTANT_BITRATE_SEEKING
+                | AdtsExtractor.FLAG_ENABLE_INDEX_SEEKING);
+    FakeExtractorOutput extractorOutput =
+        TestUtil.extractAllSamplesFromFile(
+            extractor, ApplicationProvider.getApplicationContext(), fileName);
+    SeekMap seekMap = extractorOutput.seekMap;
+    FakeTrackOutput trackOutput = extractorOutput.trackOutputs.get(0);
+
+    long lastSampleTimeUs =
+        expectedTrackOutput.getSampleTimeUs(expectedTrackOutput.getSampleCount() - 1);
+    long numSeek = 100;
+    for (long i = 0; i < numSeek; i++) {
+      long targetSeekTimeUs = random.nextInt((int) lastSampleTimeUs + 1);
+      int extractedSampleIndex =
+          TestUtil.seekToTimeUs(
+              extractor, seekMap, targetSeekTimeUs, dataSource, trackOutput, fileUri);
+
+      // The file has been read, so the seek is to an indexed frame with its exact timestamp.
+      long outputSampleTimeUs = trackOutput.getSampleTimeUs(extractedSampleIndex);
+      assertThat(outputSampleTimeUs).isAtMost(targetSeekTimeUs);
+      int expectedSampleIndex = findSampleTimeInExpectedOutput(outputSampleTimeUs);
+      assertThat(expectedSampleIndex).isNotEqualTo(-1);
+      trackOutput.assertSample(
+          extractedSampleIndex,
+          expectedTrackOutput.getSampleData(expectedSampleIndex),
+          outputSampleTimeUs,
+          expectedTrackOutput.getSampleFlags(expectedSampleIndex),
+          expectedTrackOutput.getSampleCryptoData(expectedSampleIndex));
+    }
+  }
+
   // Internal methods
 
   private static AdtsExtractor createAdtsExtractor() {
@@ -242,6 +285,15 @@ public final class AdtsExtractorSeekTest {
         expectedTrackOutput.getSampleCryptoData(expectedSampleIndex));
   }
 
+  private int findSampleTimeInExpectedOutput(long sampleTimeUs) {
+    for (int i = 0; i < expectedTrackOutput.getSampleCount(); i++) {
+      if (expectedTrackOutput.getSampleTimeUs(i) == sampleTimeUs) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
   private int findOutputSampleInExpectedOutput(byte[] sampleData) {
     for (int i = 0; i < expectedTrackOutput.getSampleCount(); i++) {
       byte[] currentSampleData = expectedTrackOutput.getSampleData(i);
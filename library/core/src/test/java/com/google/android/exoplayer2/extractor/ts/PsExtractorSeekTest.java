@@ -198,6 +198,28 @@ public final class PsExtractorSeekTest {
     }
   }
 
+  @Test
+  public void testHandlePendingSeek_withProbeCaching_handlesRandomSeeks_extractsCorrectFrame()
+      throws IOException, InterruptedException {
+    PsExtractor extractor = new PsExtractor();
+    extractor.experimental_setProbeCachingEnabled(true);
+
+    FakeExtractorOutput extractorOutput = new FakeExtractorOutput();
+    readInputFileOnce(extractor, extractorOutput);
+    SeekMap seekMap = extractorOutput.seekMap;
+    FakeTrackOutput trackOutput = extractorOutput.trackOutputs.get(VIDEO_TRACK_ID);
+
+    long numSeek = 100;
+    for (long i = 0; i < numSeek; i++) {
+      long targetSeekTimeUs = random.nextInt(DURATION_US + 1);
+      int extractedFrameIndex = seekToTimeUs(extractor, seekMap, targetSeekTimeUs, trackOutput);
+
+      assertThat(extractedFrameIndex).isNotEqualTo(-1);
+      assertFirstFrameAfterSeekContainsTargetSeekTime(
+          trackOutput, targetSeekTimeUs, extractedFrameIndex);
+    }
+  }
+
   // Internal methods
 
   private long readInputLength() throws IOException {
@@ -214,6 +214,61 @@ public final class TsExtractorSeekTest {
     }
   }
 
+  @Test
+  public void testHandlePendingSeek_withProbeCaching_handlesRandomSeeks_extractsCorrectFrame()
+      throws IOException, InterruptedException {
+    TsExtractor extractor = new TsExtractor();
+    extractor.experimental_setProbeCachingEnabled(true);
+    Uri fileUri = TestUtil.buildAssetUri(TEST_FILE);
+
+    FakeExtractorOutput extractorOutput = new FakeExtractorOutput();
+    readInputFileOnce(extractor, extractorOutput, fileUri);
+    SeekMap seekMap = extractorOutput.seekMap;
+    FakeTrackOutput trackOutput = extractorOutput.trackOutputs.get(AUDIO_TRACK_ID);
+
+    long numSeek = 100;
+    for (long i = 0; i < numSeek; i++) {
+      long targetSeekTimeUs = random.nextInt(DURATION_US + 1);
+      int extractedFrameIndex =
+          TestUtil.seekToTimeUs(
+              extractor, seekMap, targetSeekTimeUs, dataSource, trackOutput, fileUri);
+
+      assertThat(extractedFrameIndex).isNotEqualTo(-1);
+      assertFirstFrameAfterSeekContainTargetSeekTime(
+          trackOutput, targetSeekTimeUs, extractedFrameIndex);
+    }
+  }
+
+  @Test
+  public void testSeeking_withIndexSeekingAfterReadingFileOnce_usesIndexedPcrPositions()
+      throws IOException, InterruptedException {
+    TsExtractor extractor = new TsExtractor();
+    extractor.experimental_setIndexSeekingEnabled(true);
+    Uri fileUri = TestUtil.buildAssetUri(TEST_FILE);
+
+    FakeExtractorOutput extractorOutput = new FakeExtractorOutput();
+    readInputFileOnce(extractor, extractorOutput, fileUri);
+    SeekMap seekMap = extractorOutput.seekMap;
+    FakeTrackOutput trackOutput = extractorOutput.trackOutputs.get(AUDIO_TRACK_ID);
+
+    long numSeek = 100;
+    for (long i = 0; i < numSeek; i++) {
+      // Seek within the part of the file that is covered by PCR timestamps.
+      long targetSeekTimeUs = random.nextInt(DURATION_US / 2);
+      SeekMap.SeekPoints seekPoints = seekMap.getSeekPoints(targetSeekTimeUs);
+      assertThat(seekPoints.first.timeUs).isAtMost(targetSeekTimeUs);
+      assertThat(seekPoints.first.position % TsExtractor.TS_PACKET_SIZE).isEqualTo(0);
+
+      int extractedFrameIndex =
+          TestUtil.seekToTimeUs(
+              extractor, seekMap, targetSeekTimeUs, dataSource, trackOutput, fileUri);
+
+      assertThat(extractedFrameIndex).isNotEqualTo(-1);
+      assertFirstFrameAfterSeekContainTargetSeekTime(
+          trackOutput, targetSeekTimeUs, extractedFrameIndex);
+    }
+  }
+
   // Internal methods
 
   private void readInputFileOnce(
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.mediacodec;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import android.media.MediaCodec;
+import android.media.MediaFormat;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link MediaCodecAsyncCallback}. */
+@RunWith(AndroidJUnit4.class)
+public final class MediaCodecAsyncCallbackTest {
+
+  private MediaCodecAsyncCallback callback;
+  private MediaCodec.BufferInfo bufferInfo;
+
+  @Before
+  public void setUp() {
+    callback = new MediaCodecAsyncCallback();
+    bufferInfo = new MediaCodec.BufferInfo();
+  }
+
+  @Test
+  public void testDequeueWithoutAvailableBuffers_returnsTryAgainLater() {
+    assertThat(callback.dequeueInputBufferIndex()).isEqualTo(MediaCodec.INFO_TRY_AGAIN_LATER);
+    assertThat(callback.dequeueOutputBufferIndex(bufferInfo))
+        .isEqualTo(MediaCodec.INFO_TRY_AGAIN_LATER);
+  }
+
+  @Test
+  public void testDequeueInputBufferIndex_returnsIndicesInOrder() {
+    callback.onInputBufferAvailable(/* codec= */ null, /* index= */ 2);
+    callback.onInputBufferAvailable(/* codec= */ null, /* index= */ 0);
+
+    assertThat(callback.dequeueInputBufferIndex()).isEqualTo(2);
+    assertThat(callback.dequeueInputBufferIndex()).isEqualTo(0);
+    assertThat(callback.dequeueInputBufferIndex()).isEqualTo(MediaCodec.INFO_TRY_AGAIN_LATER);
+  }
+
+  @Test
+  public void testDequeueOutputBufferIndex_populatesBufferInfo() {
+    callback.onOutputBufferAvailable(
+        /* codec= */ null, /* index= */ 1, createBufferInfo(/* presentationTimeUs= */ 1000));
+    callback.onOutputBufferAvailable(
+        /* codec= */ null, /* index= */ 3, createBufferInfo(/* presentationTimeUs= */ 2000));
+
+    assertThat(callback.dequeueOutputBufferIndex(bufferInfo)).isEqualTo(1);
+    assertThat(bufferInfo.presentationTimeUs).isEqualTo(1000);
+    assertThat(callback.dequeueOutputBufferIndex(bufferInfo)).isEqualTo(3);
+    assertThat(bufferInfo.presentationTimeUs).isEqualTo(2000);
+  }
+
+  @Test
+  public void testDequeueOutputBufferIndex_reportsFormatChangeBeforeFollowingBuffers() {
+    MediaFormat format1 = new MediaFormat();
+    MediaFormat format2 = new MediaFormat();
+    callback.onOutputFormatChanged(/* codec= */ null, format1);
+    callback.onOutputBufferAvailable(
+        /* codec= */ null, /* index= */ 0, createBufferInfo(/* presentationTimeUs= */ 0));
+    callback.onOutputFormatChanged(/* codec= */ null, format2);
+    callback.onOutputBufferAvailable(
+        /* codec= */ null, /* index= */ 1, createBufferInfo(/* presentationTimeUs= */ 1000));
+
+    assertThat(callback.dequeueOutputBufferIndex(bufferInfo))
+        .isEqualTo(MediaCodec.INFO_OUTPUT_FORMAT_CHANGED);
+    assertThat(callback.getOutputFormat()).isSameInstanceAs(format1);
+    assertThat(callback.dequeueOutputBufferIndex(bufferInfo)).isEqualTo(0);
+    // The second format is only reported once the buffers output with the first format are done.
+    assertThat(callback.getOutputFormat()).isSameInstanceAs(format1);
+    assertThat(callback.dequeueOutputBufferIndex(bufferInfo))
+        .isEqualTo(MediaCodec.INFO_OUTPUT_FORMAT_CHANGED);
+    assertThat(callback.getOutputFormat()).isSameInstanceAs(format2);
+    assertThat(callback.dequeueOutputBufferIndex(bufferInfo)).isEqualTo(1);
+  }
+
+  @Test
+  public void testFlush_discardsBuffersReportedBeforeFlush() {
+    callback.onInputBufferAvailable(/* codec= */ null, /* index= */ 0);
+    callback.onOutputBufferAvailable(
+        /* codec= */ null, /* index= */ 0, createBufferInfo(/* presentationTimeUs= */ 0));
+
+    callback.onFlushStarted();
+    callback.onInputBufferAvailable(/* codec= */ null, /* index= */ 1);
+    assertThat(callback.dequeueInputBufferIndex()).isEqualTo(MediaCodec.INFO_TRY_AGAIN_LATER);
+    callback.onFlushCompleted();
+    callback.onInputBufferAvailable(/* codec= */ null, /* index= */ 2);
+
+    assertThat(callback.dequeueInputBufferIndex()).isEqualTo(2);
+    assertThat(callback.dequeueInputBufferIndex()).isEqualTo(MediaCodec.INFO_TRY_AGAIN_LATER);
+    assertThat(callback.dequeueOutputBufferIndex(bufferInfo))
+        .isEqualTo(MediaCodec.INFO_TRY_AGAIN_LATER);
+  }
+
+  @Test
+  public void testFlush_keepsPendingFormatChange() {
+    MediaFormat format = new MediaFormat();
+    callback.onOutputFormatChanged(/* codec= */ null, format);
+
+    callback.onFlushStarted();
+    callback.onFlushCompleted();
+
+    assertThat(callback.dequeueOutputBufferIndex(bufferInfo))
+        .isEqualTo(MediaCodec.INFO_OUTPUT_FORMAT_CHANGED);
+    assertThat(callback.getOutputFormat()).isSameInstanceAs(format);
+  }
+
+  @Test
+  public void testDequeueAfterError_throwsError() {
+    IllegalStateException error = new IllegalStateException();
+    callback.onInputBufferAvailable(/* codec= */ null, /* index= */ 0);
+    callback.onMediaCodecError(error);
+
+    try {
+      callback.dequeueInputBufferIndex();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).isSameInstanceAs(error);
+    }
+  }
+
+  @Test
+  public void testBufferAvailableListener_afterTryAgainLater_isInvokedOnce() {
+    AtomicInteger notificationCount = new AtomicInteger();
+    callback.setBufferAvailableListener(notificationCount::incrementAndGet);
+    callback.onInputBufferAvailable(/* codec= */ null, /* index= */ 0);
+    callback.dequeueInputBufferIndex();
+    assertThat(notificationCount.get()).isEqualTo(0);
+
+    assertThat(callback.dequeueInputBufferIndex()).isEqualTo(MediaCodec.INFO_TRY_AGAIN_LATER);
+    callback.onInputBufferAvailable(/* codec= */ null, /* index= */ 1);
+    callback.onOutputBufferAvailable(
+        /* codec= */ null, /* index= */ 0, createBufferInfo(/* presentationTimeUs= */ 0));
+
+    assertThat(notificationCount.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testBufferAvailableListener_duringFlush_isNotInvoked() {
+    AtomicInteger notificationCount = new AtomicInteger();
+    callback.setBufferAvailableListener(notificationCount::incrementAndGet);
+    callback.dequeueOutputBufferIndex(bufferInfo);
+
+    callback.onFlushStarted();
+    callback.onOutputBufferAvailable(
+        /* codec= */ null, /* index= */ 0, createBufferInfo(/* presentationTimeUs= */ 0));
+    assertThat(notificationCount.get()).isEqualTo(0);
+    callback.onFlushCompleted();
+    callback.onInputBufferAvailable(/* codec= */ null, /* index= */ 0);
+
+    assertThat(notificationCount.get()).isEqualTo(1);
+  }
+
+  private static MediaCodec.BufferInfo createBufferInfo(long presentationTimeUs) {
+    MediaCodec.BufferInfo bufferInfo = new MediaCodec.BufferInfo();
+    bufferInfo.set(/* newOffset= */ 0, /* newSize= */ 10, presentationTimeUs, /* newFlags= */ 0);
+    return bufferInfo;
+  }
+}
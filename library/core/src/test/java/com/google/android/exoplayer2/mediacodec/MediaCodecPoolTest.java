@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.mediacodec;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.media.MediaCodec;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.testutil.FakeClock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link MediaCodecPool}. */
+@RunWith(AndroidJUnit4.class)
+public final class MediaCodecPoolTest {
+
+  private static final String CODEC_NAME_1 = "codec1";
+  private static final String CODEC_NAME_2 = "codec2";
+  private static final long MAX_IDLE_TIME_MS = 10_000;
+
+  private FakeClock clock;
+  private MediaCodecPool pool;
+
+  @Before
+  public void setUp() {
+    clock = new FakeClock(/* initialTimeMs= */ 0);
+    pool = new MediaCodecPool(/* maxPooledCodecCount= */ 2, MAX_IDLE_TIME_MS, clock);
+  }
+
+  @After
+  public void tearDown() {
+    pool.clear();
+  }
+
+  @Test
+  public void testObtainFromEmptyPool_returnsNull() {
+    assertThat(pool.obtainCodec(CODEC_NAME_1)).isNull();
+    assertThat(pool.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testObtainAfterReturn_returnsCodecWithSameName() throws Exception {
+    MediaCodec codec1 = MediaCodec.createByCodecName(CODEC_NAME_1);
+    MediaCodec codec2 = MediaCodec.createByCodecName(CODEC_NAME_2);
+    pool.returnCodec(CODEC_NAME_1, codec1);
+    pool.returnCodec(CODEC_NAME_2, codec2);
+
+    assertThat(pool.obtainCodec(CODEC_NAME_1)).isSameInstanceAs(codec1);
+    assertThat(pool.obtainCodec(CODEC_NAME_1)).isNull();
+    assertThat(pool.getPooledCodecCount()).isEqualTo(1);
+    assertThat(pool.getHitCount()).isEqualTo(1);
+    assertThat(pool.getMissCount()).isEqualTo(1);
+    codec1.release();
+  }
+
+  @Test
+  public void testReturnToFullPool_evictsLeastRecentlyReturnedCodec() throws Exception {
+    MediaCodec codec1 = MediaCodec.createByCodecName(CODEC_NAME_1);
+    MediaCodec codec2 = MediaCodec.createByCodecName(CODEC_NAME_2);
+    MediaCodec codec3 = MediaCodec.createByCodecName(CODEC_NAME_2);
+    pool.returnCodec(CODEC_NAME_1, codec1);
+    pool.returnCodec(CODEC_NAME_2, codec2);
+    pool.returnCodec(CODEC_NAME_2, codec3);
+
+    assertThat(pool.getPooledCodecCount()).isEqualTo(2);
+    assertThat(pool.obtainCodec(CODEC_NAME_1)).isNull();
+    assertThat(pool.obtainCodec(CODEC_NAME_2)).isSameInstanceAs(codec3);
+    assertThat(pool.obtainCodec(CODEC_NAME_2)).isSameInstanceAs(codec2);
+    codec2.release();
+    codec3.release();
+  }
+
+  @Test
+  public void testReturnAfterMaxIdleTime_releasesIdleCodecs() throws Exception {
+    MediaCodec codec1 = MediaCodec.createByCodecName(CODEC_NAME_1);
+    MediaCodec codec2 = MediaCodec.createByCodecName(CODEC_NAME_2);
+    pool.returnCodec(CODEC_NAME_1, codec1);
+    clock.advanceTime(MAX_IDLE_TIME_MS);
+
+    pool.returnCodec(CODEC_NAME_2, codec2);
+
+    assertThat(pool.getPooledCodecCount()).isEqualTo(1);
+    assertThat(pool.obtainCodec(CODEC_NAME_1)).isNull();
+    assertThat(pool.obtainCodec(CODEC_NAME_2)).isSameInstanceAs(codec2);
+    codec2.release();
+  }
+
+  @Test
+  public void testGetPooledCodecCount_afterMaxIdleTime_releasesIdleCodecs() throws Exception {
+    pool.returnCodec(CODEC_NAME_1, MediaCodec.createByCodecName(CODEC_NAME_1));
+    clock.advanceTime(MAX_IDLE_TIME_MS / 2);
+    pool.returnCodec(CODEC_NAME_2, MediaCodec.createByCodecName(CODEC_NAME_2));
+
+    clock.advanceTime(MAX_IDLE_TIME_MS / 2);
+    assertThat(pool.getPooledCodecCount()).isEqualTo(1);
+    clock.advanceTime(MAX_IDLE_TIME_MS / 2);
+    assertThat(pool.getPooledCodecCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testObtainAfterMaxIdleTime_returnsNull() throws Exception {
+    MediaCodec codec = MediaCodec.createByCodecName(CODEC_NAME_1);
+    pool.returnCodec(CODEC_NAME_1, codec);
+    assertThat(pool.obtainCodec(CODEC_NAME_1)).isSameInstanceAs(codec);
+    pool.returnCodec(CODEC_NAME_1, codec);
+
+    clock.advanceTime(MAX_IDLE_TIME_MS);
+
+    assertThat(pool.obtainCodec(CODEC_NAME_1)).isNull();
+  }
+
+  @Test
+  public void testClear_emptiesPool() throws Exception {
+    pool.returnCodec(CODEC_NAME_1, MediaCodec.createByCodecName(CODEC_NAME_1));
+
+    pool.clear();
+
+    assertThat(pool.getPooledCodecCount()).isEqualTo(0);
+    assertThat(pool.obtainCodec(CODEC_NAME_1)).isNull();
+  }
+}
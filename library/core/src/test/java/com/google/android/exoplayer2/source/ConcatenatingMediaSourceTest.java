@@ -186,6 +186,34 @@ public final class ConcatenatingMediaSourceTest {
     childSources[3].assertReleased();
   }
 
+  @Test
+  public void testBulkChangesInTheMiddle_keepWindowIndicesInEvents() throws IOException {
+    FakeMediaSource[] childSources = createMediaSources(6);
+    mediaSource.addMediaSources(Arrays.asList(childSources[0], childSources[1]));
+    Timeline timeline = testRunner.prepareSource();
+    TimelineAsserts.assertWindowTags(timeline, 111, 222);
+
+    // Insert a batch in the middle of the playlist.
+    mediaSource.addMediaSources(
+        /* index= */ 1, Arrays.asList(childSources[2], childSources[3], childSources[4]));
+    timeline = testRunner.assertTimelineChangeBlocking();
+    TimelineAsserts.assertWindowTags(timeline, 111, 333, 444, 555, 222);
+    testRunner.assertPrepareAndReleaseAllPeriods();
+    assertCompletedAllMediaPeriodLoads(timeline);
+
+    // Remove a range in the middle of the playlist and append another source.
+    mediaSource.removeMediaSourceRange(/* fromIndex= */ 1, /* toIndex= */ 3);
+    timeline = testRunner.assertTimelineChangeBlocking();
+    TimelineAsserts.assertWindowTags(timeline, 111, 555, 222);
+    childSources[2].assertReleased();
+    childSources[3].assertReleased();
+    mediaSource.addMediaSource(childSources[5]);
+    timeline = testRunner.assertTimelineChangeBlocking();
+    TimelineAsserts.assertWindowTags(timeline, 111, 555, 222, 666);
+    testRunner.assertPrepareAndReleaseAllPeriods();
+    assertCompletedAllMediaPeriodLoads(timeline);
+  }
+
   @Test
   public void testPlaylistChangesBeforePreparation() throws IOException, InterruptedException {
     FakeMediaSource[] childSources = createMediaSources(4);
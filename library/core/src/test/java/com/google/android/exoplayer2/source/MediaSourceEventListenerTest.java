@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.os.ConditionVariable;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import androidx.annotation.Nullable;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.source.MediaSource.MediaPeriodId;
+import com.google.android.exoplayer2.source.MediaSourceEventListener.EventDispatcher;
+import com.google.android.exoplayer2.source.MediaSourceEventListener.MediaLoadData;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link MediaSourceEventListener.EventDispatcher}. */
+@RunWith(AndroidJUnit4.class)
+public final class MediaSourceEventListenerTest {
+
+  private static final long TIMEOUT_MS = 10000;
+  private static final MediaPeriodId MEDIA_PERIOD_ID = new MediaPeriodId(/* periodUid= */ 0);
+
+  private EventDispatcher eventDispatcher;
+  private List<String> invokedListeners;
+
+  @Before
+  public void setUp() {
+    eventDispatcher =
+        new EventDispatcher()
+            .withParameters(/* windowIndex= */ 0, MEDIA_PERIOD_ID, /* mediaTimeOffsetMs= */ 0);
+    invokedListeners = new ArrayList<>();
+  }
+
+  @Test
+  public void testDispatch_invokesListenersSharingHandlerInOrder() {
+    Handler handler = new Handler(Looper.myLooper());
+    eventDispatcher.addEventListener(handler, new RecordingListener("listener1"));
+    eventDispatcher.addEventListener(handler, new RecordingListener("listener2"));
+    eventDispatcher.addEventListener(
+        new Handler(Looper.myLooper()), new RecordingListener("otherHandler"));
+
+    eventDispatcher.downstreamFormatChanged(
+        C.TRACK_TYPE_VIDEO,
+        /* trackFormat= */ null,
+        C.SELECTION_REASON_INITIAL,
+        /* trackSelectionData= */ null,
+        /* mediaTimeUs= */ 0);
+
+    assertThat(invokedListeners).containsExactly("listener1", "listener2", "otherHandler").inOrder();
+  }
+
+  @Test
+  public void testDispatch_invokesListenersGroupedByHandler() {
+    Handler handler1 = new Handler(Looper.myLooper());
+    Handler handler2 = new Handler(Looper.myLooper());
+    eventDispatcher.addEventListener(handler1, new RecordingListener("listener1"));
+    eventDispatcher.addEventListener(handler2, new RecordingListener("listener2"));
+    eventDispatcher.addEventListener(handler1, new RecordingListener("listener3"));
+
+    eventDispatcher.upstreamDiscarded(
+        C.TRACK_TYPE_VIDEO, /* mediaStartTimeUs= */ 0, /* mediaEndTimeUs= */ 1000);
+
+    assertThat(invokedListeners).containsExactly("listener1", "listener3", "listener2").inOrder();
+  }
+
+  @Test
+  public void testRemovedListener_isNotInvoked() {
+    Handler handler = new Handler(Looper.myLooper());
+    RecordingListener listener1 = new RecordingListener("listener1");
+    eventDispatcher.addEventListener(handler, listener1);
+    eventDispatcher.addEventListener(handler, new RecordingListener("listener2"));
+
+    eventDispatcher.removeEventListener(listener1);
+    eventDispatcher.upstreamDiscarded(
+        C.TRACK_TYPE_VIDEO, /* mediaStartTimeUs= */ 0, /* mediaEndTimeUs= */ 1000);
+
+    assertThat(invokedListeners).containsExactly("listener2");
+  }
+
+  @Test
+  public void testDispatch_toOtherThread_invokesListenersOnHandlerThread() throws Exception {
+    HandlerThread handlerThread = new HandlerThread("ExoPlayerTest");
+    handlerThread.start();
+    Handler handler = new Handler(handlerThread.getLooper());
+    ConditionVariable eventReceived = new ConditionVariable();
+    List<Thread> invokingThreads = new ArrayList<>();
+    MediaSourceEventListener listener =
+        new MediaSourceEventListener() {
+          @Override
+          public void onUpstreamDiscarded(
+              int windowIndex, MediaPeriodId mediaPeriodId, MediaLoadData mediaLoadData) {
+            invokingThreads.add(Thread.currentThread());
+            eventReceived.open();
+          }
+        };
+    eventDispatcher.addEventListener(handler, listener);
+
+    eventDispatcher.upstreamDiscarded(
+        C.TRACK_TYPE_VIDEO, /* mediaStartTimeUs= */ 0, /* mediaEndTimeUs= */ 1000);
+
+    assertThat(eventReceived.block(TIMEOUT_MS)).isTrue();
+    assertThat(invokingThreads).containsExactly(handlerThread);
+    handlerThread.quit();
+  }
+
+  @Test
+  public void testDispatch_toOtherThread_invokesListenersRegisteredAtDispatchTime()
+      throws Exception {
+    HandlerThread handlerThread = new HandlerThread("ExoPlayerTest");
+    handlerThread.start();
+    Handler handler = new Handler(handlerThread.getLooper());
+    ConditionVariable handlerUnblocked = new ConditionVariable();
+    ConditionVariable eventsHandled = new ConditionVariable();
+    RecordingListener listener1 = new RecordingListener("listener1");
+    eventDispatcher.addEventListener(handler, listener1);
+    // Block the handler thread so that the event stays pending while the listeners change.
+    handler.post(handlerUnblocked::block);
+
+    eventDispatcher.upstreamDiscarded(
+        C.TRACK_TYPE_VIDEO, /* mediaStartTimeUs= */ 0, /* mediaEndTimeUs= */ 1000);
+    eventDispatcher.addEventListener(handler, new RecordingListener("listener2"));
+    eventDispatcher.removeEventListener(listener1);
+    handlerUnblocked.open();
+    handler.post(eventsHandled::open);
+
+    assertThat(eventsHandled.block(TIMEOUT_MS)).isTrue();
+    assertThat(invokedListeners).containsExactly("listener1");
+    handlerThread.quit();
+  }
+
+  private final class RecordingListener implements MediaSourceEventListener {
+
+    private final String name;
+
+    public RecordingListener(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void onUpstreamDiscarded(
+        int windowIndex, MediaPeriodId mediaPeriodId, MediaLoadData mediaLoadData) {
+      invokedListeners.add(name);
+    }
+
+    @Override
+    public void onDownstreamFormatChanged(
+        int windowIndex, @Nullable MediaPeriodId mediaPeriodId, MediaLoadData mediaLoadData) {
+      invokedListeners.add(name);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.source.WeightedList.Node;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link WeightedList}. */
+@RunWith(AndroidJUnit4.class)
+public final class WeightedListTest {
+
+  @Test
+  public void testAdd_insertsElementsAtPositions() {
+    WeightedList<String> list = new WeightedList<>();
+
+    list.add(/* index= */ 0, "b", /* weight= */ 2);
+    list.add(/* index= */ 0, "a", /* weight= */ 1);
+    list.add(/* index= */ 2, "d", /* weight= */ 4);
+    list.add(/* index= */ 2, "c", /* weight= */ 3);
+
+    assertThat(list.size()).isEqualTo(4);
+    assertThat(list).containsExactly("a", "b", "c", "d").inOrder();
+    assertThat(list.get(2)).isEqualTo("c");
+  }
+
+  @Test
+  public void testIndexOfAndGetWeightBefore_afterInsertingBefore_areUpdated() {
+    WeightedList<String> list = new WeightedList<>();
+    Node<String> nodeB = list.add(/* index= */ 0, "b", /* weight= */ 2);
+    Node<String> nodeC = list.add(/* index= */ 1, "c", /* weight= */ 3);
+
+    list.add(/* index= */ 0, "a", /* weight= */ 5);
+
+    assertThat(list.indexOf(nodeB)).isEqualTo(1);
+    assertThat(list.getWeightBefore(nodeB)).isEqualTo(5);
+    assertThat(list.indexOf(nodeC)).isEqualTo(2);
+    assertThat(list.getWeightBefore(nodeC)).isEqualTo(7);
+  }
+
+  @Test
+  public void testSetWeight_updatesWeightBeforeFollowingElements() {
+    WeightedList<String> list = new WeightedList<>();
+    Node<String> nodeA = list.add(/* index= */ 0, "a", /* weight= */ 1);
+    list.add(/* index= */ 1, "b", /* weight= */ 2);
+    Node<String> nodeC = list.add(/* index= */ 2, "c", /* weight= */ 3);
+
+    list.setWeight(nodeA, /* weight= */ 10);
+
+    assertThat(list.getWeightBefore(nodeA)).isEqualTo(0);
+    assertThat(list.getWeightBefore(nodeC)).isEqualTo(12);
+  }
+
+  @Test
+  public void testRemoveRange_returnsRemovedElementsInOrder() {
+    WeightedList<String> list = new WeightedList<>();
+    Node<String> nodeA = list.add(/* index= */ 0, "a", /* weight= */ 1);
+    list.add(/* index= */ 1, "b", /* weight= */ 2);
+    list.add(/* index= */ 2, "c", /* weight= */ 3);
+    Node<String> nodeD = list.add(/* index= */ 3, "d", /* weight= */ 4);
+
+    List<String> removed = list.removeRange(/* fromIndex= */ 1, /* toIndex= */ 3);
+
+    assertThat(removed).containsExactly("b", "c").inOrder();
+    assertThat(list).containsExactly("a", "d").inOrder();
+    assertThat(list.indexOf(nodeA)).isEqualTo(0);
+    assertThat(list.indexOf(nodeD)).isEqualTo(1);
+    assertThat(list.getWeightBefore(nodeD)).isEqualTo(1);
+  }
+
+  @Test
+  public void testMove_keepsNodeAndUpdatesPositions() {
+    WeightedList<String> list = new WeightedList<>();
+    Node<String> nodeA = list.add(/* index= */ 0, "a", /* weight= */ 1);
+    Node<String> nodeB = list.add(/* index= */ 1, "b", /* weight= */ 2);
+    list.add(/* index= */ 2, "c", /* weight= */ 3);
+
+    list.move(/* currentIndex= */ 0, /* newIndex= */ 2);
+
+    assertThat(list).containsExactly("b", "c", "a").inOrder();
+    assertThat(list.indexOf(nodeA)).isEqualTo(2);
+    assertThat(list.getWeightBefore(nodeA)).isEqualTo(5);
+    assertThat(list.indexOf(nodeB)).isEqualTo(0);
+  }
+
+  @Test
+  public void testRandomOperations_matchArrayList() {
+    Random random = new Random(/* seed= */ 0);
+    WeightedList<Integer> list = new WeightedList<>();
+    List<Node<Integer>> expectedNodes = new ArrayList<>();
+    List<Integer> expectedWeights = new ArrayList<>();
+
+    for (int i = 0; i < 2000; i++) {
+      int size = expectedNodes.size();
+      int operation = size == 0 ? 0 : random.nextInt(4);
+      if (operation == 0) {
+        int index = random.nextInt(size + 1);
+        int weight = random.nextInt(5);
+        expectedNodes.add(index, list.add(index, /* element= */ i, weight));
+        expectedWeights.add(index, weight);
+      } else if (operation == 1) {
+        int fromIndex = random.nextInt(size);
+        int toIndex = fromIndex + random.nextInt(Math.min(size - fromIndex, 3) + 1);
+        list.removeRange(fromIndex, toIndex);
+        expectedNodes.subList(fromIndex, toIndex).clear();
+        expectedWeights.subList(fromIndex, toIndex).clear();
+      } else if (operation == 2) {
+        int currentIndex = random.nextInt(size);
+        int newIndex = random.nextInt(size);
+        list.move(currentIndex, newIndex);
+        expectedNodes.add(newIndex, expectedNodes.remove(currentIndex));
+        expectedWeights.add(newIndex, expectedWeights.remove(currentIndex));
+      } else {
+        int index = random.nextInt(size);
+        int weight = random.nextInt(5);
+        list.setWeight(expectedNodes.get(index), weight);
+        expectedWeights.set(index, weight);
+      }
+
+      assertThat(list.size()).isEqualTo(expectedNodes.size());
+      int weightBefore = 0;
+      for (int j = 0; j < expectedNodes.size(); j++) {
+        Node<Integer> node = expectedNodes.get(j);
+        assertThat(list.indexOf(node)).isEqualTo(j);
+        assertThat(list.getWeightBefore(node)).isEqualTo(weightBefore);
+        assertThat(list.get(j)).isEqualTo(node.element);
+        weightBefore += expectedWeights.get(j);
+      }
+    }
+  }
+}
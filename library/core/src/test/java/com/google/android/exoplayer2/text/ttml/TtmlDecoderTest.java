@@ -84,6 +84,39 @@ public final class TtmlDecoderTest {
     assertThat(firstPStyle.isUnderline()).isTrue();
   }
 
+  @Test
+  public void testGetCues_returnsCachedCuesWithinEventInterval()
+      throws IOException, SubtitleDecoderException {
+    TtmlSubtitle subtitle = getSubtitle(INLINE_ATTRIBUTES_TTML_FILE);
+
+    List<Cue> cues = subtitle.getCues(subtitle.getEventTime(0));
+
+    assertThat(cues).isNotEmpty();
+    assertThat(subtitle.getCues(subtitle.getEventTime(1) - 1)).isSameInstanceAs(cues);
+    assertThat(subtitle.getCues(subtitle.getEventTime(1))).isNotSameInstanceAs(cues);
+  }
+
+  @Test
+  public void testPrecomputeCues_returnsSameCuesAsLazySubtitle()
+      throws IOException, SubtitleDecoderException {
+    TtmlSubtitle lazySubtitle = getSubtitle(INLINE_ATTRIBUTES_TTML_FILE);
+    TtmlSubtitle precomputedSubtitle =
+        getSubtitle(INLINE_ATTRIBUTES_TTML_FILE, /* precomputeCues= */ true);
+
+    assertThat(precomputedSubtitle.getEventTimeCount())
+        .isEqualTo(lazySubtitle.getEventTimeCount());
+    for (int i = 0; i < lazySubtitle.getEventTimeCount(); i++) {
+      long timeUs = lazySubtitle.getEventTime(i);
+      List<Cue> lazyCues = lazySubtitle.getCues(timeUs);
+      List<Cue> precomputedCues = precomputedSubtitle.getCues(timeUs);
+      assertThat(precomputedCues).hasSize(lazyCues.size());
+      for (int j = 0; j < lazyCues.size(); j++) {
+        assertThat(String.valueOf(precomputedCues.get(j).text))
+            .isEqualTo(String.valueOf(lazyCues.get(j).text));
+      }
+    }
+  }
+
   @Test
   public void testInheritInlineAttributes() throws IOException, SubtitleDecoderException {
     TtmlSubtitle subtitle = getSubtitle(INLINE_ATTRIBUTES_TTML_FILE);
@@ -699,7 +732,12 @@ public final class TtmlDecoderTest {
   }
 
   private TtmlSubtitle getSubtitle(String file) throws IOException, SubtitleDecoderException {
-    TtmlDecoder ttmlDecoder = new TtmlDecoder();
+    return getSubtitle(file, /* precomputeCues= */ false);
+  }
+
+  private TtmlSubtitle getSubtitle(String file, boolean precomputeCues)
+      throws IOException, SubtitleDecoderException {
+    TtmlDecoder ttmlDecoder = new TtmlDecoder(precomputeCues);
     byte[] bytes = TestUtil.getByteArray(ApplicationProvider.getApplicationContext(), file);
     return (TtmlSubtitle) ttmlDecoder.decode(bytes, bytes.length, false);
   }
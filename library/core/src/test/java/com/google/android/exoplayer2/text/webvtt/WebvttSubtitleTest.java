@@ -226,6 +226,93 @@ public class WebvttSubtitleTest {
     assertSingleCueEmpty(nestedSubtitle.getCues(Long.MAX_VALUE));
   }
 
+  @Test
+  public void testUnsortedSubtitleText_keepsCueOrder() {
+    ArrayList<WebvttCue> cues = new ArrayList<>();
+    cues.add(
+        new WebvttCue.Builder()
+            .setStartTime(2000000)
+            .setEndTime(3000000)
+            .setText(FIRST_SUBTITLE_STRING)
+            .build());
+    cues.add(
+        new WebvttCue.Builder()
+            .setStartTime(1000000)
+            .setEndTime(4000000)
+            .setText(SECOND_SUBTITLE_STRING)
+            .build());
+    WebvttSubtitle subtitle = new WebvttSubtitle(cues);
+
+    assertSingleCueTextEquals(SECOND_SUBTITLE_STRING, subtitle.getCues(1000000));
+    assertSingleCueTextEquals(
+        FIRST_SUBTITLE_STRING + "\n" + SECOND_SUBTITLE_STRING, subtitle.getCues(2500000));
+    assertSingleCueTextEquals(SECOND_SUBTITLE_STRING, subtitle.getCues(3000000));
+  }
+
+  @Test
+  public void testLongSubtitle_returnsActiveCues() {
+    ArrayList<WebvttCue> cues = new ArrayList<>();
+    // A cue spanning the whole subtitle, followed by many short cues.
+    cues.add(
+        new WebvttCue.Builder()
+            .setStartTime(0)
+            .setEndTime(100_000_000)
+            .setText(FIRST_SUBTITLE_STRING)
+            .setLine(0)
+            .build());
+    for (int i = 0; i < 10_000; i++) {
+      cues.add(
+          new WebvttCue.Builder()
+              .setStartTime(i * 10_000L)
+              .setEndTime((i + 1) * 10_000L)
+              .setText(Integer.toString(i))
+              .build());
+    }
+    WebvttSubtitle subtitle = new WebvttSubtitle(cues);
+
+    List<Cue> activeCues = subtitle.getCues(/* timeUs= */ 55_555_000);
+
+    assertThat(activeCues).hasSize(2);
+    assertThat(activeCues.get(0).text.toString()).isEqualTo(FIRST_SUBTITLE_STRING);
+    assertThat(activeCues.get(1).text.toString()).isEqualTo("5555");
+    assertThat(subtitle.getCues(/* timeUs= */ 55_559_999)).isSameInstanceAs(activeCues);
+    assertThat(subtitle.getCues(/* timeUs= */ 100_000_000)).isEmpty();
+  }
+
+  @Test
+  public void testSubtitleWithCueSpanningFile_returnsActiveCuesInEachInterval() {
+    ArrayList<WebvttCue> cues = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      cues.add(
+          new WebvttCue.Builder()
+              .setStartTime(1_000_000 + i * 20_000L)
+              .setEndTime(1_000_000 + i * 20_000L + 10_000)
+              .setText(Integer.toString(i))
+              .setLine(i)
+              .build());
+    }
+    // A cue spanning the whole file, listed last.
+    cues.add(
+        new WebvttCue.Builder()
+            .setStartTime(0)
+            .setEndTime(10_000_000)
+            .setText(FIRST_SUBTITLE_STRING)
+            .build());
+    WebvttSubtitle subtitle = new WebvttSubtitle(cues);
+
+    assertSingleCueTextEquals(FIRST_SUBTITLE_STRING, subtitle.getCues(0));
+    for (int i = 0; i < 100; i++) {
+      long startTimeUs = 1_000_000 + i * 20_000L;
+      List<Cue> activeCues = subtitle.getCues(startTimeUs + 5_000);
+      assertThat(activeCues).hasSize(2);
+      assertThat(activeCues.get(0).text.toString()).isEqualTo(Integer.toString(i));
+      assertThat(activeCues.get(1).text.toString()).isEqualTo(FIRST_SUBTITLE_STRING);
+      assertSingleCueTextEquals(FIRST_SUBTITLE_STRING, subtitle.getCues(startTimeUs + 10_000));
+    }
+    assertSingleCueTextEquals(FIRST_SUBTITLE_STRING, subtitle.getCues(9_999_999));
+    assertSingleCueEmpty(subtitle.getCues(10_000_000));
+  }
+
   private void testSubtitleEventTimesHelper(WebvttSubtitle subtitle) {
     assertThat(subtitle.getEventTime(0)).isEqualTo(1000000);
     assertThat(subtitle.getEventTime(1)).isEqualTo(2000000);
@@ -1571,6 +1571,23 @@ public final class DefaultTrackSelectorTest {
     assertAdaptiveSelection(result.selections.get(0), trackGroups.get(0), 1, 2);
   }
 
+  @Test
+  public void testSelectTracksWithTrickPlayVideoTracks_selectsMainVideoTracks() throws Exception {
+    Format trickPlayFormat1 = buildTrickPlayVideoFormat("trickPlay1");
+    Format trickPlayFormat2 = buildTrickPlayVideoFormat("trickPlay2");
+    Format mainFormat = buildVideoFormat("main");
+    TrackGroupArray trackGroups =
+        new TrackGroupArray(
+            new TrackGroup(trickPlayFormat1, trickPlayFormat2), new TrackGroup(mainFormat));
+
+    TrackSelectorResult result =
+        trackSelector.selectTracks(
+            new RendererCapabilities[] {VIDEO_CAPABILITIES}, trackGroups, periodId, TIMELINE);
+
+    assertThat(result.length).isEqualTo(1);
+    assertFixedSelection(result.selections.get(0), trackGroups, mainFormat);
+  }
+
   private static void assertSelections(TrackSelectorResult result, TrackSelection[] expected) {
     assertThat(result.length).isEqualTo(expected.length);
     for (int i = 0; i < expected.length; i++) {
@@ -1649,6 +1666,23 @@ public final class DefaultTrackSelectorTest {
     return buildVideoFormatWithMimeType(id, MimeTypes.VIDEO_H264);
   }
 
+  private static Format buildTrickPlayVideoFormat(String id) {
+    return Format.createVideoContainerFormat(
+        id,
+        /* label= */ null,
+        /* containerMimeType= */ null,
+        MimeTypes.VIDEO_H264,
+        /* codecs= */ null,
+        /* metadata= */ null,
+        /* bitrate= */ Format.NO_VALUE,
+        /* width= */ 1920,
+        /* height= */ 1080,
+        /* frameRate= */ Format.NO_VALUE,
+        /* initializationData= */ null,
+        /* selectionFlags= */ 0,
+        C.ROLE_FLAG_TRICK_PLAY);
+  }
+
   private static Format buildAudioFormatWithLanguage(String id, String language) {
     return buildAudioFormatWithLanguageAndFlags(id, language, /* selectionFlags= */ 0);
   }
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.upstream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import android.net.Uri;
+import androidx.annotation.Nullable;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.HttpDataSource.InvalidResponseCodeException;
+import com.google.android.exoplayer2.util.Util;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link ParsingLoadable}. */
+@RunWith(AndroidJUnit4.class)
+public final class ParsingLoadableTest {
+
+  private static final Uri URI = Uri.parse("https://example.com/manifest.mpd");
+
+  private FakeHttpDataSource dataSource;
+  private CountingParser parser;
+
+  @Before
+  public void setUp() {
+    dataSource = new FakeHttpDataSource();
+    parser = new CountingParser();
+  }
+
+  @Test
+  public void testReload_withValidators_makesConditionalRequest() throws IOException {
+    dataSource.setResponse("manifest", "ETag", "\"v1\"", "Last-Modified", "Mon, 1 Jan 2019");
+    ParsingLoadable<String> loadable = createLoadable(/* previousLoadable= */ null);
+    loadable.load();
+
+    ParsingLoadable<String> reloadable = createLoadable(loadable);
+    reloadable.load();
+
+    assertThat(dataSource.lastDataSpec.httpRequestHeaders)
+        .containsExactly("If-None-Match", "\"v1\"", "If-Modified-Since", "Mon, 1 Jan 2019");
+  }
+
+  @Test
+  public void testReload_notModified_reusesPreviousResult() throws IOException {
+    dataSource.setResponse("manifest", "ETag", "\"v1\"");
+    ParsingLoadable<String> loadable = createLoadable(/* previousLoadable= */ null);
+    loadable.load();
+
+    dataSource.setNotModified();
+    ParsingLoadable<String> reloadable = createLoadable(loadable);
+    reloadable.load();
+    // The validators of the original response are used again after a 304 response.
+    ParsingLoadable<String> secondReloadable = createLoadable(reloadable);
+    secondReloadable.load();
+
+    assertThat(reloadable.getResult()).isSameInstanceAs(loadable.getResult());
+    assertThat(secondReloadable.getResult()).isSameInstanceAs(loadable.getResult());
+    assertThat(dataSource.lastDataSpec.httpRequestHeaders).containsEntry("If-None-Match", "\"v1\"");
+    assertThat(parser.parseCount).isEqualTo(1);
+  }
+
+  @Test
+  public void testReload_withIdenticalContent_reusesPreviousResult() throws IOException {
+    dataSource.setResponse("manifest");
+    ParsingLoadable<String> loadable = createLoadable(/* previousLoadable= */ null);
+    loadable.load();
+    // The first reload computes the content hash that subsequent reloads are compared with.
+    ParsingLoadable<String> reloadable = createLoadable(loadable);
+    reloadable.load();
+
+    ParsingLoadable<String> secondReloadable = createLoadable(reloadable);
+    secondReloadable.load();
+
+    assertThat(secondReloadable.getResult()).isSameInstanceAs(reloadable.getResult());
+    assertThat(secondReloadable.bytesLoaded()).isEqualTo(8);
+    assertThat(parser.parseCount).isEqualTo(2);
+  }
+
+  @Test
+  public void testReload_withChangedContent_parsesResponse() throws IOException {
+    dataSource.setResponse("manifest1");
+    ParsingLoadable<String> loadable = createLoadable(/* previousLoadable= */ null);
+    loadable.load();
+    ParsingLoadable<String> reloadable = createLoadable(loadable);
+    reloadable.load();
+
+    dataSource.setResponse("manifest2");
+    ParsingLoadable<String> secondReloadable = createLoadable(reloadable);
+    secondReloadable.load();
+
+    assertThat(secondReloadable.getResult()).isEqualTo("manifest2");
+    assertThat(parser.parseCount).isEqualTo(3);
+  }
+
+  @Test
+  public void testLoad_notModifiedWithoutPreviousLoad_throws() throws IOException {
+    dataSource.setNotModified();
+    ParsingLoadable<String> loadable = createLoadable(/* previousLoadable= */ null);
+
+    try {
+      loadable.load();
+      fail();
+    } catch (InvalidResponseCodeException e) {
+      assertThat(e.responseCode).isEqualTo(304);
+    }
+    assertThat(dataSource.lastDataSpec.httpRequestHeaders).isEmpty();
+  }
+
+  private ParsingLoadable<String> createLoadable(
+      @Nullable ParsingLoadable<String> previousLoadable) {
+    return new ParsingLoadable<>(
+        dataSource, new DataSpec(URI), C.DATA_TYPE_MANIFEST, parser, previousLoadable);
+  }
+
+  private static final class CountingParser implements ParsingLoadable.Parser<String> {
+
+    public int parseCount;
+
+    @Override
+    public String parse(Uri uri, InputStream inputStream) throws IOException {
+      parseCount++;
+      return Util.fromUtf8Bytes(Util.toByteArray(inputStream));
+    }
+  }
+
+  /** A fake HTTP data source that serves a single resource. */
+  private static final class FakeHttpDataSource implements DataSource {
+
+    @Nullable public DataSpec lastDataSpec;
+
+    private byte[] data;
+    private Map<String, List<String>> responseHeaders;
+    private boolean notModified;
+    private int readPosition;
+    @Nullable private Uri uri;
+
+    public FakeHttpDataSource() {
+      data = new byte[0];
+      responseHeaders = Collections.emptyMap();
+    }
+
+    /** Sets the response body, followed by pairs of response header names and values. */
+    public void setResponse(String body, String... headerNamesAndValues) {
+      data = Util.getUtf8Bytes(body);
+      responseHeaders = new HashMap<>();
+      for (int i = 0; i < headerNamesAndValues.length; i += 2) {
+        responseHeaders.put(
+            headerNamesAndValues[i], Collections.singletonList(headerNamesAndValues[i + 1]));
+      }
+      notModified = false;
+    }
+
+    public void setNotModified() {
+      notModified = true;
+    }
+
+    @Override
+    public void addTransferListener(TransferListener transferListener) {
+      // Do nothing.
+    }
+
+    @Override
+    public long open(DataSpec dataSpec) throws IOException {
+      lastDataSpec = dataSpec;
+      if (notModified) {
+        throw new InvalidResponseCodeException(
+            /* responseCode= */ 304, Collections.emptyMap(), dataSpec);
+      }
+      uri = dataSpec.uri;
+      readPosition = 0;
+      return data.length;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int readLength) {
+      if (readPosition == data.length) {
+        return C.RESULT_END_OF_INPUT;
+      }
+      int bytesToRead = Math.min(readLength, data.length - readPosition);
+      System.arraycopy(data, readPosition, buffer, offset, bytesToRead);
+      readPosition += bytesToRead;
+      return bytesToRead;
+    }
+
+    @Override
+    @Nullable
+    public Uri getUri() {
+      return uri;
+    }
+
+    @Override
+    public Map<String, List<String>> getResponseHeaders() {
+      return responseHeaders;
+    }
+
+    @Override
+    public void close() {
+      uri = null;
+    }
+  }
+}
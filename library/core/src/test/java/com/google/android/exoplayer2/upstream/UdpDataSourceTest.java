@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.upstream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import android.net.Uri;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.UdpDataSource.UdpDataSourceException;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link UdpDataSource}. */
+@RunWith(AndroidJUnit4.class)
+public final class UdpDataSourceTest {
+
+  private static final int TS_PACKET_SIZE = 188;
+  private static final int TIMEOUT_MS = 10000;
+
+  private DatagramSocket senderSocket;
+  private int port;
+  private UdpDataSource dataSource;
+
+  @Before
+  public void setUp() throws IOException {
+    senderSocket = new DatagramSocket();
+    try (DatagramSocket socket = new DatagramSocket(/* port= */ 0)) {
+      port = socket.getLocalPort();
+    }
+  }
+
+  @After
+  public void tearDown() {
+    if (dataSource != null) {
+      dataSource.close();
+    }
+    senderSocket.close();
+  }
+
+  @Test
+  public void testRead_atHighPacketRate_returnsAllPacketsInOrder() throws IOException {
+    int packetCount = 1000;
+    dataSource =
+        new UdpDataSource(
+            UdpDataSource.DEFAULT_MAX_PACKET_SIZE,
+            TIMEOUT_MS,
+            /* maxBufferedPacketCount= */ packetCount,
+            // The kernel accounts for per-packet overhead, so the buffer is larger than the data.
+            /* socketReceiveBufferSize= */ 2 * 1024 * 1024,
+            /* flags= */ 0);
+    open();
+
+    // Send all packets before reading, as a reader that falls behind would.
+    for (int i = 0; i < packetCount; i++) {
+      send(buildPacketData(i));
+    }
+
+    for (int i = 0; i < packetCount; i++) {
+      assertThat(readPacket(TS_PACKET_SIZE)).isEqualTo(buildPacketData(i));
+    }
+    assertThat(dataSource.getOverrunPacketCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testRead_withPartialReads_returnsPacketData() throws IOException {
+    dataSource = new UdpDataSource();
+    open();
+    byte[] packetData = buildPacketData(/* index= */ 0);
+    send(packetData);
+
+    byte[] data = new byte[TS_PACKET_SIZE];
+    int bytesRead = dataSource.read(data, /* offset= */ 0, /* readLength= */ 100);
+    bytesRead += dataSource.read(data, bytesRead, TS_PACKET_SIZE - bytesRead);
+
+    assertThat(bytesRead).isEqualTo(TS_PACKET_SIZE);
+    assertThat(data).isEqualTo(packetData);
+  }
+
+  @Test
+  public void testRead_afterReopening_returnsPacketData() throws IOException {
+    dataSource = new UdpDataSource();
+    open();
+    send(buildPacketData(/* index= */ 0));
+    readPacket(TS_PACKET_SIZE);
+    dataSource.close();
+
+    open();
+    byte[] packetData = buildPacketData(/* index= */ 1);
+    send(packetData);
+
+    assertThat(readPacket(TS_PACKET_SIZE)).isEqualTo(packetData);
+  }
+
+  @Test
+  public void testRead_withFullPacketBuffer_dropsAndCountsPackets() throws Exception {
+    dataSource =
+        new UdpDataSource(
+            UdpDataSource.DEFAULT_MAX_PACKET_SIZE,
+            TIMEOUT_MS,
+            /* maxBufferedPacketCount= */ 2,
+            /* socketReceiveBufferSize= */ C.LENGTH_UNSET,
+            /* flags= */ 0);
+    open();
+
+    for (int i = 0; i < 5; i++) {
+      send(buildPacketData(i));
+    }
+    waitForOverrunPacketCount(3);
+
+    assertThat(dataSource.getOverrunPacketCount()).isEqualTo(3);
+    assertThat(readPacket(TS_PACKET_SIZE)).isEqualTo(buildPacketData(0));
+    assertThat(readPacket(TS_PACKET_SIZE)).isEqualTo(buildPacketData(1));
+  }
+
+  @Test
+  public void testRead_withRtpPackets_stripsHeadersAndReordersPayloads() throws Exception {
+    // Sequence number 3 is lost, 65535 and 1 arrive out of order and 0 is duplicated.
+    int[] sequenceNumbers = new int[] {65534, 0, 65535, 2, 0, 1, 4};
+    dataSource =
+        new UdpDataSource(
+            UdpDataSource.DEFAULT_MAX_PACKET_SIZE,
+            TIMEOUT_MS,
+            /* maxBufferedPacketCount= */ sequenceNumbers.length,
+            /* socketReceiveBufferSize= */ C.LENGTH_UNSET,
+            UdpDataSource.FLAG_STRIP_RTP_HEADERS);
+    open();
+
+    for (int sequenceNumber : sequenceNumbers) {
+      send(buildRtpPacket(sequenceNumber, buildPacketData(sequenceNumber)));
+    }
+    // Once an additional packet overruns the buffer, all of the packets above have been received.
+    send(buildRtpPacket(/* sequenceNumber= */ 5, buildPacketData(/* index= */ 5)));
+    waitForOverrunPacketCount(1);
+
+    int[] expectedSequenceNumbers = new int[] {65534, 65535, 0, 1, 2, 4};
+    for (int sequenceNumber : expectedSequenceNumbers) {
+      assertThat(readPacket(TS_PACKET_SIZE)).isEqualTo(buildPacketData(sequenceNumber));
+    }
+    assertThat(dataSource.getLostPacketCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testRead_withoutPackets_timesOut() throws IOException {
+    dataSource =
+        new UdpDataSource(UdpDataSource.DEFAULT_MAX_PACKET_SIZE, /* socketTimeoutMillis= */ 50);
+    open();
+
+    try {
+      dataSource.read(new byte[TS_PACKET_SIZE], /* offset= */ 0, TS_PACKET_SIZE);
+      fail();
+    } catch (UdpDataSourceException e) {
+      assertThat(e.getCause()).isInstanceOf(SocketTimeoutException.class);
+    }
+  }
+
+  private void open() throws IOException {
+    dataSource.open(new DataSpec(Uri.parse("udp://127.0.0.1:" + port)));
+  }
+
+  private void waitForOverrunPacketCount(long overrunPacketCount) throws InterruptedException {
+    long deadlineMs = System.currentTimeMillis() + TIMEOUT_MS;
+    while (dataSource.getOverrunPacketCount() < overrunPacketCount
+        && System.currentTimeMillis() < deadlineMs) {
+      Thread.sleep(10);
+    }
+  }
+
+  private void send(byte[] data) throws IOException {
+    senderSocket.send(
+        new DatagramPacket(data, data.length, InetAddress.getByName("127.0.0.1"), port));
+  }
+
+  private byte[] readPacket(int length) throws IOException {
+    byte[] data = new byte[length];
+    int position = 0;
+    while (position < length) {
+      position += dataSource.read(data, position, length - position);
+    }
+    return data;
+  }
+
+  private static byte[] buildPacketData(int index) {
+    byte[] data = new byte[TS_PACKET_SIZE];
+    Arrays.fill(data, (byte) index);
+    data[0] = 0x47;
+    data[1] = (byte) (index >> 8);
+    return data;
+  }
+
+  private static byte[] buildRtpPacket(int sequenceNumber, byte[] payload) {
+    // Version 2, with one CSRC identifier and padding.
+    byte[] csrc = new byte[4];
+    int paddingLength = 3;
+    byte[] packet = new byte[12 + csrc.length + payload.length + paddingLength];
+    packet[0] = (byte) 0xA1;
+    packet[1] = 33; // MP2T payload type.
+    packet[2] = (byte) (sequenceNumber >> 8);
+    packet[3] = (byte) sequenceNumber;
+    System.arraycopy(payload, 0, packet, 12 + csrc.length, payload.length);
+    packet[packet.length - 1] = (byte) paddingLength;
+    return packet;
+  }
+}
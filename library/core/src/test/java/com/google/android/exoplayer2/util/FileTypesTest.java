@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.util;
+
+import static com.google.android.exoplayer2.util.FileTypes.inferFileTypeFromMimeType;
+import static com.google.android.exoplayer2.util.FileTypes.inferFileTypeFromResponseHeaders;
+import static com.google.android.exoplayer2.util.FileTypes.inferFileTypeFromUri;
+import static com.google.common.truth.Truth.assertThat;
+
+import android.net.Uri;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit test for {@link FileTypes}. */
+@RunWith(AndroidJUnit4.class)
+public final class FileTypesTest {
+
+  @Test
+  public void testInferFileFormat_fromResponseHeaders_returnsExpectedFormat() {
+    Map<String, List<String>> responseHeaders = new HashMap<>();
+    responseHeaders.put("Content-Type", Collections.singletonList(MimeTypes.VIDEO_MP4));
+
+    assertThat(inferFileTypeFromResponseHeaders(responseHeaders)).isEqualTo(FileTypes.MP4);
+  }
+
+  @Test
+  public void testInferFileFormat_fromResponseHeadersWithDifferentCase_returnsExpectedFormat() {
+    Map<String, List<String>> responseHeaders = new HashMap<>();
+    responseHeaders.put("content-type", Collections.singletonList("video/MP2T"));
+
+    assertThat(inferFileTypeFromResponseHeaders(responseHeaders)).isEqualTo(FileTypes.TS);
+  }
+
+  @Test
+  public void testInferFileFormat_fromResponseHeadersWithoutContentType_returnsUnknown() {
+    assertThat(inferFileTypeFromResponseHeaders(new HashMap<>())).isEqualTo(FileTypes.UNKNOWN);
+  }
+
+  @Test
+  public void testInferFileFormat_fromMimeType_returnsExpectedFormat() {
+    assertThat(inferFileTypeFromMimeType("audio/x-flac")).isEqualTo(FileTypes.UNKNOWN);
+    assertThat(inferFileTypeFromMimeType(MimeTypes.AUDIO_FLAC)).isEqualTo(FileTypes.FLAC);
+    assertThat(inferFileTypeFromMimeType(MimeTypes.AUDIO_MPEG)).isEqualTo(FileTypes.MP3);
+    assertThat(inferFileTypeFromMimeType(MimeTypes.VIDEO_WEBM)).isEqualTo(FileTypes.MATROSKA);
+    assertThat(inferFileTypeFromMimeType("audio/wav; codecs=1")).isEqualTo(FileTypes.WAV);
+  }
+
+  @Test
+  public void testInferFileFormat_fromNullMimeType_returnsUnknown() {
+    assertThat(inferFileTypeFromMimeType(null)).isEqualTo(FileTypes.UNKNOWN);
+  }
+
+  @Test
+  public void testInferFileFormat_fromUri_returnsExpectedFormat() {
+    assertThat(inferFileTypeFromUri(Uri.parse("http://a.b/c.ac3"))).isEqualTo(FileTypes.AC3);
+    assertThat(inferFileTypeFromUri(Uri.parse("http://a.b/c.aac"))).isEqualTo(FileTypes.ADTS);
+    assertThat(inferFileTypeFromUri(Uri.parse("http://a.b/c.mka"))).isEqualTo(FileTypes.MATROSKA);
+    assertThat(inferFileTypeFromUri(Uri.parse("http://a.b/c.m4a"))).isEqualTo(FileTypes.MP4);
+    assertThat(inferFileTypeFromUri(Uri.parse("http://a.b/c.ogg?d=e"))).isEqualTo(FileTypes.OGG);
+    assertThat(inferFileTypeFromUri(Uri.parse("http://a.b/c.ts"))).isEqualTo(FileTypes.TS);
+    assertThat(inferFileTypeFromUri(Uri.parse("http://a.b/c.WAV"))).isEqualTo(FileTypes.WAV);
+  }
+
+  @Test
+  public void testInferFileFormat_fromUriWithoutKnownExtension_returnsUnknown() {
+    assertThat(inferFileTypeFromUri(Uri.parse("http://a.b/c"))).isEqualTo(FileTypes.UNKNOWN);
+    assertThat(inferFileTypeFromUri(Uri.parse("http://a.b/c.tsv"))).isEqualTo(FileTypes.UNKNOWN);
+    assertThat(inferFileTypeFromUri(Uri.EMPTY)).isEqualTo(FileTypes.UNKNOWN);
+  }
+}
@@ -20,7 +20,10 @@ import static com.google.common.truth.Truth.assertThat;
 
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -120,6 +123,39 @@ public final class NalUnitUtilTest {
     assertPrefixFlagsCleared(prefixFlags);
   }
 
+  @Test
+  public void testFindNalUnitWithPrefix_acrossRandomSplits_findsAllNalUnits() {
+    Random random = new Random(/* seed= */ 0);
+    byte[] data = buildEscapedStreamData(random, /* length= */ 100_000);
+    List<Integer> expectedPositions = new ArrayList<>();
+    for (int i = 0; i < data.length - 2; i++) {
+      if (data[i] == 0 && data[i + 1] == 0 && data[i + 2] == 1) {
+        expectedPositions.add(i);
+      }
+    }
+
+    for (int iteration = 0; iteration < 10; iteration++) {
+      List<Integer> positions = new ArrayList<>();
+      boolean[] prefixFlags = new boolean[3];
+      int chunkStart = 0;
+      while (chunkStart < data.length) {
+        // Pass the data in chunks of varying size, including chunks shorter than a start code.
+        int chunkEnd = Math.min(data.length, chunkStart + 1 + random.nextInt(iteration * 40 + 4));
+        int offset = chunkStart;
+        while (true) {
+          int nalUnitOffset = NalUnitUtil.findNalUnit(data, offset, chunkEnd, prefixFlags);
+          if (nalUnitOffset == chunkEnd) {
+            break;
+          }
+          positions.add(nalUnitOffset);
+          offset = nalUnitOffset + 3;
+        }
+        chunkStart = chunkEnd;
+      }
+      assertThat(positions).isEqualTo(expectedPositions);
+    }
+  }
+
   @Test
   public void testParseSpsNalUnit() {
     NalUnitUtil.SpsData data = NalUnitUtil.parseSpsNalUnit(SPS_TEST_DATA, SPS_TEST_DATA_OFFSET,
@@ -183,6 +219,22 @@ public final class NalUnitUtilTest {
     return data;
   }
 
+  /**
+   * Returns random data that contains start codes and zero runs, with emulation prevention bytes
+   * inserted as in slice data.
+   */
+  private static byte[] buildEscapedStreamData(Random random, int length) {
+    byte[] data = new byte[length];
+    for (int i = 0; i < length; i++) {
+      int value = random.nextInt(4) == 0 ? random.nextInt(2) : random.nextInt(256);
+      if (i >= 2 && data[i - 2] == 0 && data[i - 1] == 0 && value <= 3) {
+        value = random.nextInt(4) == 0 ? 1 : 3;
+      }
+      data[i] = (byte) value;
+    }
+    return data;
+  }
+
   private static void assertPrefixFlagsCleared(boolean[] flags) {
     assertThat(flags[0] || flags[1] || flags[2]).isEqualTo(false);
   }
@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.video;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.graphics.SurfaceTexture;
+import android.media.MediaCodec;
+import android.os.SystemClock;
+import android.view.Surface;
+import androidx.annotation.Nullable;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.ExoPlaybackException;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.FormatHolder;
+import com.google.android.exoplayer2.RendererConfiguration;
+import com.google.android.exoplayer2.decoder.DecoderCounters;
+import com.google.android.exoplayer2.decoder.DecoderInputBuffer;
+import com.google.android.exoplayer2.mediacodec.MediaCodecInfo;
+import com.google.android.exoplayer2.mediacodec.MediaCodecPool;
+import com.google.android.exoplayer2.mediacodec.MediaCodecSelector;
+import com.google.android.exoplayer2.source.SampleStream;
+import com.google.android.exoplayer2.util.MimeTypes;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/** Unit tests for {@link MediaCodecVideoRenderer}. */
+@RunWith(AndroidJUnit4.class)
+public final class MediaCodecVideoRendererTest {
+
+  private static final String CODEC_NAME = "fake.video.decoder";
+  private static final long SAMPLE_DURATION_US = 10_000;
+  private static final Format VIDEO_FORMAT =
+      Format.createVideoSampleFormat(
+          /* id= */ null,
+          MimeTypes.VIDEO_H264,
+          /* codecs= */ null,
+          /* bitrate= */ Format.NO_VALUE,
+          /* maxInputSize= */ Format.NO_VALUE,
+          /* width= */ 1920,
+          /* height= */ 1080,
+          /* frameRate= */ Format.NO_VALUE,
+          /* initializationData= */ null,
+          /* drmInitData= */ null);
+  // Two groups of pictures of five samples each, starting with a key frame.
+  private static final boolean[] SAMPLE_IS_KEY_FRAME =
+      new boolean[] {true, false, false, false, false, true, false, false, false, false};
+
+  @Mock private MediaCodec codec;
+
+  private MediaCodecPool codecPool;
+  private Surface surface;
+  private TestMediaCodecVideoRenderer renderer;
+
+  @Before
+  public void setUp() throws Exception {
+    MockitoAnnotations.initMocks(this);
+    when(codec.dequeueInputBuffer(anyLong())).thenReturn(0);
+    when(codec.getInputBuffer(0)).thenReturn(ByteBuffer.allocate(1024));
+    when(codec.dequeueOutputBuffer(any(), anyLong())).thenReturn(MediaCodec.INFO_TRY_AGAIN_LATER);
+    // The renderer obtains the mocked codec from the pool instead of creating a platform codec.
+    codecPool = new MediaCodecPool();
+    codecPool.returnCodec(CODEC_NAME, codec);
+    surface = new Surface(new SurfaceTexture(/* texName= */ 0));
+    renderer = new TestMediaCodecVideoRenderer();
+    renderer.experimental_setMediaCodecPool(codecPool);
+    renderer.handleMessage(C.MSG_SET_SURFACE, surface);
+  }
+
+  @After
+  public void tearDown() {
+    renderer.disable();
+    codecPool.clear();
+    surface.release();
+  }
+
+  @Test
+  public void testRender_belowKeyFrameOnlyDecodingSpeedThreshold_queuesAllSamples()
+      throws Exception {
+    renderer.experimental_setKeyFrameOnlyDecodingSpeedThreshold(/* speedThreshold= */ 2f);
+    enableRenderer(RendererConfiguration.DEFAULT);
+
+    renderer.setOperatingRate(/* operatingRate= */ 1.5f);
+    render();
+
+    assertThat(getQueuedSampleTimesUs()).hasSize(SAMPLE_IS_KEY_FRAME.length);
+    assertThat(renderer.getDecoderCounters().skippedInputBufferCount).isEqualTo(0);
+  }
+
+  @Test
+  public void testRender_aboveKeyFrameOnlyDecodingSpeedThreshold_skipsNonKeyFrames()
+      throws Exception {
+    renderer.experimental_setKeyFrameOnlyDecodingSpeedThreshold(/* speedThreshold= */ 2f);
+    enableRenderer(RendererConfiguration.DEFAULT);
+
+    renderer.setOperatingRate(/* operatingRate= */ 4f);
+    render();
+
+    assertThat(getQueuedSampleTimesUs()).containsExactly(0L, 50_000L).inOrder();
+    assertThat(renderer.getDecoderCounters().skippedInputBufferCount).isEqualTo(8);
+  }
+
+  @Test
+  public void testRender_withKeyFrameOnlyDecodingEnabled_skipsNonKeyFrames() throws Exception {
+    enableRenderer(RendererConfiguration.DEFAULT);
+
+    renderer.handleMessage(C.MSG_SET_KEY_FRAME_ONLY_DECODING, true);
+    render();
+
+    assertThat(getQueuedSampleTimesUs()).containsExactly(0L, 50_000L).inOrder();
+    assertThat(renderer.getDecoderCounters().skippedInputBufferCount).isEqualTo(8);
+  }
+
+  @Test
+  public void testRender_withKeyFrameOnlyDecodingDisabledAgain_queuesAllSamples()
+      throws Exception {
+    enableRenderer(RendererConfiguration.DEFAULT);
+
+    renderer.handleMessage(C.MSG_SET_KEY_FRAME_ONLY_DECODING, true);
+    renderer.handleMessage(C.MSG_SET_KEY_FRAME_ONLY_DECODING, false);
+    render();
+
+    assertThat(getQueuedSampleTimesUs()).hasSize(SAMPLE_IS_KEY_FRAME.length);
+    assertThat(renderer.getDecoderCounters().skippedInputBufferCount).isEqualTo(0);
+  }
+
+  @Test
+  public void testRender_withTunneling_queuesAllSamples() throws Exception {
+    renderer.experimental_setKeyFrameOnlyDecodingSpeedThreshold(/* speedThreshold= */ 2f);
+    enableRenderer(new RendererConfiguration(/* tunnelingAudioSessionId= */ 1));
+
+    renderer.setOperatingRate(/* operatingRate= */ 4f);
+    renderer.handleMessage(C.MSG_SET_KEY_FRAME_ONLY_DECODING, true);
+    render();
+
+    assertThat(getQueuedSampleTimesUs()).hasSize(SAMPLE_IS_KEY_FRAME.length);
+    assertThat(renderer.getDecoderCounters().skippedInputBufferCount).isEqualTo(0);
+  }
+
+  private void enableRenderer(RendererConfiguration configuration) throws ExoPlaybackException {
+    renderer.enable(
+        configuration,
+        new Format[] {VIDEO_FORMAT},
+        new FakeVideoSampleStream(),
+        /* positionUs= */ 0,
+        /* joining= */ false,
+        /* offsetUs= */ 0);
+  }
+
+  private void render() throws ExoPlaybackException {
+    renderer.render(/* positionUs= */ 0, C.msToUs(SystemClock.elapsedRealtime()));
+  }
+
+  private List<Long> getQueuedSampleTimesUs() {
+    ArgumentCaptor<Long> presentationTimesUs = ArgumentCaptor.forClass(Long.class);
+    verify(codec, atLeastOnce())
+        .queueInputBuffer(
+            /* index= */ anyInt(),
+            /* offset= */ anyInt(),
+            /* size= */ anyInt(),
+            presentationTimesUs.capture(),
+            /* flags= */ anyInt());
+    return presentationTimesUs.getAllValues();
+  }
+
+  private static final class TestMediaCodecVideoRenderer extends MediaCodecVideoRenderer {
+
+    public TestMediaCodecVideoRenderer() {
+      super(
+          ApplicationProvider.getApplicationContext(),
+          new MediaCodecSelector() {
+            @Override
+            public List<MediaCodecInfo> getDecoderInfos(
+                String mimeType, boolean requiresSecureDecoder, boolean requiresTunnelingDecoder) {
+              return Collections.singletonList(
+                  MediaCodecInfo.newInstance(
+                      CODEC_NAME,
+                      mimeType,
+                      /* codecMimeType= */ mimeType,
+                      /* capabilities= */ null,
+                      /* hardwareAccelerated= */ false,
+                      /* softwareOnly= */ true,
+                      /* vendor= */ false,
+                      /* forceDisableAdaptive= */ false,
+                      /* forceSecure= */ false));
+            }
+
+            @Override
+            @Nullable
+            public MediaCodecInfo getPassthroughDecoderInfo() {
+              return null;
+            }
+          });
+    }
+
+    public DecoderCounters getDecoderCounters() {
+      return decoderCounters;
+    }
+  }
+
+  /**
+   * A {@link SampleStream} that outputs {@link #VIDEO_FORMAT} followed by samples whose key frame
+   * flags are given by {@link #SAMPLE_IS_KEY_FRAME}.
+   */
+  private static final class FakeVideoSampleStream implements SampleStream {
+
+    private boolean readFormat;
+    private int nextSampleIndex;
+
+    @Override
+    public boolean isReady() {
+      return true;
+    }
+
+    @Override
+    public void maybeThrowError() {
+      // Do nothing.
+    }
+
+    @Override
+    public int readData(
+        FormatHolder formatHolder, DecoderInputBuffer buffer, boolean formatRequired) {
+      if (formatRequired || !readFormat) {
+        formatHolder.format = VIDEO_FORMAT;
+        readFormat = true;
+        return C.RESULT_FORMAT_READ;
+      } else if (nextSampleIndex == SAMPLE_IS_KEY_FRAME.length) {
+        return C.RESULT_NOTHING_READ;
+      }
+      buffer.timeUs = nextSampleIndex * SAMPLE_DURATION_US;
+      buffer.setFlags(SAMPLE_IS_KEY_FRAME[nextSampleIndex] ? C.BUFFER_FLAG_KEY_FRAME : 0);
+      buffer.ensureSpaceForWrite(1);
+      buffer.data.put((byte) 0);
+      nextSampleIndex++;
+      return C.RESULT_BUFFER_READ;
+    }
+
+    @Override
+    public int skipData(long positionUs) {
+      return 0;
+    }
+  }
+}
@@ -45,6 +45,7 @@ import com.google.android.exoplayer2.source.dash.manifest.DashManifestParser;
 import com.google.android.exoplayer2.source.dash.manifest.UtcTimingElement;
 import com.google.android.exoplayer2.upstream.Allocator;
 import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
 import com.google.android.exoplayer2.upstream.DefaultLoadErrorHandlingPolicy;
 import com.google.android.exoplayer2.upstream.LoadErrorHandlingPolicy;
 import com.google.android.exoplayer2.upstream.Loader;
@@ -406,6 +407,7 @@ public final class DashMediaSource extends BaseMediaSource {
   private Uri initialManifestUri;
   private Uri manifestUri;
   private DashManifest manifest;
+  @Nullable private ParsingLoadable<DashManifest> previousManifestLoadable;
   private boolean manifestLoadPending;
   private long manifestLoadStartTimestampMs;
   private long manifestLoadEndTimestampMs;
@@ -716,6 +718,7 @@ public final class DashMediaSource extends BaseMediaSource {
     manifestLoadStartTimestampMs = 0;
     manifestLoadEndTimestampMs = 0;
     manifest = sideloadedManifest ? manifest : null;
+    previousManifestLoadable = null;
     manifestUri = initialManifestUri;
     manifestFatalError = null;
     if (handler != null) {
@@ -1071,8 +1074,21 @@ public final class DashMediaSource extends BaseMediaSource {
       manifestUri = this.manifestUri;
     }
     manifestLoadPending = false;
+    // Refreshes of the same manifest are conditional, so that an unchanged manifest is neither
+    // downloaded nor parsed again.
+    boolean isRefresh =
+        previousManifestLoadable != null
+            && manifestUri.equals(previousManifestLoadable.dataSpec.uri);
+    ParsingLoadable<DashManifest> manifestLoadable =
+        new ParsingLoadable<>(
+            dataSource,
+            new DataSpec(manifestUri, DataSpec.FLAG_ALLOW_GZIP),
+            C.DATA_TYPE_MANIFEST,
+            manifestParser,
+            isRefresh ? previousManifestLoadable : null);
+    previousManifestLoadable = manifestLoadable;
     startLoading(
-        new ParsingLoadable<>(dataSource, manifestUri, C.DATA_TYPE_MANIFEST, manifestParser),
+        manifestLoadable,
         manifestCallback,
         loadErrorHandlingPolicy.getMinimumLoadableRetryCount(C.DATA_TYPE_MANIFEST));
   }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source.dash;
+
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.extractor.ChunkIndex;
+import com.google.android.exoplayer2.extractor.ChunkIndexCache;
+import com.google.android.exoplayer2.source.dash.manifest.RangedUri;
+import com.google.android.exoplayer2.source.dash.manifest.Representation;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists {@link ChunkIndex ChunkIndices} parsed from {@code sidx} boxes of single segment
+ * representations in the {@link com.google.android.exoplayer2.upstream.cache.ContentMetadata} of a
+ * {@link Cache}, so that the index does not need to be loaded and parsed again when the same
+ * representation is played later, including across application sessions.
+ *
+ * <p>Indices are stored under the cache key of the representation, which is the key under which
+ * its media data is stored when it's cached. Storing an index writes the content index of the cache
+ * to disk, so it's done on a background {@link Executor} rather than on the calling thread, which
+ * is typically the playback thread.
+ */
+public final class DashSegmentIndexCache {
+
+  /** Prefix of the metadata keys under which indices are stored. */
+  private static final String KEY_PREFIX = "exo_sidx_";
+
+  /** Time for which the default background thread is kept alive after storing an index. */
+  private static final long DEFAULT_EXECUTOR_KEEP_ALIVE_MS = 1000;
+
+  private final ChunkIndexCache chunkIndexCache;
+  private final Executor executor;
+
+  /**
+   * Creates an instance that stores indices on a background thread, which is started when needed.
+   *
+   * @param cache The {@link Cache} in whose content metadata the indices are stored.
+   */
+  public DashSegmentIndexCache(Cache cache) {
+    this(cache, createDefaultExecutor());
+  }
+
+  /**
+   * @param cache The {@link Cache} in whose content metadata the indices are stored.
+   * @param executor The {@link Executor} on which indices are stored. Indices are only readable
+   *     with {@link #get(Representation, RangedUri)} once they have been stored.
+   */
+  public DashSegmentIndexCache(Cache cache, Executor executor) {
+    chunkIndexCache = new ChunkIndexCache(cache);
+    this.executor = executor;
+  }
+
+  /**
+   * Returns the {@link ChunkIndex} previously stored for the given index range of a
+   * representation, or null if no valid index is stored.
+   *
+   * @param representation The representation.
+   * @param indexUri The {@link RangedUri} from which the index would otherwise be loaded.
+   * @return The stored {@link ChunkIndex}, or null.
+   */
+  @Nullable
+  public ChunkIndex get(Representation representation, RangedUri indexUri) {
+    return chunkIndexCache.get(getCacheKey(representation, indexUri), getMetadataKey(indexUri));
+  }
+
+  /**
+   * Stores a {@link ChunkIndex} for the given index range of a representation. The index is stored
+   * asynchronously on the {@link Executor} of this instance.
+   *
+   * @param representation The representation.
+   * @param indexUri The {@link RangedUri} from which the index was loaded.
+   * @param chunkIndex The {@link ChunkIndex} to store.
+   */
+  public void put(Representation representation, RangedUri indexUri, ChunkIndex chunkIndex) {
+    String cacheKey = getCacheKey(representation, indexUri);
+    String metadataKey = getMetadataKey(indexUri);
+    executor.execute(() -> chunkIndexCache.put(cacheKey, metadataKey, chunkIndex));
+  }
+
+  private static Executor createDefaultExecutor() {
+    // A single thread keeps the writes in order, and it exits when there's nothing to store.
+    return new ThreadPoolExecutor(
+        /* corePoolSize= */ 0,
+        /* maximumPoolSize= */ 1,
+        DEFAULT_EXECUTOR_KEEP_ALIVE_MS,
+        TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(),
+        runnable -> new Thread(runnable, "ExoPlayer:DashSegmentIndexCache"));
+  }
+
+  private static String getCacheKey(Representation representation, RangedUri indexUri) {
+    String cacheKey = representation.getCacheKey();
+    return cacheKey != null ? cacheKey : indexUri.resolveUriString(representation.baseUrl);
+  }
+
+  private static String getMetadataKey(RangedUri indexUri) {
+    return KEY_PREFIX + indexUri.start + "_" + indexUri.length;
+  }
+}
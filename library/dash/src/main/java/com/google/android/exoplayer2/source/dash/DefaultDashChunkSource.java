@@ -65,14 +65,30 @@ public class DefaultDashChunkSource implements DashChunkSource {
 
     private final DataSource.Factory dataSourceFactory;
     private final int maxSegmentsPerLoad;
+    @Nullable private final DashSegmentIndexCache segmentIndexCache;
 
     public Factory(DataSource.Factory dataSourceFactory) {
       this(dataSourceFactory, /* maxSegmentsPerLoad= */ 1);
     }
 
     public Factory(DataSource.Factory dataSourceFactory, int maxSegmentsPerLoad) {
+      this(dataSourceFactory, maxSegmentsPerLoad, /* segmentIndexCache= */ null);
+    }
+
+    /**
+     * @param dataSourceFactory A factory for {@link DataSource} instances suitable for loading the
+     *     media data.
+     * @param maxSegmentsPerLoad The maximum number of segments to combine into a single request.
+     * @param segmentIndexCache A {@link DashSegmentIndexCache} in which segment indices loaded
+     *     from the stream are persisted and from which they are restored, or null.
+     */
+    public Factory(
+        DataSource.Factory dataSourceFactory,
+        int maxSegmentsPerLoad,
+        @Nullable DashSegmentIndexCache segmentIndexCache) {
       this.dataSourceFactory = dataSourceFactory;
       this.maxSegmentsPerLoad = maxSegmentsPerLoad;
+      this.segmentIndexCache = segmentIndexCache;
     }
 
     @Override
@@ -104,7 +120,8 @@ public class DefaultDashChunkSource implements DashChunkSource {
           maxSegmentsPerLoad,
           enableEventMessageTrack,
           closedCaptionFormats,
-          playerEmsgHandler);
+          playerEmsgHandler,
+          segmentIndexCache);
     }
 
   }
@@ -116,6 +133,7 @@ public class DefaultDashChunkSource implements DashChunkSource {
   private final long elapsedRealtimeOffsetMs;
   private final int maxSegmentsPerLoad;
   @Nullable private final PlayerTrackEmsgHandler playerTrackEmsgHandler;
+  @Nullable private final DashSegmentIndexCache segmentIndexCache;
 
   protected final RepresentationHolder[] representationHolders;
 
@@ -158,6 +176,57 @@ public class DefaultDashChunkSource implements DashChunkSource {
       boolean enableEventMessageTrack,
       List<Format> closedCaptionFormats,
       @Nullable PlayerTrackEmsgHandler playerTrackEmsgHandler) {
+    this(
+        manifestLoaderErrorThrower,
+        manifest,
+        periodIndex,
+        adaptationSetIndices,
+        trackSelection,
+        trackType,
+        dataSource,
+        elapsedRealtimeOffsetMs,
+        maxSegmentsPerLoad,
+        enableEventMessageTrack,
+        closedCaptionFormats,
+        playerTrackEmsgHandler,
+        /* segmentIndexCache= */ null);
+  }
+
+  /**
+   * @param manifestLoaderErrorThrower Throws errors affecting loading of manifests.
+   * @param manifest The initial manifest.
+   * @param periodIndex The index of the period in the manifest.
+   * @param adaptationSetIndices The indices of the adaptation sets in the period.
+   * @param trackSelection The track selection.
+   * @param trackType The type of the tracks in the selection.
+   * @param dataSource A {@link DataSource} suitable for loading the media data.
+   * @param elapsedRealtimeOffsetMs If known, an estimate of the instantaneous difference between
+   *     server-side unix time and {@link SystemClock#elapsedRealtime()} in milliseconds, specified
+   *     as the server's unix time minus the local elapsed time. If unknown, set to 0.
+   * @param maxSegmentsPerLoad The maximum number of segments to combine into a single request. Note
+   *     that segments will only be combined if their {@link Uri}s are the same and if their data
+   *     ranges are adjacent.
+   * @param enableEventMessageTrack Whether to output an event message track.
+   * @param closedCaptionFormats The {@link Format Formats} of closed caption tracks to be output.
+   * @param playerTrackEmsgHandler The {@link PlayerTrackEmsgHandler} instance to handle emsg
+   *     messages targeting the player. Maybe null if this is not necessary.
+   * @param segmentIndexCache A {@link DashSegmentIndexCache} in which segment indices loaded from
+   *     the stream are persisted and from which they are restored, or null.
+   */
+  public DefaultDashChunkSource(
+      LoaderErrorThrower manifestLoaderErrorThrower,
+      DashManifest manifest,
+      int periodIndex,
+      int[] adaptationSetIndices,
+      TrackSelection trackSelection,
+      int trackType,
+      DataSource dataSource,
+      long elapsedRealtimeOffsetMs,
+      int maxSegmentsPerLoad,
+      boolean enableEventMessageTrack,
+      List<Format> closedCaptionFormats,
+      @Nullable PlayerTrackEmsgHandler playerTrackEmsgHandler,
+      @Nullable DashSegmentIndexCache segmentIndexCache) {
     this.manifestLoaderErrorThrower = manifestLoaderErrorThrower;
     this.manifest = manifest;
     this.adaptationSetIndices = adaptationSetIndices;
@@ -168,6 +237,7 @@ public class DefaultDashChunkSource implements DashChunkSource {
     this.elapsedRealtimeOffsetMs = elapsedRealtimeOffsetMs;
     this.maxSegmentsPerLoad = maxSegmentsPerLoad;
     this.playerTrackEmsgHandler = playerTrackEmsgHandler;
+    this.segmentIndexCache = segmentIndexCache;
 
     long periodDurationUs = manifest.getPeriodDurationUs(periodIndex);
     liveEdgeTimeUs = C.TIME_UNSET;
@@ -311,6 +381,19 @@ public class DefaultDashChunkSource implements DashChunkSource {
       }
       if (representationHolder.segmentIndex == null) {
         pendingIndexUri = selectedRepresentation.getIndexUri();
+        if (pendingIndexUri != null && segmentIndexCache != null) {
+          @Nullable
+          ChunkIndex chunkIndex = segmentIndexCache.get(selectedRepresentation, pendingIndexUri);
+          if (chunkIndex != null) {
+            // The index was loaded previously, so there's no need to load it again.
+            representationHolder =
+                representationHolder.copyWithNewSegmentIndex(
+                    new DashWrappingSegmentIndex(
+                        chunkIndex, selectedRepresentation.presentationTimeOffsetUs));
+            representationHolders[trackSelection.getSelectedIndex()] = representationHolder;
+            pendingIndexUri = null;
+          }
+        }
       }
       if (pendingInitializationUri != null || pendingIndexUri != null) {
         // We have initialization and/or index requests to make.
@@ -401,11 +484,15 @@ public class DefaultDashChunkSource implements DashChunkSource {
       if (representationHolder.segmentIndex == null) {
         SeekMap seekMap = representationHolder.extractorWrapper.getSeekMap();
         if (seekMap != null) {
+          Representation representation = representationHolder.representation;
           representationHolders[trackIndex] =
               representationHolder.copyWithNewSegmentIndex(
                   new DashWrappingSegmentIndex(
-                      (ChunkIndex) seekMap,
-                      representationHolder.representation.presentationTimeOffsetUs));
+                      (ChunkIndex) seekMap, representation.presentationTimeOffsetUs));
+          @Nullable RangedUri indexUri = representation.getIndexUri();
+          if (segmentIndexCache != null && indexUri != null) {
+            segmentIndexCache.put(representation, indexUri, (ChunkIndex) seekMap);
+          }
         }
       }
     }
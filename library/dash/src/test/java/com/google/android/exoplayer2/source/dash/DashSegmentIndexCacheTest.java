@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source.dash;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.extractor.ChunkIndex;
+import com.google.android.exoplayer2.source.dash.manifest.RangedUri;
+import com.google.android.exoplayer2.source.dash.manifest.Representation;
+import com.google.android.exoplayer2.source.dash.manifest.SegmentBase.SingleSegmentBase;
+import com.google.android.exoplayer2.upstream.cache.CacheSpan;
+import com.google.android.exoplayer2.upstream.cache.ContentMetadataMutations;
+import com.google.android.exoplayer2.upstream.cache.NoOpCacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+import com.google.android.exoplayer2.util.MimeTypes;
+import com.google.android.exoplayer2.util.Util;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link DashSegmentIndexCache}. */
+@RunWith(AndroidJUnit4.class)
+public final class DashSegmentIndexCacheTest {
+
+  private static final String MEDIA_URI = "https://example.com/video.mp4";
+  private static final ChunkIndex CHUNK_INDEX =
+      new ChunkIndex(
+          /* sizes= */ new int[] {100, 200, 300},
+          /* offsets= */ new long[] {1000, 1100, 1300},
+          /* durationsUs= */ new long[] {2_000_000, 2_000_000, 1_500_000},
+          /* timesUs= */ new long[] {0, 2_000_000, 4_000_000});
+
+  private File cacheDir;
+  private SimpleCache cache;
+
+  @Before
+  public void setUp() throws Exception {
+    cacheDir = Util.createTempFile(ApplicationProvider.getApplicationContext(), "ExoPlayerTest");
+    // Delete the file. SimpleCache initialization should create a directory with the same name.
+    assertThat(cacheDir.delete()).isTrue();
+    cache = new SimpleCache(cacheDir, new NoOpCacheEvictor());
+  }
+
+  @After
+  public void tearDown() {
+    cache.release();
+    Util.recursiveDelete(cacheDir);
+  }
+
+  @Test
+  public void testGetWithoutPut_returnsNull() {
+    DashSegmentIndexCache segmentIndexCache = new DashSegmentIndexCache(cache, Runnable::run);
+    Representation representation = newRepresentation();
+
+    assertThat(segmentIndexCache.get(representation, representation.getIndexUri())).isNull();
+  }
+
+  @Test
+  public void testPutThenGet_returnsEqualIndex() {
+    DashSegmentIndexCache segmentIndexCache = new DashSegmentIndexCache(cache, Runnable::run);
+    Representation representation = newRepresentation();
+
+    segmentIndexCache.put(representation, representation.getIndexUri(), CHUNK_INDEX);
+    ChunkIndex chunkIndex = segmentIndexCache.get(representation, representation.getIndexUri());
+
+    assertChunkIndexEquals(chunkIndex, CHUNK_INDEX);
+  }
+
+  @Test
+  public void testPut_storesIndexOnExecutor() {
+    List<Runnable> pendingTasks = new ArrayList<>();
+    DashSegmentIndexCache segmentIndexCache = new DashSegmentIndexCache(cache, pendingTasks::add);
+    Representation representation = newRepresentation();
+
+    segmentIndexCache.put(representation, representation.getIndexUri(), CHUNK_INDEX);
+
+    assertThat(segmentIndexCache.get(representation, representation.getIndexUri())).isNull();
+    assertThat(pendingTasks).hasSize(1);
+    pendingTasks.get(0).run();
+    ChunkIndex chunkIndex = segmentIndexCache.get(representation, representation.getIndexUri());
+    assertChunkIndexEquals(chunkIndex, CHUNK_INDEX);
+  }
+
+  @Test
+  public void testGetWithDifferentRange_returnsNull() {
+    DashSegmentIndexCache segmentIndexCache = new DashSegmentIndexCache(cache, Runnable::run);
+    Representation representation = newRepresentation();
+
+    segmentIndexCache.put(representation, representation.getIndexUri(), CHUNK_INDEX);
+    RangedUri otherIndexUri = new RangedUri(/* referenceUri= */ null, /* start= */ 1, 999);
+
+    assertThat(segmentIndexCache.get(representation, otherIndexUri)).isNull();
+  }
+
+  @Test
+  public void testIndexIsRestoredAfterCacheIsReopened() throws Exception {
+    Representation representation = newRepresentation();
+    // Content without cached data is removed when the cache is reopened, so cache some media data.
+    CacheSpan holeSpan = cache.startReadWrite(MEDIA_URI, /* position= */ 0);
+    File cacheFile = cache.startFile(MEDIA_URI, /* position= */ 0, /* length= */ 10);
+    try (FileOutputStream outputStream = new FileOutputStream(cacheFile)) {
+      outputStream.write(new byte[10]);
+    }
+    cache.commitFile(cacheFile, /* length= */ 10);
+    cache.releaseHoleSpan(holeSpan);
+    new DashSegmentIndexCache(cache, Runnable::run)
+        .put(representation, representation.getIndexUri(), CHUNK_INDEX);
+    cache.release();
+
+    cache = new SimpleCache(cacheDir, new NoOpCacheEvictor());
+    ChunkIndex chunkIndex =
+        new DashSegmentIndexCache(cache, Runnable::run)
+            .get(representation, representation.getIndexUri());
+
+    assertChunkIndexEquals(chunkIndex, CHUNK_INDEX);
+  }
+
+  @Test
+  public void testGetWithTruncatedStoredIndex_returnsNull() throws Exception {
+    DashSegmentIndexCache segmentIndexCache = new DashSegmentIndexCache(cache, Runnable::run);
+    Representation representation = newRepresentation();
+    segmentIndexCache.put(representation, representation.getIndexUri(), CHUNK_INDEX);
+    // The representation has no cache key, so the index is stored under its media URI.
+    String metadataKey = "exo_sidx_800_200";
+    byte[] data =
+        cache.getContentMetadata(MEDIA_URI).get(metadataKey, /* defaultValue= */ (byte[]) null);
+    assertThat(data).isNotNull();
+    ContentMetadataMutations mutations = new ContentMetadataMutations();
+    mutations.set(metadataKey, Arrays.copyOf(data, data.length - 1));
+    cache.applyContentMetadataMutations(MEDIA_URI, mutations);
+
+    assertThat(segmentIndexCache.get(representation, representation.getIndexUri())).isNull();
+  }
+
+  private static void assertChunkIndexEquals(ChunkIndex actual, ChunkIndex expected) {
+    assertThat(actual).isNotNull();
+    assertThat(actual.sizes).isEqualTo(expected.sizes);
+    assertThat(actual.offsets).isEqualTo(expected.offsets);
+    assertThat(actual.durationsUs).isEqualTo(expected.durationsUs);
+    assertThat(actual.timesUs).isEqualTo(expected.timesUs);
+  }
+
+  private static Representation newRepresentation() {
+    Format format =
+        Format.createVideoContainerFormat(
+            "id",
+            "label",
+            MimeTypes.VIDEO_MP4,
+            MimeTypes.VIDEO_H264,
+            /* codecs= */ "",
+            /* metadata= */ null,
+            Format.NO_VALUE,
+            /* width= */ 1024,
+            /* height= */ 768,
+            Format.NO_VALUE,
+            /* initializationData= */ null,
+            /* selectionFlags= */ 0,
+            /* roleFlags= */ 0);
+    SingleSegmentBase segmentBase =
+        new SingleSegmentBase(
+            new RangedUri(/* referenceUri= */ null, /* start= */ 0, /* length= */ 800),
+            /* timescale= */ 1000,
+            /* presentationTimeOffset= */ 0,
+            /* indexStart= */ 800,
+            /* indexLength= */ 200);
+    return Representation.newInstance(
+        /* revisionId= */ 0, format, MEDIA_URI, segmentBase);
+  }
+}
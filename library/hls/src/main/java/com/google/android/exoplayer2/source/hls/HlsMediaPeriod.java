@@ -77,6 +77,7 @@ public final class HlsMediaPeriod implements MediaPeriod, HlsSampleStreamWrapper
   private final boolean allowChunklessPreparation;
   private final @HlsMetadataType int metadataType;
   private final boolean useSessionKeys;
+  private final boolean trickPlayTracksEnabled;
 
   @Nullable private Callback callback;
   private int pendingPrepareCount;
@@ -85,6 +86,7 @@ public final class HlsMediaPeriod implements MediaPeriod, HlsSampleStreamWrapper
   private HlsSampleStreamWrapper[] enabledSampleStreamWrappers;
   // Maps sample stream wrappers to variant/rendition index by matching array positions.
   private int[][] manifestUrlIndicesPerWrapper;
+  private int trickPlayWrapperIndex;
   private SequenceableLoader compositeSequenceableLoader;
   private boolean notifiedReadingStarted;
 
@@ -106,6 +108,8 @@ public final class HlsMediaPeriod implements MediaPeriod, HlsSampleStreamWrapper
    *     SequenceableLoader}s for when this media source loads data from multiple streams.
    * @param allowChunklessPreparation Whether chunkless preparation is allowed.
    * @param useSessionKeys Whether to use #EXT-X-SESSION-KEY tags.
+   * @param trickPlayTracksEnabled Whether to expose the I-frame variants of the master playlist as
+   *     a trick play video track group.
    */
   public HlsMediaPeriod(
       HlsExtractorFactory extractorFactory,
@@ -119,7 +123,8 @@ public final class HlsMediaPeriod implements MediaPeriod, HlsSampleStreamWrapper
       CompositeSequenceableLoaderFactory compositeSequenceableLoaderFactory,
       boolean allowChunklessPreparation,
       @HlsMetadataType int metadataType,
-      boolean useSessionKeys) {
+      boolean useSessionKeys,
+      boolean trickPlayTracksEnabled) {
     this.extractorFactory = extractorFactory;
     this.playlistTracker = playlistTracker;
     this.dataSourceFactory = dataSourceFactory;
@@ -132,6 +137,7 @@ public final class HlsMediaPeriod implements MediaPeriod, HlsSampleStreamWrapper
     this.allowChunklessPreparation = allowChunklessPreparation;
     this.metadataType = metadataType;
     this.useSessionKeys = useSessionKeys;
+    this.trickPlayTracksEnabled = trickPlayTracksEnabled;
     compositeSequenceableLoader =
         compositeSequenceableLoaderFactory.createCompositeSequenceableLoader();
     streamWrapperIndices = new IdentityHashMap<>();
@@ -139,6 +145,7 @@ public final class HlsMediaPeriod implements MediaPeriod, HlsSampleStreamWrapper
     sampleStreamWrappers = new HlsSampleStreamWrapper[0];
     enabledSampleStreamWrappers = new HlsSampleStreamWrapper[0];
     manifestUrlIndicesPerWrapper = new int[0][];
+    trickPlayWrapperIndex = C.INDEX_UNSET;
     eventDispatcher.mediaPeriodCreated();
   }
 
@@ -180,8 +187,12 @@ public final class HlsMediaPeriod implements MediaPeriod, HlsSampleStreamWrapper
     HlsMasterPlaylist masterPlaylist = Assertions.checkNotNull(playlistTracker.getMasterPlaylist());
     boolean hasVariants = !masterPlaylist.variants.isEmpty();
     int audioWrapperOffset = hasVariants ? 1 : 0;
-    // Subtitle sample stream wrappers are held last.
-    int subtitleWrapperOffset = sampleStreamWrappers.length - masterPlaylist.subtitles.size();
+    // Subtitle sample stream wrappers are held last, followed only by the trick play wrapper.
+    int subtitleWrapperEnd =
+        trickPlayWrapperIndex != C.INDEX_UNSET
+            ? trickPlayWrapperIndex
+            : sampleStreamWrappers.length;
+    int subtitleWrapperOffset = subtitleWrapperEnd - masterPlaylist.subtitles.size();
 
     TrackGroupArray mainWrapperTrackGroups;
     int mainWrapperPrimaryGroupIndex;
@@ -216,8 +227,8 @@ public final class HlsMediaPeriod implements MediaPeriod, HlsSampleStreamWrapper
           needsPrimaryTrackGroupSelection = true;
         }
       } else {
-        // Audio or subtitle group.
-        for (int i = audioWrapperOffset; i < sampleStreamWrappers.length; i++) {
+        // Audio or subtitle group. Trick play groups can't be downloaded.
+        for (int i = audioWrapperOffset; i < subtitleWrapperEnd; i++) {
           TrackGroupArray wrapperTrackGroups = sampleStreamWrappers[i].getTrackGroups();
           int selectedTrackGroupIndex = wrapperTrackGroups.indexOf(trackSelectionGroup);
           if (selectedTrackGroupIndex != C.INDEX_UNSET) {
@@ -514,6 +525,16 @@ public final class HlsMediaPeriod implements MediaPeriod, HlsSampleStreamWrapper
           /* primaryTrackGroupIndex= */ 0);
     }
 
+    trickPlayWrapperIndex = C.INDEX_UNSET;
+    if (trickPlayTracksEnabled) {
+      buildAndPrepareTrickPlaySampleStreamWrapper(
+          masterPlaylist,
+          positionUs,
+          sampleStreamWrappers,
+          manifestUrlIndicesPerWrapper,
+          overridingDrmInitData);
+    }
+
     this.sampleStreamWrappers = sampleStreamWrappers.toArray(new HlsSampleStreamWrapper[0]);
     this.manifestUrlIndicesPerWrapper = manifestUrlIndicesPerWrapper.toArray(new int[0][]);
     pendingPrepareCount = this.sampleStreamWrappers.length;
@@ -732,6 +753,53 @@ public final class HlsMediaPeriod implements MediaPeriod, HlsSampleStreamWrapper
     }
   }
 
+  /**
+   * Creates and prepares a video {@link HlsSampleStreamWrapper} for the I-frame variants in the
+   * master playlist, if any of them declare a video codec. The wrapper is always prepared using
+   * master playlist information, so that its formats retain {@link C#ROLE_FLAG_TRICK_PLAY}.
+   */
+  private void buildAndPrepareTrickPlaySampleStreamWrapper(
+      HlsMasterPlaylist masterPlaylist,
+      long positionUs,
+      List<HlsSampleStreamWrapper> sampleStreamWrappers,
+      List<int[]> manifestUrlIndicesPerWrapper,
+      Map<String, DrmInitData> overridingDrmInitData) {
+    List<Variant> iFrameVariants = masterPlaylist.iFrameVariants;
+    ArrayList<Uri> playlistUrls = new ArrayList<>(iFrameVariants.size());
+    ArrayList<Format> playlistFormats = new ArrayList<>(iFrameVariants.size());
+    ArrayList<Integer> iFrameVariantIndices = new ArrayList<>(iFrameVariants.size());
+    for (int i = 0; i < iFrameVariants.size(); i++) {
+      Variant iFrameVariant = iFrameVariants.get(i);
+      if (Util.getCodecsOfType(iFrameVariant.format.codecs, C.TRACK_TYPE_VIDEO) != null) {
+        playlistUrls.add(iFrameVariant.url);
+        playlistFormats.add(iFrameVariant.format);
+        iFrameVariantIndices.add(i);
+      }
+    }
+    if (playlistUrls.isEmpty()) {
+      return;
+    }
+    Format[] formats = playlistFormats.toArray(new Format[0]);
+    HlsSampleStreamWrapper sampleStreamWrapper =
+        buildSampleStreamWrapper(
+            C.TRACK_TYPE_VIDEO,
+            playlistUrls.toArray(new Uri[0]),
+            formats,
+            /* muxedAudioFormat= */ null,
+            /* muxedCaptionFormats= */ Collections.emptyList(),
+            overridingDrmInitData,
+            positionUs);
+    trickPlayWrapperIndex = sampleStreamWrappers.size();
+    sampleStreamWrappers.add(sampleStreamWrapper);
+    manifestUrlIndicesPerWrapper.add(Util.toArray(iFrameVariantIndices));
+    Format[] videoFormats = new Format[formats.length];
+    for (int i = 0; i < formats.length; i++) {
+      videoFormats[i] = deriveVideoFormat(formats[i]);
+    }
+    sampleStreamWrapper.prepareWithMasterPlaylistInfo(
+        new TrackGroup[] {new TrackGroup(videoFormats)}, /* primaryTrackGroupIndex= */ 0);
+  }
+
   private HlsSampleStreamWrapper buildSampleStreamWrapper(
       int trackType,
       Uri[] playlistUrls,
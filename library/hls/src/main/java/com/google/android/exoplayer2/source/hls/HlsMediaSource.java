@@ -72,6 +72,7 @@ public final class HlsMediaSource extends BaseMediaSource
     private boolean allowChunklessPreparation;
     @HlsMetadataType private int metadataType;
     private boolean useSessionKeys;
+    private boolean trickPlayTracksEnabled;
     private boolean isCreateCalled;
     @Nullable private Object tag;
 
@@ -283,6 +284,27 @@ public final class HlsMediaSource extends BaseMediaSource
       return this;
     }
 
+    /**
+     * Sets whether the I-frame variants declared by #EXT-X-I-FRAME-STREAM-INF tags in the master
+     * playlist are exposed as an additional video track group. Its formats have {@link
+     * C#ROLE_FLAG_TRICK_PLAY} set, so they are not selected by default. Apps can select them with
+     * a track selection override during fast forward, rewind or scrubbing, which only loads the
+     * byte ranges of the key frames instead of full segments.
+     *
+     * <p>Only I-frame variants that declare their video codec in the CODECS attribute are exposed.
+     *
+     * <p>This method is experimental, and will be renamed or removed in a future release.
+     *
+     * @param trickPlayTracksEnabled Whether to expose I-frame variants as trick play tracks.
+     * @return This factory, for convenience.
+     * @throws IllegalStateException If one of the {@code create} methods has already been called.
+     */
+    public Factory experimental_setTrickPlayTracksEnabled(boolean trickPlayTracksEnabled) {
+      Assertions.checkState(!isCreateCalled);
+      this.trickPlayTracksEnabled = trickPlayTracksEnabled;
+      return this;
+    }
+
     /**
      * @deprecated Use {@link #createMediaSource(Uri)} and {@link #addEventListener(Handler,
      *     MediaSourceEventListener)} instead.
@@ -323,6 +345,7 @@ public final class HlsMediaSource extends BaseMediaSource
           allowChunklessPreparation,
           metadataType,
           useSessionKeys,
+          trickPlayTracksEnabled,
           tag);
     }
 
@@ -349,6 +372,7 @@ public final class HlsMediaSource extends BaseMediaSource
   private final boolean allowChunklessPreparation;
   private final @HlsMetadataType int metadataType;
   private final boolean useSessionKeys;
+  private final boolean trickPlayTracksEnabled;
   private final HlsPlaylistTracker playlistTracker;
   @Nullable private final Object tag;
 
@@ -365,6 +389,7 @@ public final class HlsMediaSource extends BaseMediaSource
       boolean allowChunklessPreparation,
       @HlsMetadataType int metadataType,
       boolean useSessionKeys,
+      boolean trickPlayTracksEnabled,
       @Nullable Object tag) {
     this.manifestUri = manifestUri;
     this.dataSourceFactory = dataSourceFactory;
@@ -376,6 +401,7 @@ public final class HlsMediaSource extends BaseMediaSource
     this.allowChunklessPreparation = allowChunklessPreparation;
     this.metadataType = metadataType;
     this.useSessionKeys = useSessionKeys;
+    this.trickPlayTracksEnabled = trickPlayTracksEnabled;
     this.tag = tag;
   }
 
@@ -413,7 +439,8 @@ public final class HlsMediaSource extends BaseMediaSource
         compositeSequenceableLoaderFactory,
         allowChunklessPreparation,
         metadataType,
-        useSessionKeys);
+        useSessionKeys,
+        trickPlayTracksEnabled);
   }
 
   @Override
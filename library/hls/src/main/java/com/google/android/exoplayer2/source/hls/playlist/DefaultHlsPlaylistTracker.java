@@ -26,6 +26,7 @@ import com.google.android.exoplayer2.source.hls.HlsDataSourceFactory;
 import com.google.android.exoplayer2.source.hls.playlist.HlsMasterPlaylist.Variant;
 import com.google.android.exoplayer2.source.hls.playlist.HlsMediaPlaylist.Segment;
 import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
 import com.google.android.exoplayer2.upstream.LoadErrorHandlingPolicy;
 import com.google.android.exoplayer2.upstream.Loader;
 import com.google.android.exoplayer2.upstream.Loader.LoadErrorAction;
@@ -233,6 +234,12 @@ public final class DefaultHlsPlaylistTracker
     mediaPlaylistParser = playlistParserFactory.createPlaylistParser(masterPlaylist);
     primaryMediaPlaylistUrl = masterPlaylist.variants.get(0).url;
     createBundles(masterPlaylist.mediaPlaylistUrls);
+    for (int i = 0; i < masterPlaylist.iFrameVariants.size(); i++) {
+      Uri url = masterPlaylist.iFrameVariants.get(i).url;
+      if (!playlistBundles.containsKey(url)) {
+        playlistBundles.put(url, new MediaPlaylistBundle(url));
+      }
+    }
     MediaPlaylistBundle primaryBundle = playlistBundles.get(primaryMediaPlaylistUrl);
     if (isMediaPlaylist) {
       // We don't need to load the playlist again. We can use the same result.
@@ -447,7 +454,9 @@ public final class DefaultHlsPlaylistTracker
 
     private final Uri playlistUrl;
     private final Loader mediaPlaylistLoader;
-    private final ParsingLoadable<HlsPlaylist> mediaPlaylistLoadable;
+    private final DataSource mediaPlaylistDataSource;
+
+    private ParsingLoadable<HlsPlaylist> mediaPlaylistLoadable;
 
     @Nullable private HlsMediaPlaylist playlistSnapshot;
     private long lastSnapshotLoadMs;
@@ -460,12 +469,10 @@ public final class DefaultHlsPlaylistTracker
     public MediaPlaylistBundle(Uri playlistUrl) {
       this.playlistUrl = playlistUrl;
       mediaPlaylistLoader = new Loader("DefaultHlsPlaylistTracker:MediaPlaylist");
+      mediaPlaylistDataSource = dataSourceFactory.createDataSource(C.DATA_TYPE_MANIFEST);
       mediaPlaylistLoadable =
           new ParsingLoadable<>(
-              dataSourceFactory.createDataSource(C.DATA_TYPE_MANIFEST),
-              playlistUrl,
-              C.DATA_TYPE_MANIFEST,
-              mediaPlaylistParser);
+              mediaPlaylistDataSource, playlistUrl, C.DATA_TYPE_MANIFEST, mediaPlaylistParser);
     }
 
     @Nullable
@@ -605,6 +612,17 @@ public final class DefaultHlsPlaylistTracker
     // Internal methods.
 
     private void loadPlaylistImmediately() {
+      if (playlistSnapshot != null) {
+        // Reload conditionally, so that an unchanged playlist is neither downloaded nor parsed
+        // again.
+        mediaPlaylistLoadable =
+            new ParsingLoadable<>(
+                mediaPlaylistDataSource,
+                new DataSpec(playlistUrl, DataSpec.FLAG_ALLOW_GZIP),
+                C.DATA_TYPE_MANIFEST,
+                mediaPlaylistParser,
+                /* previousLoadable= */ mediaPlaylistLoadable);
+      }
       long elapsedRealtime =
           mediaPlaylistLoader.startLoading(
               mediaPlaylistLoadable,
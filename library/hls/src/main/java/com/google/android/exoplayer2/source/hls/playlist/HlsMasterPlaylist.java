@@ -17,6 +17,7 @@ package com.google.android.exoplayer2.source.hls.playlist;
 
 import android.net.Uri;
 import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.Format;
 import com.google.android.exoplayer2.drm.DrmInitData;
 import com.google.android.exoplayer2.offline.StreamKey;
@@ -35,6 +36,7 @@ public final class HlsMasterPlaylist extends HlsPlaylist {
           /* baseUri= */ "",
           /* tags= */ Collections.emptyList(),
           /* variants= */ Collections.emptyList(),
+          /* iFrameVariants= */ Collections.emptyList(),
           /* videos= */ Collections.emptyList(),
           /* audios= */ Collections.emptyList(),
           /* subtitles= */ Collections.emptyList(),
@@ -50,7 +52,10 @@ public final class HlsMasterPlaylist extends HlsPlaylist {
   public static final int GROUP_INDEX_AUDIO = 1;
   public static final int GROUP_INDEX_SUBTITLE = 2;
 
-  /** A variant (i.e. an #EXT-X-STREAM-INF tag) in a master playlist. */
+  /**
+   * A variant (i.e. an #EXT-X-STREAM-INF tag) or an I-frame variant (i.e. an
+   * #EXT-X-I-FRAME-STREAM-INF tag) in a master playlist.
+   */
   public static final class Variant {
 
     /** The variant's url. */
@@ -157,10 +162,18 @@ public final class HlsMasterPlaylist extends HlsPlaylist {
 
   }
 
-  /** All of the media playlist URLs referenced by the playlist. */
+  /**
+   * All of the media playlist URLs referenced by the playlist, excluding those of {@link
+   * #iFrameVariants}.
+   */
   public final List<Uri> mediaPlaylistUrls;
   /** The variants declared by the playlist. */
   public final List<Variant> variants;
+  /**
+   * The I-frame variants declared by the playlist. Their formats have {@link
+   * C#ROLE_FLAG_TRICK_PLAY} set.
+   */
+  public final List<Variant> iFrameVariants;
   /** The video renditions declared by the playlist. */
   public final List<Rendition> videos;
   /** The audio renditions declared by the playlist. */
@@ -190,6 +203,7 @@ public final class HlsMasterPlaylist extends HlsPlaylist {
    * @param baseUri See {@link #baseUri}.
    * @param tags See {@link #tags}.
    * @param variants See {@link #variants}.
+   * @param iFrameVariants See {@link #iFrameVariants}.
    * @param videos See {@link #videos}.
    * @param audios See {@link #audios}.
    * @param subtitles See {@link #subtitles}.
@@ -204,6 +218,7 @@ public final class HlsMasterPlaylist extends HlsPlaylist {
       String baseUri,
       List<String> tags,
       List<Variant> variants,
+      List<Variant> iFrameVariants,
       List<Rendition> videos,
       List<Rendition> audios,
       List<Rendition> subtitles,
@@ -218,6 +233,7 @@ public final class HlsMasterPlaylist extends HlsPlaylist {
         Collections.unmodifiableList(
             getMediaPlaylistUrls(variants, videos, audios, subtitles, closedCaptions));
     this.variants = Collections.unmodifiableList(variants);
+    this.iFrameVariants = Collections.unmodifiableList(iFrameVariants);
     this.videos = Collections.unmodifiableList(videos);
     this.audios = Collections.unmodifiableList(audios);
     this.subtitles = Collections.unmodifiableList(subtitles);
@@ -235,6 +251,8 @@ public final class HlsMasterPlaylist extends HlsPlaylist {
         baseUri,
         tags,
         copyStreams(variants, GROUP_INDEX_VARIANT, streamKeys),
+        // I-frame variants are only used for trick play, so they are not retained.
+        /* iFrameVariants= */ Collections.emptyList(),
         // TODO: Allow stream keys to specify video renditions to be retained.
         /* videos= */ Collections.emptyList(),
         copyStreams(audios, GROUP_INDEX_AUDIO, streamKeys),
@@ -261,6 +279,7 @@ public final class HlsMasterPlaylist extends HlsPlaylist {
         /* baseUri= */ "",
         /* tags= */ Collections.emptyList(),
         variant,
+        /* iFrameVariants= */ Collections.emptyList(),
         /* videos= */ Collections.emptyList(),
         /* audios= */ Collections.emptyList(),
         /* subtitles= */ Collections.emptyList(),
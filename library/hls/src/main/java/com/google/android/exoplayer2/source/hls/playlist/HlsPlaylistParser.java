@@ -51,8 +51,6 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.TreeMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import org.checkerframework.checker.nullness.qual.EnsuresNonNullIf;
 import org.checkerframework.checker.nullness.qual.PolyNull;
 
@@ -69,6 +67,7 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
   private static final String TAG_PLAYLIST_TYPE = "#EXT-X-PLAYLIST-TYPE";
   private static final String TAG_DEFINE = "#EXT-X-DEFINE";
   private static final String TAG_STREAM_INF = "#EXT-X-STREAM-INF";
+  private static final String TAG_I_FRAME_STREAM_INF = "#EXT-X-I-FRAME-STREAM-INF";
   private static final String TAG_MEDIA = "#EXT-X-MEDIA";
   private static final String TAG_TARGET_DURATION = "#EXT-X-TARGETDURATION";
   private static final String TAG_DISCONTINUITY = "#EXT-X-DISCONTINUITY";
@@ -107,67 +106,43 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
 
   private static final String ATTR_CLOSED_CAPTIONS_NONE = "CLOSED-CAPTIONS=NONE";
 
-  private static final Pattern REGEX_AVERAGE_BANDWIDTH =
-      Pattern.compile("AVERAGE-BANDWIDTH=(\\d+)\\b");
-  private static final Pattern REGEX_VIDEO = Pattern.compile("VIDEO=\"(.+?)\"");
-  private static final Pattern REGEX_AUDIO = Pattern.compile("AUDIO=\"(.+?)\"");
-  private static final Pattern REGEX_SUBTITLES = Pattern.compile("SUBTITLES=\"(.+?)\"");
-  private static final Pattern REGEX_CLOSED_CAPTIONS = Pattern.compile("CLOSED-CAPTIONS=\"(.+?)\"");
-  private static final Pattern REGEX_BANDWIDTH = Pattern.compile("[^-]BANDWIDTH=(\\d+)\\b");
-  private static final Pattern REGEX_CHANNELS = Pattern.compile("CHANNELS=\"(.+?)\"");
-  private static final Pattern REGEX_CODECS = Pattern.compile("CODECS=\"(.+?)\"");
-  private static final Pattern REGEX_RESOLUTION = Pattern.compile("RESOLUTION=(\\d+x\\d+)");
-  private static final Pattern REGEX_FRAME_RATE = Pattern.compile("FRAME-RATE=([\\d\\.]+)\\b");
-  private static final Pattern REGEX_TARGET_DURATION = Pattern.compile(TAG_TARGET_DURATION
-      + ":(\\d+)\\b");
-  private static final Pattern REGEX_VERSION = Pattern.compile(TAG_VERSION + ":(\\d+)\\b");
-  private static final Pattern REGEX_PLAYLIST_TYPE = Pattern.compile(TAG_PLAYLIST_TYPE
-      + ":(.+)\\b");
-  private static final Pattern REGEX_MEDIA_SEQUENCE = Pattern.compile(TAG_MEDIA_SEQUENCE
-      + ":(\\d+)\\b");
-  private static final Pattern REGEX_MEDIA_DURATION = Pattern.compile(TAG_MEDIA_DURATION
-      + ":([\\d\\.]+)\\b");
-  private static final Pattern REGEX_MEDIA_TITLE =
-      Pattern.compile(TAG_MEDIA_DURATION + ":[\\d\\.]+\\b,(.+)");
-  private static final Pattern REGEX_TIME_OFFSET = Pattern.compile("TIME-OFFSET=(-?[\\d\\.]+)\\b");
-  private static final Pattern REGEX_BYTERANGE = Pattern.compile(TAG_BYTERANGE
-      + ":(\\d+(?:@\\d+)?)\\b");
-  private static final Pattern REGEX_ATTR_BYTERANGE =
-      Pattern.compile("BYTERANGE=\"(\\d+(?:@\\d+)?)\\b\"");
-  private static final Pattern REGEX_METHOD =
-      Pattern.compile(
-          "METHOD=("
-              + METHOD_NONE
-              + "|"
-              + METHOD_AES_128
-              + "|"
-              + METHOD_SAMPLE_AES
-              + "|"
-              + METHOD_SAMPLE_AES_CENC
-              + "|"
-              + METHOD_SAMPLE_AES_CTR
-              + ")"
-              + "\\s*(?:,|$)");
-  private static final Pattern REGEX_KEYFORMAT = Pattern.compile("KEYFORMAT=\"(.+?)\"");
-  private static final Pattern REGEX_KEYFORMATVERSIONS =
-      Pattern.compile("KEYFORMATVERSIONS=\"(.+?)\"");
-  private static final Pattern REGEX_URI = Pattern.compile("URI=\"(.+?)\"");
-  private static final Pattern REGEX_IV = Pattern.compile("IV=([^,.*]+)");
-  private static final Pattern REGEX_TYPE = Pattern.compile("TYPE=(" + TYPE_AUDIO + "|" + TYPE_VIDEO
-      + "|" + TYPE_SUBTITLES + "|" + TYPE_CLOSED_CAPTIONS + ")");
-  private static final Pattern REGEX_LANGUAGE = Pattern.compile("LANGUAGE=\"(.+?)\"");
-  private static final Pattern REGEX_NAME = Pattern.compile("NAME=\"(.+?)\"");
-  private static final Pattern REGEX_GROUP_ID = Pattern.compile("GROUP-ID=\"(.+?)\"");
-  private static final Pattern REGEX_CHARACTERISTICS = Pattern.compile("CHARACTERISTICS=\"(.+?)\"");
-  private static final Pattern REGEX_INSTREAM_ID =
-      Pattern.compile("INSTREAM-ID=\"((?:CC|SERVICE)\\d+)\"");
-  private static final Pattern REGEX_AUTOSELECT = compileBooleanAttrPattern("AUTOSELECT");
-  private static final Pattern REGEX_DEFAULT = compileBooleanAttrPattern("DEFAULT");
-  private static final Pattern REGEX_FORCED = compileBooleanAttrPattern("FORCED");
-  private static final Pattern REGEX_VALUE = Pattern.compile("VALUE=\"(.+?)\"");
-  private static final Pattern REGEX_IMPORT = Pattern.compile("IMPORT=\"(.+?)\"");
-  private static final Pattern REGEX_VARIABLE_REFERENCE =
-      Pattern.compile("\\{\\$([a-zA-Z0-9\\-_]+)\\}");
+  private static final String ATTR_AVERAGE_BANDWIDTH = "AVERAGE-BANDWIDTH";
+  private static final String ATTR_VIDEO = "VIDEO";
+  private static final String ATTR_AUDIO = "AUDIO";
+  private static final String ATTR_SUBTITLES = "SUBTITLES";
+  private static final String ATTR_CLOSED_CAPTIONS = "CLOSED-CAPTIONS";
+  private static final String ATTR_BANDWIDTH = "BANDWIDTH";
+  private static final String ATTR_CHANNELS = "CHANNELS";
+  private static final String ATTR_CODECS = "CODECS";
+  private static final String ATTR_RESOLUTION = "RESOLUTION";
+  private static final String ATTR_FRAME_RATE = "FRAME-RATE";
+  private static final String ATTR_TIME_OFFSET = "TIME-OFFSET";
+  private static final String ATTR_BYTERANGE = "BYTERANGE";
+  private static final String ATTR_METHOD = "METHOD";
+  private static final String ATTR_KEYFORMAT = "KEYFORMAT";
+  private static final String ATTR_KEYFORMATVERSIONS = "KEYFORMATVERSIONS";
+  private static final String ATTR_URI = "URI";
+  private static final String ATTR_IV = "IV";
+  private static final String ATTR_TYPE = "TYPE";
+  private static final String ATTR_LANGUAGE = "LANGUAGE";
+  private static final String ATTR_NAME = "NAME";
+  private static final String ATTR_GROUP_ID = "GROUP-ID";
+  private static final String ATTR_CHARACTERISTICS = "CHARACTERISTICS";
+  private static final String ATTR_INSTREAM_ID = "INSTREAM-ID";
+  private static final String ATTR_AUTOSELECT = "AUTOSELECT";
+  private static final String ATTR_DEFAULT = "DEFAULT";
+  private static final String ATTR_FORCED = "FORCED";
+  private static final String ATTR_VALUE = "VALUE";
+  private static final String ATTR_IMPORT = "IMPORT";
+
+  private static final String[] METHODS = {
+    METHOD_NONE, METHOD_AES_128, METHOD_SAMPLE_AES, METHOD_SAMPLE_AES_CENC, METHOD_SAMPLE_AES_CTR
+  };
+  private static final String[] TYPES = {
+    TYPE_AUDIO, TYPE_VIDEO, TYPE_SUBTITLES, TYPE_CLOSED_CAPTIONS
+  };
+
+  private static final String VARIABLE_REFERENCE_PREFIX = "{$";
 
   private final HlsMasterPlaylist masterPlaylist;
 
@@ -261,6 +236,7 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
     HashMap<Uri, ArrayList<VariantInfo>> urlToVariantInfos = new HashMap<>();
     HashMap<String, String> variableDefinitions = new HashMap<>();
     ArrayList<Variant> variants = new ArrayList<>();
+    ArrayList<Variant> iFrameVariants = new ArrayList<>();
     ArrayList<Rendition> videos = new ArrayList<>();
     ArrayList<Rendition> audios = new ArrayList<>();
     ArrayList<Rendition> subtitles = new ArrayList<>();
@@ -284,8 +260,8 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
 
       if (line.startsWith(TAG_DEFINE)) {
         variableDefinitions.put(
-            /* key= */ parseStringAttr(line, REGEX_NAME, variableDefinitions),
-            /* value= */ parseStringAttr(line, REGEX_VALUE, variableDefinitions));
+            /* key= */ parseStringAttr(line, ATTR_NAME, variableDefinitions),
+            /* value= */ parseStringAttr(line, ATTR_VALUE, variableDefinitions));
       } else if (line.equals(TAG_INDEPENDENT_SEGMENTS)) {
         hasIndependentSegmentsTag = true;
       } else if (line.startsWith(TAG_MEDIA)) {
@@ -294,21 +270,23 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
         mediaTags.add(line);
       } else if (line.startsWith(TAG_SESSION_KEY)) {
         String keyFormat =
-            parseOptionalStringAttr(line, REGEX_KEYFORMAT, KEYFORMAT_IDENTITY, variableDefinitions);
+            parseOptionalStringAttr(line, ATTR_KEYFORMAT, KEYFORMAT_IDENTITY, variableDefinitions);
         SchemeData schemeData = parseDrmSchemeData(line, keyFormat, variableDefinitions);
         if (schemeData != null) {
-          String method = parseStringAttr(line, REGEX_METHOD, variableDefinitions);
+          String method =
+            parseEnumeratedStringAttr(line, ATTR_METHOD, METHODS, variableDefinitions);
           String scheme = parseEncryptionScheme(method);
           sessionKeyDrmInitData.add(new DrmInitData(scheme, schemeData));
         }
       } else if (line.startsWith(TAG_STREAM_INF)) {
-        noClosedCaptions |= line.contains(ATTR_CLOSED_CAPTIONS_NONE);
-        int bitrate = parseIntAttr(line, REGEX_BANDWIDTH);
+        boolean hasNoClosedCaptionsAttr = line.contains(ATTR_CLOSED_CAPTIONS_NONE);
+        noClosedCaptions |= hasNoClosedCaptionsAttr;
+        int bitrate = parseIntAttr(line, ATTR_BANDWIDTH);
         // TODO: Plumb this into Format.
-        int averageBitrate = parseOptionalIntAttr(line, REGEX_AVERAGE_BANDWIDTH, -1);
-        String codecs = parseOptionalStringAttr(line, REGEX_CODECS, variableDefinitions);
+        int averageBitrate = parseOptionalIntAttr(line, ATTR_AVERAGE_BANDWIDTH, -1);
+        String codecs = parseOptionalStringAttr(line, ATTR_CODECS, variableDefinitions);
         String resolutionString =
-            parseOptionalStringAttr(line, REGEX_RESOLUTION, variableDefinitions);
+            parseOptionalStringAttr(line, ATTR_RESOLUTION, variableDefinitions);
         int width;
         int height;
         if (resolutionString != null) {
@@ -326,16 +304,18 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
         }
         float frameRate = Format.NO_VALUE;
         String frameRateString =
-            parseOptionalStringAttr(line, REGEX_FRAME_RATE, variableDefinitions);
+            parseOptionalStringAttr(line, ATTR_FRAME_RATE, variableDefinitions);
         if (frameRateString != null) {
           frameRate = Float.parseFloat(frameRateString);
         }
-        String videoGroupId = parseOptionalStringAttr(line, REGEX_VIDEO, variableDefinitions);
-        String audioGroupId = parseOptionalStringAttr(line, REGEX_AUDIO, variableDefinitions);
+        String videoGroupId = parseOptionalStringAttr(line, ATTR_VIDEO, variableDefinitions);
+        String audioGroupId = parseOptionalStringAttr(line, ATTR_AUDIO, variableDefinitions);
         String subtitlesGroupId =
-            parseOptionalStringAttr(line, REGEX_SUBTITLES, variableDefinitions);
+            parseOptionalStringAttr(line, ATTR_SUBTITLES, variableDefinitions);
         String closedCaptionsGroupId =
-            parseOptionalStringAttr(line, REGEX_CLOSED_CAPTIONS, variableDefinitions);
+            hasNoClosedCaptionsAttr
+                ? null
+                : parseOptionalStringAttr(line, ATTR_CLOSED_CAPTIONS, variableDefinitions);
         if (!iterator.hasNext()) {
           throw new ParserException("#EXT-X-STREAM-INF tag must be followed by another line");
         }
@@ -370,6 +350,49 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
         variantInfosForUrl.add(
             new VariantInfo(
                 bitrate, videoGroupId, audioGroupId, subtitlesGroupId, closedCaptionsGroupId));
+      } else if (line.startsWith(TAG_I_FRAME_STREAM_INF)) {
+        int bitrate = parseIntAttr(line, ATTR_BANDWIDTH);
+        String codecs = parseOptionalStringAttr(line, ATTR_CODECS, variableDefinitions);
+        String resolutionString =
+            parseOptionalStringAttr(line, ATTR_RESOLUTION, variableDefinitions);
+        int width = Format.NO_VALUE;
+        int height = Format.NO_VALUE;
+        if (resolutionString != null) {
+          String[] widthAndHeight = resolutionString.split("x");
+          width = Integer.parseInt(widthAndHeight[0]);
+          height = Integer.parseInt(widthAndHeight[1]);
+          if (width <= 0 || height <= 0) {
+            // Resolution string is invalid.
+            width = Format.NO_VALUE;
+            height = Format.NO_VALUE;
+          }
+        }
+        String videoGroupId = parseOptionalStringAttr(line, ATTR_VIDEO, variableDefinitions);
+        Uri uri =
+            UriUtil.resolveToUri(baseUri, parseStringAttr(line, ATTR_URI, variableDefinitions));
+        Format format =
+            Format.createVideoContainerFormat(
+                /* id= */ "iframe:" + iFrameVariants.size(),
+                /* label= */ null,
+                /* containerMimeType= */ MimeTypes.APPLICATION_M3U8,
+                /* sampleMimeType= */ null,
+                codecs,
+                /* metadata= */ null,
+                bitrate,
+                width,
+                height,
+                /* frameRate= */ Format.NO_VALUE,
+                /* initializationData= */ null,
+                /* selectionFlags= */ 0,
+                C.ROLE_FLAG_TRICK_PLAY);
+        iFrameVariants.add(
+            new Variant(
+                uri,
+                format,
+                videoGroupId,
+                /* audioGroupId= */ null,
+                /* subtitleGroupId= */ null,
+                /* captionGroupId= */ null));
       }
     }
 
@@ -393,18 +416,18 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
 
     for (int i = 0; i < mediaTags.size(); i++) {
       line = mediaTags.get(i);
-      String groupId = parseStringAttr(line, REGEX_GROUP_ID, variableDefinitions);
-      String name = parseStringAttr(line, REGEX_NAME, variableDefinitions);
-      String referenceUri = parseOptionalStringAttr(line, REGEX_URI, variableDefinitions);
+      String groupId = parseStringAttr(line, ATTR_GROUP_ID, variableDefinitions);
+      String name = parseStringAttr(line, ATTR_NAME, variableDefinitions);
+      String referenceUri = parseOptionalStringAttr(line, ATTR_URI, variableDefinitions);
       Uri uri = referenceUri == null ? null : UriUtil.resolveToUri(baseUri, referenceUri);
-      String language = parseOptionalStringAttr(line, REGEX_LANGUAGE, variableDefinitions);
+      String language = parseOptionalStringAttr(line, ATTR_LANGUAGE, variableDefinitions);
       @C.SelectionFlags int selectionFlags = parseSelectionFlags(line);
       @C.RoleFlags int roleFlags = parseRoleFlags(line, variableDefinitions);
       String formatId = groupId + ":" + name;
       Format format;
       Metadata metadata =
           new Metadata(new HlsTrackMetadataEntry(groupId, name, Collections.emptyList()));
-      switch (parseStringAttr(line, REGEX_TYPE, variableDefinitions)) {
+      switch (parseEnumeratedStringAttr(line, ATTR_TYPE, TYPES, variableDefinitions)) {
         case TYPE_VIDEO:
           Variant variant = getVariantWithVideoGroup(variants, groupId);
           String codecs = null;
@@ -449,7 +472,7 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
                   : null;
           sampleMimeType = codecs != null ? MimeTypes.getMediaMimeType(codecs) : null;
           String channelsString =
-              parseOptionalStringAttr(line, REGEX_CHANNELS, variableDefinitions);
+              parseOptionalStringAttr(line, ATTR_CHANNELS, variableDefinitions);
           int channelCount = Format.NO_VALUE;
           if (channelsString != null) {
             channelCount = Integer.parseInt(Util.splitAtFirst(channelsString, "/")[0]);
@@ -495,15 +518,17 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
           subtitles.add(new Rendition(uri, format, groupId, name));
           break;
         case TYPE_CLOSED_CAPTIONS:
-          String instreamId = parseStringAttr(line, REGEX_INSTREAM_ID, variableDefinitions);
+          String instreamId = parseStringAttr(line, ATTR_INSTREAM_ID, variableDefinitions);
           String mimeType;
           int accessibilityChannel;
           if (instreamId.startsWith("CC")) {
             mimeType = MimeTypes.APPLICATION_CEA608;
             accessibilityChannel = Integer.parseInt(instreamId.substring(2));
-          } else /* starts with SERVICE */ {
+          } else if (instreamId.startsWith("SERVICE")) {
             mimeType = MimeTypes.APPLICATION_CEA708;
             accessibilityChannel = Integer.parseInt(instreamId.substring(7));
+          } else {
+            throw new ParserException("Couldn't match " + ATTR_INSTREAM_ID + " in " + line);
           }
           if (muxedCaptionFormats == null) {
             muxedCaptionFormats = new ArrayList<>();
@@ -536,6 +561,7 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
         baseUri,
         tags,
         deduplicatedVariants,
+        iFrameVariants,
         videos,
         audios,
         subtitles,
@@ -612,17 +638,18 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
       }
 
       if (line.startsWith(TAG_PLAYLIST_TYPE)) {
-        String playlistTypeString = parseStringAttr(line, REGEX_PLAYLIST_TYPE, variableDefinitions);
+        String playlistTypeString =
+            parseStringTagValue(line, TAG_PLAYLIST_TYPE, variableDefinitions);
         if ("VOD".equals(playlistTypeString)) {
           playlistType = HlsMediaPlaylist.PLAYLIST_TYPE_VOD;
         } else if ("EVENT".equals(playlistTypeString)) {
           playlistType = HlsMediaPlaylist.PLAYLIST_TYPE_EVENT;
         }
       } else if (line.startsWith(TAG_START)) {
-        startOffsetUs = (long) (parseDoubleAttr(line, REGEX_TIME_OFFSET) * C.MICROS_PER_SECOND);
+        startOffsetUs = (long) (parseDoubleAttr(line, ATTR_TIME_OFFSET) * C.MICROS_PER_SECOND);
       } else if (line.startsWith(TAG_INIT_SEGMENT)) {
-        String uri = parseStringAttr(line, REGEX_URI, variableDefinitions);
-        String byteRange = parseOptionalStringAttr(line, REGEX_ATTR_BYTERANGE, variableDefinitions);
+        String uri = parseStringAttr(line, ATTR_URI, variableDefinitions);
+        String byteRange = parseOptionalStringAttr(line, ATTR_BYTERANGE, variableDefinitions);
         if (byteRange != null) {
           String[] splitByteRange = byteRange.split("@");
           segmentByteRangeLength = Long.parseLong(splitByteRange[0]);
@@ -646,14 +673,14 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
         segmentByteRangeOffset = 0;
         segmentByteRangeLength = C.LENGTH_UNSET;
       } else if (line.startsWith(TAG_TARGET_DURATION)) {
-        targetDurationUs = parseIntAttr(line, REGEX_TARGET_DURATION) * C.MICROS_PER_SECOND;
+        targetDurationUs = parseIntTagValue(line, TAG_TARGET_DURATION) * C.MICROS_PER_SECOND;
       } else if (line.startsWith(TAG_MEDIA_SEQUENCE)) {
-        mediaSequence = parseLongAttr(line, REGEX_MEDIA_SEQUENCE);
+        mediaSequence = parseLongTagValue(line, TAG_MEDIA_SEQUENCE);
         segmentMediaSequence = mediaSequence;
       } else if (line.startsWith(TAG_VERSION)) {
-        version = parseIntAttr(line, REGEX_VERSION);
+        version = parseIntTagValue(line, TAG_VERSION);
       } else if (line.startsWith(TAG_DEFINE)) {
-        String importName = parseOptionalStringAttr(line, REGEX_IMPORT, variableDefinitions);
+        String importName = parseOptionalStringAttr(line, ATTR_IMPORT, variableDefinitions);
         if (importName != null) {
           String value = masterPlaylist.variableDefinitions.get(importName);
           if (value != null) {
@@ -663,28 +690,40 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
           }
         } else {
           variableDefinitions.put(
-              parseStringAttr(line, REGEX_NAME, variableDefinitions),
-              parseStringAttr(line, REGEX_VALUE, variableDefinitions));
+              parseStringAttr(line, ATTR_NAME, variableDefinitions),
+              parseStringAttr(line, ATTR_VALUE, variableDefinitions));
         }
       } else if (line.startsWith(TAG_MEDIA_DURATION)) {
+        int durationStart = indexOfTagValue(line, TAG_MEDIA_DURATION);
+        int durationEnd = indexOfNumberEnd(line, durationStart, /* isDecimal= */ true);
+        if (durationEnd == durationStart) {
+          throw new ParserException("Couldn't match " + TAG_MEDIA_DURATION + " in " + line);
+        }
         segmentDurationUs =
-            (long) (parseDoubleAttr(line, REGEX_MEDIA_DURATION) * C.MICROS_PER_SECOND);
-        segmentTitle = parseOptionalStringAttr(line, REGEX_MEDIA_TITLE, "", variableDefinitions);
+            (long)
+                (Double.parseDouble(line.substring(durationStart, durationEnd))
+                    * C.MICROS_PER_SECOND);
+        // The optional title follows the comma after the duration.
+        segmentTitle =
+            durationEnd + 1 < line.length() && line.charAt(durationEnd) == ','
+                ? replaceVariableReferences(line.substring(durationEnd + 1), variableDefinitions)
+                : "";
       } else if (line.startsWith(TAG_KEY)) {
-        String method = parseStringAttr(line, REGEX_METHOD, variableDefinitions);
+        String method =
+            parseEnumeratedStringAttr(line, ATTR_METHOD, METHODS, variableDefinitions);
         String keyFormat =
-            parseOptionalStringAttr(line, REGEX_KEYFORMAT, KEYFORMAT_IDENTITY, variableDefinitions);
+            parseOptionalStringAttr(line, ATTR_KEYFORMAT, KEYFORMAT_IDENTITY, variableDefinitions);
         fullSegmentEncryptionKeyUri = null;
         fullSegmentEncryptionIV = null;
         if (METHOD_NONE.equals(method)) {
           currentSchemeDatas.clear();
           cachedDrmInitData = null;
         } else /* !METHOD_NONE.equals(method) */ {
-          fullSegmentEncryptionIV = parseOptionalStringAttr(line, REGEX_IV, variableDefinitions);
+          fullSegmentEncryptionIV = parseOptionalStringAttr(line, ATTR_IV, variableDefinitions);
           if (KEYFORMAT_IDENTITY.equals(keyFormat)) {
             if (METHOD_AES_128.equals(method)) {
               // The segment is fully encrypted using an identity key.
-              fullSegmentEncryptionKeyUri = parseStringAttr(line, REGEX_URI, variableDefinitions);
+              fullSegmentEncryptionKeyUri = parseStringAttr(line, ATTR_URI, variableDefinitions);
             } else {
               // Do nothing. Samples are encrypted using an identity key, but this is not supported.
               // Hopefully, a traditional DRM alternative is also provided.
@@ -701,7 +740,7 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
           }
         }
       } else if (line.startsWith(TAG_BYTERANGE)) {
-        String byteRange = parseStringAttr(line, REGEX_BYTERANGE, variableDefinitions);
+        String byteRange = parseStringTagValue(line, TAG_BYTERANGE, variableDefinitions);
         String[] splitByteRange = byteRange.split("@");
         segmentByteRangeLength = Long.parseLong(splitByteRange[0]);
         if (splitByteRange.length > 1) {
@@ -796,13 +835,13 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
   @C.SelectionFlags
   private static int parseSelectionFlags(String line) {
     int flags = 0;
-    if (parseOptionalBooleanAttribute(line, REGEX_DEFAULT, false)) {
+    if (parseOptionalBooleanAttribute(line, ATTR_DEFAULT, false)) {
       flags |= C.SELECTION_FLAG_DEFAULT;
     }
-    if (parseOptionalBooleanAttribute(line, REGEX_FORCED, false)) {
+    if (parseOptionalBooleanAttribute(line, ATTR_FORCED, false)) {
       flags |= C.SELECTION_FLAG_FORCED;
     }
-    if (parseOptionalBooleanAttribute(line, REGEX_AUTOSELECT, false)) {
+    if (parseOptionalBooleanAttribute(line, ATTR_AUTOSELECT, false)) {
       flags |= C.SELECTION_FLAG_AUTOSELECT;
     }
     return flags;
@@ -811,7 +850,7 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
   @C.RoleFlags
   private static int parseRoleFlags(String line, Map<String, String> variableDefinitions) {
     String concatenatedCharacteristics =
-        parseOptionalStringAttr(line, REGEX_CHARACTERISTICS, variableDefinitions);
+        parseOptionalStringAttr(line, ATTR_CHARACTERISTICS, variableDefinitions);
     if (TextUtils.isEmpty(concatenatedCharacteristics)) {
       return 0;
     }
@@ -837,9 +876,9 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
       String line, String keyFormat, Map<String, String> variableDefinitions)
       throws ParserException {
     String keyFormatVersions =
-        parseOptionalStringAttr(line, REGEX_KEYFORMATVERSIONS, "1", variableDefinitions);
+        parseOptionalStringAttr(line, ATTR_KEYFORMATVERSIONS, "1", variableDefinitions);
     if (KEYFORMAT_WIDEVINE_PSSH_BINARY.equals(keyFormat)) {
-      String uriString = parseStringAttr(line, REGEX_URI, variableDefinitions);
+      String uriString = parseStringAttr(line, ATTR_URI, variableDefinitions);
       return new SchemeData(
           C.WIDEVINE_UUID,
           MimeTypes.VIDEO_MP4,
@@ -847,7 +886,7 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
     } else if (KEYFORMAT_WIDEVINE_PSSH_JSON.equals(keyFormat)) {
       return new SchemeData(C.WIDEVINE_UUID, "hls", Util.getUtf8Bytes(line));
     } else if (KEYFORMAT_PLAYREADY.equals(keyFormat) && "1".equals(keyFormatVersions)) {
-      String uriString = parseStringAttr(line, REGEX_URI, variableDefinitions);
+      String uriString = parseStringAttr(line, ATTR_URI, variableDefinitions);
       byte[] data = Base64.decode(uriString.substring(uriString.indexOf(',')), Base64.DEFAULT);
       byte[] psshData = PsshAtomUtil.buildPsshAtom(C.PLAYREADY_UUID, data);
       return new SchemeData(C.PLAYREADY_UUID, MimeTypes.VIDEO_MP4, psshData);
@@ -861,83 +900,251 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
         : C.CENC_TYPE_cbcs;
   }
 
-  private static int parseIntAttr(String line, Pattern pattern) throws ParserException {
-    return Integer.parseInt(parseStringAttr(line, pattern, Collections.emptyMap()));
+  private static int parseIntAttr(String line, String attributeName) throws ParserException {
+    return Integer.parseInt(parseNumberAttr(line, attributeName));
+  }
+
+  private static int parseOptionalIntAttr(String line, String attributeName, int defaultValue) {
+    int valueStart = indexOfAttributeValue(line, attributeName);
+    int valueEnd = indexOfNumberEnd(line, valueStart, /* isDecimal= */ false);
+    return valueEnd != valueStart
+        ? Integer.parseInt(line.substring(valueStart, valueEnd))
+        : defaultValue;
   }
 
-  private static int parseOptionalIntAttr(String line, Pattern pattern, int defaultValue) {
-    Matcher matcher = pattern.matcher(line);
-    if (matcher.find()) {
-      return Integer.parseInt(matcher.group(1));
+  private static double parseDoubleAttr(String line, String attributeName)
+      throws ParserException {
+    int valueStart = indexOfAttributeValue(line, attributeName);
+    boolean isNegative =
+        valueStart != C.INDEX_UNSET && valueStart < line.length() && line.charAt(valueStart) == '-';
+    int numberStart = isNegative ? valueStart + 1 : valueStart;
+    int numberEnd = indexOfNumberEnd(line, numberStart, /* isDecimal= */ true);
+    if (numberEnd == numberStart) {
+      throw new ParserException("Couldn't match " + attributeName + " in " + line);
     }
-    return defaultValue;
+    double value = Double.parseDouble(line.substring(numberStart, numberEnd));
+    return isNegative ? -value : value;
   }
 
-  private static long parseLongAttr(String line, Pattern pattern) throws ParserException {
-    return Long.parseLong(parseStringAttr(line, pattern, Collections.emptyMap()));
+  private static String parseNumberAttr(String line, String attributeName)
+      throws ParserException {
+    int valueStart = indexOfAttributeValue(line, attributeName);
+    int valueEnd = indexOfNumberEnd(line, valueStart, /* isDecimal= */ false);
+    if (valueEnd == valueStart) {
+      throw new ParserException("Couldn't match " + attributeName + " in " + line);
+    }
+    return line.substring(valueStart, valueEnd);
+  }
+
+  private static int parseIntTagValue(String line, String tag) throws ParserException {
+    return Integer.parseInt(parseNumberTagValue(line, tag));
+  }
+
+  private static long parseLongTagValue(String line, String tag) throws ParserException {
+    return Long.parseLong(parseNumberTagValue(line, tag));
   }
 
-  private static double parseDoubleAttr(String line, Pattern pattern) throws ParserException {
-    return Double.parseDouble(parseStringAttr(line, pattern, Collections.emptyMap()));
+  private static String parseNumberTagValue(String line, String tag) throws ParserException {
+    int valueStart = indexOfTagValue(line, tag);
+    int valueEnd = indexOfNumberEnd(line, valueStart, /* isDecimal= */ false);
+    if (valueEnd == valueStart) {
+      throw new ParserException("Couldn't match " + tag + " in " + line);
+    }
+    return line.substring(valueStart, valueEnd);
+  }
+
+  private static String parseStringTagValue(
+      String line, String tag, Map<String, String> variableDefinitions) throws ParserException {
+    int valueStart = indexOfTagValue(line, tag);
+    if (valueStart == C.INDEX_UNSET || valueStart == line.length()) {
+      throw new ParserException("Couldn't match " + tag + " in " + line);
+    }
+    return replaceVariableReferences(line.substring(valueStart), variableDefinitions);
   }
 
   private static String parseStringAttr(
-      String line, Pattern pattern, Map<String, String> variableDefinitions)
+      String line, String attributeName, Map<String, String> variableDefinitions)
       throws ParserException {
-    String value = parseOptionalStringAttr(line, pattern, variableDefinitions);
+    String value = parseOptionalStringAttr(line, attributeName, variableDefinitions);
     if (value != null) {
       return value;
     } else {
-      throw new ParserException("Couldn't match " + pattern.pattern() + " in " + line);
+      throw new ParserException("Couldn't match " + attributeName + " in " + line);
     }
   }
 
+  private static String parseEnumeratedStringAttr(
+      String line,
+      String attributeName,
+      String[] enumeratedValues,
+      Map<String, String> variableDefinitions)
+      throws ParserException {
+    String value = parseStringAttr(line, attributeName, variableDefinitions);
+    if (!Util.contains(enumeratedValues, value)) {
+      throw new ParserException("Couldn't match " + attributeName + " in " + line);
+    }
+    return value;
+  }
+
   private static @Nullable String parseOptionalStringAttr(
-      String line, Pattern pattern, Map<String, String> variableDefinitions) {
-    return parseOptionalStringAttr(line, pattern, null, variableDefinitions);
+      String line, String attributeName, Map<String, String> variableDefinitions) {
+    return parseOptionalStringAttr(line, attributeName, null, variableDefinitions);
   }
 
   private static @PolyNull String parseOptionalStringAttr(
       String line,
-      Pattern pattern,
+      String attributeName,
       @PolyNull String defaultValue,
       Map<String, String> variableDefinitions) {
-    Matcher matcher = pattern.matcher(line);
-    String value = matcher.find() ? matcher.group(1) : defaultValue;
+    String value = defaultValue;
+    int valueStart = indexOfAttributeValue(line, attributeName);
+    if (valueStart != C.INDEX_UNSET) {
+      int valueEnd;
+      if (valueStart < line.length() && line.charAt(valueStart) == '"') {
+        valueStart++;
+        valueEnd = line.indexOf('"', valueStart);
+      } else {
+        valueEnd = line.indexOf(',', valueStart);
+        if (valueEnd == C.INDEX_UNSET) {
+          valueEnd = line.length();
+        }
+        while (valueEnd > valueStart && line.charAt(valueEnd - 1) == ' ') {
+          valueEnd--;
+        }
+      }
+      if (valueEnd > valueStart) {
+        value = line.substring(valueStart, valueEnd);
+      }
+    }
     return variableDefinitions.isEmpty() || value == null
         ? value
         : replaceVariableReferences(value, variableDefinitions);
   }
 
+  /**
+   * Returns the index of the first character of the value of an attribute in the attribute list of
+   * a tag, or {@link C#INDEX_UNSET} if the attribute list doesn't contain the attribute. The index
+   * points to the opening quote if the value is a quoted string.
+   *
+   * <p>The attribute list is tokenized in a single pass without allocating, skipping over quoted
+   * strings so that attribute names are never matched inside other values.
+   */
+  private static int indexOfAttributeValue(String line, String attributeName) {
+    int length = line.length();
+    int nameLength = attributeName.length();
+    int position = line.indexOf(':') + 1;
+    if (position == 0) {
+      return C.INDEX_UNSET;
+    }
+    while (position < length) {
+      while (position < length && line.charAt(position) == ' ') {
+        position++;
+      }
+      int equalsIndex = line.indexOf('=', position);
+      if (equalsIndex == C.INDEX_UNSET) {
+        return C.INDEX_UNSET;
+      }
+      int valueStart = equalsIndex + 1;
+      if (equalsIndex - position == nameLength
+          && line.regionMatches(position, attributeName, 0, nameLength)) {
+        return valueStart;
+      }
+      position = valueStart;
+      if (position < length && line.charAt(position) == '"') {
+        int closingQuoteIndex = line.indexOf('"', position + 1);
+        if (closingQuoteIndex == C.INDEX_UNSET) {
+          return C.INDEX_UNSET;
+        }
+        position = closingQuoteIndex + 1;
+      }
+      int commaIndex = line.indexOf(',', position);
+      if (commaIndex == C.INDEX_UNSET) {
+        return C.INDEX_UNSET;
+      }
+      position = commaIndex + 1;
+    }
+    return C.INDEX_UNSET;
+  }
+
+  /**
+   * Returns the index of the first character of the value of a tag, or {@link C#INDEX_UNSET} if
+   * the tag has no value. The line must start with the tag.
+   */
+  private static int indexOfTagValue(String line, String tag) {
+    int colonIndex = tag.length();
+    return colonIndex < line.length() && line.charAt(colonIndex) == ':'
+        ? colonIndex + 1
+        : C.INDEX_UNSET;
+  }
+
+  /**
+   * Returns the index after the last character of the unsigned number that starts at {@code
+   * start}, which is equal to {@code start} if there's no number at that index.
+   */
+  private static int indexOfNumberEnd(String line, int start, boolean isDecimal) {
+    if (start == C.INDEX_UNSET) {
+      return C.INDEX_UNSET;
+    }
+    int end = start;
+    while (end < line.length()) {
+      char c = line.charAt(end);
+      if ((c < '0' || c > '9') && (!isDecimal || c != '.')) {
+        break;
+      }
+      end++;
+    }
+    return end;
+  }
+
   private static String replaceVariableReferences(
       String string, Map<String, String> variableDefinitions) {
-    Matcher matcher = REGEX_VARIABLE_REFERENCE.matcher(string);
-    // TODO: Replace StringBuffer with StringBuilder once Java 9 is available.
-    StringBuffer stringWithReplacements = new StringBuffer();
-    while (matcher.find()) {
-      String groupName = matcher.group(1);
-      if (variableDefinitions.containsKey(groupName)) {
-        matcher.appendReplacement(
-            stringWithReplacements, Matcher.quoteReplacement(variableDefinitions.get(groupName)));
+    int referenceStart = string.indexOf(VARIABLE_REFERENCE_PREFIX);
+    if (referenceStart == C.INDEX_UNSET) {
+      return string;
+    }
+    StringBuilder stringWithReplacements = null;
+    int copiedEnd = 0;
+    while (referenceStart != C.INDEX_UNSET) {
+      int nameStart = referenceStart + VARIABLE_REFERENCE_PREFIX.length();
+      int nameEnd = nameStart;
+      while (nameEnd < string.length() && isVariableNameCharacter(string.charAt(nameEnd))) {
+        nameEnd++;
+      }
+      if (nameEnd == nameStart || nameEnd == string.length() || string.charAt(nameEnd) != '}') {
+        // Not a variable reference.
+        referenceStart = string.indexOf(VARIABLE_REFERENCE_PREFIX, nameStart);
+        continue;
+      }
+      String value = variableDefinitions.get(string.substring(nameStart, nameEnd));
+      if (value != null) {
+        if (stringWithReplacements == null) {
+          stringWithReplacements = new StringBuilder(string.length() + value.length());
+        }
+        stringWithReplacements.append(string, copiedEnd, referenceStart).append(value);
+        copiedEnd = nameEnd + 1;
       } else {
         // The variable is not defined. The value is ignored.
       }
+      referenceStart = string.indexOf(VARIABLE_REFERENCE_PREFIX, nameEnd + 1);
+    }
+    if (stringWithReplacements == null) {
+      return string;
     }
-    matcher.appendTail(stringWithReplacements);
-    return stringWithReplacements.toString();
+    return stringWithReplacements.append(string, copiedEnd, string.length()).toString();
   }
 
-  private static boolean parseOptionalBooleanAttribute(
-      String line, Pattern pattern, boolean defaultValue) {
-    Matcher matcher = pattern.matcher(line);
-    if (matcher.find()) {
-      return matcher.group(1).equals(BOOLEAN_TRUE);
-    }
-    return defaultValue;
+  private static boolean isVariableNameCharacter(char c) {
+    return (c >= 'a' && c <= 'z')
+        || (c >= 'A' && c <= 'Z')
+        || (c >= '0' && c <= '9')
+        || c == '-'
+        || c == '_';
   }
 
-  private static Pattern compileBooleanAttrPattern(String attribute) {
-    return Pattern.compile(attribute + "=(" + BOOLEAN_FALSE + "|" + BOOLEAN_TRUE + ")");
+  private static boolean parseOptionalBooleanAttribute(
+      String line, String attributeName, boolean defaultValue) {
+    String value = parseOptionalStringAttr(line, attributeName, Collections.emptyMap());
+    return value != null ? value.equals(BOOLEAN_TRUE) : defaultValue;
   }
 
   private static class LineIterator {
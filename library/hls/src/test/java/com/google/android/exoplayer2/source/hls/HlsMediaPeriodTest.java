@@ -93,7 +93,8 @@ public final class HlsMediaPeriodTest {
               mock(CompositeSequenceableLoaderFactory.class),
               /* allowChunklessPreparation =*/ true,
               HlsMetadataType.ID3,
-              /* useSessionKeys= */ false);
+              /* useSessionKeys= */ false,
+              /* trickPlayTracksEnabled= */ false);
         };
 
     MediaPeriodAsserts.assertGetStreamKeysAndManifestFilterIntegration(
@@ -110,6 +111,7 @@ public final class HlsMediaPeriodTest {
         "http://baseUri",
         /* tags= */ Collections.emptyList(),
         variants,
+        /* iFrameVariants= */ Collections.emptyList(),
         /* videos= */ Collections.emptyList(),
         audios,
         subtitles,
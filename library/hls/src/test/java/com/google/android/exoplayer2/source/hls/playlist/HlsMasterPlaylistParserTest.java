@@ -150,6 +150,13 @@ public class HlsMasterPlaylistParserTest {
           + "#EXT-X-STREAM-INF:BANDWIDTH=65000,CODECS=\"{$codecs}\"\n"
           + "http://example.com/{$tricky}\n";
 
+  private static final String PLAYLIST_WITH_I_FRAME_STREAM_INF =
+      "#EXTM3U\n"
+          + "#EXT-X-STREAM-INF:BANDWIDTH=1280000,CODECS=\"avc1.4d001f\",RESOLUTION=1280x720\n"
+          + "http://example.com/hi.m3u8\n"
+          + "#EXT-X-I-FRAME-STREAM-INF:BANDWIDTH=86000,CODECS=\"avc1.4d001f\","
+          + "RESOLUTION=1280x720,URI=\"http://example.com/iframe.m3u8\"\n";
+
   private static final String PLAYLIST_WITH_MATCHING_STREAM_INF_URLS =
       "#EXTM3U\n"
           + "#EXT-X-VERSION:6\n"
@@ -334,6 +341,22 @@ public class HlsMasterPlaylistParserTest {
     assertThat(playlistWithoutIndependentSegments.hasIndependentSegments).isFalse();
   }
 
+  @Test
+  public void testIFrameStreamInf() throws IOException {
+    HlsMasterPlaylist playlist =
+        parseMasterPlaylist(PLAYLIST_URI, PLAYLIST_WITH_I_FRAME_STREAM_INF);
+
+    assertThat(playlist.variants).hasSize(1);
+    assertThat(playlist.mediaPlaylistUrls).containsExactly(Uri.parse("http://example.com/hi.m3u8"));
+    assertThat(playlist.iFrameVariants).hasSize(1);
+    HlsMasterPlaylist.Variant iFrameVariant = playlist.iFrameVariants.get(0);
+    assertThat(iFrameVariant.url).isEqualTo(Uri.parse("http://example.com/iframe.m3u8"));
+    assertThat(iFrameVariant.format.bitrate).isEqualTo(86000);
+    assertThat(iFrameVariant.format.height).isEqualTo(720);
+    assertThat(iFrameVariant.format.codecs).isEqualTo("avc1.4d001f");
+    assertThat(iFrameVariant.format.roleFlags).isEqualTo(C.ROLE_FLAG_TRICK_PLAY);
+  }
+
   @Test
   public void testVariableSubstitution() throws IOException {
     HlsMasterPlaylist playlistWithSubstitutions =
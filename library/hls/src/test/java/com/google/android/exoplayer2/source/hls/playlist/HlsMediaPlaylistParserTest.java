@@ -302,6 +302,26 @@ public class HlsMediaPlaylistParserTest {
     assertThat(playlist.segments.get(6).drmInitData).isNull();
   }
 
+  @Test
+  public void testAttributeNamesInQuotedStringsAreIgnored() throws IOException {
+    Uri playlistUri = Uri.parse("https://example.com/test.m3u8");
+    String playlistString =
+        "#EXTM3U\n"
+            + "#EXT-X-MEDIA-SEQUENCE:10\n"
+            + "#EXT-X-KEY:URI=\"https://example.com/key?IV=0x1,METHOD=NONE\",METHOD=AES-128\n"
+            + "#EXTINF:5.005,\n"
+            + "segment.ts\n";
+    InputStream inputStream = new ByteArrayInputStream(Util.getUtf8Bytes(playlistString));
+    HlsMediaPlaylist playlist =
+        (HlsMediaPlaylist) new HlsPlaylistParser().parse(playlistUri, inputStream);
+
+    Segment segment = playlist.segments.get(0);
+    assertThat(segment.fullSegmentEncryptionKeyUri)
+        .isEqualTo("https://example.com/key?IV=0x1,METHOD=NONE");
+    // The IV is derived from the media sequence number, as the tag has no IV attribute.
+    assertThat(Util.toUpperInvariant(segment.encryptionIV)).isEqualTo("A");
+  }
+
   @Test
   public void testGapTag() throws IOException {
     Uri playlistUri = Uri.parse("https://example.com/test2.m3u8");
@@ -451,6 +471,7 @@ public class HlsMediaPlaylistParserTest {
             /* baseUri= */ "https://example.com/",
             /* tags= */ Collections.emptyList(),
             /* variants= */ Collections.emptyList(),
+            /* iFrameVariants= */ Collections.emptyList(),
             /* videos= */ Collections.emptyList(),
             /* audios= */ Collections.emptyList(),
             /* subtitles= */ Collections.emptyList(),
@@ -513,6 +534,7 @@ public class HlsMediaPlaylistParserTest {
             /* baseUri= */ "",
             /* tags= */ Collections.emptyList(),
             /* variants= */ Collections.emptyList(),
+            /* iFrameVariants= */ Collections.emptyList(),
             /* videos= */ Collections.emptyList(),
             /* audios= */ Collections.emptyList(),
             /* subtitles= */ Collections.emptyList(),
@@ -528,4 +550,33 @@ public class HlsMediaPlaylistParserTest {
       assertThat(playlist.segments.get(i - 1).url).isEqualTo("long_path" + i + ".ts");
     }
   }
+
+  @Test
+  public void testParseMediaPlaylistWithManySegments() throws IOException {
+    Uri playlistUri = Uri.parse("https://example.com/test.m3u8");
+    int segmentCount = 10000;
+    StringBuilder playlistString =
+        new StringBuilder("#EXTM3U\n#EXT-X-TARGETDURATION:4\n#EXT-X-MEDIA-SEQUENCE:100\n");
+    for (int i = 0; i < segmentCount; i++) {
+      playlistString
+          .append("#EXTINF:4.004,title ")
+          .append(i)
+          .append("\n#EXT-X-BYTERANGE:1000\nsegment.ts\n");
+    }
+    playlistString.append("#EXT-X-ENDLIST\n");
+    InputStream inputStream =
+        new ByteArrayInputStream(Util.getUtf8Bytes(playlistString.toString()));
+    HlsMediaPlaylist playlist =
+        (HlsMediaPlaylist) new HlsPlaylistParser().parse(playlistUri, inputStream);
+
+    assertThat(playlist.mediaSequence).isEqualTo(100);
+    assertThat(playlist.hasEndTag).isTrue();
+    assertThat(playlist.segments).hasSize(segmentCount);
+    Segment lastSegment = playlist.segments.get(segmentCount - 1);
+    assertThat(lastSegment.durationUs).isEqualTo(4004000);
+    assertThat(lastSegment.title).isEqualTo("title " + (segmentCount - 1));
+    assertThat(lastSegment.relativeStartTimeUs).isEqualTo((segmentCount - 1) * 4004000L);
+    assertThat(lastSegment.byterangeOffset).isEqualTo((segmentCount - 1) * 1000L);
+    assertThat(lastSegment.byterangeLength).isEqualTo(1000);
+  }
 }
@@ -82,6 +82,7 @@ public final class ExoPlayerTestRunner implements Player.EventListener, ActionSc
     private ActionSchedule actionSchedule;
     private Player.EventListener eventListener;
     private AnalyticsListener analyticsListener;
+    private AnalyticsCollector analyticsCollector;
     private Integer expectedPlayerEndedCount;
 
     /**
@@ -257,6 +258,18 @@ public final class ExoPlayerTestRunner implements Player.EventListener, ActionSc
       return this;
     }
 
+    /**
+     * Sets the {@link AnalyticsCollector} of the player. The default is an {@link
+     * AnalyticsCollector} using the clock of the test runner.
+     *
+     * @param analyticsCollector The {@link AnalyticsCollector} of the player.
+     * @return This builder.
+     */
+    public Builder setAnalyticsCollector(AnalyticsCollector analyticsCollector) {
+      this.analyticsCollector = analyticsCollector;
+      return this;
+    }
+
     /**
      * Sets the number of times the test runner is expected to reach the {@link Player#STATE_ENDED}
      * or {@link Player#STATE_IDLE}. The default is 1. This affects how long
@@ -305,6 +318,9 @@ public final class ExoPlayerTestRunner implements Player.EventListener, ActionSc
       if (clock == null) {
         clock = new AutoAdvancingFakeClock();
       }
+      if (analyticsCollector == null) {
+        analyticsCollector = new AnalyticsCollector(clock);
+      }
       if (mediaSource == null) {
         if (timeline == null) {
           timeline = new FakeTimeline(/* windowCount= */ 1, manifest);
@@ -325,6 +341,7 @@ public final class ExoPlayerTestRunner implements Player.EventListener, ActionSc
           actionSchedule,
           eventListener,
           analyticsListener,
+          analyticsCollector,
           expectedPlayerEndedCount);
     }
   }
@@ -339,6 +356,7 @@ public final class ExoPlayerTestRunner implements Player.EventListener, ActionSc
   @Nullable private final ActionSchedule actionSchedule;
   @Nullable private final Player.EventListener eventListener;
   @Nullable private final AnalyticsListener analyticsListener;
+  private final AnalyticsCollector analyticsCollector;
 
   private final HandlerThread playerThread;
   private final HandlerWrapper handler;
@@ -365,6 +383,7 @@ public final class ExoPlayerTestRunner implements Player.EventListener, ActionSc
       @Nullable ActionSchedule actionSchedule,
       @Nullable Player.EventListener eventListener,
       @Nullable AnalyticsListener analyticsListener,
+      AnalyticsCollector analyticsCollector,
       int expectedPlayerEndedCount) {
     this.context = context;
     this.clock = clock;
@@ -376,6 +395,7 @@ public final class ExoPlayerTestRunner implements Player.EventListener, ActionSc
     this.actionSchedule = actionSchedule;
     this.eventListener = eventListener;
     this.analyticsListener = analyticsListener;
+    this.analyticsCollector = analyticsCollector;
     this.timelines = new ArrayList<>();
     this.timelineChangeReasons = new ArrayList<>();
     this.periodIndices = new ArrayList<>();
@@ -416,7 +436,7 @@ public final class ExoPlayerTestRunner implements Player.EventListener, ActionSc
                     .setTrackSelector(trackSelector)
                     .setLoadControl(loadControl)
                     .setBandwidthMeter(bandwidthMeter)
-                    .setAnalyticsCollector(new AnalyticsCollector(clock))
+                    .setAnalyticsCollector(analyticsCollector)
                     .setClock(clock)
                     .setLooper(Looper.myLooper())
                     .build();